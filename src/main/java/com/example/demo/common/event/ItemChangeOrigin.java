@@ -0,0 +1,62 @@
+package com.example.demo.common.event;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * itemの変更元（利用者、画面）
+ *
+ * itemを変更したリクエストの利用者、画面をイベントに持たせる。
+ * 書き込みスレッド等、リクエスト外で変更する場合も記録できるよう、リクエストのスレッドで取得して引き渡す。
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ItemChangeOrigin {
+
+    /** リクエスト外の変更 */
+    public static final ItemChangeOrigin NONE = new ItemChangeOrigin(null, null);
+
+    /** 利用者のリクエスト属性名（AccessUserAttributeFilterが設定する） */
+    static final String USER_ID_ATTRIBUTE = "userId";
+
+    /** 利用者（リクエスト外、未認証の場合はnull） */
+    private final String userId;
+
+    /** 画面（リクエストパスの先頭。例：/WBA0501/update の場合はWBA0501。リクエスト外の場合はnull） */
+    private final String screen;
+
+    /**
+     * 現在のリクエストの変更元を取得する
+     * @return 変更元。リクエスト外の場合はNONE
+     */
+    public static ItemChangeOrigin current() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return NONE;
+        }
+        return new ItemChangeOrigin(
+                (String) attributes.getAttribute(USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST),
+                screenOf(attributes.getRequest().getServletPath()));
+    }
+
+    /**
+     * リクエストパスから画面を求める
+     * @param path リクエストパス
+     * @return 画面。パスが無い場合はnull
+     */
+    static String screenOf(String path) {
+        if (path == null || path.isEmpty() || path.equals("/")) {
+            return null;
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return path.substring(start, end < 0 ? path.length() : end);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.common.event;
+
+import com.example.demo.entity.Item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * item変更イベント
+ * 
+ * itemの登録、更新、削除を行ったサービスが、同一トランザクション内で発行する。
+ * キャッシュ等、コミット後に反映が必要な処理はトランザクションイベントとして受信する。
+ * 変更元は生成時のリクエストから取得する（リクエスト外で発行する場合は、リクエストで取得した変更元を指定する）。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemChangedEvent {
+
+    /** 変更前（登録の場合はnull） */
+    private final Item before;
+
+    /** 変更後（削除の場合はnull） */
+    private final Item after;
+
+    /** 変更元 */
+    private final ItemChangeOrigin origin;
+
+    /**
+     * 登録イベントを生成する
+     * @param after 登録したitem
+     * @return イベント
+     */
+    public static ItemChangedEvent inserted(Item after) {
+        return inserted(after, ItemChangeOrigin.current());
+    }
+
+    /**
+     * 変更元を指定して登録イベントを生成する
+     * @param after 登録したitem
+     * @param origin 変更元
+     * @return イベント
+     */
+    public static ItemChangedEvent inserted(Item after, ItemChangeOrigin origin) {
+        return new ItemChangedEvent(null, after, origin);
+    }
+
+    /**
+     * 更新イベントを生成する
+     * @param before 更新前のitem
+     * @param after 更新後のitem
+     * @return イベント
+     */
+    public static ItemChangedEvent updated(Item before, Item after) {
+        return new ItemChangedEvent(before, after, ItemChangeOrigin.current());
+    }
+
+    /**
+     * 削除イベントを生成する
+     * @param before 削除したitem
+     * @return イベント
+     */
+    public static ItemChangedEvent deleted(Item before) {
+        return new ItemChangedEvent(before, null, ItemChangeOrigin.current());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.common.event;
+
+import java.util.List;
+
+import com.example.demo.entity.Item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * item一括削除イベント
+ *
+ * 複数のitemをまとめて削除したサービスが、同一トランザクション内で1回だけ発行する。
+ * 同一トランザクション内で受信する処理は、item単位ではなくまとめて（1回の問い合わせで）反映する。
+ * 1件ずつ削除した場合と同じ結果になるよう、ItemChangedEventを受信する処理は全てこのイベントも受信する。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemsDeletedEvent {
+
+    /** 削除したitem（削除前の内容。ID順とは限らない） */
+    private final List<Item> items;
+
+    /** 変更元 */
+    private final ItemChangeOrigin origin;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * item一括価格改定イベント
+ * 
+ * item分類内のIDの範囲を1回の更新で価格改定したサービスが、同一トランザクション内で発行する。
+ * 更新したitemはデータベースから取得しないため、個々のitemは保持しない。
+ * item単位で反映するキャッシュ等は、対象を特定できないため全体を破棄する。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemsRepricedEvent {
+
+    /** item分類 */
+    private final String groupid;
+
+    /** 改定率（％） */
+    private final int percent;
+
+    /** 対象IDの下限（この値を含まない。先頭の場合はnull） */
+    private final Integer afterId;
+
+    /** 対象IDの上限（この値を含む） */
+    private final int lastId;
+
+    /** 変更元 */
+    private final ItemChangeOrigin origin;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.common.event;
+
+import java.util.List;
+
+import com.example.demo.entity.Item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * item一括更新イベント
+ *
+ * 複数のitemをまとめて更新したサービスが、同一トランザクション内で1回だけ発行する。
+ * 同一トランザクション内で受信する処理は、item単位ではなくまとめて（1回または少ない回数の問い合わせで）反映する。
+ * 1件ずつ更新した場合と同じ結果になるよう、ItemChangedEventを受信する処理は全てこのイベントも受信する。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemsUpdatedEvent {
+
+    /** 更新前のitem（ID順とは限らない） */
+    private final List<Item> befores;
+
+    /** 更新後のitem（更新前と同じ順） */
+    private final List<Item> afters;
+
+    /** 変更元 */
+    private final ItemChangeOrigin origin;
+}
@@ -0,0 +1,169 @@
+package com.example.demo.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 件数と重みで上限を設けたLRUキャッシュ
+ * 
+ * 件数上限または重みの合計の上限を超えた場合、最も長く参照されていないエントリから追い出す。
+ * ヒット数、ミス数、追い出し数、件数、重みをメトリクスとして登録する（タグ cache=キャッシュ名）。
+ * @param <K> キー
+ * @param <V> 値
+ */
+public class BoundedCache<K, V> {
+
+    /** エントリ（参照順） */
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 最大件数 */
+    private final int maxEntries;
+
+    /** 最大重み */
+    private final long maxWeight;
+
+    /** 重みの算出方法 */
+    private final ToIntFunction<V> weigher;
+
+    /** 現在の重みの合計 */
+    private long weight;
+
+    /** ヒット数 */
+    private final Counter hits;
+
+    /** ミス数 */
+    private final Counter misses;
+
+    /** 追い出し数（上限超過による追い出しと、無効化による削除） */
+    private final Counter evictions;
+
+    /**
+     * コンストラクタ
+     * @param name キャッシュ名
+     * @param maxEntries 最大件数
+     * @param maxWeight 最大重み
+     * @param weigher 重みの算出方法
+     * @param registry メトリクス登録先
+     */
+    public BoundedCache(String name, int maxEntries, long maxWeight, ToIntFunction<V> weigher, MeterRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name).register(registry);
+        Gauge.builder("cache.size", this, BoundedCache::size).tag("cache", name).register(registry);
+        Gauge.builder("cache.weight", this, BoundedCache::weight).tag("cache", name).register(registry);
+    }
+
+    /**
+     * 取得する
+     * @param key キー
+     * @return 値。存在しない場合はnull
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 格納する
+     * 単独で最大重みを超える値は格納しない
+     * @param key キー
+     * @param value 値
+     */
+    public synchronized void put(K key, V value) {
+        int valueWeight = weigher.applyAsInt(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        V old = entries.put(key, value);
+        if (old != null) {
+            weight -= weigher.applyAsInt(old);
+        }
+        weight += valueWeight;
+
+        // 上限を超えた分を、参照が古い順に追い出す
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && it.hasNext()) {
+            Map.Entry<K, V> eldest = it.next();
+            weight -= weigher.applyAsInt(eldest.getValue());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * キーのエントリを削除する
+     * キーが分かっている場合は、全エントリを走査するinvalidateIfではなくこちらを使用する
+     * @param key キー
+     * @return 削除した場合true、エントリが無い場合false
+     */
+    public synchronized boolean remove(K key) {
+        V old = entries.remove(key);
+        if (old == null) {
+            return false;
+        }
+        weight -= weigher.applyAsInt(old);
+        evictions.increment();
+        return true;
+    }
+
+    /**
+     * 条件に合致するエントリを削除する
+     * 全エントリを走査するため、キーが分かっている場合はremoveを使用する
+     * @param condition 条件
+     * @return 削除件数
+     */
+    public synchronized int invalidateIf(BiPredicate<K, V> condition) {
+        int count = 0;
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
+            if (condition.test(entry.getKey(), entry.getValue())) {
+                weight -= weigher.applyAsInt(entry.getValue());
+                it.remove();
+                count++;
+            }
+        }
+        evictions.increment(count);
+        return count;
+    }
+
+    /**
+     * 全エントリを削除する
+     */
+    public synchronized void clear() {
+        evictions.increment(entries.size());
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * 件数
+     * @return 件数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 重みの合計
+     * @return 重みの合計
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.core.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * キューに溜まった要素をまとめて書き込むスレッド
+ *
+ * 書き込みスレッドは、キューに溜まっている要素を最大件数までまとめて書き込み処理に渡す（待ち合わせは行わない）。
+ * 書き込み処理の例外は失敗時の処理に渡し、次の要素の書き込みを続ける。
+ * 停止時は受付を止め、キューに溜まっている要素を書き込んでから停止する。
+ * @param <T> 要素
+ */
+public class BatchingWriter<T> {
+
+    /** キューが空の場合に、停止の確認のため待つ時間（ミリ秒） */
+    private static final long POLL_MILLIS = 100;
+
+    /** 停止時に、溜まっている要素の書き込みを待つ時間（ミリ秒） */
+    private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /** キュー */
+    private final BlockingQueue<T> queue;
+
+    /** 1回で書き込む最大件数 */
+    private final int maxBatch;
+
+    /** 書き込み処理 */
+    private final Consumer<List<T>> write;
+
+    /** 書き込みに失敗した場合の処理（書き込めなかった要素と例外） */
+    private final BiConsumer<List<T>, RuntimeException> onError;
+
+    /** 書き込みスレッド */
+    private final Thread thread;
+
+    /** 停止中の場合true */
+    private volatile boolean stopping;
+
+    /**
+     * コンストラクタ
+     * 書き込みスレッドはstartで開始する
+     * @param name 書き込みスレッド名
+     * @param capacity キューの最大件数
+     * @param maxBatch 1回で書き込む最大件数
+     * @param write 書き込み処理
+     * @param onError 書き込みに失敗した場合の処理
+     */
+    public BatchingWriter(String name, int capacity, int maxBatch, Consumer<List<T>> write,
+            BiConsumer<List<T>, RuntimeException> onError) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.write = write;
+        this.onError = onError;
+        this.thread = new Thread(this::drain, name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 書き込みスレッドを開始する
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * キューに入れる（待たない）
+     * @param element 要素
+     * @return 受け付けた場合true、キューが一杯、または停止中の場合false
+     */
+    public boolean offer(T element) {
+        return !stopping && queue.offer(element);
+    }
+
+    /**
+     * キューに入れる
+     * キューが一杯の場合は、指定した時間まで空きを待つ
+     * @param element 要素
+     * @param timeout 待ち時間
+     * @param unit 待ち時間の単位
+     * @return 受け付けた場合true、待ち時間を過ぎた、または停止中の場合false
+     * @throws InterruptedException 割り込まれた場合
+     */
+    public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        return !stopping && queue.offer(element, timeout, unit);
+    }
+
+    /**
+     * 停止中か
+     * @return 停止中の場合true
+     */
+    public boolean isStopping() {
+        return stopping;
+    }
+
+    /**
+     * キューに溜まっている件数
+     * @return 件数
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * 受付を止め、キューに溜まっている要素を書き込んでから停止する
+     * 待ち時間内に書き込めなかった要素はキューから削除する
+     * @return 書き込めずに削除した件数
+     * @throws InterruptedException 割り込まれた場合
+     */
+    public int stop() throws InterruptedException {
+        stopping = true;
+        if (thread.isAlive()) {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        }
+        int remaining = queue.size();
+        queue.clear();
+        return remaining;
+    }
+
+    /**
+     * 書き込みスレッドの処理
+     * キューに溜まっている要素を最大件数までまとめて書き込む
+     */
+    private void drain() {
+        List<T> batch = new ArrayList<>(maxBatch);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                onError.accept(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
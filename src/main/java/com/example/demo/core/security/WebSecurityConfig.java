@@ -2,6 +2,7 @@ package com.example.demo.core.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -21,9 +22,11 @@ public class WebSecurityConfig {
         // ログアウト
         ).logout(logout -> logout
             .logoutSuccessUrl("/login")
+        // API（/api/**）を下流システムから呼び出すためのBasic認証
+        ).httpBasic(Customizer.withDefaults()
         ).authorizeHttpRequests(authz -> authz
-            // item更新画面とitem削除画面はDATA_MANAGERロールを保持しているユーザのみアクセス可能
-            .requestMatchers("/WBA0401/**", "/WBA0501/**").hasRole("DATA_MANAGER")
+            // item更新画面、item削除画面、item一括登録画面、item一括価格改定画面はDATA_MANAGERロールを保持しているユーザのみアクセス可能
+            .requestMatchers("/WBA0401/**", "/WBA0501/**", "/WBA0601/**", "/WBA0701/**").hasRole("DATA_MANAGER")
             .requestMatchers("/h2-console/**").permitAll()
             .requestMatchers("/actuator/**").permitAll()
             // その他画面は認証済みが必須
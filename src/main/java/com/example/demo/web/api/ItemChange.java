@@ -0,0 +1,51 @@
+package com.example.demo.web.api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * itemの変更履歴
+ * 
+ * 登録、更新の場合は変更後のitemを保持する。削除の場合はIDと削除時のバージョン番号だけを保持する。
+ */
+@Data
+public class ItemChange {
+
+    /** 登録 */
+    public static final String INSERT = "INSERT";
+
+    /** 更新 */
+    public static final String UPDATE = "UPDATE";
+
+    /** 削除 */
+    public static final String DELETE = "DELETE";
+
+    /** 通番（コミット順） */
+    private Long seq;
+
+    /** ID */
+    private Integer itemId;
+
+    /** 操作（INSERT/UPDATE/DELETE） */
+    private String operation;
+
+    /** item名称 */
+    private String itemName;
+
+    /** 価格 */
+    private Integer price;
+
+    /** 分類 */
+    private String groupid;
+
+    /** 登録日 */
+    private LocalDate registDate;
+
+    /** バージョン番号 */
+    private Integer versionNo;
+
+    /** 変更日時 */
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,47 @@
+package com.example.demo.web.api;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * itemの変更フィードAPIコントローラ
+ * 
+ * 下流システムがitemを差分で同期するためのAPI。
+ * 初回は最後の通番を取得してから全件を取得（CSVエクスポート等）し、以降は控えた通番より後の変更を取得する。
+ */
+@RestController
+@RequiredArgsConstructor
+public class ItemChangeApiController {
+
+    private final ItemChangeFeedService itemChangeFeedService;
+
+    /**
+     * 変更履歴を取得する。
+     * @param form 取得条件
+     * @param result 入力チェック結果
+     * @return 変更フィードの1ページ。取得条件が不正な場合は400
+     */
+    @GetMapping("/api/items/changes")
+    public ResponseEntity<ItemChangePage> changes(@Validated ItemChangeForm form, BindingResult result) {
+        if (result.hasErrors()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(itemChangeFeedService.findChanges(form.getSince(), form.getLimit()));
+    }
+
+    /**
+     * 最後の通番を取得する。
+     * @return 最後の通番（seq）
+     */
+    @GetMapping("/api/items/changes/latest")
+    public Map<String, Long> latest() {
+        return Map.of("seq", itemChangeFeedService.findLastSeq());
+    }
+}
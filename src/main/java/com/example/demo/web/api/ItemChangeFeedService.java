@@ -0,0 +1,49 @@
+package com.example.demo.web.api;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.web.mapper.ItemChangeLogMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * itemの変更フィードサービス
+ * 
+ * 取得済みの通番より後の変更履歴を、通番順に最大件数まで返す。
+ * 通番の主キーで範囲検索するため、変更が無い場合は索引を1回参照するだけとなる。
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemChangeFeedService {
+
+    /** 変更履歴Mapper */
+    private final ItemChangeLogMapper mapper;
+
+    /**
+     * 変更履歴を取得する
+     * @param since 取得済みの通番
+     * @param limit 最大件数
+     * @return 変更フィードの1ページ
+     */
+    public ItemChangePage findChanges(long since, int limit) {
+        // 続きの有無を判定するため1件多く取得する
+        List<ItemChange> changes = mapper.findChanges(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new ItemChangePage(changes, nextSince, hasMore);
+    }
+
+    /**
+     * 最後の通番を取得する
+     * 全件を取得する前に取得し、以降の変更履歴の取得で指定する
+     * @return 最後の通番
+     */
+    public long findLastSeq() {
+        return mapper.findLastSeq();
+    }
+}
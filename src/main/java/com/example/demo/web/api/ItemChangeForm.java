@@ -0,0 +1,30 @@
+package com.example.demo.web.api;
+
+import org.hibernate.validator.constraints.Range;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * itemの変更フィードの取得条件
+ */
+@Data
+public class ItemChangeForm {
+
+    /**
+     * 取得済みの通番（この通番より後の変更を取得する）
+     * 必須チェック、0以上
+     */
+    @NotNull
+    @Min(0)
+    private Long since = 0L;
+
+    /**
+     * 最大件数
+     * 必須チェック、1～1000
+     */
+    @NotNull
+    @Range(min = 1, max = 1000)
+    private Integer limit = 100;
+}
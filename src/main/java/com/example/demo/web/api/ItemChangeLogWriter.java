@@ -0,0 +1,213 @@
+package com.example.demo.web.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemChangeLogMapper;
+
+/**
+ * itemの変更履歴の追記
+ * 
+ * itemの登録、更新、削除、一括登録、一括更新、一括削除、一括価格改定と同一トランザクション内で変更履歴を追記する。
+ * 登録、更新は追記時点のitemを記録する。一括価格改定は改定した範囲の（価格がある）itemを全て記録する
+ * （改定しなかったitemも含むが、変更後の内容で上書きするだけのため、利用側の結果は変わらない）。
+ * 
+ * 変更履歴はイベント受信時には追記せず、トランザクションのコミット直前にまとめて追記する。
+ * 通番は払い出し用の1行を更新して払い出すため、行ロックにより他のトランザクションの追記をコミットまで待たせる。
+ * これにより通番の順とコミットの順が一致し、利用側は取得済みの通番より後だけを取得すれば、変更を取りこぼさない。
+ * ロックを保持するのは追記からコミットまでの間だけだが、変更するトランザクションはここで直列になるため、
+ * 1秒あたりのコミット数は 1 / (変更履歴の追記時間 + コミット時間) が上限となる。
+ * トランザクション外で呼び出された場合は、その場で追記する。
+ */
+@Component
+public class ItemChangeLogWriter {
+
+    /** 変更履歴Mapper */
+    private final ItemChangeLogMapper mapper;
+
+    /** 自ノードのID（変更履歴に記録し、他ノードのキャッシュ無効化で自ノードの変更を除くために使用する） */
+    private final String nodeId;
+
+    /**
+     * コンストラクタ
+     * @param mapper 変更履歴Mapper
+     * @param nodeId 自ノードのID（未指定の場合は起動ごとに生成する）
+     */
+    public ItemChangeLogWriter(ItemChangeLogMapper mapper, @Value("${web.cache.cluster.node-id:}") String nodeId) {
+        this.mapper = mapper;
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    /**
+     * 自ノードのIDを取得する
+     * @return 自ノードのID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * item変更を追記する
+     * @param event item変更イベント
+     */
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getAfter() == null) {
+            Item before = event.getBefore();
+            append(lastSeq -> mapper.insertDeleteChange(lastSeq + 1, before.getId(), before.getVersionNo(), nodeId));
+        } else {
+            int id = event.getAfter().getId();
+            String operation = event.getBefore() == null ? ItemChange.INSERT : ItemChange.UPDATE;
+            append(lastSeq -> mapper.insertItemChange(lastSeq + 1, id, operation, nodeId));
+        }
+    }
+
+    /**
+     * 一括登録したitemを、通番をまとめて払い出して1回の問い合わせで追記する
+     * @param event item一括登録イベント
+     */
+    @EventListener
+    public void onItemsInserted(ItemsInsertedEvent event) {
+        List<Integer> ids = event.getItems().stream().map(Item::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        append(lastSeq -> mapper.insertItemChanges(lastSeq, ids, ItemChange.INSERT, nodeId));
+    }
+
+    /**
+     * 一括更新したitemを、通番をまとめて払い出して1回の問い合わせで追記する
+     * @param event item一括更新イベント
+     */
+    @EventListener
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        List<Integer> ids = event.getAfters().stream().map(Item::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        append(lastSeq -> mapper.insertItemChanges(lastSeq, ids, ItemChange.UPDATE, nodeId));
+    }
+
+    /**
+     * 一括削除したitemを、通番をまとめて払い出して1回の問い合わせで追記する
+     * @param event item一括削除イベント
+     */
+    @EventListener
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        List<Item> befores = List.copyOf(event.getItems());
+        if (befores.isEmpty()) {
+            return;
+        }
+        append(lastSeq -> mapper.insertDeleteChanges(lastSeq, befores, nodeId));
+    }
+
+    /**
+     * 一括価格改定の範囲を追記する
+     * @param event item一括価格改定イベント
+     */
+    @EventListener
+    public void onItemsRepriced(ItemsRepricedEvent event) {
+        append(lastSeq -> mapper.insertRepricedChanges(lastSeq, event.getGroupid(), event.getAfterId(),
+                event.getLastId(), nodeId));
+    }
+
+    /**
+     * 追記をコミット直前まで保留する（トランザクション外の場合はその場で追記する）
+     * @param append 追記
+     */
+    private void append(Append append) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush(List.of(append));
+            return;
+        }
+        Pending pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(s -> s instanceof Pending p && p.writer == this)
+                .map(Pending.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (pending == null) {
+            pending = new Pending(this);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(append);
+    }
+
+    /**
+     * 保留した追記を、通番を払い出しながら順に実行する
+     * @param appends 追記
+     */
+    private void flush(List<Append> appends) {
+        // 件数が確定するまで通番を払い出さずにロックだけ取得し、追記後にまとめて払い出し済みとする
+        long first = mapper.nextSeq(0);
+        long last = first;
+        for (Append append : appends) {
+            last += append.write(last);
+        }
+        if (last > first) {
+            mapper.nextSeq((int) (last - first));
+        }
+    }
+
+    /**
+     * 変更履歴の追記
+     */
+    @FunctionalInterface
+    private interface Append {
+
+        /**
+         * 追記する
+         * @param lastSeq 払い出し済みの最後の通番（この次の通番から使用する）
+         * @return 追記した件数
+         */
+        int write(long lastSeq);
+    }
+
+    /**
+     * トランザクションごとに保留した追記
+     * （リソースとして紐付けると、REQUIRES_NEWで中断したトランザクションと区別できないため、同期処理として登録する）
+     */
+    private static class Pending implements TransactionSynchronization {
+
+        /** 追記する処理 */
+        private final ItemChangeLogWriter writer;
+
+        /** 保留した追記 */
+        private final List<Append> appends = new ArrayList<>();
+
+        /** 追記済みの場合true（コミット直前の他の処理から追記された場合は、その場で追記する） */
+        private boolean flushed;
+
+        Pending(ItemChangeLogWriter writer) {
+            this.writer = writer;
+        }
+
+        void add(Append append) {
+            if (flushed) {
+                writer.flush(List.of(append));
+            } else {
+                appends.add(append);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushed = true;
+            if (!appends.isEmpty()) {
+                writer.flush(appends);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.web.api;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * itemの変更フィードの1ページ
+ */
+@Data
+@AllArgsConstructor
+public class ItemChangePage {
+
+    /** 変更履歴（通番順） */
+    private List<ItemChange> changes;
+
+    /** 次回の取得で指定する通番（変更が無い場合は指定された通番） */
+    private long nextSince;
+
+    /** 続きがある場合true */
+    private boolean hasMore;
+}
@@ -0,0 +1,40 @@
+package com.example.demo.web.audit;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * itemの監査ログ
+ * 
+ * 変更前後の値はitemのJSONとする（登録の場合の変更前、削除の場合の変更後はnull）。
+ * 一括価格改定は、改定した範囲のJSONを変更後の値とする（IDと変更前の値はnull）。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAuditRecord {
+
+    /** ID（一括価格改定の場合はnull） */
+    private Integer itemId;
+
+    /** 操作（INSERT/UPDATE/DELETE/REPRICE） */
+    private String operation;
+
+    /** 利用者（画面以外からの変更の場合はnull） */
+    private String userId;
+
+    /** 画面（リクエストパスの先頭。画面以外からの変更の場合はnull） */
+    private String screen;
+
+    /** 変更前の値 */
+    private String beforeValue;
+
+    /** 変更後の値 */
+    private String afterValue;
+
+    /** 変更日時（コミット時） */
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,310 @@
+package com.example.demo.web.audit;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.core.exception.SystemException;
+import com.example.demo.core.queue.BatchingWriter;
+import com.example.demo.entity.Item;
+import com.example.demo.web.api.ItemChange;
+import com.example.demo.web.mapper.ItemAuditMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * itemの監査ログ（まとめて非同期に追記）
+ *
+ * itemの登録、更新、削除、一括登録、一括更新、一括削除、一括価格改定のコミット後に、利用者、画面（イベントの変更元。変更したリクエストで取得したもの）、
+ * 変更前後のitemをキューに入れ、書き込みスレッドがキューに溜まった分をまとめて1回の問い合わせで追記する。
+ * 呼び出し元のスレッドはキューに入れるだけで待たない。キューが一杯の場合は監査ログを破棄する。
+ * 変更前後の値のJSONへの変換も書き込みスレッドで行う。
+ * 一括価格改定は個々のitemを保持しないため、改定した範囲（item分類、改定率、IDの範囲）を1件として記録する（IDはnull）。
+ *
+ * 停止時は、キューに溜まっている分を追記してから停止する。
+ *
+ * 以下のメトリクスを記録する。
+ * item.audit.batch.size：1回で追記した件数
+ * item.audit.lag：コミットから追記完了までの時間
+ * item.audit.dropped（reason=full/error/shutdown）：破棄した件数（キューが一杯、追記に失敗、停止時に未追記）
+ * item.audit.queue.depth：キューに溜まっている件数
+ */
+@Component
+public class ItemAuditTrail implements DisposableBean {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemAuditTrail.class);
+
+    /** 一括価格改定の操作 */
+    static final String REPRICE = "REPRICE";
+
+    /** 監査ログMapper */
+    private final ItemAuditMapper mapper;
+
+    /** 追記のトランザクション */
+    private final TransactionTemplate transaction;
+
+    /** 変更前後の値のJSON変換 */
+    private final ObjectMapper objectMapper;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 監査ログのキューと書き込みスレッド（無効の場合は開始しない） */
+    private final BatchingWriter<Entry> writer;
+
+    /** 1回で追記した件数 */
+    private final DistributionSummary batchSize;
+
+    /** コミットから追記完了までの時間 */
+    private final Timer lagTimer;
+
+    /** キューが一杯で破棄した件数 */
+    private final Counter droppedFull;
+
+    /** 追記に失敗して破棄した件数 */
+    private final Counter droppedError;
+
+    /** 停止時に追記できずに破棄した件数 */
+    private final Counter droppedShutdown;
+
+    /**
+     * コンストラクタ
+     * @param mapper 監査ログMapper
+     * @param transactionManager トランザクションマネージャ
+     * @param objectMapper JSON変換
+     * @param enabled 有効/無効
+     * @param capacity キューの最大件数
+     * @param maxBatch 1回で追記する最大件数
+     * @param registry メトリクス登録先
+     */
+    public ItemAuditTrail(ItemAuditMapper mapper, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${web.audit.enabled:true}") boolean enabled,
+            @Value("${web.audit.capacity:10000}") int capacity,
+            @Value("${web.audit.max-batch:500}") int maxBatch,
+            MeterRegistry registry) {
+        this.mapper = mapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = DistributionSummary.builder("item.audit.batch.size").register(registry);
+        this.lagTimer = Timer.builder("item.audit.lag").register(registry);
+        this.droppedFull = Counter.builder("item.audit.dropped").tag("reason", "full").register(registry);
+        this.droppedError = Counter.builder("item.audit.dropped").tag("reason", "error").register(registry);
+        this.droppedShutdown = Counter.builder("item.audit.dropped").tag("reason", "shutdown").register(registry);
+        this.writer = new BatchingWriter<>("item-audit-writer", capacity, maxBatch, this::write, (batch, e) -> {
+            droppedError.increment(batch.size());
+            LOG.error("itemの監査ログの追記に失敗 件数={}", batch.size(), e);
+        });
+        registry.gauge("item.audit.queue.depth", writer, BatchingWriter::size);
+
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * item変更の監査ログをキューに入れる
+     * ロールバックされた変更は記録しないため、コミット後に受信する
+     * @param event item変更イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // 呼び出し元がitemを変更しても影響しないよう、この時点の内容を複製する
+        Item before = copy(event.getBefore());
+        Item after = copy(event.getAfter());
+        String operation = before == null ? ItemChange.INSERT : after == null ? ItemChange.DELETE : ItemChange.UPDATE;
+        offer(new Entry((after != null ? after : before).getId(), operation, before, after, event.getOrigin(),
+                LocalDateTime.now()));
+    }
+
+    /**
+     * item一括登録の監査ログを、itemごとにキューに入れる
+     * @param event item一括登録イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsInserted(ItemsInsertedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime occurredAt = LocalDateTime.now();
+        event.getItems().forEach(item -> offer(
+                new Entry(item.getId(), ItemChange.INSERT, null, copy(item), event.getOrigin(), occurredAt)));
+    }
+
+    /**
+     * item一括更新の監査ログを、itemごとにキューに入れる
+     * @param event item一括更新イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime occurredAt = LocalDateTime.now();
+        for (int i = 0; i < event.getBefores().size(); i++) {
+            Item after = event.getAfters().get(i);
+            offer(new Entry(after.getId(), ItemChange.UPDATE, copy(event.getBefores().get(i)), copy(after),
+                    event.getOrigin(), occurredAt));
+        }
+    }
+
+    /**
+     * item一括削除の監査ログを、itemごとにキューに入れる
+     * @param event item一括削除イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime occurredAt = LocalDateTime.now();
+        event.getItems().forEach(item -> offer(
+                new Entry(item.getId(), ItemChange.DELETE, copy(item), null, event.getOrigin(), occurredAt)));
+    }
+
+    /**
+     * item一括価格改定の監査ログを、改定した範囲ごとにキューに入れる
+     * @param event item一括価格改定イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsRepriced(ItemsRepricedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // 先頭の範囲はIDの下限がnullのため、Map.ofは使用しない
+        Map<String, Object> range = new LinkedHashMap<>();
+        range.put("groupid", event.getGroupid());
+        range.put("percent", event.getPercent());
+        range.put("afterId", event.getAfterId());
+        range.put("lastId", event.getLastId());
+        offer(new Entry(null, REPRICE, null, range, event.getOrigin(), LocalDateTime.now()));
+    }
+
+    /**
+     * キューに入れる
+     * キューが一杯、または停止中の場合は破棄する
+     * @param entry 監査ログ
+     */
+    private void offer(Entry entry) {
+        if (!writer.offer(entry)) {
+            (writer.isStopping() ? droppedShutdown : droppedFull).increment();
+        }
+    }
+
+    /**
+     * 書き込みスレッドの処理
+     * 監査ログをまとめて1回の問い合わせで追記する
+     * @param batch 監査ログ
+     */
+    void write(List<Entry> batch) {
+        List<ItemAuditRecord> records = batch.stream().map(this::toRecord).toList();
+        transaction.executeWithoutResult(status -> mapper.insertAll(records));
+        batchSize.record(batch.size());
+        long now = System.nanoTime();
+        batch.forEach(entry -> lagTimer.record(now - entry.capturedAt, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * 監査ログに変換する
+     * @param entry キューの監査ログ
+     * @return 監査ログ
+     */
+    private ItemAuditRecord toRecord(Entry entry) {
+        return new ItemAuditRecord(entry.itemId, entry.operation, entry.origin.getUserId(),
+                entry.origin.getScreen(), toJson(entry.before), toJson(entry.after), entry.occurredAt);
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new SystemException("ME999", e);
+        }
+    }
+
+    private static Item copy(Item item) {
+        if (item == null) {
+            return null;
+        }
+        return new Item(item.getId(), item.getItemName(), item.getPrice(), item.getGroupid(), item.getRegistDate(),
+                item.getVersionNo());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // キューに溜まっている監査ログを追記してから停止する
+        int remaining = writer.stop();
+        if (remaining > 0) {
+            droppedShutdown.increment(remaining);
+            LOG.warn("itemの監査ログを追記できずに停止 件数={}", remaining);
+        }
+    }
+
+    /**
+     * キューの監査ログ
+     */
+    static class Entry {
+
+        /** ID（一括価格改定の場合はnull） */
+        private final Integer itemId;
+
+        /** 操作 */
+        private final String operation;
+
+        /** 変更前（登録、一括価格改定の場合はnull） */
+        private final Object before;
+
+        /** 変更後（削除の場合はnull。一括価格改定の場合は改定した範囲） */
+        private final Object after;
+
+        /** 変更元（利用者、画面） */
+        private final ItemChangeOrigin origin;
+
+        /** 変更日時 */
+        private final LocalDateTime occurredAt;
+
+        /** キューに入れた時刻 */
+        private final long capturedAt = System.nanoTime();
+
+        Entry(Integer itemId, String operation, Object before, Object after, ItemChangeOrigin origin,
+                LocalDateTime occurredAt) {
+            this.itemId = itemId;
+            this.operation = operation;
+            this.before = before;
+            this.after = after;
+            this.origin = origin;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
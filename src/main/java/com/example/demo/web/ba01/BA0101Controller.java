@@ -27,8 +27,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class BA0101Controller {
 
-    /** item登録サービス */
-    private final ItemRegistService itemRegistService;
+    /** item登録の受付キュー */
+    private final ItemRegistQueue itemRegistQueue;
 
     /**
      * 表示
@@ -38,8 +38,7 @@ public class BA0101Controller {
     @GetMapping("/WBA0101/index")
     public String index(ItemForm itemForm) {
 
-        // 開発用。ダミーデータを初期表示する
-        itemForm.setId(13);
+        // 開発用。ダミーデータを初期表示する（IDは登録時に採番する）
         itemForm.setItemName("ペン");
         itemForm.setPrice(1000);
         itemForm.setGroupid("CD-A01");
@@ -81,7 +80,7 @@ public class BA0101Controller {
 
         try {
             // 登録処理
-            itemRegistService.registItem(itemForm.toItem());
+            itemRegistQueue.registItem(itemForm.toItem());
         } catch(AppException e) {
             if (e.getField() != null) {
                 result.rejectValue(e.getField(), e.getMessageId());
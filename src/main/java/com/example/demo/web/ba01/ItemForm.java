@@ -11,7 +11,6 @@ import com.example.demo.common.code.ItemGroup;
 import com.example.demo.entity.Item;
 
 import jakarta.validation.constraints.AssertTrue;
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,9 +25,8 @@ public class ItemForm {
 
     /**
      * ID
-     * 必須チェック
+     * 未入力の場合は登録時に採番する
      */
-    @NotNull
     private Integer id;
 
     /**
@@ -0,0 +1,134 @@
+package com.example.demo.web.ba01;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * itemのID採番（hi/lo方式）
+ * 
+ * シーケンスITEM_ID_SEQから取得した値（hi）をブロック番号とし、
+ * hi×ブロックサイズからブロックサイズ分のIDをメモリ上で払い出す。
+ * ブロックはシーケンスにより各サーバーで重複しないため、サーバー間でIDが衝突しない。
+ * 払い出しはロックを使用せず、ブロックを使い切った時だけロックの下でシーケンスから次のブロックを取得する。
+ * 
+ * 手入力や一括登録で指定されたIDとは重複する場合があるため、登録時に衝突した場合は、
+ * 呼び出し元でそのブロックを破棄し（同じ範囲のIDが続けて指定されている可能性が高いため）、次のIDで登録し直す。
+ * 
+ * ブロックサイズを変更すると、変更前に払い出したIDと重複する場合があるため、運用開始後は変更しないこと。
+ * サーバーの停止時に払い出していないIDは欠番となる。
+ */
+@Component
+public class ItemIdAllocator {
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /** ブロックサイズ */
+    private final int blockSize;
+
+    /** 払い出し中のブロック（未取得の場合はnull） */
+    private final AtomicReference<Block> current = new AtomicReference<>();
+
+    /** ブロック取得のロック */
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    /**
+     * コンストラクタ
+     * @param mapper itemMapper
+     * @param blockSize ブロックサイズ
+     */
+    public ItemIdAllocator(ItemMapper mapper, @Value("${web.item.id.block-size:100}") int blockSize) {
+        this.mapper = mapper;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * IDを払い出す
+     * @return ID
+     */
+    public int next() {
+        while (true) {
+            Block block = current.get();
+            if (block != null) {
+                int id = block.next();
+                if (id >= 0) {
+                    return id;
+                }
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * 払い出したIDを含むブロックの残りを破棄する
+     * 以降のIDは次のブロックから払い出す（既に次のブロックに移っている場合は何もしない）
+     * @param id 登録済みのIDと衝突したID
+     */
+    public void discard(int id) {
+        Block block = current.get();
+        if (block != null && block.contains(id)) {
+            refill(block);
+        }
+    }
+
+    /**
+     * 次のブロックを取得する
+     * 他のスレッドが取得済みの場合は取得しない
+     * @param exhausted 使い切ったブロック
+     */
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (current.get() == exhausted) {
+                int hi = mapper.nextItemIdHi();
+                current.set(new Block(Math.multiplyExact(hi, blockSize), blockSize));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * 払い出し中のブロック
+     */
+    private static class Block {
+
+        /** 先頭のID */
+        private final int start;
+
+        /** ブロックサイズ */
+        private final int size;
+
+        /** 次に払い出す位置（lo） */
+        private final AtomicInteger lo = new AtomicInteger();
+
+        Block(int start, int size) {
+            this.start = start;
+            this.size = size;
+        }
+
+        /**
+         * ブロック内のIDを払い出す
+         * @return ID。使い切った場合は-1
+         */
+        int next() {
+            int next = lo.getAndIncrement();
+            return next < size ? start + next : -1;
+        }
+
+        /**
+         * ブロック内のIDか判定する
+         * @param id ID
+         * @return ブロック内のIDの場合true
+         */
+        boolean contains(int id) {
+            return id >= start && id - start < size;
+        }
+    }
+}
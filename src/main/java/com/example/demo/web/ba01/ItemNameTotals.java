@@ -0,0 +1,174 @@
+package com.example.demo.web.ba01;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.core.exception.AppException;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * item名称ごとの合計金額
+ * 
+ * 同一item名称の合計金額の上限チェック（ME001）のため、item名称ごとの合計金額をITEM_NAME_TOTALテーブルに保持する。
+ * 登録時は上限チェックと加算を1回の更新で行うため、同時に登録されても上限を超えない。
+ * 更新、削除時はitem変更イベントを受信し、同一トランザクション内で増減する。
+ * 一括価格改定、一括更新、一括削除時は、item名称ごとの増減をまとめて反映する。
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemNameTotals {
+
+    /** 合計金額の上限（この金額以上は登録不可） */
+    static final int TOTAL_PRICE_LIMIT = 3000;
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /**
+     * 登録するitemの金額を合計金額に加算する
+     * 加算後の合計金額が上限以上となる場合は加算せず、業務エラーとする
+     * @param item 登録するitem
+     */
+    public void reserve(Item item) {
+        if (!tryReserve(item.getItemName(), priceOf(item))) {
+            throw new AppException("ME001");
+        }
+    }
+
+    /**
+     * 登録するitemの金額を合計金額に加算する
+     * 同一item名称の複数itemをまとめて加算する場合は、金額の合計を指定する
+     * @param itemName item名称
+     * @param price 加算する金額
+     * @return 加算した場合true、加算後の合計金額が上限以上となるため加算しなかった場合false
+     */
+    public boolean tryReserve(String itemName, int price) {
+        if (itemName == null) {
+            // item名称なしは同一名称のitemが存在しないため、登録するitemの金額だけで判定する
+            return price < TOTAL_PRICE_LIMIT;
+        }
+        return add(itemName, price, TOTAL_PRICE_LIMIT);
+    }
+
+    /**
+     * item変更に合わせて合計金額を増減する
+     * 登録は登録時に加算済みのため対象外
+     * @param event item変更イベント
+     */
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        Item before = event.getBefore();
+        Item after = event.getAfter();
+        if (before == null) {
+            return;
+        }
+        if (after != null && Objects.equals(before.getItemName(), after.getItemName())
+                && priceOf(before) == priceOf(after)) {
+            // item名称、金額の変更なし
+            return;
+        }
+        if (before.getItemName() != null) {
+            add(before.getItemName(), -priceOf(before), null);
+        }
+        if (after != null && after.getItemName() != null) {
+            add(after.getItemName(), priceOf(after), null);
+        }
+    }
+
+    /**
+     * 一括削除したitemの金額を、item名称ごとにまとめて合計金額から減算する
+     * @param event item一括削除イベント
+     */
+    @EventListener
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        Map<String, ItemPriceDelta> deltas = new LinkedHashMap<>();
+        event.getItems().forEach(before -> accumulate(deltas, before, -priceOf(before)));
+        addAll(new ArrayList<>(deltas.values()));
+    }
+
+    /**
+     * 一括更新したitemの金額の増減を、item名称ごとにまとめて合計金額に反映する
+     * 上限チェックは行わない（1件の更新時と同じ）
+     * @param event item一括更新イベント
+     */
+    @EventListener
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        Map<String, ItemPriceDelta> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < event.getBefores().size(); i++) {
+            Item before = event.getBefores().get(i);
+            Item after = event.getAfters().get(i);
+            accumulate(deltas, before, -priceOf(before));
+            accumulate(deltas, after, priceOf(after));
+        }
+        addAll(new ArrayList<>(deltas.values()));
+    }
+
+    /**
+     * 一括で変更した価格の増減を合計金額に反映する
+     * 上限チェックは行わない（更新時と同じ）
+     * @param deltas item名称ごとの金額の増減
+     */
+    public void addAll(List<ItemPriceDelta> deltas) {
+        List<ItemPriceDelta> named = deltas.stream()
+                .filter(delta -> delta.getItemName() != null && delta.getPriceDelta() != 0)
+                .toList();
+        if (!named.isEmpty()) {
+            mapper.addNameTotals(named);
+        }
+    }
+
+    /**
+     * 合計金額に加算する
+     * 行が無い場合は合計金額0の行を登録してから（他のトランザクションが登録済みの場合は登録しない）加算する
+     * @param itemName item名称
+     * @param price 加算する金額
+     * @param limit 合計金額の上限（nullの場合は上限なし）
+     * @return 加算した場合true、上限以上となるため加算しなかった場合false
+     */
+    private boolean add(String itemName, int price, Integer limit) {
+        if (mapper.addNameTotal(itemName, price, limit) > 0) {
+            return true;
+        }
+        if (limit != null && price >= limit) {
+            return false;
+        }
+        mapper.insertNameTotalIfAbsent(itemName);
+        return mapper.addNameTotal(itemName, price, limit) > 0;
+    }
+
+    /**
+     * item名称ごとの増減に加える（item名称なしは対象外）
+     * @param deltas item名称ごとの金額の増減
+     * @param item item
+     * @param price 増減する金額
+     */
+    private static void accumulate(Map<String, ItemPriceDelta> deltas, Item item, int price) {
+        if (item.getItemName() == null) {
+            return;
+        }
+        ItemPriceDelta delta = deltas.computeIfAbsent(item.getItemName(), name -> new ItemPriceDelta(name, 0, 0));
+        delta.setPriceDelta(delta.getPriceDelta() + price);
+        delta.setItemCount(delta.getItemCount() + 1);
+    }
+
+    /**
+     * 合計金額に加算する金額
+     * @param item item
+     * @return 金額（nullの場合は0）
+     */
+    public static int priceOf(Item item) {
+        return item.getPrice() != null ? item.getPrice() : 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.web.ba01;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * item名称ごとの金額の増減
+ * 一括で価格を変更した場合に、item名称ごとの合計金額に反映する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPriceDelta {
+    private String itemName;
+    private int priceDelta;
+    private int itemCount;
+}
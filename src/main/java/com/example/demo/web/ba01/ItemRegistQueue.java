@@ -0,0 +1,268 @@
+package com.example.demo.web.ba01;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.core.exception.AppException;
+import com.example.demo.core.exception.SystemException;
+import com.example.demo.core.queue.BatchingWriter;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * item登録の受付キュー（まとめてコミット）
+ *
+ * 有効な場合、登録要求をキューに入れ、書き込みスレッドがキューに溜まった要求をまとめて1トランザクションで登録する。
+ * 要求ごとにセーブポイント（NESTED）で登録するため、業務エラー（ME001、ME004）の要求だけが取り消され、
+ * 呼び出し元にはそれぞれの結果（業務エラーを含む）が返る。無効な場合は、呼び出し元のスレッドで1件ずつ登録する。
+ *
+ * キューが一杯の場合は受付待ち時間まで待ち、受け付けられない場合は業務エラー（ME007）とする。
+ * 受付から最大待ち時間を過ぎても書き込みが始まらない要求は取り消し、業務エラー（ME007）とする。
+ * 書き込みが始まった要求は、完了まで待つ。
+ *
+ * 以下のメトリクスを記録する。
+ * item.regist.batch.size：1トランザクションで登録した件数
+ * item.regist.queue.wait：受付から結果が返るまでの時間
+ * item.regist.queue.rejected（reason=full/timeout）：受け付けなかった、または取り消した件数
+ * item.regist.queue.depth：キューに溜まっている件数
+ */
+@Component
+public class ItemRegistQueue implements DisposableBean {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemRegistQueue.class);
+
+    /** item登録サービス */
+    private final ItemRegistService itemRegistService;
+
+    /** まとめて登録するトランザクション */
+    private final TransactionTemplate batchTransaction;
+
+    /** 要求ごとのセーブポイント */
+    private final TransactionTemplate itemTransaction;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** キューが一杯の場合の受付待ち時間（ミリ秒） */
+    private final long offerTimeoutMillis;
+
+    /** 受付から書き込み開始までの最大待ち時間（ミリ秒） */
+    private final long maxWaitMillis;
+
+    /** 登録要求のキューと書き込みスレッド（無効の場合は開始しない） */
+    private final BatchingWriter<Request> writer;
+
+    /** 1トランザクションで登録した件数 */
+    private final DistributionSummary batchSize;
+
+    /** 受付から結果が返るまでの時間 */
+    private final Timer waitTimer;
+
+    /** キューが一杯で受け付けなかった件数 */
+    private final Counter rejectedFull;
+
+    /** 最大待ち時間を過ぎて取り消した件数 */
+    private final Counter rejectedTimeout;
+
+    /**
+     * コンストラクタ
+     * @param itemRegistService item登録サービス
+     * @param transactionManager トランザクションマネージャ
+     * @param enabled 有効/無効
+     * @param capacity キューの最大件数
+     * @param maxBatch 1トランザクションで登録する最大件数
+     * @param offerTimeout キューが一杯の場合の受付待ち時間
+     * @param maxWait 受付から書き込み開始までの最大待ち時間
+     * @param registry メトリクス登録先
+     */
+    public ItemRegistQueue(ItemRegistService itemRegistService, PlatformTransactionManager transactionManager,
+            @Value("${web.regist.queue.enabled:false}") boolean enabled,
+            @Value("${web.regist.queue.capacity:1000}") int capacity,
+            @Value("${web.regist.queue.max-batch:100}") int maxBatch,
+            @Value("${web.regist.queue.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${web.regist.queue.max-wait:2s}") Duration maxWait,
+            MeterRegistry registry) {
+        this.itemRegistService = itemRegistService;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.enabled = enabled;
+        this.offerTimeoutMillis = offerTimeout.toMillis();
+        this.maxWaitMillis = maxWait.toMillis();
+        this.batchSize = DistributionSummary.builder("item.regist.batch.size").register(registry);
+        this.waitTimer = Timer.builder("item.regist.queue.wait").register(registry);
+        this.rejectedFull = Counter.builder("item.regist.queue.rejected").tag("reason", "full").register(registry);
+        this.rejectedTimeout = Counter.builder("item.regist.queue.rejected").tag("reason", "timeout").register(registry);
+        this.writer = new BatchingWriter<>("item-regist-writer", capacity, maxBatch, this::write,
+                (batch, e) -> LOG.error("item登録の書き込みに失敗", e));
+        registry.gauge("item.regist.queue.depth", writer, BatchingWriter::size);
+
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * itemを登録する
+     * 有効な場合は書き込みスレッドでの登録の完了を待つ
+     * @param item Item
+     */
+    public void registItem(Item item) {
+        if (!enabled) {
+            itemRegistService.registItem(item);
+            return;
+        }
+
+        // 書き込みスレッドではリクエストを参照できないため、変更元をここで取得して引き渡す
+        Request request = new Request(item, ItemChangeOrigin.current());
+        try {
+            if (!writer.offer(request, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedFull.increment();
+                throw new AppException("ME007");
+            }
+            await(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("ME999", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - request.acceptedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 登録の完了を待つ
+     * 最大待ち時間を過ぎても書き込みが始まらない場合は取り消す
+     * @param request 登録要求
+     * @throws InterruptedException 割り込まれた場合
+     */
+    private void await(Request request) throws InterruptedException {
+        try {
+            try {
+                request.result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (request.claim()) {
+                    // 書き込みが始まっていないため、登録せずに取り消す
+                    rejectedTimeout.increment();
+                    throw new AppException("ME007");
+                }
+                // 書き込み中のため、完了を待つ
+                request.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new SystemException("ME999", e.getCause());
+        }
+    }
+
+    /**
+     * 書き込みスレッドの処理
+     * 登録要求をまとめて1トランザクションで登録し、各要求に結果を返す
+     * @param batch 登録要求
+     */
+    void write(List<Request> batch) {
+        List<Request> claimed = batch.stream().filter(Request::claim).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        List<RuntimeException> errors = new ArrayList<>(claimed.size());
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                errors.clear();
+                for (Request request : claimed) {
+                    errors.add(registInSavepoint(request));
+                }
+            });
+        } catch (RuntimeException e) {
+            // コミットに失敗した場合等は、全要求を失敗とする
+            claimed.forEach(request -> request.result.completeExceptionally(e));
+            throw e;
+        }
+        batchSize.record(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            if (errors.get(i) != null) {
+                claimed.get(i).result.completeExceptionally(errors.get(i));
+            } else {
+                claimed.get(i).result.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 1件をセーブポイントの中で登録する
+     * @param request 登録要求
+     * @return 登録時の例外（業務エラー等）。登録できた場合はnull
+     */
+    private RuntimeException registInSavepoint(Request request) {
+        try {
+            itemTransaction.executeWithoutResult(
+                    status -> itemRegistService.registItem(request.item, request.origin));
+            return null;
+        } catch (RuntimeException e) {
+            // セーブポイントまで取り消し済みのため、他の要求の登録は続ける
+            return e;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 受付済みの要求を登録してから停止する（登録できなかった要求は、呼び出し元が最大待ち時間で取り消す）
+        writer.stop();
+    }
+
+    /**
+     * 登録要求
+     */
+    static class Request {
+
+        /** 登録するitem */
+        private final Item item;
+
+        /** 変更元（受付時のリクエスト） */
+        private final ItemChangeOrigin origin;
+
+        /** 受付時刻 */
+        private final long acceptedAt = System.nanoTime();
+
+        /** 結果 */
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        /** 書き込みスレッドまたは呼び出し元（取り消し）のどちらかが処理を確定した場合true */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Request(Item item, ItemChangeOrigin origin) {
+            this.item = item;
+            this.origin = origin;
+        }
+
+        /**
+         * 処理を確定する
+         * @return 確定できた場合true（相手側が確定済みの場合false）
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
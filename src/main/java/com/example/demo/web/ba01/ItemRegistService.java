@@ -1,13 +1,14 @@
 package com.example.demo.web.ba01;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
 import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
 import com.example.demo.web.mapper.ItemMapper;
@@ -24,39 +25,65 @@ public class ItemRegistService {
     /** itemMapper */
     private final ItemMapper mapper;
 
+    /** item名称ごとの合計金額 */
+    private final ItemNameTotals itemNameTotals;
+
+    /** itemのID採番 */
+    private final ItemIdAllocator itemIdAllocator;
+
+    /** イベント発行 */
+    private final ApplicationEventPublisher publisher;
+
     private static final Logger LOG = LoggerFactory.getLogger(ItemRegistService.class);
 
     /**
      * itemを登録する
+     * IDが未指定の場合は採番する
      * @param item Item
      */
     @Transactional
     public void registItem(Item item) {
-        
+        registItem(item, ItemChangeOrigin.current());
+    }
+
+    /**
+     * 変更元を指定してitemを登録する（リクエスト外のスレッドで登録する場合に使用する）
+     * IDが未指定の場合は採番する
+     * @param item Item
+     * @param origin 変更元
+     */
+    @Transactional
+    public void registItem(Item item, ItemChangeOrigin origin) {
+
         // 同一ItemNameの合計priceが3000円以上の場合、業務エラー
-        List<Item> list = mapper.findAllByItemName(item.getItemName());
-        
-        Integer totalPrice = 0;
-        if (item.getPrice() == null) {
-            totalPrice = 0;
-        } else {
-            totalPrice = item.getPrice();
-        }
+        itemNameTotals.reserve(item);
 
-        for (Item item2 : list) {
-            totalPrice += item2.getPrice();
-        }
-        if (totalPrice >= 3000) {
-            throw new AppException("ME001");
+        if (item.getId() == null) {
+            insertWithAllocatedId(item);
+        } else {
+            try {
+                // 登録処理
+                mapper.insertItem(item);
+            } catch (DuplicateKeyException e) {
+                // キー重複エラー
+                throw new AppException("ME004", "id", e);
+            }
         }
+        LOG.info("item登録完了:id=" + item.getId());
+        publisher.publishEvent(ItemChangedEvent.inserted(item, origin));
+    }
 
-        try {
-            // 登録処理
-            mapper.insertItem(item);
-            LOG.info("item登録完了:id=" + item.getId());
-        } catch (DuplicateKeyException e) {
-            // キー重複エラー
-            throw new AppException("ME004", "id", e);
+    /**
+     * 採番したIDで登録する
+     * 採番したIDが手入力や一括登録で登録済みの場合は、業務エラーとせずに採番し直して登録する
+     * @param item Item（IDは未指定）
+     */
+    private void insertWithAllocatedId(Item item) {
+        item.setId(itemIdAllocator.next());
+        while (mapper.insertItemIfAbsent(item) == 0) {
+            LOG.info("採番したIDが登録済みのため採番し直し:id=" + item.getId());
+            itemIdAllocator.discard(item.getId());
+            item.setId(itemIdAllocator.next());
         }
     }
 }
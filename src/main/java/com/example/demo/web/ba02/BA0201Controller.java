@@ -1,16 +1,30 @@
 package com.example.demo.web.ba02;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.SessionAttributes;
 
 import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -19,6 +33,9 @@ import lombok.RequiredArgsConstructor;
  * 照会画面処理表示時には検索条件をリセットして、検索結果を初期表示する。
  * 照会画面処理表示以外では、検索条件をセッションスコープ保持する。
  * 1ページにページングを行う。
+ * ページ番号指定はオフセット方式、次へ・前へはキーセット方式（カーソル）でページングする。
+ * 検索結果の全件は、セッションの検索条件でCSVダウンロードできる。
+ * 時点を指定した場合は、その時点のitemを検索する（一括編集、絞り込み件数は現在のitemのため表示しない）。
  */
 @Controller
 @SessionAttributes(types=ItemSearchForm.class)
@@ -28,6 +45,15 @@ public class BA0201Controller {
     /** item検索サービス */
     private final ItemSearchService itemSearchService;
 
+    /** itemエクスポートサービス */
+    private final ItemExportService itemExportService;
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(BA0201Controller.class);
+
+    /** エクスポートファイル名 */
+    private static final String EXPORT_FILE_NAME = "items.csv";
+
     /** 1ページあたりの表示件数 */
     private static final int PAGE_SIZE = 5;
 
@@ -45,12 +71,19 @@ public class BA0201Controller {
         form.clear();
 
         try {
-            Page<Item> pages = itemSearchService.findAll(form.toCriteria(PAGE_SIZE));
+            ItemSearchCriteria criteria = form.toCriteria(PAGE_SIZE);
+            Page<Item> pages = itemSearchService.findAll(criteria);
             if (pages != null) {
                 // ページングに必要な情報
                 model.addAttribute("pages", pages);
                 // 検索結果リスト
                 model.addAttribute("itemList", pages.getContent());
+                // 次へ・前へのカーソル
+                addCursors(pages, model);
+                // 絞り込み件数（時点指定の場合は表示しない）
+                if (criteria.getAsOf() == null) {
+                    model.addAttribute("facets", itemSearchService.findFacets(criteria));
+                }
             }
         } catch(AppException e) {
             result.reject(e.getMessageId());
@@ -73,13 +106,23 @@ public class BA0201Controller {
             return "BA0201/search";
         }
 
+        ItemSearchCriteria criteria = form.toCriteria(PAGE_SIZE);
+        // カーソルは1回限り有効。セッションに残すとページ番号指定のリンクで誤って使われるため消去する
+        form.setCursor(null);
+
         try {
-            Page<Item> pages = itemSearchService.findAll(form.toCriteria(PAGE_SIZE));
+            Page<Item> pages = itemSearchService.findAll(criteria);
             if (pages != null) {
                 // ページングに必要な情報
                 model.addAttribute("pages", pages);
                 // 検索結果リスト
                 model.addAttribute("itemList", pages.getContent());
+                // 次へ・前へのカーソル
+                addCursors(pages, model);
+                // 絞り込み件数（時点指定の場合は表示しない）
+                if (criteria.getAsOf() == null) {
+                    model.addAttribute("facets", itemSearchService.findFacets(criteria));
+                }
             }
         } catch (AppException e){
             result.reject(e.getMessageId());
@@ -87,4 +130,73 @@ public class BA0201Controller {
         
         return "BA0201/search";
     }
+
+    /**
+     * item検索結果をCSVでダウンロードする。照会画面で最後に検索した条件に合致する全件を出力する
+     * 検索結果は1件ずつレスポンスに書き出すため、最大検索結果件数の制限は行わない
+     * @param form ItemSearchForm
+     * @param result BindingResult
+     * @param response HttpServletResponse
+     * @return 入力値エラー時はitem照会画面、正常時はnull（レスポンスに直接出力）
+     */
+    @GetMapping("/WBA0201/export")
+    public String export(@Validated ItemSearchForm form, BindingResult result, HttpServletResponse response) {
+        if (result.hasErrors()) {
+            return "BA0201/search";
+        }
+
+        ItemSearchCriteria criteria = form.toCriteria(PAGE_SIZE);
+        criteria.setKeyset(null);
+
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(EXPORT_FILE_NAME).build().toString());
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+            long count = itemExportService.export(criteria, writer);
+            LOG.info("itemエクスポート完了 件数={}", count);
+        } catch (IOException e) {
+            // クライアントの切断等で書き出せない場合、検索は中止済みのため応答は不要
+            LOG.info("itemエクスポート中断 {}", e.toString());
+        }
+        return null;
+    }
+
+    /**
+     * 表示中ページの先頭と末尾のIDから、次へ・前へのカーソルを設定する
+     * @param pages 検索結果
+     * @param model Model
+     */
+    private void addCursors(Page<Item> pages, Model model) {
+        if (!pages.hasContent() || !ItemSortOrder.isIdOrder(pages.getSort())) {
+            // ID順以外の並び順では、次へ・前へもページ番号で指定する
+            return;
+        }
+        List<Item> itemList = pages.getContent();
+        if (pages.hasNext()) {
+            model.addAttribute("nextCursor", ItemSearchCursor.next(itemList.get(itemList.size() - 1).getId()).encode());
+        }
+        if (pages.hasPrevious()) {
+            model.addAttribute("prevCursor", ItemSearchCursor.prev(itemList.get(0).getId()).encode());
+        }
+    }
+
+    /**
+     * 並び順のプルダウンリスト
+     * @return プルダウンリスト
+     */
+    @ModelAttribute("sortOrders")
+    public List<ItemSortOrder> getSortOrders() {
+        return Arrays.asList(ItemSortOrder.values());
+    }
+
+    /**
+     * item名称の一致条件のプルダウンリスト
+     * @return プルダウンリスト
+     */
+    @ModelAttribute("nameMatches")
+    public List<ItemNameMatch> getNameMatches() {
+        return Arrays.asList(ItemNameMatch.values());
+    }
 }
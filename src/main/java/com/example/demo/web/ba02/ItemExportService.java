@@ -0,0 +1,128 @@
+package com.example.demo.web.ba02;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
+import com.example.demo.web.mapper.ItemMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * itemエクスポートサービス
+ * 
+ * 検索条件に合致する全itemを、1件ずつCSVに書き出す。時点が指定された場合は、その時点のitemの履歴を書き出す。
+ * 検索結果をリストに保持しないため、件数によらずメモリ使用量は一定となる。
+ * 書き出しに失敗した場合（クライアントの切断等）は、残りの行の取得を中止する。
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemExportService {
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /** itemの履歴Mapper */
+    private final ItemHistoryMapper historyMapper;
+
+    /** CSVヘッダ */
+    public static final String HEADER = "ID,ITEM NAME,PRICE,GROUP,REGIST DATE";
+
+    /** 登録日の書式 */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    /**
+     * CSVエクスポート
+     * @param criteria 検索条件（ページング、件数上限は使用しない）
+     * @param writer 出力先
+     * @return 出力件数
+     * @throws IOException 書き出しに失敗した場合
+     */
+    @Transactional(readOnly = true)
+    public long export(ItemSearchCriteria criteria, Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+
+        CsvResultHandler handler = new CsvResultHandler(writer);
+        if (criteria.getAsOf() != null) {
+            historyMapper.exportAllAsOf(criteria, handler);
+        } else {
+            mapper.exportAll(criteria, handler);
+        }
+        if (handler.error != null) {
+            throw handler.error;
+        }
+        writer.flush();
+        return handler.count;
+    }
+
+    /**
+     * 1行ずつCSVに書き出すResultHandler
+     */
+    @RequiredArgsConstructor
+    private static class CsvResultHandler implements ResultHandler<Item> {
+
+        /** 出力先 */
+        private final Writer writer;
+
+        /** 出力件数 */
+        private long count;
+
+        /** 書き出し時の例外 */
+        private IOException error;
+
+        @Override
+        public void handleResult(ResultContext<? extends Item> context) {
+            try {
+                writeLine(writer, context.getResultObject());
+                count++;
+            } catch (IOException e) {
+                // 以降の行は書き出せないため、結果セットの読み込みを中止する
+                error = e;
+                context.stop();
+            }
+        }
+    }
+
+    /**
+     * itemを1行書き出す
+     * @param writer 出力先
+     * @param item item
+     * @throws IOException 書き出しに失敗した場合
+     */
+    static void writeLine(Writer writer, Item item) throws IOException {
+        writer.write(String.valueOf(item.getId()));
+        writer.write(',');
+        writer.write(escape(item.getItemName()));
+        writer.write(',');
+        writer.write(item.getPrice() != null ? String.valueOf(item.getPrice()) : "");
+        writer.write(',');
+        writer.write(escape(item.getGroupid()));
+        writer.write(',');
+        writer.write(item.getRegistDate() != null ? DATE_FORMAT.format(item.getRegistDate()) : "");
+        writer.write("\r\n");
+    }
+
+    /**
+     * CSVの値をエスケープする
+     * カンマ、ダブルクォート、改行を含む場合はダブルクォートで囲む
+     * @param value 値
+     * @return エスケープした値
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.web.ba02;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 絞り込み件数の集計行
+ * item分類と価格帯の組み合わせごとの件数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemFacetRow {
+    private String groupid;
+    private String priceRange;
+    private long itemCount;
+}
@@ -0,0 +1,51 @@
+package com.example.demo.web.ba02;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.common.code.ItemGroup;
+
+import lombok.Getter;
+
+/**
+ * 絞り込み件数
+ * 検索条件に合致するitemの、item分類ごとの件数と価格帯ごとの件数
+ */
+@Getter
+public class ItemFacets {
+
+    /** item分類ごとの件数（ItemGroupの定義順） */
+    private final Map<ItemGroup, Long> groups = new LinkedHashMap<>();
+
+    /** 価格帯ごとの件数（ItemPriceRangeの定義順） */
+    private final Map<ItemPriceRange, Long> priceRanges = new EnumMap<>(ItemPriceRange.class);
+
+    /**
+     * item分類と価格帯の組み合わせごとの件数から集計する
+     * 分類、価格帯が未設定のitemは、それぞれの件数に含めない
+     * @param rows 組み合わせごとの件数
+     * @return 絞り込み件数
+     */
+    public static ItemFacets of(List<ItemFacetRow> rows) {
+        ItemFacets facets = new ItemFacets();
+        for (ItemGroup group : ItemGroup.values()) {
+            facets.groups.put(group, 0L);
+        }
+        for (ItemPriceRange range : ItemPriceRange.values()) {
+            facets.priceRanges.put(range, 0L);
+        }
+        for (ItemFacetRow row : rows) {
+            for (ItemGroup group : ItemGroup.values()) {
+                if (group.getCode().equals(row.getGroupid())) {
+                    facets.groups.merge(group, row.getItemCount(), Long::sum);
+                }
+            }
+            if (row.getPriceRange() != null) {
+                facets.priceRanges.merge(ItemPriceRange.valueOf(row.getPriceRange()), row.getItemCount(), Long::sum);
+            }
+        }
+        return facets;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.web.ba02;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * itemのIDの集合（ID昇順）
+ *
+ * IDを昇順に並べたプリミティブ配列で保持する。
+ * 生成後は変更しない。
+ */
+public final class ItemIdSet {
+
+    /** 空の集合 */
+    public static final ItemIdSet EMPTY = new ItemIdSet(new int[0], 0);
+
+    /** ID（昇順） */
+    private final int[] ids;
+
+    /** 件数 */
+    private final int size;
+
+    /**
+     * コンストラクタ
+     * @param ids ID（昇順、重複なし）。呼び出し元はこの配列を変更しないこと
+     * @param size 件数
+     */
+    ItemIdSet(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    /**
+     * 指定したIDの集合を生成する
+     * @param ids ID（順不同、重複なし）
+     * @return IDの集合
+     */
+    public static ItemIdSet of(int... ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return new ItemIdSet(sorted, sorted.length);
+    }
+
+    /**
+     * 件数を取得する
+     * @return 件数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 空か判定する
+     * @return 空の場合true
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 指定した位置のIDを取得する
+     * @param index 位置（0始まり）
+     * @return ID
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return ids[index];
+    }
+
+    /**
+     * IDを含むか判定する
+     * @param id ID
+     * @return 含む場合true
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * ID以上となる最初の位置を求める
+     * @param id ID
+     * @return 位置（全てのIDより大きい場合は件数）
+     */
+    public int lowerBound(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    /**
+     * IDを昇順に返す
+     * @return ID
+     */
+    public IntStream stream() {
+        return Arrays.stream(ids, 0, size);
+    }
+}
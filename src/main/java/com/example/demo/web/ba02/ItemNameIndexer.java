@@ -0,0 +1,128 @@
+package com.example.demo.web.ba02;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * item名称のn-gram索引の更新
+ * 
+ * itemの登録、更新、削除と同一トランザクション内で索引を更新する。
+ * item名称が変わらない更新では索引を更新しない。
+ * 一括登録は、複数itemのn-gramを一定件数ずつまとめて登録する。一括削除は、1回の問い合わせでまとめて削除する。
+ * 一括更新は、item名称が変わったitemだけをまとめて削除してから登録する。
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemNameIndexer {
+
+    /** 1回の問い合わせで登録するn-gramの件数（目安） */
+    static final int INSERT_GRAMS = 1000;
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /**
+     * item変更に合わせて索引を更新する
+     * @param event item変更イベント
+     */
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        Item before = event.getBefore();
+        Item after = event.getAfter();
+        if (before != null && after != null && Objects.equals(before.getItemName(), after.getItemName())) {
+            // item名称の変更なし
+            return;
+        }
+        if (before != null) {
+            mapper.deleteNameNgrams(before.getId());
+        }
+        if (after != null) {
+            Set<String> grams = ItemNameNgram.indexGrams(after.getItemName());
+            if (!grams.isEmpty()) {
+                mapper.insertNameNgrams(after.getId(), grams);
+            }
+        }
+    }
+
+    /**
+     * 一括登録したitemの索引を登録する
+     * @param event item一括登録イベント
+     */
+    @EventListener
+    public void onItemsInserted(ItemsInsertedEvent event) {
+        insertAll(event.getItems());
+    }
+
+    /**
+     * 一括更新でitem名称が変わったitemの索引を登録し直す
+     * @param event item一括更新イベント
+     */
+    @EventListener
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        List<Item> renamed = new ArrayList<>();
+        for (int i = 0; i < event.getBefores().size(); i++) {
+            Item after = event.getAfters().get(i);
+            if (!Objects.equals(event.getBefores().get(i).getItemName(), after.getItemName())) {
+                renamed.add(after);
+            }
+        }
+        if (renamed.isEmpty()) {
+            return;
+        }
+        mapper.deleteAllNameNgrams(renamed.stream().map(Item::getId).toList());
+        insertAll(renamed);
+    }
+
+    /**
+     * 一括削除したitemの索引を削除する
+     * @param event item一括削除イベント
+     */
+    @EventListener
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        List<Integer> ids = event.getItems().stream().map(Item::getId).toList();
+        if (!ids.isEmpty()) {
+            mapper.deleteAllNameNgrams(ids);
+        }
+    }
+
+    /**
+     * itemの索引を、n-gramを一定件数ずつまとめて登録する
+     * @param items item
+     */
+    private void insertAll(List<Item> items) {
+        Map<Integer, Set<String>> batch = new LinkedHashMap<>();
+        int count = 0;
+        for (Item item : items) {
+            Set<String> grams = ItemNameNgram.indexGrams(item.getItemName());
+            if (grams.isEmpty()) {
+                continue;
+            }
+            batch.put(item.getId(), grams);
+            count += grams.size();
+            if (count >= INSERT_GRAMS) {
+                mapper.insertAllNameNgrams(batch);
+                batch = new LinkedHashMap<>();
+                count = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            mapper.insertAllNameNgrams(batch);
+        }
+    }
+}
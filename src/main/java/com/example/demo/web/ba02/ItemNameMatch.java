@@ -0,0 +1,21 @@
+package com.example.demo.web.ba02;
+
+/**
+ * item名称の一致条件
+ */
+public enum ItemNameMatch {
+
+    EXACT("完全一致"),
+    PREFIX("前方一致"),
+    PARTIAL("部分一致");
+
+    private String label;
+
+    private ItemNameMatch(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+}
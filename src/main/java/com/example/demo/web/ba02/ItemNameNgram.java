@@ -0,0 +1,58 @@
+package com.example.demo.web.ba02;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * item名称のn-gram
+ * 
+ * 部分一致検索の索引（ITEM_NAME_NGRAM）に登録する文字列の切り出しを行う。
+ * 1文字での検索にも対応するため、索引には1文字（ユニグラム）と2文字（バイグラム）の両方を登録する。
+ * 文字単位はJavaのchar（UTF-16）とし、data-all.sqlの初期データ分をSQLのsubstringで作成した索引と一致させる。
+ */
+public final class ItemNameNgram {
+
+    private ItemNameNgram() {
+    }
+
+    /**
+     * 索引に登録するn-gramを切り出す
+     * @param itemName item名称
+     * @return n-gram（重複なし）。item名称がnullまたは空の場合は空
+     */
+    public static Set<String> indexGrams(String itemName) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (itemName == null) {
+            return grams;
+        }
+        for (int i = 0; i < itemName.length(); i++) {
+            grams.add(itemName.substring(i, i + 1));
+            if (i + 2 <= itemName.length()) {
+                grams.add(itemName.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 検索文字列から、索引の検索に使うn-gramを切り出す
+     * 1文字の場合はユニグラム、2文字以上の場合はバイグラムとする
+     * @param keyword 検索文字列
+     * @return n-gram（重複なし）。検索文字列がnullまたは空の場合は空
+     */
+    public static List<String> queryGrams(String keyword) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (keyword == null || keyword.isEmpty()) {
+            return new ArrayList<>(grams);
+        }
+        if (keyword.length() == 1) {
+            grams.add(keyword);
+        }
+        for (int i = 0; i + 2 <= keyword.length(); i++) {
+            grams.add(keyword.substring(i, i + 2));
+        }
+        return new ArrayList<>(grams);
+    }
+}
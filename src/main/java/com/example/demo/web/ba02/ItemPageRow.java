@@ -0,0 +1,23 @@
+package com.example.demo.web.ba02;
+
+import com.example.demo.entity.Item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ページ検索結果の1行
+ * itemに加えて、検索条件に合致する総件数を保持する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPageRow {
+
+    /** item */
+    private Item item;
+
+    /** 検索条件に合致する総件数 */
+    private long totalCount;
+}
@@ -0,0 +1,66 @@
+package com.example.demo.web.ba02;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.SessionScope;
+
+import com.example.demo.entity.Item;
+
+/**
+ * 先読みした検索結果ページの保持（セッション単位）
+ * 
+ * 直前に表示したページの次ページを1件だけ保持する。
+ * 取り出すと空になり、有効期限を過ぎたものや、先読み開始後にitemが変更されたものは使用しない。
+ * セッションの直列化時には保持しない。
+ */
+@Component
+@SessionScope
+public class ItemPrefetchBuffer implements Serializable {
+
+    /** 検索条件（キーセットを除く） */
+    private transient ItemSearchCriteria criteria;
+
+    /** 先読み結果 */
+    private transient CompletableFuture<Page<Item>> page;
+
+    /** 先読み開始時の検索結果キャッシュの世代番号 */
+    private long generation;
+
+    /** 有効期限（System.nanoTime） */
+    private long expiresAt;
+
+    /**
+     * 先読み結果を格納する
+     * @param criteria 検索条件（キーセットを除く）
+     * @param page 先読み結果
+     * @param generation 先読み開始時の世代番号
+     * @param expiresAt 有効期限（System.nanoTime）
+     */
+    public synchronized void put(ItemSearchCriteria criteria, CompletableFuture<Page<Item>> page,
+            long generation, long expiresAt) {
+        this.criteria = criteria;
+        this.page = page;
+        this.generation = generation;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 先読み結果を取り出す
+     * 検索条件が一致しない場合も、保持している先読み結果は破棄する
+     * @param criteria 検索条件（キーセットを除く）
+     * @param generation 現在の世代番号
+     * @param now 現在時刻（System.nanoTime）
+     * @return 先読み結果。使用できない場合はnull
+     */
+    public synchronized CompletableFuture<Page<Item>> take(ItemSearchCriteria criteria, long generation, long now) {
+        CompletableFuture<Page<Item>> taken = page;
+        boolean usable = taken != null && criteria.equals(this.criteria)
+                && generation == this.generation && now - expiresAt < 0;
+        this.criteria = null;
+        this.page = null;
+        return usable ? taken : null;
+    }
+}
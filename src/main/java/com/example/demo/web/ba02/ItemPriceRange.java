@@ -0,0 +1,33 @@
+package com.example.demo.web.ba02;
+
+/**
+ * 価格帯（価格の絞り込み件数の集計用）
+ * 下限の昇順に定義する
+ */
+public enum ItemPriceRange {
+
+    UNDER_100("100円未満", 0),
+    FROM_100("100円〜499円", 100),
+    FROM_500("500円〜999円", 500),
+    FROM_1000("1,000円以上", 1000);
+
+    private String label;
+    private int lower;
+
+    private ItemPriceRange(String label, int lower) {
+        this.label = label;
+        this.lower = lower;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public int getLower() {
+        return this.lower;
+    }
+
+    public String getCode() {
+        return name();
+    }
+}
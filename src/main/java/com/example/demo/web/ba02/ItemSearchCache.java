@@ -0,0 +1,222 @@
+package com.example.demo.web.ba02;
+
+import java.util.function.Predicate;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.core.cache.BoundedCache;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * item検索結果キャッシュ
+ * 
+ * 検索条件（ページ情報を含む）をキーに、検索結果ページを保持する。
+ * 絞り込み件数はページによらないため、ページ情報（ページ、カーソル、件数上限）を除いた検索条件をキーに別に保持し、
+ * ページを移動しても集計し直さない。無効化は検索結果と同じ条件で行う。
+ * itemの登録、更新、削除、一括登録、一括更新、一括削除のコミット後に、変更前または変更後のitemが検索条件に合致するエントリだけを削除する。
+ * 一括価格改定のコミット後は、変更したitemを特定できないため全エントリを削除する。
+ * 
+ * 検索中に他のトランザクションがコミットした場合、古い検索結果を格納しないよう世代番号で判定する。
+ * 検索開始前に世代番号を取得し、格納時に世代番号が変わっていれば格納しない。
+ * 世代番号は、検索索引（ItemSearchIndex）の更新後に進める（コミット後のリスナーの実行順序で保証する）。
+ */
+@Component
+public class ItemSearchCache {
+
+    /** 検索結果 */
+    private final BoundedCache<ItemSearchCriteria, Page<Item>> cache;
+
+    /** 絞り込み件数（ページ情報を除いた検索条件ごと） */
+    private final BoundedCache<ItemSearchCriteria, ItemFacets> facets;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 世代番号（変更をコミットする度に加算） */
+    private long generation;
+
+    /**
+     * コンストラクタ
+     * @param enabled 有効/無効
+     * @param maxEntries 最大件数
+     * @param maxWeight 最大重み（保持するitemの合計件数）
+     * @param registry メトリクス登録先
+     */
+    public ItemSearchCache(
+            @Value("${web.search.cache.enabled:true}") boolean enabled,
+            @Value("${web.search.cache.max-entries:1000}") int maxEntries,
+            @Value("${web.search.cache.max-weight:10000}") long maxWeight,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.cache = new BoundedCache<>("itemSearch", maxEntries, maxWeight,
+                page -> page.getNumberOfElements() + 1, registry);
+        this.facets = new BoundedCache<>("itemFacets", maxEntries, maxEntries, facet -> 1, registry);
+    }
+
+    /**
+     * 世代番号を取得する
+     * 検索開始前に取得し、格納時に指定する
+     * @return 世代番号
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 検索結果を取得する
+     * @param criteria 検索条件
+     * @return 検索結果。存在しない場合はnull
+     */
+    public Page<Item> get(ItemSearchCriteria criteria) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.get(criteria);
+    }
+
+    /**
+     * 検索結果を格納する
+     * @param criteria 検索条件
+     * @param page 検索結果
+     * @param generation 検索開始前に取得した世代番号
+     */
+    public synchronized void put(ItemSearchCriteria criteria, Page<Item> page, long generation) {
+        if (!enabled || generation != this.generation) {
+            // 検索中に変更がコミットされた場合は、古い結果の可能性があるため格納しない
+            return;
+        }
+        // 呼び出し元で検索条件が変更されてもキーが変わらないよう、複製をキーにする
+        ItemSearchCriteria key = new ItemSearchCriteria();
+        BeanUtils.copyProperties(criteria, key);
+        cache.put(key, page);
+    }
+
+    /**
+     * 絞り込み件数を取得する
+     * @param criteria 検索条件（ページ情報は使用しない）
+     * @return 絞り込み件数。存在しない場合はnull
+     */
+    public ItemFacets getFacets(ItemSearchCriteria criteria) {
+        if (!enabled) {
+            return null;
+        }
+        return facets.get(facetKey(criteria));
+    }
+
+    /**
+     * 絞り込み件数を格納する
+     * @param criteria 検索条件（ページ情報は使用しない）
+     * @param itemFacets 絞り込み件数
+     * @param generation 集計開始前に取得した世代番号
+     */
+    public synchronized void putFacets(ItemSearchCriteria criteria, ItemFacets itemFacets, long generation) {
+        if (!enabled || generation != this.generation) {
+            // 集計中に変更がコミットされた場合は、古い結果の可能性があるため格納しない
+            return;
+        }
+        facets.put(facetKey(criteria), itemFacets);
+    }
+
+    /**
+     * item変更のコミット後に、影響を受ける検索結果を削除する
+     * @param event item変更イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(ItemSearchIndex.LISTENER_ORDER + 1)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        generation++;
+        invalidateIf(criteria -> criteria.matches(event.getBefore()) || criteria.matches(event.getAfter()));
+    }
+
+    /**
+     * item一括登録のコミット後に、登録したitemのいずれかが検索条件に合致するエントリを削除する
+     * @param event item一括登録イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(ItemSearchIndex.LISTENER_ORDER + 1)
+    public synchronized void onItemsInserted(ItemsInsertedEvent event) {
+        generation++;
+        invalidateIf(criteria -> event.getItems().stream().anyMatch(criteria::matches));
+    }
+
+    /**
+     * item一括更新のコミット後に、更新前または更新後のitemのいずれかが検索条件に合致するエントリを削除する
+     * @param event item一括更新イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(ItemSearchIndex.LISTENER_ORDER + 1)
+    public synchronized void onItemsUpdated(ItemsUpdatedEvent event) {
+        generation++;
+        invalidateIf(criteria -> event.getBefores().stream().anyMatch(criteria::matches)
+                || event.getAfters().stream().anyMatch(criteria::matches));
+    }
+
+    /**
+     * item一括削除のコミット後に、削除したitemのいずれかが検索条件に合致するエントリを削除する
+     * @param event item一括削除イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(ItemSearchIndex.LISTENER_ORDER + 1)
+    public synchronized void onItemsDeleted(ItemsDeletedEvent event) {
+        generation++;
+        invalidateIf(criteria -> event.getItems().stream().anyMatch(criteria::matches));
+    }
+
+    /**
+     * 一括価格改定のコミット後に、全ての検索結果を削除する
+     * @param event item一括価格改定イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(ItemSearchIndex.LISTENER_ORDER + 1)
+    public synchronized void onItemsRepriced(ItemsRepricedEvent event) {
+        generation++;
+        cache.clear();
+        facets.clear();
+    }
+
+    /**
+     * 全ての検索結果を削除する
+     * 他ノードで変更された場合は変更前のitemが分からないため、全エントリを削除する
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.clear();
+        facets.clear();
+    }
+
+    /**
+     * 検索条件が合致する検索結果と絞り込み件数を削除する
+     * @param matches 削除する検索条件
+     */
+    private void invalidateIf(Predicate<ItemSearchCriteria> matches) {
+        cache.invalidateIf((criteria, page) -> matches.test(criteria));
+        facets.invalidateIf((criteria, facet) -> matches.test(criteria));
+    }
+
+    /**
+     * 絞り込み件数のキー（ページ情報を除いた検索条件の複製）
+     * @param criteria 検索条件
+     * @return キー
+     */
+    private static ItemSearchCriteria facetKey(ItemSearchCriteria criteria) {
+        ItemSearchCriteria key = new ItemSearchCriteria();
+        BeanUtils.copyProperties(criteria, key);
+        key.setPageable(null);
+        key.setKeyset(null);
+        key.setCountLimit(null);
+        return key;
+    }
+}
@@ -1,6 +1,17 @@
 package com.example.demo.web.ba02;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.example.demo.entity.Item;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,4 +27,191 @@ public class ItemSearchCriteria {
     private String itemName;
     private Integer price;
     private Pageable pageable;
+
+    /**
+     * item名称の一致条件
+     * 未指定の場合は完全一致
+     */
+    private ItemNameMatch nameMatch;
+
+    /**
+     * キーセットページング用カーソル
+     * 指定時はオフセットではなくIDを基準にページングする
+     */
+    private ItemSearchCursor keyset;
+
+    /**
+     * 件数の上限
+     * 指定時は、この件数に達した時点で数えるのを打ち切る
+     */
+    private Integer countLimit;
+
+    /**
+     * 時点（日付）
+     * 指定時は、その日の終わりの時点のitemの履歴を検索する
+     */
+    private LocalDate asOf;
+
+    /**
+     * コンストラクタ（オフセット方式のページング、件数上限なし）
+     * @param itemName item名称
+     * @param price 価格
+     * @param pageable ページ情報
+     */
+    public ItemSearchCriteria(String itemName, Integer price, Pageable pageable) {
+        this(itemName, price, pageable, null, null, null, null);
+    }
+
+    /**
+     * 並べ替え可能な項目（プロパティ名と列名）
+     * ORDER BY句に埋め込むため、ここに無い項目は並べ替えに使用しない
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "itemName", "item_name",
+            "price", "price",
+            "registDate", "regist_date");
+
+    /**
+     * ORDER BY句（ItemMapper.xml用）
+     * ページ情報の並び順を列名に変換し、同順の行の並びが一定となるよう最後にIDを加える。
+     * item名称の完全一致時は、先頭にitem名称（検索条件により一定）を加えて、複合索引（item名称, 並べ替え項目, ID）の順に合わせる
+     * @return ORDER BY句（ORDER BYは含まない）
+     */
+    public String getOrderBy() {
+        StringJoiner orderBy = new StringJoiner(", ");
+        String direction = "asc";
+        boolean hasId = false;
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                continue;
+            }
+            direction = order.isAscending() ? "asc" : "desc";
+            if (orderBy.length() == 0 && isExactName() && !column.equals("item_name")) {
+                orderBy.add("item_name " + direction);
+            }
+            orderBy.add(column + " " + direction);
+            hasId |= column.equals("id");
+        }
+        if (!hasId) {
+            orderBy.add("id " + direction);
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * 時点（ItemHistoryMapper.xml用）
+     * @return 時点の日の翌日の開始時刻（この時刻より前に有効となった履歴を対象とする）。時点の指定が無い場合はnull
+     */
+    public LocalDateTime getAsOfTime() {
+        return asOf != null ? asOf.plusDays(1).atStartOfDay() : null;
+    }
+
+    /**
+     * ID昇順（既定の並び順）か
+     * ID昇順以外はキーセットページング、メモリ内索引によるページ切り出しを使用できない
+     * @return ID昇順の場合true
+     */
+    public boolean isIdOrder() {
+        return pageable == null || ItemSortOrder.isIdOrder(pageable.getSort());
+    }
+
+    /**
+     * 並べ替えの先頭の列名（ItemMapper.xmlの索引指定用）
+     * @return 列名。並べ替えの指定が無い場合はnull
+     */
+    public String getSortColumn() {
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        return sort.stream().map(order -> SORT_COLUMNS.get(order.getProperty()))
+                .filter(column -> column != null).findFirst().orElse(null);
+    }
+
+    /**
+     * item名称が完全一致の条件か
+     * @return 完全一致の場合true
+     */
+    public boolean isExactName() {
+        return itemName != null && !itemName.isEmpty() && (nameMatch == null || nameMatch == ItemNameMatch.EXACT);
+    }
+
+    /**
+     * item名称のLIKE検索パターン（前方一致、部分一致用）
+     * @return LIKE検索パターン。ワイルドカード文字はエスケープする
+     */
+    public String getNamePattern() {
+        if (itemName == null) {
+            return null;
+        }
+        String escaped = itemName.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return nameMatch == ItemNameMatch.PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+
+    /**
+     * item名称の索引検索用n-gram（部分一致用）
+     * @return n-gram
+     */
+    public List<String> getNameGrams() {
+        return ItemNameNgram.queryGrams(itemName);
+    }
+
+    /**
+     * item名称の索引検索用n-gramの件数（部分一致用）
+     * 全てのn-gramを含むitemに絞り込むために使用する
+     * @return n-gramの件数
+     */
+    public int getNameGramCount() {
+        return getNameGrams().size();
+    }
+
+    /**
+     * 価格帯（絞り込み件数の集計用）
+     * ItemMapper.xmlで下限の高い順に判定するため、下限の降順とする
+     * @return 価格帯
+     */
+    public List<ItemPriceRange> getPriceRanges() {
+        List<ItemPriceRange> ranges = new ArrayList<>(List.of(ItemPriceRange.values()));
+        Collections.reverse(ranges);
+        return ranges;
+    }
+
+    /**
+     * itemが検索条件に合致するか
+     * ItemMapper.xmlの検索条件と同じ判定を行う
+     * @param item item
+     * @return 合致する場合true
+     */
+    public boolean matches(Item item) {
+        if (item == null) {
+            return false;
+        }
+        if (!matchesName(item.getItemName())) {
+            return false;
+        }
+        if (price != null && (item.getPrice() == null || item.getPrice() < price)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * item名称が検索条件に合致するか
+     * @param name item名称
+     * @return 合致する場合、またはitem名称の検索条件が未指定の場合true
+     */
+    public boolean matchesName(String name) {
+        if (itemName == null || itemName.isEmpty()) {
+            return true;
+        }
+        if (name == null) {
+            return false;
+        }
+        if (nameMatch == ItemNameMatch.PREFIX) {
+            return name.startsWith(itemName);
+        } else if (nameMatch == ItemNameMatch.PARTIAL) {
+            return name.contains(itemName);
+        }
+        return name.equals(itemName);
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.demo.web.ba02;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * キーセットページング用のカーソル
+ * 
+ * 画面には中身を意識させないよう、方向とIDをBase64URLでエンコードした文字列（トークン）として受け渡す。
+ * 不正なトークンは無視して、オフセット方式のページングにフォールバックする。
+ */
+@Data
+@AllArgsConstructor
+public class ItemSearchCursor {
+
+    /** 次ページ方向 */
+    public static final String NEXT = "n";
+
+    /** 前ページ方向 */
+    public static final String PREV = "p";
+
+    /** 方向 */
+    private String direction;
+
+    /** 基準となるID（次ページの場合はページ末尾、前ページの場合はページ先頭のID） */
+    private Integer id;
+
+    /**
+     * 次ページ用カーソルを生成する
+     * @param lastId 表示中ページの末尾のID
+     * @return カーソル
+     */
+    public static ItemSearchCursor next(Integer lastId) {
+        return new ItemSearchCursor(NEXT, lastId);
+    }
+
+    /**
+     * 前ページ用カーソルを生成する
+     * @param firstId 表示中ページの先頭のID
+     * @return カーソル
+     */
+    public static ItemSearchCursor prev(Integer firstId) {
+        return new ItemSearchCursor(PREV, firstId);
+    }
+
+    /**
+     * 前ページ方向か
+     * @return 前ページ方向の場合true
+     */
+    public boolean isPrev() {
+        return PREV.equals(direction);
+    }
+
+    /**
+     * トークンにエンコードする
+     * @return トークン
+     */
+    public String encode() {
+        String raw = direction + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * トークンをデコードする
+     * @param token トークン
+     * @return カーソル。未指定または不正なトークンの場合はnull
+     */
+    public static ItemSearchCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2 || !(NEXT.equals(parts[0]) || PREV.equals(parts[0]))) {
+                return null;
+            }
+            return new ItemSearchCursor(parts[0], Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException e) {
+            // Base64形式不正、数値変換エラー
+            return null;
+        }
+    }
+}
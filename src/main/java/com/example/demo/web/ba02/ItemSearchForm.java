@@ -1,12 +1,15 @@
 package com.example.demo.web.ba02;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.Range;
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import lombok.Data;
 
@@ -23,6 +26,11 @@ public class ItemSearchForm implements Serializable {
     @Length(max=10)
     private String itemName;
 
+    /**
+     * item名称の一致条件
+     */
+    private ItemNameMatch nameMatch;
+
     /**
      * price
      * 最大値10,000チェック
@@ -30,11 +38,30 @@ public class ItemSearchForm implements Serializable {
     @Range(max=10000)
     private Integer price;
 
+    /**
+     * 並び順
+     * 未指定の場合はID順
+     */
+    private ItemSortOrder sort;
+
+    /**
+     * 時点
+     * 指定時は、その日の終わりの時点のitemを検索する
+     */
+    @DateTimeFormat(pattern = "uuuu-MM-dd")
+    private LocalDate asOf;
+
     /**
      * ページ数
      */
     private Integer page;
 
+    /**
+     * キーセットページング用カーソル（トークン）
+     * 次へ・前へのリンクでのみ指定される。ページ番号指定のジャンプ時は未指定
+     */
+    private String cursor;
+
     /**
      * 検索条件を生成する
      * @param pageSize 1ページたりの件数
@@ -45,8 +72,10 @@ public class ItemSearchForm implements Serializable {
         ItemSearchCriteria criteria = new ItemSearchCriteria();
         BeanUtils.copyProperties(this, criteria);
 
-        Pageable pageable = PageRequest.of(page != null ? page : 0, pageSize);
+        Pageable pageable = PageRequest.of(page != null ? page : 0, pageSize,
+                sort != null ? sort.getSort() : Sort.unsorted());
         criteria.setPageable(pageable);
+        criteria.setKeyset(ItemSearchCursor.decode(cursor));
         return criteria;
     }
 
@@ -0,0 +1,638 @@
+package com.example.demo.web.ba02;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * item検索索引（メモリ内）
+ *
+ * 検索条件に合致するIDの集合を、データベースを検索せずに求める。
+ * 全itemのIDは、ID昇順に並べたプリミティブ配列で保持する（IDは採番ブロック単位で飛び飛びになるため、
+ * 最大IDではなく件数に比例する領域で保持する）。
+ * item名称、価格は、それぞれ名称順、価格順の辞書に、ID昇順のプリミティブ配列で保持する。
+ * 完全一致・前方一致は名称の辞書の範囲、価格以上は価格の辞書の範囲をID順にたどり、件数上限に達した時点で打ち切る。
+ * 部分一致はn-gram索引でデータベースを検索するため、索引では求めない。
+ *
+ * 起動完了時にITEMテーブルから構築し、itemの登録、更新、削除、一括登録のコミット後に更新する。
+ * 一括登録は、登録したitemをまとめて1回で配列に反映する。
+ * 構築中にコミットされた変更は保留し、構築後に適用してから切り替える。
+ * 一括価格改定のコミット後は、変更したitemを特定できないため索引を破棄し、改定の完了後に構築し直す。
+ * 他ノードで変更されたitemは、ItemClusterInvalidatorからITEMテーブルを取得し直して更新する。
+ * 構築前、または無効の場合はnullを返し、呼び出し元はデータベースを検索する。
+ */
+@Component
+public class ItemSearchIndex {
+
+    /**
+     * コミット後のリスナーの実行順序
+     * 検索結果キャッシュ（ItemSearchCache）が世代番号を進める前に索引を更新し、
+     * 新しい世代番号で検索した結果が更新前の索引に基づかないようにする
+     */
+    public static final int LISTENER_ORDER = 0;
+
+    /** 他ノードの変更の取得中に自ノードの変更が適用された場合に、取得し直す回数 */
+    private static final int REFRESH_ATTEMPTS = 3;
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 読み取り・更新のロック */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 索引（構築前はnull） */
+    private Data data;
+
+    /** 構築中にコミットされた変更（構築中以外はnull） */
+    private List<Change> pending;
+
+    /** 構築中に一括価格改定がコミットされた場合true（構築した索引は使用しない） */
+    private boolean pendingDiscarded;
+
+    /** 索引の版（変更の適用、構築、破棄の度に加算。ロックの外で取得した内容が古くないかの判定に使用する） */
+    private long version;
+
+    /**
+     * コンストラクタ
+     * @param mapper itemMapper
+     * @param enabled 有効/無効
+     */
+    public ItemSearchIndex(ItemMapper mapper, @Value("${web.search.index.enabled:true}") boolean enabled) {
+        this.mapper = mapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * ITEMテーブルから索引を構築する
+     * 起動完了時に実行する
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            pendingDiscarded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Data built = new Data();
+        try {
+            mapper.exportAll(new ItemSearchCriteria(), context -> built.load(context.getResultObject()));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(built::apply);
+            pending = null;
+            data = !pendingDiscarded ? built : null;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.info("item検索索引構築完了 件数={}", built.count);
+    }
+
+    /**
+     * 一括価格改定のコミット後に索引を破棄する
+     * 再構築までの間、呼び出し元はデータベースを検索する
+     * @param event item一括価格改定イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onItemsRepriced(ItemsRepricedEvent event) {
+        discard();
+    }
+
+    /**
+     * 索引を破棄する
+     * 構築中の場合は、構築した索引を使用しない。再構築までの間、呼び出し元はデータベースを検索する
+     */
+    public void discard() {
+        lock.writeLock().lock();
+        try {
+            data = null;
+            if (pending != null) {
+                pendingDiscarded = true;
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * item変更のコミット後に索引を更新する
+     * @param event item変更イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onItemChanged(ItemChangedEvent event) {
+        List<Integer> removedIds = event.getBefore() != null ? List.of(event.getBefore().getId()) : List.of();
+        List<Item> upserted = event.getAfter() != null ? List.of(event.getAfter()) : List.of();
+        apply(new Change(removedIds, upserted));
+    }
+
+    /**
+     * item一括登録のコミット後に、登録したitemをまとめて索引に反映する
+     * @param event item一括登録イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onItemsInserted(ItemsInsertedEvent event) {
+        apply(new Change(List.of(), event.getItems()));
+    }
+
+    /**
+     * item一括更新のコミット後に、更新したitemをまとめて索引に反映する
+     * @param event item一括更新イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        apply(new Change(event.getBefores().stream().map(Item::getId).toList(), event.getAfters()));
+    }
+
+    /**
+     * item一括削除のコミット後に、削除したitemをまとめて索引から除く
+     * @param event item一括削除イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        apply(new Change(event.getItems().stream().map(Item::getId).toList(), List.of()));
+    }
+
+    /**
+     * 他ノードで変更されたitemを、ITEMテーブルから取得し直して索引を更新する
+     * 取得はロックの外で行い、取得中に索引の版が進んだ（自ノードの変更が適用された）場合は、
+     * 古い内容で上書きしないよう取得し直す。取得し直しても版が進む場合は、ロックを保持したまま取得する
+     * @param ids 変更されたitemのID
+     */
+    public void refresh(Collection<Integer> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int attempt = 0; attempt < REFRESH_ATTEMPTS; attempt++) {
+            long seen;
+            lock.readLock().lock();
+            try {
+                if (data == null && pending == null) {
+                    return;
+                }
+                seen = version;
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<Item> current = mapper.findAllByIds(idList);
+            lock.writeLock().lock();
+            try {
+                if (version == seen) {
+                    applyLocked(new Change(idList, current));
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (data != null || pending != null) {
+                applyLocked(new Change(idList, mapper.findAllByIds(idList)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 変更を適用する
+     * @param change 変更
+     */
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            applyLocked(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 変更を適用する
+     * 書き込みロックの下で呼び出す
+     * @param change 変更
+     */
+    private void applyLocked(Change change) {
+        if (pending != null) {
+            pending.add(change);
+        }
+        if (data != null) {
+            data.apply(change);
+        }
+        version++;
+    }
+
+    /**
+     * 検索条件に合致するIDを求める
+     * ページ情報、キーセットは使用しない。件数上限を指定した場合は、上限に達した時点で打ち切る
+     * @param criteria 検索条件
+     * @return 合致するID（ID昇順、件数上限まで）。索引が使用できない場合、item名称の部分一致の場合はnull
+     */
+    public ItemIdSet find(ItemSearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            if (data == null) {
+                return null;
+            }
+            return data.find(criteria);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引への変更（削除するIDと、登録・更新後のitem）
+     * @param removedIds 削除するID
+     * @param upserted 登録・更新後のitem（同じIDの既存の内容は置き換える）
+     */
+    private record Change(Collection<Integer> removedIds, Collection<Item> upserted) {
+    }
+
+    /**
+     * 索引のデータ
+     * 更新はロックの下で行う
+     */
+    private static class Data {
+
+        /** 全itemのID（昇順） */
+        private int[] ids = new int[16];
+
+        /** idsと同順のitem名称 */
+        private String[] itemNames = new String[16];
+
+        /** idsと同順の価格 */
+        private Integer[] itemPrices = new Integer[16];
+
+        /** 全itemの件数 */
+        private int count;
+
+        /** item名称ごとのID（名称順。前方一致は名称の範囲で求める） */
+        private final TreeMap<String, Postings> names = new TreeMap<>();
+
+        /** 価格ごとのID（価格順。価格以上は価格の範囲で求める） */
+        private final TreeMap<Integer, Postings> prices = new TreeMap<>();
+
+        /**
+         * 構築時にitemを登録する
+         * ID順に読み込むため、末尾に追加する
+         * @param item item
+         */
+        void load(Item item) {
+            int id = item.getId();
+            if (count > 0 && ids[count - 1] >= id) {
+                apply(new Change(List.of(), List.of(item)));
+                return;
+            }
+            ensureCapacity(count + 1);
+            ids[count] = id;
+            itemNames[count] = item.getItemName();
+            itemPrices[count] = item.getPrice();
+            count++;
+            if (item.getItemName() != null) {
+                names.computeIfAbsent(item.getItemName(), key -> new Postings()).append(id);
+            }
+            if (item.getPrice() != null) {
+                prices.computeIfAbsent(item.getPrice(), key -> new Postings()).append(id);
+            }
+        }
+
+        /**
+         * 変更をまとめて適用する
+         * 削除するIDと追加するitemをそれぞれID順に並べ、配列と1回ずつ突き合わせる
+         * （変更の件数に関わらず、配列の移動は1回で済む）
+         * @param change 変更
+         */
+        void apply(Change change) {
+            TreeMap<Integer, Item> added = new TreeMap<>();
+            change.upserted().forEach(item -> added.put(item.getId(), item));
+            int[] removed = IntStream.concat(
+                    change.removedIds().stream().mapToInt(Integer::intValue),
+                    added.keySet().stream().mapToInt(Integer::intValue))
+                    .sorted().distinct().toArray();
+
+            // 削除するIDを除いて詰める（最初の削除位置より前は移動しない）
+            Map<String, Postings> nameRemovals = new HashMap<>();
+            Map<Integer, Postings> priceRemovals = new HashMap<>();
+            int start = removed.length == 0 ? count : lowerBound(removed[0]);
+            int size = start;
+            int r = 0;
+            for (int i = start; i < count; i++) {
+                int id = ids[i];
+                while (r < removed.length && removed[r] < id) {
+                    r++;
+                }
+                if (r < removed.length && removed[r] == id) {
+                    collect(nameRemovals, itemNames[i], id);
+                    collect(priceRemovals, itemPrices[i], id);
+                    continue;
+                }
+                ids[size] = id;
+                itemNames[size] = itemNames[i];
+                itemPrices[size] = itemPrices[i];
+                size++;
+            }
+            Arrays.fill(itemNames, size, count, null);
+            Arrays.fill(itemPrices, size, count, null);
+            count = size;
+            removeAll(names, nameRemovals);
+            removeAll(prices, priceRemovals);
+            if (added.isEmpty()) {
+                return;
+            }
+
+            // 追加するitemを後ろから突き合わせる（最小の追加IDより前は移動しない）
+            Item[] adds = added.values().toArray(new Item[0]);
+            ensureCapacity(count + adds.length);
+            int i = count - 1;
+            int w = count + adds.length - 1;
+            for (int j = adds.length - 1; j >= 0; w--) {
+                if (i >= 0 && ids[i] > adds[j].getId()) {
+                    ids[w] = ids[i];
+                    itemNames[w] = itemNames[i];
+                    itemPrices[w] = itemPrices[i];
+                    i--;
+                } else {
+                    ids[w] = adds[j].getId();
+                    itemNames[w] = adds[j].getItemName();
+                    itemPrices[w] = adds[j].getPrice();
+                    j--;
+                }
+            }
+            count += adds.length;
+            Map<String, Postings> nameAdditions = new HashMap<>();
+            Map<Integer, Postings> priceAdditions = new HashMap<>();
+            for (Item item : adds) {
+                collect(nameAdditions, item.getItemName(), item.getId());
+                collect(priceAdditions, item.getPrice(), item.getId());
+            }
+            addAll(names, nameAdditions);
+            addAll(prices, priceAdditions);
+        }
+
+        /**
+         * 検索条件に合致するIDを、件数上限まで求める
+         * item名称の条件と価格の条件のうち、対象件数の少ない側の辞書をID順にたどり、もう一方の条件はIDごとに判定する
+         * @param criteria 検索条件
+         * @return 合致するID。item名称の部分一致の場合はnull（n-gram索引でデータベースを検索する）
+         */
+        ItemIdSet find(ItemSearchCriteria criteria) {
+            String itemName = criteria.getItemName();
+            boolean byName = itemName != null && !itemName.isEmpty();
+            if (byName && criteria.getNameMatch() == ItemNameMatch.PARTIAL) {
+                return null;
+            }
+            int limit = criteria.getCountLimit() != null ? criteria.getCountLimit() : Integer.MAX_VALUE;
+            Integer price = criteria.getPrice();
+            List<Postings> nameIds = byName ? findByName(criteria) : null;
+            List<Postings> priceIds = price != null ? new ArrayList<>(prices.tailMap(price, true).values()) : null;
+
+            if (nameIds == null && priceIds == null) {
+                return collect(List.of(new Postings(ids, count)), id -> true, limit);
+            }
+            if (priceIds == null || (nameIds != null && sizeOf(nameIds) <= sizeOf(priceIds))) {
+                return collect(nameIds, price == null ? id -> true : id -> {
+                    Integer itemPrice = itemPrices[lowerBound(id)];
+                    return itemPrice != null && itemPrice >= price;
+                }, limit);
+            }
+            return collect(priceIds, byName ? id -> criteria.matchesName(itemNames[lowerBound(id)]) : id -> true,
+                    limit);
+        }
+
+        /**
+         * item名称の辞書から、完全一致または前方一致する名称のIDを求める
+         * @param criteria 検索条件
+         * @return 名称ごとのID
+         */
+        private List<Postings> findByName(ItemSearchCriteria criteria) {
+            String itemName = criteria.getItemName();
+            if (criteria.getNameMatch() != ItemNameMatch.PREFIX) {
+                Postings nameIds = names.get(itemName);
+                return nameIds != null ? List.of(nameIds) : List.of();
+            }
+            List<Postings> matched = new ArrayList<>();
+            for (Map.Entry<String, Postings> entry : names.tailMap(itemName, true).entrySet()) {
+                if (!entry.getKey().startsWith(itemName)) {
+                    break;
+                }
+                matched.add(entry.getValue());
+            }
+            return matched;
+        }
+
+        /**
+         * 辞書のIDをID順に突き合わせ、条件に合致するIDを件数上限まで集める
+         * 1件のitemは1つの名称、1つの価格にだけ属するため、辞書間でIDは重複しない
+         * @param postings 辞書のID
+         * @param filter もう一方の条件
+         * @param limit 件数上限
+         * @return 合致するID
+         */
+        private static ItemIdSet collect(List<Postings> postings, IntPredicate filter, int limit) {
+            int[] found = new int[Math.min(limit, 16)];
+            int size = 0;
+            PriorityQueue<int[]> heads = new PriorityQueue<>(
+                    Comparator.comparingInt(head -> postings.get(head[0]).ids[head[1]]));
+            for (int k = 0; k < postings.size(); k++) {
+                if (postings.get(k).size > 0) {
+                    heads.add(new int[] { k, 0 });
+                }
+            }
+            while (!heads.isEmpty() && size < limit) {
+                int[] head = heads.poll();
+                Postings current = postings.get(head[0]);
+                int id = current.ids[head[1]];
+                if (filter.test(id)) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, (int) Math.min((long) size * 2, limit));
+                    }
+                    found[size++] = id;
+                }
+                if (++head[1] < current.size) {
+                    heads.add(head);
+                }
+            }
+            return new ItemIdSet(found, size);
+        }
+
+        private static int sizeOf(List<Postings> postings) {
+            long size = 0;
+            for (Postings ids : postings) {
+                size += ids.size;
+            }
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        /**
+         * ID以上となる最初の位置を求める
+         * @param id ID
+         * @return 位置
+         */
+        private int lowerBound(int id) {
+            int pos = Arrays.binarySearch(ids, 0, count, id);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                int length = Math.max(ids.length * 2, capacity);
+                ids = Arrays.copyOf(ids, length);
+                itemNames = Arrays.copyOf(itemNames, length);
+                itemPrices = Arrays.copyOf(itemPrices, length);
+            }
+        }
+
+        private static <K> void collect(Map<K, Postings> byKey, K key, int id) {
+            if (key != null) {
+                byKey.computeIfAbsent(key, k -> new Postings()).append(id);
+            }
+        }
+
+        private static <K> void removeAll(Map<K, Postings> dictionary, Map<K, Postings> removals) {
+            removals.forEach((key, removedIds) -> {
+                Postings keyIds = dictionary.get(key);
+                keyIds.removeAll(removedIds);
+                if (keyIds.size == 0) {
+                    dictionary.remove(key);
+                }
+            });
+        }
+
+        private static <K> void addAll(Map<K, Postings> dictionary, Map<K, Postings> additions) {
+            additions.forEach((key, addedIds) -> dictionary.computeIfAbsent(key, k -> new Postings()).addAll(addedIds));
+        }
+    }
+
+    /**
+     * 辞書の1項目（item名称、価格）ごとのID（昇順）
+     * 更新はロックの下で行う
+     */
+    private static class Postings {
+
+        /** ID（昇順） */
+        private int[] ids;
+
+        /** 件数 */
+        private int size;
+
+        Postings() {
+            this(new int[4], 0);
+        }
+
+        /**
+         * 既存の配列を参照する（複製しない）
+         * @param ids ID（昇順）
+         * @param size 件数
+         */
+        Postings(int[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        /**
+         * 末尾に追加する（全てのIDより大きいIDに限る）
+         * @param id ID
+         */
+        void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * まとめて追加する（後ろから1回で突き合わせる）
+         * @param added 追加するID（昇順、既存のIDと重複しない）
+         */
+        void addAll(Postings added) {
+            if (size + added.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + added.size));
+            }
+            int i = size - 1;
+            int w = size + added.size - 1;
+            for (int j = added.size - 1; j >= 0; w--) {
+                if (i >= 0 && ids[i] > added.ids[j]) {
+                    ids[w] = ids[i--];
+                } else {
+                    ids[w] = added.ids[j--];
+                }
+            }
+            size += added.size;
+        }
+
+        /**
+         * まとめて削除する（1回で突き合わせて詰める）
+         * @param removed 削除するID（昇順）
+         */
+        void removeAll(Postings removed) {
+            int kept = 0;
+            int r = 0;
+            for (int i = 0; i < size; i++) {
+                while (r < removed.size && removed.ids[r] < ids[i]) {
+                    r++;
+                }
+                if (r < removed.size && removed.ids[r] == ids[i]) {
+                    continue;
+                }
+                ids[kept++] = ids[i];
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.web.ba02;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.demo.entity.Item;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * item検索結果の次ページ先読み
+ *
+ * 検索結果ページを返した後、次ページ（次へリンクと同じ検索）をバックグラウンドで検索し、
+ * セッション単位のバッファに保持する。次へ、または次のページ番号が押された時はバッファから返す。
+ *
+ * 先読みは同時実行数の上限を超える場合と、コネクションプールが混雑している場合は行わない。
+ * 以下のメトリクスを記録する。
+ * item.search.prefetch.gets（result=hit/miss）：検索時にバッファから返せたか
+ * item.search.prefetch.issued：先読みした件数
+ * item.search.prefetch.skipped（reason=busy/load）：先読みを行わなかった件数
+ */
+@Component
+public class ItemSearchPrefetcher implements DisposableBean {
+
+    /** 先読み結果のバッファ（セッション単位） */
+    private final ItemPrefetchBuffer buffer;
+
+    /** 検索結果キャッシュ（世代番号の取得用） */
+    private final ItemSearchCache cache;
+
+    /** コネクションプール（Hikari以外の場合はnull） */
+    private final HikariDataSource pool;
+
+    /** 先読みのエグゼキュータ */
+    private final Executor executor;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 先読み結果の有効期間（ナノ秒） */
+    private final long ttlNanos;
+
+    /** 先読みを行わないコネクションプールの使用率 */
+    private final double loadThreshold;
+
+    /** バッファから返せた件数 */
+    private final Counter hits;
+
+    /** バッファから返せなかった件数 */
+    private final Counter misses;
+
+    /** 先読みした件数 */
+    private final Counter issued;
+
+    /** 同時実行数の上限で先読みしなかった件数 */
+    private final Counter skippedBusy;
+
+    /** コネクションプールの混雑で先読みしなかった件数 */
+    private final Counter skippedLoad;
+
+    /**
+     * コンストラクタ
+     * @param buffer 先読み結果のバッファ
+     * @param cache 検索結果キャッシュ
+     * @param dataSource データソース
+     * @param enabled 有効/無効
+     * @param maxConcurrent 同時に実行する先読みの上限
+     * @param ttl 先読み結果の有効期間
+     * @param loadThreshold 先読みを行わないコネクションプールの使用率
+     * @param registry メトリクス登録先
+     */
+    @Autowired
+    public ItemSearchPrefetcher(ItemPrefetchBuffer buffer, ItemSearchCache cache, DataSource dataSource,
+            @Value("${web.search.prefetch.enabled:true}") boolean enabled,
+            @Value("${web.search.prefetch.max-concurrent:2}") int maxConcurrent,
+            @Value("${web.search.prefetch.ttl:30s}") Duration ttl,
+            @Value("${web.search.prefetch.load-threshold:0.5}") double loadThreshold,
+            MeterRegistry registry) {
+        this(buffer, cache, dataSource instanceof HikariDataSource hikari ? hikari : null,
+                prefetchExecutor(maxConcurrent), enabled, ttl, loadThreshold, registry);
+    }
+
+    /**
+     * コンストラクタ
+     * @param buffer 先読み結果のバッファ
+     * @param cache 検索結果キャッシュ
+     * @param pool コネクションプール（nullの場合は混雑を判定しない）
+     * @param executor 先読みのエグゼキュータ（上限を超える場合はRejectedExecutionExceptionを送出すること）
+     * @param enabled 有効/無効
+     * @param ttl 先読み結果の有効期間
+     * @param loadThreshold 先読みを行わないコネクションプールの使用率
+     * @param registry メトリクス登録先
+     */
+    ItemSearchPrefetcher(ItemPrefetchBuffer buffer, ItemSearchCache cache, HikariDataSource pool,
+            Executor executor, boolean enabled, Duration ttl, double loadThreshold, MeterRegistry registry) {
+        this.buffer = buffer;
+        this.cache = cache;
+        this.pool = pool;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.loadThreshold = loadThreshold;
+        this.hits = Counter.builder("item.search.prefetch.gets").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("item.search.prefetch.gets").tag("result", "miss").register(registry);
+        this.issued = Counter.builder("item.search.prefetch.issued").register(registry);
+        this.skippedBusy = Counter.builder("item.search.prefetch.skipped").tag("reason", "busy").register(registry);
+        this.skippedLoad = Counter.builder("item.search.prefetch.skipped").tag("reason", "load").register(registry);
+    }
+
+    /**
+     * 先読みした検索結果を取り出す
+     * @param criteria 検索条件
+     * @return 検索結果。先読みしていない場合はnull
+     */
+    public Page<Item> take(ItemSearchCriteria criteria) {
+        if (!enabled || !inSession()) {
+            return null;
+        }
+        CompletableFuture<Page<Item>> future = buffer.take(key(criteria), cache.generation(), System.nanoTime());
+        Page<Item> page = null;
+        if (future != null) {
+            try {
+                // 先読みが完了していない場合は、検索し直すより先読みの完了を待つ方が早い
+                page = future.join();
+            } catch (CompletionException e) {
+                // 先読みに失敗した場合（対象が削除された等）は検索し直す
+                page = null;
+            }
+        }
+        (page != null ? hits : misses).increment();
+        return page;
+    }
+
+    /**
+     * 検索結果の次ページを先読みする
+     * @param criteria 検索条件
+     * @param page 検索結果
+     * @param loader 検索処理
+     */
+    public void prefetchNext(ItemSearchCriteria criteria, Page<Item> page,
+            Function<ItemSearchCriteria, Page<Item>> loader) {
+        if (!enabled || !page.hasNext() || !page.hasContent() || !inSession()) {
+            return;
+        }
+        if (isUnderLoad()) {
+            skippedLoad.increment();
+            return;
+        }
+
+        // 次へリンクと同じ検索条件（ID順の場合は表示中ページ末尾のIDを基準とするキーセット、以外はオフセット）
+        List<Item> itemList = page.getContent();
+        ItemSearchCriteria next = copy(criteria);
+        next.setPageable(criteria.getPageable().next());
+        next.setKeyset(criteria.isIdOrder() ? ItemSearchCursor.next(itemList.get(itemList.size() - 1).getId()) : null);
+
+        long generation = cache.generation();
+        CompletableFuture<Page<Item>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> loader.apply(next), executor);
+        } catch (RejectedExecutionException e) {
+            skippedBusy.increment();
+            return;
+        }
+        buffer.put(key(next), future, generation, System.nanoTime() + ttlNanos);
+        issued.increment();
+    }
+
+    /**
+     * コネクションプールが混雑しているか
+     * @return 接続待ちがある場合、または使用中の接続数が閾値以上の場合true
+     */
+    private boolean isUnderLoad() {
+        HikariPoolMXBean mxBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (mxBean == null) {
+            return false;
+        }
+        return mxBean.getThreadsAwaitingConnection() > 0
+                || mxBean.getActiveConnections() >= pool.getMaximumPoolSize() * loadThreshold;
+    }
+
+    /**
+     * セッション単位のバッファが使用できるか（画面からの検索か）
+     * @return 使用できる場合true
+     */
+    private boolean inSession() {
+        return RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    /**
+     * バッファのキー
+     * キーセットとオフセットのどちらで次ページを指定しても同じページとなるため、キーセットを除く
+     * @param criteria 検索条件
+     * @return キー
+     */
+    private ItemSearchCriteria key(ItemSearchCriteria criteria) {
+        ItemSearchCriteria key = copy(criteria);
+        key.setKeyset(null);
+        return key;
+    }
+
+    private ItemSearchCriteria copy(ItemSearchCriteria criteria) {
+        ItemSearchCriteria copy = new ItemSearchCriteria();
+        BeanUtils.copyProperties(criteria, copy);
+        return copy;
+    }
+
+    /**
+     * 先読みのエグゼキュータを生成する
+     * 待ち行列を持たず、上限を超える場合は受け付けない
+     * @param maxConcurrent 同時に実行する先読みの上限
+     * @return エグゼキュータ
+     */
+    private static ThreadPoolTaskExecutor prefetchExecutor(int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("item-prefetch-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ThreadPoolTaskExecutor threadPool) {
+            threadPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.web.ba02;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.core.exception.SystemException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * item検索の件数取得とデータ取得の実行
+ *
+ * 並行実行が有効な場合、データ取得を仮想スレッドで開始し、件数取得を呼び出し元のスレッドで並行して行う。
+ * データ取得はトランザクション外の別コネクションで実行されるため、コネクションプールを1本余分に使用する。
+ * 件数が範囲外（0件、最大検索結果件数超過）の場合は、データ取得を取り消す。
+ *
+ * 以下のメトリクスを記録する。コネクションプールの状況は hikaricp.connections.* で確認する。
+ * item.search.count-and-fetch（mode=sequential/concurrent）：件数取得とデータ取得の合計時間
+ * item.search.concurrent.saved：並行実行で短縮された時間（件数取得＋データ取得−合計時間）
+ * item.search.concurrent.active：実行中のデータ取得（余分に使用しているコネクション）の数
+ * item.search.concurrent.cancelled：取り消したデータ取得の件数
+ */
+@Component
+public class ItemSearchQueryRunner {
+
+    /** データ取得のエグゼキュータ（並行実行が無効の場合はnull） */
+    private final AsyncTaskExecutor executor;
+
+    /** 逐次実行の時間 */
+    private final Timer sequentialTimer;
+
+    /** 並行実行の時間 */
+    private final Timer concurrentTimer;
+
+    /** 並行実行で短縮された時間 */
+    private final Timer savedTimer;
+
+    /** 取り消したデータ取得の件数 */
+    private final Counter cancelledCounter;
+
+    /** 実行中のデータ取得の数 */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * コンストラクタ
+     * @param enabled 並行実行の有効/無効
+     * @param limit 同時に実行するデータ取得の上限（余分に使用するコネクション数の上限）
+     * @param registry メトリクス登録先
+     */
+    @Autowired
+    public ItemSearchQueryRunner(
+            @Value("${web.search.concurrent.enabled:false}") boolean enabled,
+            @Value("${web.search.concurrent.limit:5}") int limit,
+            MeterRegistry registry) {
+        this(enabled ? virtualThreadExecutor(limit) : null, registry);
+    }
+
+    /**
+     * コンストラクタ
+     * @param executor データ取得のエグゼキュータ（nullの場合は逐次実行）
+     * @param registry メトリクス登録先
+     */
+    ItemSearchQueryRunner(AsyncTaskExecutor executor, MeterRegistry registry) {
+        this.executor = executor;
+        sequentialTimer = Timer.builder("item.search.count-and-fetch").tag("mode", "sequential").register(registry);
+        concurrentTimer = Timer.builder("item.search.count-and-fetch").tag("mode", "concurrent").register(registry);
+        savedTimer = Timer.builder("item.search.concurrent.saved").register(registry);
+        cancelledCounter = Counter.builder("item.search.concurrent.cancelled").register(registry);
+        registry.gauge("item.search.concurrent.active", active);
+    }
+
+    /**
+     * 件数取得とデータ取得を実行する
+     * @param <T> データの型
+     * @param count 件数取得
+     * @param check 件数チェック（範囲外の場合は例外を送出する）
+     * @param fetch データ取得
+     * @return 件数とデータ
+     */
+    public <T> Result<T> run(Supplier<Long> count, LongConsumer check, Supplier<T> fetch) {
+        long start = System.nanoTime();
+        if (executor == null) {
+            long total = count.get();
+            check.accept(total);
+            T rows = fetch.get();
+            sequentialTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new Result<>(total, rows);
+        }
+
+        long[] fetchTime = new long[1];
+        Future<T> future = executor.submit(() -> {
+            active.incrementAndGet();
+            long fetchStart = System.nanoTime();
+            try {
+                return fetch.get();
+            } finally {
+                fetchTime[0] = System.nanoTime() - fetchStart;
+                active.decrementAndGet();
+            }
+        });
+
+        long total;
+        long countTime;
+        try {
+            total = count.get();
+            countTime = System.nanoTime() - start;
+            check.accept(total);
+        } catch (RuntimeException e) {
+            // 件数が範囲外の場合、データは不要
+            future.cancel(true);
+            cancelledCounter.increment();
+            throw e;
+        }
+
+        T rows = await(future);
+        long elapsed = System.nanoTime() - start;
+        concurrentTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        savedTimer.record(Math.max(countTime + fetchTime[0] - elapsed, 0), TimeUnit.NANOSECONDS);
+        return new Result<>(total, rows);
+    }
+
+    /**
+     * 仮想スレッドでデータ取得を実行するエグゼキュータを生成する
+     * @param limit 同時に実行するデータ取得の上限
+     * @return エグゼキュータ
+     */
+    private static AsyncTaskExecutor virtualThreadExecutor(int limit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("item-search-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(limit);
+        return executor;
+    }
+
+    /**
+     * データ取得の完了を待つ
+     * @param <T> データの型
+     * @param future データ取得
+     * @return データ
+     */
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SystemException("ME999", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new SystemException("ME999", e.getCause());
+        } catch (CancellationException e) {
+            throw new SystemException("ME999", e);
+        }
+    }
+
+    /**
+     * 件数とデータ
+     * @param <T> データの型
+     * @param total 件数
+     * @param rows データ
+     */
+    public record Result<T>(long total, T rows) {
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.demo.web.ba02;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
 import com.example.demo.web.mapper.ItemMapper;
 
 import lombok.RequiredArgsConstructor;
@@ -23,6 +27,21 @@ public class ItemSearchService {
     /** itemMapper */
     private final ItemMapper mapper;
 
+    /** itemの履歴Mapper */
+    private final ItemHistoryMapper historyMapper;
+
+    /** item検索結果キャッシュ */
+    private final ItemSearchCache cache;
+
+    /** item検索索引 */
+    private final ItemSearchIndex index;
+
+    /** 件数取得とデータ取得の実行 */
+    private final ItemSearchQueryRunner queryRunner;
+
+    /** 次ページの先読み */
+    private final ItemSearchPrefetcher prefetcher;
+
     /** 最大検索結果件数 */
     private static final int SEARCH_MAX = 1000;
 
@@ -34,8 +53,257 @@ public class ItemSearchService {
     @Transactional
     public Page<Item> findAll(ItemSearchCriteria criteria){
 
+        // 最大検索結果件数の超過が判定できればよいため、件数は最大検索結果件数+1件で打ち切る
+        criteria.setCountLimit(SEARCH_MAX + 1);
+
+        if (criteria.getAsOf() != null) {
+            // 時点指定の検索は履歴を検索する（キャッシュ、索引、先読みは現在のitemのため使用しない）
+            return findAllAsOf(criteria);
+        }
+
+        // 先読み済み、またはキャッシュ済みであれば、データベースを検索しない
+        Page<Item> pages = prefetcher.take(criteria);
+        if (pages == null) {
+            pages = cache.get(criteria);
+        }
+        if (pages == null) {
+            long generation = cache.generation();
+            pages = search(criteria);
+            cache.put(criteria, pages, generation);
+        }
+
+        // 次ページを先読みする
+        prefetcher.prefetchNext(criteria, pages, this::search);
+        return pages;
+    }
+
+    /**
+     * 検索結果の世代番号を取得する
+     * 検索前に取得し、検索結果と合わせて保持する。保持した検索結果の後に変更がコミットされたかの判定に使用する
+     * @return 世代番号（変更をコミットする度に加算）
+     */
+    public long generation() {
+        return cache.generation();
+    }
+
+    /**
+     * 削除後のページ
+     * 表示中のページから削除したitemを除き、次ページの先頭だった1件だけを検索して末尾に補充する。総件数は1件減らす。
+     * 以下の場合は、検索し直す必要があるためnullを返す
+     * ・削除したitemがページに無い場合、ページが空になる（ページ境界が移動する）場合、補充する1件が無い場合
+     * ・表示中のページの検索後に、この削除以外の変更がコミットされた場合（補充の検索中を含む）
+     * ・補充する1件が既にページにある場合
+     * @param criteria 検索条件
+     * @param page 表示中のページ
+     * @param deletedId 削除したitemのID
+     * @param generation 表示中のページの検索前に取得した世代番号（generation()）
+     * @return 削除後のページ。検索し直す必要がある場合はnull
+     */
+    @Transactional
+    public Page<Item> removeFromPage(ItemSearchCriteria criteria, Page<Item> page, Integer deletedId,
+            long generation) {
+        // 削除のコミットで世代番号は1だけ進む。それ以上進んでいれば、表示中のページ自体が古い
+        long expected = generation + 1;
+        List<Item> itemList = new ArrayList<>(page.getContent());
+        if (cache.generation() != expected
+                || !itemList.removeIf(item -> item.getId().equals(deletedId)) || itemList.isEmpty()) {
+            return null;
+        }
+        long total = page.getTotalElements() - 1;
+
+        // 削除により、次ページの先頭だった行がページの末尾の位置に繰り上がる
+        long next = page.getPageable().getOffset() + page.getPageable().getPageSize() - 1;
+        if (next < total) {
+            Item backfill = findAt(criteria, next);
+            if (backfill == null || cache.generation() != expected
+                    || itemList.stream().anyMatch(item -> item.getId().equals(backfill.getId()))) {
+                return null;
+            }
+            itemList.add(backfill);
+        }
+        return new PageImpl<Item>(itemList, page.getPageable(), total);
+    }
+
+    /**
+     * 検索条件の並び順で、指定位置の1件を検索する
+     * キャッシュ、先読みは使用しない
+     * @param criteria 検索条件
+     * @param offset 位置（先頭は0）
+     * @return item。存在しない場合はnull
+     */
+    private Item findAt(ItemSearchCriteria criteria, long offset) {
+        ItemSearchCriteria one = new ItemSearchCriteria();
+        BeanUtils.copyProperties(criteria, one);
+        one.setPageable(PageRequest.of(Math.toIntExact(offset), 1, criteria.getPageable().getSort()));
+        one.setKeyset(null);
+        one.setCountLimit(null);
+        List<Item> itemList = mapper.findAll(one);
+        return itemList.isEmpty() ? null : itemList.get(0);
+    }
+
+    /**
+     * 絞り込み件数
+     * item分類ごとの件数と価格帯ごとの件数を、1回の問い合わせで求める
+     * 件数はページによらないため、ページを移動しても検索条件が同じであればキャッシュから返す
+     * @param criteria 検索条件（ページ情報は使用しない）
+     * @return 絞り込み件数
+     */
+    @Transactional
+    public ItemFacets findFacets(ItemSearchCriteria criteria) {
+        ItemFacets facets = cache.getFacets(criteria);
+        if (facets == null) {
+            long generation = cache.generation();
+            facets = ItemFacets.of(mapper.countFacets(criteria));
+            cache.putFacets(criteria, facets, generation);
+        }
+        return facets;
+    }
+
+    /**
+     * データベースを検索する
+     * @param criteria 検索条件
+     * @return 検索結果リスト
+     */
+    private Page<Item> search(ItemSearchCriteria criteria) {
+
+        ItemIdSet ids = index.find(criteria);
+        if (!criteria.isIdOrder()) {
+            // ID順以外の並べ替え
+            return findAllSorted(criteria, ids);
+        }
+        if (ids != null) {
+            // 索引で合致するIDを求め、ページ分のitemだけデータベースから取得する
+            return findAllByIndex(criteria, ids);
+        }
+
+        if (criteria.getKeyset() != null) {
+            // キーセットページング（次へ・前へ）
+            return findAllByKeyset(criteria);
+        }
+
+        // 件数取得とデータ取得を1回の問い合わせで行う
+        List<ItemPageRow> rows = mapper.findPageWithTotal(criteria);
+
+        long total;
+        if (rows.isEmpty()) {
+            // 0件、または指定ページが範囲外の場合は総件数が付与されないため、件数のみ取得する
+            total = mapper.countAllLimited(criteria);
+        } else {
+            total = rows.get(0).getTotalCount();
+        }
+        checkTotal(total);
+
+        List<Item> itemList = rows.stream().map(ItemPageRow::getItem).toList();
+        return new PageImpl<Item>(itemList, criteria.getPageable(), total);
+    }
+
+    /**
+     * 全件検索（ID順以外の並べ替え）
+     * 並べ替えは並び順ごとの複合索引を使用してデータベースで行う。件数はメモリ内索引が使用できれば索引から求める
+     * @param criteria 検索条件
+     * @param ids 検索条件に合致するID（メモリ内索引が使用できない場合はnull）
+     * @return 検索結果リスト
+     */
+    private Page<Item> findAllSorted(ItemSearchCriteria criteria, ItemIdSet ids) {
+        ItemSearchQueryRunner.Result<List<Item>> result = queryRunner.run(
+                () -> ids != null ? ids.size() : mapper.countAllLimited(criteria),
+                this::checkTotal, () -> mapper.findAll(criteria));
+        return new PageImpl<Item>(result.rows(), criteria.getPageable(), result.total());
+    }
+
+    /**
+     * 全件検索（時点指定）
+     * ページングはオフセット方式とする（キーセットは使用しない）
+     * @param criteria 検索条件
+     * @return 検索結果リスト
+     */
+    private Page<Item> findAllAsOf(ItemSearchCriteria criteria) {
+        ItemSearchQueryRunner.Result<List<Item>> result = queryRunner.run(
+                () -> historyMapper.countAllAsOf(criteria), this::checkTotal, () -> historyMapper.findAllAsOf(criteria));
+        return new PageImpl<Item>(result.rows(), criteria.getPageable(), result.total());
+    }
+
+    /**
+     * 全件検索（索引）
+     * @param criteria 検索条件
+     * @param ids 検索条件に合致するID
+     * @return 検索結果リスト
+     */
+    private Page<Item> findAllByIndex(ItemSearchCriteria criteria, ItemIdSet ids) {
+
         // 件数取得
-        long total = mapper.countAll(criteria);
+        long total = ids.size();
+        checkTotal(total);
+
+        // ページ分のID
+        List<Integer> pageIds = null;
+        if (criteria.getKeyset() != null) {
+            pageIds = keysetIds(ids, criteria.getKeyset(), criteria.getPageable().getPageSize());
+        }
+        if (pageIds == null || pageIds.isEmpty()) {
+            long offset = criteria.getPageable().getOffset();
+            int from = (int) Math.min(offset, total);
+            int to = (int) Math.min(offset + criteria.getPageable().getPageSize(), total);
+            pageIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                pageIds.add(ids.get(i));
+            }
+        }
+
+        // データ取得
+        List<Item> itemList = pageIds.isEmpty() ? List.of() : mapper.findAllByIds(pageIds);
+        return new PageImpl<Item>(itemList, criteria.getPageable(), total);
+    }
+
+    /**
+     * カーソルを基準に、次ページまたは前ページ分のIDを求める
+     * @param ids 検索条件に合致するID
+     * @param keyset カーソル
+     * @param pageSize 1ページあたりの件数
+     * @return IDリスト（ID昇順）
+     */
+    private List<Integer> keysetIds(ItemIdSet ids, ItemSearchCursor keyset, int pageSize) {
+        List<Integer> pageIds = new ArrayList<>(pageSize);
+        int pos = ids.lowerBound(keyset.getId());
+        if (keyset.isPrev()) {
+            for (int i = Math.max(pos - pageSize, 0); i < pos; i++) {
+                pageIds.add(ids.get(i));
+            }
+        } else {
+            if (pos < ids.size() && ids.get(pos) == keyset.getId()) {
+                pos++;
+            }
+            for (int i = pos; i < ids.size() && pageIds.size() < pageSize; i++) {
+                pageIds.add(ids.get(i));
+            }
+        }
+        return pageIds;
+    }
+
+    /**
+     * 全件検索（キーセットページング）
+     * @param criteria 検索条件
+     * @return 検索結果リスト
+     */
+    private Page<Item> findAllByKeyset(ItemSearchCriteria criteria) {
+
+        // 件数取得とデータ取得（並行実行が有効な場合は並行して行う）
+        ItemSearchQueryRunner.Result<List<Item>> result = queryRunner.run(
+                () -> mapper.countAllLimited(criteria), this::checkTotal, () -> mapper.findAllByKeyset(criteria));
+        long total = result.total();
+        List<Item> itemList = result.rows();
+        if (itemList.isEmpty()) {
+            // キーセットで取得できなかった場合（基準行より先が削除された等）はページ番号で取得する
+            itemList = mapper.findAll(criteria);
+        }
+        return new PageImpl<Item>(itemList, criteria.getPageable(), total);
+    }
+
+    /**
+     * 検索結果件数をチェックする
+     * @param total 検索結果件数
+     */
+    private void checkTotal(long total) {
         if (total > SEARCH_MAX) {
             // 最大検索結果件数を超過エラー
             throw new AppException("ME002");
@@ -43,9 +311,5 @@ public class ItemSearchService {
             // 検索結果0件エラー
             throw new AppException("ME003");
         }
-
-        // データ取得
-        List<Item> itemList = mapper.findAll(criteria);
-        return new PageImpl<Item>(itemList, criteria.getPageable(), total);
     }
 }
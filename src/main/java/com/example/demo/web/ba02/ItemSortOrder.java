@@ -0,0 +1,48 @@
+package com.example.demo.web.ba02;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+
+/**
+ * item検索結果の並び順
+ * 
+ * 各並び順は、schema-all.sqlの複合索引（並べ替え項目, ID）を順方向または逆方向に読むことで、
+ * 検索結果を並べ替えずにページ分だけ取得できる。
+ */
+public enum ItemSortOrder {
+
+    ID("ID順", Sort.by(Direction.ASC, "id")),
+    PRICE_ASC("価格の安い順", Sort.by(Direction.ASC, "price")),
+    PRICE_DESC("価格の高い順", Sort.by(Direction.DESC, "price")),
+    REGIST_DATE_DESC("登録日の新しい順", Sort.by(Direction.DESC, "registDate")),
+    REGIST_DATE_ASC("登録日の古い順", Sort.by(Direction.ASC, "registDate")),
+    ITEM_NAME_ASC("名称の昇順", Sort.by(Direction.ASC, "itemName")),
+    ITEM_NAME_DESC("名称の降順", Sort.by(Direction.DESC, "itemName"));
+
+    private String label;
+    private Sort sort;
+
+    private ItemSortOrder(String label, Sort sort) {
+        this.label = label;
+        this.sort = sort;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public Sort getSort() {
+        return this.sort;
+    }
+
+    /**
+     * ID昇順（既定の並び順）か
+     * @param sort 並び順
+     * @return 未指定、またはID昇順の場合true
+     */
+    public static boolean isIdOrder(Sort sort) {
+        Order first = sort.stream().findFirst().orElse(null);
+        return first == null || ("id".equals(first.getProperty()) && first.isAscending());
+    }
+}
@@ -1,39 +1,140 @@
 package com.example.demo.web.ba03;
 
+import java.security.Principal;
+import java.util.Locale;
+
+import org.springframework.context.MessageSource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.demo.entity.Item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 /**
  * item詳細画面コントローラ
+ *
+ * 条件付きGET（If-None-Match）に対応する。ETagはIDと、表示するitemのバージョン番号から生成し、
+ * 変更が無い場合は304を返す（画面の描画は行わない）。
+ * itemはitem詳細キャッシュから取得する（変更はコミット後に、他ノードの変更は変更履歴から無効化される）ため、
+ * キャッシュにある場合は304、200のいずれもデータベースにアクセスせず、キャッシュに無い場合だけ1回取得する。
+ * 時点を指定した場合は、その時点のitemを履歴から取得して表示する（条件付きGETには対応しない）。
+ * itemが存在しない（時点指定の場合は、その時点で未登録または削除済みの）場合は、404でメッセージを表示する。
  */
 @Controller
 @RequiredArgsConstructor
 public class BA0301Controller {
 
+    /** キャッシュの指定（利用者のブラウザにだけ保存し、使用の都度確認させる） */
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
     private final ItemDetailService itemDetailService;
 
+    /** メッセージ */
+    private final MessageSource messages;
+
     /**
      * item詳細画面表示する。
+     * @param form 詳細フォーム
+     * @param result 入力チェック結果
+     * @param principal ログイン中のユーザ
+     * @param request リクエスト
+     * @param response レスポンス
      * @param model Model
      * @return item照会画面
      */
     @GetMapping("/WBA0301/index")
-    public String index(@Validated ItemDetailForm form, BindingResult result, Model model) {
+    public String index(@Validated ItemDetailForm form, BindingResult result, Principal principal,
+            WebRequest request, HttpServletResponse response, Model model) {
         if (result.hasErrors()) {
             // 詳細フォームに単項目エラーがあった場合には、予期しないエラーのため、システムエラー画面へ遷移する
             return "error";
         }
 
+        if (form.getAsOf() != null) {
+            model.addAttribute("asOf", form.getAsOf());
+            return show(itemDetailService.findAsOf(form.getId(), form.getAsOf()), response, model);
+        }
+
         Item item = itemDetailService.find(form.getId());
-        model.addAttribute("item", item);
+        if (item != null) {
+            // 画面にはログイン中のユーザ名を表示するため、ユーザごとに異なるETagとする
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            if (request.checkNotModified(etag(form.getId(), item.getVersionNo())
+                    + "-" + Integer.toHexString(principal.getName().hashCode()))) {
+                return null;
+            }
+        }
+        return show(item, response, model);
+    }
 
+    /**
+     * itemを表示する（存在しない場合は404でメッセージを表示する）
+     * @param item item。存在しない場合はnull
+     * @param response レスポンス
+     * @param model Model
+     * @return item詳細画面
+     */
+    private String show(Item item, HttpServletResponse response, Model model) {
+        if (item == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            model.addAttribute("message", messages.getMessage("ME009", null, Locale.getDefault()));
+        }
+        model.addAttribute("item", item);
         return "BA0301/index";
     }
+
+    /**
+     * item詳細をJSONで返す。
+     * @param form 詳細フォーム
+     * @param result 入力チェック結果
+     * @param request リクエスト
+     * @param response レスポンス
+     * @return item。存在しない場合は404
+     */
+    @GetMapping(path = "/WBA0301/index", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Item> item(@Validated ItemDetailForm form, BindingResult result, WebRequest request,
+            HttpServletResponse response) {
+        if (result.hasErrors()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (form.getAsOf() != null) {
+            Item item = itemDetailService.findAsOf(form.getId(), form.getAsOf());
+            return item != null ? ResponseEntity.ok(item) : ResponseEntity.notFound().build();
+        }
+
+        Item item = itemDetailService.find(form.getId());
+        if (item == null) {
+            return ResponseEntity.notFound().build();
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (request.checkNotModified(etag(form.getId(), item.getVersionNo()))) {
+            return null;
+        }
+        // ETagはcheckNotModifiedでレスポンスに設定済み
+        return ResponseEntity.ok(item);
+    }
+
+    /**
+     * ETagを生成する
+     * @param id ID
+     * @param versionNo バージョン番号
+     * @return ETag（引用符なし）
+     */
+    private static String etag(Integer id, Integer versionNo) {
+        return "item-" + id + "-" + versionNo;
+    }
 }
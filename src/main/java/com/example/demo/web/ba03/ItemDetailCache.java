@@ -0,0 +1,173 @@
+package com.example.demo.web.ba03;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.core.cache.BoundedCache;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * item詳細キャッシュ
+ * 
+ * IDをキーに、itemを保持する（存在しないIDは保持しない）。
+ * itemの登録、更新、削除、一括登録、一括更新、一括削除のコミット後に、変更前または変更後のIDのエントリを削除する。
+ * 一括価格改定のコミット後は、改定した範囲（item分類とIDの範囲）のエントリを削除する（全エントリを走査する）。
+ * 他ノードで変更されたitemは、ItemClusterInvalidatorから削除する。
+ * 
+ * 取得中に他のトランザクションがコミットした場合、古いitemを格納しないよう世代番号で判定する（ItemSearchCacheと同じ）。
+ * 呼び出し元でitemが変更されてもキャッシュが変わらないよう、格納時と取得時に複製する。
+ */
+@Component
+public class ItemDetailCache {
+
+    /** item */
+    private final BoundedCache<Integer, Item> cache;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 世代番号（変更をコミットする度に加算） */
+    private long generation;
+
+    /**
+     * コンストラクタ
+     * @param enabled 有効/無効
+     * @param maxEntries 最大件数
+     * @param registry メトリクス登録先
+     */
+    public ItemDetailCache(
+            @Value("${web.detail.cache.enabled:true}") boolean enabled,
+            @Value("${web.detail.cache.max-entries:10000}") int maxEntries,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.cache = new BoundedCache<>("itemDetail", maxEntries, maxEntries, item -> 1, registry);
+    }
+
+    /**
+     * 世代番号を取得する
+     * 取得開始前に取得し、格納時に指定する
+     * @return 世代番号
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * itemを取得する
+     * @param id ID
+     * @return item。存在しない場合はnull
+     */
+    public Item get(Integer id) {
+        if (!enabled) {
+            return null;
+        }
+        return copy(cache.get(id));
+    }
+
+    /**
+     * itemを格納する
+     * @param item item
+     * @param generation 取得開始前に取得した世代番号
+     */
+    public synchronized void put(Item item, long generation) {
+        if (!enabled || generation != this.generation) {
+            // 取得中に変更がコミットされた場合は、古いitemの可能性があるため格納しない
+            return;
+        }
+        cache.put(item.getId(), copy(item));
+    }
+
+    /**
+     * item変更のコミット後に、変更したitemを削除する
+     * @param event item変更イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        generation++;
+        if (event.getBefore() != null) {
+            cache.remove(event.getBefore().getId());
+        }
+        if (event.getAfter() != null) {
+            cache.remove(event.getAfter().getId());
+        }
+    }
+
+    /**
+     * item一括登録のコミット後に、登録したitemを削除する
+     * @param event item一括登録イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onItemsInserted(ItemsInsertedEvent event) {
+        generation++;
+        event.getItems().forEach(item -> cache.remove(item.getId()));
+    }
+
+    /**
+     * item一括更新のコミット後に、更新したitemを削除する
+     * @param event item一括更新イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onItemsUpdated(ItemsUpdatedEvent event) {
+        generation++;
+        event.getAfters().forEach(item -> cache.remove(item.getId()));
+    }
+
+    /**
+     * item一括削除のコミット後に、削除したitemを削除する
+     * @param event item一括削除イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onItemsDeleted(ItemsDeletedEvent event) {
+        generation++;
+        event.getItems().forEach(item -> cache.remove(item.getId()));
+    }
+
+    /**
+     * 一括価格改定のコミット後に、改定した範囲のitemを削除する
+     * @param event item一括価格改定イベント
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onItemsRepriced(ItemsRepricedEvent event) {
+        generation++;
+        cache.invalidateIf((id, item) -> Objects.equals(item.getGroupid(), event.getGroupid())
+                && (event.getAfterId() == null || id > event.getAfterId())
+                && id <= event.getLastId());
+    }
+
+    /**
+     * 他ノードで変更されたitemを削除する
+     * @param ids 変更されたitemのID
+     */
+    public synchronized void invalidate(Collection<Integer> ids) {
+        generation++;
+        ids.forEach(cache::remove);
+    }
+
+    /**
+     * 全itemを削除する
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.clear();
+    }
+
+    private static Item copy(Item item) {
+        if (item == null) {
+            return null;
+        }
+        return new Item(item.getId(), item.getItemName(), item.getPrice(), item.getGroupid(), item.getRegistDate(),
+                item.getVersionNo());
+    }
+}
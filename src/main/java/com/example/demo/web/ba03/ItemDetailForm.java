@@ -1,6 +1,10 @@
 package com.example.demo.web.ba03;
 
 
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -12,4 +16,11 @@ public class ItemDetailForm {
      */
     @NotNull
     private Integer id;
+
+    /**
+     * 時点
+     * 指定時は、その日の終わりの時点のitemを表示する
+     */
+    @DateTimeFormat(pattern = "uuuu-MM-dd")
+    private LocalDate asOf;
 }
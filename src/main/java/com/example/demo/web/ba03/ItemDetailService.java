@@ -1,19 +1,65 @@
 package com.example.demo.web.ba03;
 
+import java.time.LocalDate;
+
 import org.springframework.stereotype.Service;
 
 import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
 import com.example.demo.web.mapper.ItemMapper;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * item詳細サービス
+ * 
+ * itemはitem詳細キャッシュから取得し、キャッシュに無い場合だけデータベースから取得して格納する。
+ * 時点を指定した場合は、キャッシュを使用せずitemの履歴から取得する。
+ */
 @Service
 @RequiredArgsConstructor
 public class ItemDetailService {
 
     private final ItemMapper itemMapper;
 
+    private final ItemHistoryMapper itemHistoryMapper;
+
+    private final ItemDetailCache itemDetailCache;
+
+    /**
+     * itemを取得する
+     * @param id ID
+     * @return item。存在しない場合はnull
+     */
     public Item find(Integer id) {
-        return itemMapper.findById(id);
+        Item item = itemDetailCache.get(id);
+        if (item != null) {
+            return item;
+        }
+        return load(id);
+    }
+
+    /**
+     * 時点を指定してitemを取得する
+     * @param id ID
+     * @param asOf 時点（その日の終わりの時点）
+     * @return item。時点で存在しない場合はnull
+     */
+    public Item findAsOf(Integer id, LocalDate asOf) {
+        return itemHistoryMapper.findAsOf(id, asOf.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * データベースからitemを取得し、キャッシュに格納する
+     * @param id ID
+     * @return item。存在しない場合はnull
+     */
+    private Item load(Integer id) {
+        long generation = itemDetailCache.generation();
+        Item item = itemMapper.findById(id);
+        if (item != null) {
+            itemDetailCache.put(item, generation);
+        }
+        return item;
     }
 }
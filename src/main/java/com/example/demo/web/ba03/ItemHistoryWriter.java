@@ -0,0 +1,87 @@
+package com.example.demo.web.ba03;
+
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * itemの履歴の追記
+ * 
+ * itemの登録、更新、削除、一括登録、一括更新、一括削除、一括価格改定と同一トランザクション内で、変更後のitemを履歴に追記する。
+ * 削除は削除の履歴を追記する。履歴は追記時刻から、次の履歴の追記時刻まで有効となる。
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemHistoryWriter {
+
+    /** itemの履歴Mapper */
+    private final ItemHistoryMapper mapper;
+
+    /**
+     * item変更を追記する
+     * @param event item変更イベント
+     */
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getAfter() == null) {
+            mapper.insertDeleteHistory(event.getBefore().getId(), event.getBefore().getVersionNo());
+        } else {
+            mapper.insertHistory(event.getAfter().getId());
+        }
+    }
+
+    /**
+     * 一括登録したitemを1回の問い合わせで追記する
+     * @param event item一括登録イベント
+     */
+    @EventListener
+    public void onItemsInserted(ItemsInsertedEvent event) {
+        List<Integer> ids = event.getItems().stream().map(Item::getId).toList();
+        if (!ids.isEmpty()) {
+            mapper.insertHistories(ids);
+        }
+    }
+
+    /**
+     * 一括更新したitemを1回の問い合わせで追記する
+     * @param event item一括更新イベント
+     */
+    @EventListener
+    public void onItemsUpdated(ItemsUpdatedEvent event) {
+        List<Integer> ids = event.getAfters().stream().map(Item::getId).toList();
+        if (!ids.isEmpty()) {
+            mapper.insertHistories(ids);
+        }
+    }
+
+    /**
+     * 一括削除したitemの削除の履歴を1回の問い合わせで追記する
+     * @param event item一括削除イベント
+     */
+    @EventListener
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        if (!event.getItems().isEmpty()) {
+            mapper.insertDeleteHistories(event.getItems());
+        }
+    }
+
+    /**
+     * 一括価格改定の範囲を追記する
+     * @param event item一括価格改定イベント
+     */
+    @EventListener
+    public void onItemsRepriced(ItemsRepricedEvent event) {
+        mapper.insertRepricedHistory(event.getGroupid(), event.getAfterId(), event.getLastId());
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.web.ba04;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 import org.springframework.context.MessageSource;
@@ -10,11 +12,14 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.SessionAttributes;
 
 import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemNameMatch;
+import com.example.demo.web.ba02.ItemSearchCriteria;
 import com.example.demo.web.ba02.ItemSearchForm;
 import com.example.demo.web.ba02.ItemSearchService;
 
@@ -32,6 +37,8 @@ public class BA0401Controller {
     private final ItemDeleteService itemDeleteService;
     /** item検索サービス */
     private final ItemSearchService itemSearchService;
+    /** 表示中の検索結果ページ */
+    private final ItemDeletePage itemDeletePage;
     /** メッセージ */
     private final MessageSource messages;
     /** 1ページあたりの表示件数 */
@@ -50,18 +57,7 @@ public class BA0401Controller {
         // 初期表示時は検索条件をクリアする
         form.clear();
 
-        try {
-            Page<Item> pages = itemSearchService.findAll(form.toCriteria(PAGE_SIZE));
-            if (pages != null) {
-                // ページングに必要な情報
-                model.addAttribute("pages", pages);
-                // 検索結果リスト
-                model.addAttribute("itemList", pages.getContent());
-                //model.addAttribute("itemDeleteForm", deleteForm);
-            }
-        } catch(AppException e) {
-            result.reject(e.getMessageId());
-        }
+        findAndShow(form, result, model);
 
         return "BA0401/delete";
     }
@@ -80,18 +76,7 @@ public class BA0401Controller {
             return "BA0401/delete";
         }
 
-        try {
-            Page<Item> pages = itemSearchService.findAll(form.toCriteria(PAGE_SIZE));
-            if (pages != null) {
-                // ページングに必要な情報
-                model.addAttribute("pages", pages);
-                // 検索結果リスト
-                model.addAttribute("itemList", pages.getContent());
-            }
-        } catch (AppException e){
-            result.reject(e.getMessageId());
-        }
-        
+        findAndShow(form, result, model);
         return "BA0401/delete";
     }
 
@@ -108,6 +93,11 @@ public class BA0401Controller {
             return "error";
         }
 
+        // 削除前に表示していたページ
+        ItemSearchCriteria criteria = form.toCriteria(PAGE_SIZE);
+        Page<Item> displayed = itemDeletePage.get(criteria);
+        long generation = itemDeletePage.generation();
+
         // 削除処理
         try {
             itemDeleteService.deleteOne(deleteForm.getId(), deleteForm.getVersionNo());
@@ -117,19 +107,92 @@ public class BA0401Controller {
             return "BA0401/delete";
         }
         
+        // 表示していたページから削除した行を除き、1件だけ補充する。ページ境界が移動する場合等は検索し直す
+        Page<Item> pages = displayed != null
+                ? itemSearchService.removeFromPage(criteria, displayed, deleteForm.getId(), generation) : null;
+        if (pages != null) {
+            // 削除後のページは、削除のコミット後の世代番号（削除で1だけ進む）で確認済み
+            show(criteria, pages, generation + 1, model);
+            return "BA0401/delete";
+        }
+
+        // 検索処理
+        findAndShow(form, result, model);
+        return "BA0401/delete";
+    }
+
+    /**
+     * 選択したitemを一括削除する
+     * 画面表示後に更新、削除されたitemは削除せず、IDを表示する
+     * @param form ItemSearchForm
+     * @param bulkDeleteForm ItemBulkDeleteForm
+     * @param result BindingResult
+     * @param model Model
+     * @return item削除画面
+     */
+    @PostMapping("/WBA0401/deleteAll")
+    public String deleteAll(ItemSearchForm form, @Validated ItemBulkDeleteForm bulkDeleteForm, BindingResult result,
+            Model model) {
+
+        if (result.hasErrors()) {
+            // 削除フォームに単項目エラーがあった場合には、予期しないエラーのため、システムエラー画面へ遷移する
+            return "error";
+        }
+
+        // 削除処理
+        List<Item> keys = bulkDeleteForm.toItems();
+        List<Integer> lostIds = itemDeleteService.deleteAll(keys);
+        model.addAttribute("deletedCount", keys.size() - lostIds.size());
+        if (!lostIds.isEmpty()) {
+            model.addAttribute("message", messages.getMessage("ME901", null, Locale.getDefault()));
+            model.addAttribute("lostIds", lostIds);
+        }
+
         // 検索処理
+        findAndShow(form, result, model);
+        return "BA0401/delete";
+    }
+
+    /**
+     * 検索条件で検索し、結果を表示する
+     * @param form ItemSearchForm
+     * @param result BindingResult
+     * @param model Model
+     */
+    private void findAndShow(ItemSearchForm form, BindingResult result, Model model) {
         try {
-            Page<Item> pages = itemSearchService.findAll(form.toCriteria(PAGE_SIZE));
-            if (pages != null) {
-                // ページングに必要な情報
-                model.addAttribute("pages", pages);
-                // 検索結果リスト
-                model.addAttribute("itemList", pages.getContent());
-            }
-        } catch (AppException e){
+            long generation = itemSearchService.generation();
+            show(form.toCriteria(PAGE_SIZE), itemSearchService.findAll(form.toCriteria(PAGE_SIZE)), generation, model);
+        } catch (AppException e) {
+            itemDeletePage.put(null, null, 0);
             result.reject(e.getMessageId());
-            return "BA0401/delete";
         }
-        return "BA0401/delete";
+    }
+
+    /**
+     * 検索結果を表示する
+     * 削除後に使用するため、表示したページを保持する
+     * @param criteria 検索条件（検索前に生成したもの）
+     * @param pages 検索結果
+     * @param generation 検索前に取得した世代番号
+     * @param model Model
+     */
+    private void show(ItemSearchCriteria criteria, Page<Item> pages, long generation, Model model) {
+        itemDeletePage.put(criteria, pages, generation);
+        if (pages != null) {
+            // ページングに必要な情報
+            model.addAttribute("pages", pages);
+            // 検索結果リスト
+            model.addAttribute("itemList", pages.getContent());
+        }
+    }
+
+    /**
+     * item名称の一致条件のプルダウンリスト
+     * @return プルダウンリスト
+     */
+    @ModelAttribute("nameMatches")
+    public List<ItemNameMatch> getNameMatches() {
+        return Arrays.asList(ItemNameMatch.values());
     }
 }
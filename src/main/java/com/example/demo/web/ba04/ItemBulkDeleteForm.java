@@ -0,0 +1,38 @@
+package com.example.demo.web.ba04;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.Item;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * item一括削除フォーム
+ */
+@Data
+public class ItemBulkDeleteForm {
+
+    /**
+     * 削除対象（"ID:バージョン番号"の形式）
+     * 形式チェック
+     */
+    private List<@Pattern(regexp = "\\d+:\\d+") String> targets = new ArrayList<>();
+
+    /**
+     * 削除対象のID、バージョン番号を持つItemのリストを生成する
+     * @return Itemリスト
+     */
+    public List<Item> toItems() {
+        List<Item> items = new ArrayList<>(targets.size());
+        for (String target : targets) {
+            String[] values = target.split(":");
+            Item item = new Item();
+            item.setId(Integer.valueOf(values[0]));
+            item.setVersionNo(Integer.valueOf(values[1]));
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.web.ba04;
+
+import java.io.Serializable;
+
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.SessionScope;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+
+/**
+ * item削除画面に表示中の検索結果ページ（セッション単位）
+ * 
+ * 削除後に検索し直さず、表示中のページから削除した行を除いて表示するために保持する。
+ * 検索条件（ページ情報を含む）が一致する場合だけ使用する。
+ * セッションの直列化時には保持しない。
+ */
+@Component
+@SessionScope
+public class ItemDeletePage implements Serializable {
+
+    /** 検索条件 */
+    private transient ItemSearchCriteria criteria;
+
+    /** 検索結果ページ */
+    private transient Page<Item> page;
+
+    /** 検索前に取得した世代番号 */
+    private transient long generation;
+
+    /**
+     * 表示中のページを格納する
+     * @param criteria 検索条件（検索前に生成したもの）
+     * @param page 検索結果ページ（表示しない場合はnull）
+     * @param generation 検索前に取得した世代番号（ItemSearchService.generation()）
+     */
+    public synchronized void put(ItemSearchCriteria criteria, Page<Item> page, long generation) {
+        this.criteria = page != null ? criteria : null;
+        this.page = page;
+        this.generation = generation;
+    }
+
+    /**
+     * 表示中のページを取得する
+     * @param criteria 検索条件
+     * @return 検索結果ページ。検索条件が一致しない場合はnull
+     */
+    public synchronized Page<Item> get(ItemSearchCriteria criteria) {
+        return page != null && criteria.equals(this.criteria) ? page : null;
+    }
+
+    /**
+     * 表示中のページの検索前に取得した世代番号を取得する
+     * @return 世代番号
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+}
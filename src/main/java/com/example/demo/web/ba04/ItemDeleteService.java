@@ -1,9 +1,18 @@
 package com.example.demo.web.ba04;
 
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.entity.Item;
 import com.example.demo.web.mapper.ItemMapper;
 
 import lombok.RequiredArgsConstructor;
@@ -12,12 +21,50 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ItemDeleteService {
     private final ItemMapper itemMapper;
+    private final ApplicationEventPublisher publisher;
 
     @Transactional
     public void deleteOne(Integer id, Integer versionNo) {
+        // 削除前のitem（変更イベント用）
+        Item before = itemMapper.findById(id);
+
         int count = itemMapper.delete(id, versionNo);
         if (count == 0) {
             throw new OptimisticLockingFailureException("ME901");
         }
+        publisher.publishEvent(ItemChangedEvent.deleted(before));
+    }
+
+    /**
+     * 一括削除
+     * IDとバージョン番号が一致する行を行ロックしてから、1回の問い合わせで削除する。
+     * 画面表示後に更新、削除された行は削除せず、他の行の削除は続ける。
+     * 削除したitemは一括削除イベントで1回だけ通知し、索引、合計金額、履歴等もまとめて反映させる
+     * @param keys 削除対象のID、バージョン番号
+     * @return 画面表示後に更新、削除されたため削除できなかったID
+     */
+    @Transactional
+    public List<Integer> deleteAll(List<Item> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        // 削除前のitem（変更イベント用）。バージョン番号が一致しない行は取得されない
+        List<Item> befores = itemMapper.findAllForDelete(keys);
+        if (!befores.isEmpty()) {
+            int count = itemMapper.deleteAll(befores);
+            if (count != befores.size()) {
+                // 行ロック済みのため発生しない
+                throw new OptimisticLockingFailureException("ME901");
+            }
+            publisher.publishEvent(new ItemsDeletedEvent(befores, ItemChangeOrigin.current()));
+        }
+
+        Set<Integer> deleted = befores.stream().map(Item::getId).collect(Collectors.toSet());
+        return keys.stream()
+                .map(Item::getId)
+                .filter(id -> !deleted.contains(id))
+                .distinct()
+                .toList();
     }
 }
@@ -2,9 +2,13 @@ package com.example.demo.web.ba05;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
+import org.springframework.context.MessageSource;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -12,22 +16,37 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttributes;
 
 import com.example.demo.common.code.ItemGroup;
+import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchForm;
+import com.example.demo.web.ba02.ItemSearchService;
 import com.example.demo.web.ba03.ItemDetailService;
 
 import lombok.RequiredArgsConstructor;
 
 /**
  * item更新画面コントローラ
+ * 
+ * 1件更新（更新画面⇒確認画面⇒完了画面）と、照会画面の検索条件で検索した1ページ分の一括編集を行う。
  */
 @Controller
+@SessionAttributes(types=ItemSearchForm.class)
 @RequiredArgsConstructor
 public class BA0501Controller {
 
     private final ItemDetailService itemDetailService;
     private final ItemUpdateService itemUpdateService;
+    /** item検索サービス */
+    private final ItemSearchService itemSearchService;
+    /** メッセージ */
+    private final MessageSource messages;
+    /** 一括編集の1ページあたりの表示件数 */
+    private static final int GRID_PAGE_SIZE = 20;
 
     /**
      * 更新画面を初期表示する
@@ -106,6 +125,79 @@ public class BA0501Controller {
         return "BA0501/complete";
     }
 
+    /**
+     * 一括編集画面を表示する
+     * 照会画面の検索条件（セッション）で検索した1ページ分を編集可能な一覧で表示する
+     * @param form ItemSearchForm（照会画面の検索条件）
+     * @param gridPage 一括編集のページ番号
+     * @param model Model
+     * @return 一括編集画面
+     */
+    @GetMapping("/WBA0501/grid")
+    public String grid(ItemSearchForm form, @RequestParam(defaultValue = "0") int gridPage, Model model) {
+        showGrid(form, gridPage, model);
+        return "BA0501/grid";
+    }
+
+    /**
+     * 一括更新
+     * 変更された行だけをまとめて更新し、行ごとの結果（更新済み、ME901）を表示する
+     * @param form ItemSearchForm（照会画面の検索条件）
+     * @param gridPage 一括編集のページ番号
+     * @param itemGridForm ItemGridForm
+     * @param result BindingResult
+     * @param model Model
+     * @return 一括編集画面
+     */
+    @PostMapping("/WBA0501/gridUpdate")
+    public String gridUpdate(ItemSearchForm form, @RequestParam(defaultValue = "0") int gridPage,
+            @Validated ItemGridForm itemGridForm, BindingResult result, Model model) {
+        model.addAttribute("gridPage", gridPage);
+        if (result.hasErrors()) {
+            // 入力エラーがある場合は1件も更新せず、入力内容のまま表示する
+            return "BA0501/grid";
+        }
+
+        List<Item> items = itemGridForm.toChangedItems();
+        List<Integer> lostIds = itemUpdateService.updateAll(items);
+        List<Integer> updatedIds = items.stream()
+                .map(Item::getId)
+                .filter(id -> !lostIds.contains(id))
+                .toList();
+        model.addAttribute("updatedIds", updatedIds);
+        model.addAttribute("lostIds", lostIds);
+        if (!lostIds.isEmpty()) {
+            model.addAttribute("message", messages.getMessage("ME901", null, Locale.getDefault()));
+        }
+
+        // 更新後のバージョン番号で再表示する（更新できなかった行は最新の内容となる）
+        showGrid(form, gridPage, model);
+        return "BA0501/grid";
+    }
+
+    /**
+     * 一括編集の1ページ分を検索し、フォームに設定する
+     * @param form ItemSearchForm
+     * @param gridPage 一括編集のページ番号
+     * @param model Model
+     */
+    private void showGrid(ItemSearchForm form, int gridPage, Model model) {
+        ItemSearchCriteria criteria = form.toCriteria(GRID_PAGE_SIZE);
+        criteria.setPageable(PageRequest.of(gridPage, GRID_PAGE_SIZE, criteria.getPageable().getSort()));
+        criteria.setKeyset(null);
+        // 一括編集は現在のitemが対象のため、照会画面の時点指定は使用しない
+        criteria.setAsOf(null);
+        model.addAttribute("gridPage", gridPage);
+        try {
+            Page<Item> pages = itemSearchService.findAll(criteria);
+            model.addAttribute("pages", pages);
+            model.addAttribute("itemGridForm", ItemGridForm.of(pages.getContent()));
+        } catch (AppException e) {
+            model.addAttribute("itemGridForm", new ItemGridForm());
+            model.addAttribute("message", messages.getMessage(e.getMessageId(), null, Locale.getDefault()));
+        }
+    }
+
     /**
      * 分類コードのプルダウンリスト
      * @return プルダウンリスト
@@ -0,0 +1,43 @@
+package com.example.demo.web.ba05;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.Item;
+
+import jakarta.validation.Valid;
+import lombok.Data;
+
+/**
+ * 一括編集フォーム
+ * 検索結果1ページ分の行を保持する
+ */
+@Data
+public class ItemGridForm {
+
+    /** 行 */
+    @Valid
+    private List<ItemGridRow> rows = new ArrayList<>();
+
+    /**
+     * 変更された行のItemを生成する
+     * @return Itemリスト（行の順）
+     */
+    public List<Item> toChangedItems() {
+        return rows.stream()
+                .filter(ItemGridRow::isChanged)
+                .map(ItemGridRow::toItem)
+                .toList();
+    }
+
+    /**
+     * フォームを生成する
+     * @param items 検索結果
+     * @return フォーム
+     */
+    public static ItemGridForm of(List<Item> items) {
+        ItemGridForm form = new ItemGridForm();
+        items.forEach(item -> form.rows.add(ItemGridRow.of(item)));
+        return form;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.web.ba05;
+
+import java.util.Objects;
+
+import com.example.demo.entity.Item;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 一括編集の行
+ * 入力チェックは1件更新と同じ。表示時の値を保持し、変更された行だけを更新する
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ItemGridRow extends ItemUpdateForm {
+
+    /** 表示時のitemName */
+    private String originalItemName;
+
+    /** 表示時のprice */
+    private Integer originalPrice;
+
+    /** 表示時の分類ID */
+    private String originalGroupid;
+
+    /**
+     * 表示時から変更されたか
+     * @return 変更された場合true
+     */
+    public boolean isChanged() {
+        return !Objects.equals(getItemName(), originalItemName)
+                || !Objects.equals(getPrice(), originalPrice)
+                || !Objects.equals(getGroupid(), originalGroupid);
+    }
+
+    /**
+     * 行を生成する
+     * @param item Item
+     * @return 行
+     */
+    public static ItemGridRow of(Item item) {
+        ItemGridRow row = new ItemGridRow();
+        row.setItem(item);
+        row.setOriginalItemName(item.getItemName());
+        row.setOriginalPrice(item.getPrice());
+        row.setOriginalGroupid(item.getGroupid());
+        return row;
+    }
+}
@@ -1,9 +1,25 @@
 package com.example.demo.web.ba05;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsUpdatedEvent;
 import com.example.demo.entity.Item;
 import com.example.demo.web.mapper.ItemMapper;
 
@@ -13,15 +29,105 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ItemUpdateService {
     private final ItemMapper itemMapper;
+    private final ApplicationEventPublisher publisher;
+    /** SqlSessionファクトリ（バッチ実行用） */
+    private final SqlSessionFactory sqlSessionFactory;
 
     @Transactional
     public void update(Item item) {
 
         // 未実装：業務ロジック実装
 
+        // 変更前のitem（変更イベント用）
+        Item before = itemMapper.findById(item.getId());
+
         int i = itemMapper.updateById(item);
         if (i == 0) {
             throw new OptimisticLockingFailureException("ME901");
         }
+        publisher.publishEvent(ItemChangedEvent.updated(before, toUpdated(before, item)));
+    }
+
+    /**
+     * 一括更新
+     * IDとバージョン番号が一致する行だけを、バッチ実行の1件更新でまとめて更新する。
+     * 画面表示後に更新、削除された行は更新せず、他の行の更新は続ける。
+     * 更新したitemは一括更新イベントで1回だけ通知し、索引、合計金額、履歴等もまとめて反映させる。
+     * バッチ実行のSqlSessionは、トランザクションのコネクションを共有するよう個別に開く
+     * （同一トランザクション内で、通常のMapperと実行方式の異なるSqlSessionTemplateは併用できないため）
+     * @param items 更新内容（ID、バージョン番号は必須）
+     * @return 画面表示後に更新、削除されたため更新できなかったID（更新内容の順）
+     */
+    @Transactional
+    public List<Integer> updateAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        // 変更前のitem（変更イベント用）。バージョン番号が一致しない行は更新しても0件のため送らない
+        Map<Integer, Item> befores = itemMapper.findAllByIds(items.stream().map(Item::getId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> targets = new ArrayList<>();
+        List<Integer> lostIds = new ArrayList<>();
+        for (Item item : items) {
+            Item before = befores.get(item.getId());
+            if (before != null && before.getVersionNo().equals(item.getVersionNo())) {
+                targets.add(item);
+            } else {
+                lostIds.add(item.getId());
+            }
+        }
+        if (targets.isEmpty()) {
+            return lostIds;
+        }
+
+        // 更新件数は1件更新ごとに返る（0件は確認後に他の利用者が更新した行）
+        int[] counts;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ItemMapper batchMapper = session.getMapper(ItemMapper.class);
+            targets.forEach(batchMapper::updateById);
+            counts = session.flushStatements().stream()
+                    .map(BatchResult::getUpdateCounts)
+                    .flatMapToInt(Arrays::stream)
+                    .toArray();
+        }
+        List<Item> updatedBefores = new ArrayList<>();
+        List<Item> updatedAfters = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            Item item = targets.get(i);
+            if (counts[i] == 0) {
+                lostIds.add(item.getId());
+                continue;
+            }
+            Item before = befores.get(item.getId());
+            updatedBefores.add(before);
+            updatedAfters.add(toUpdated(before, item));
+        }
+        if (!updatedBefores.isEmpty()) {
+            publisher.publishEvent(new ItemsUpdatedEvent(updatedBefores, updatedAfters, ItemChangeOrigin.current()));
+        }
+        return items.stream().map(Item::getId).filter(lostIds::contains).toList();
+    }
+
+    /**
+     * 更新後のitemを生成する
+     * ItemMapper.xmlの1件更新と同じく、item名称と分類はnullの場合は更新しない
+     * @param before 更新前のitem
+     * @param item 更新内容
+     * @return 更新後のitem
+     */
+    private Item toUpdated(Item before, Item item) {
+        Item after = new Item();
+        BeanUtils.copyProperties(before, after);
+        if (item.getItemName() != null) {
+            after.setItemName(item.getItemName());
+        }
+        after.setPrice(item.getPrice());
+        if (item.getGroupid() != null) {
+            after.setGroupid(item.getGroupid());
+        }
+        after.setVersionNo(item.getVersionNo() + 1);
+        return after;
     }
 }
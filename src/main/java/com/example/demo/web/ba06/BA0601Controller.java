@@ -0,0 +1,56 @@
+package com.example.demo.web.ba06;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.core.exception.SystemException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * item一括登録画面コントローラ
+ * 
+ * CSVファイル（itemエクスポートと同じ形式、UTF-8）をアップロードし、itemを一括登録する。
+ * 登録結果とエラーの行を同じ画面に表示する。
+ */
+@Controller
+@RequiredArgsConstructor
+public class BA0601Controller {
+
+    /** item一括登録サービス */
+    private final ItemImportService itemImportService;
+
+    /**
+     * 表示
+     * @return item一括登録画面
+     */
+    @GetMapping("/WBA0601/index")
+    public String index() {
+        return "BA0601/import";
+    }
+
+    /**
+     * 一括登録
+     * @param file CSVファイル
+     * @param model Model
+     * @return item一括登録画面
+     */
+    @PostMapping("/WBA0601/import")
+    public String importCsv(@RequestParam("file") MultipartFile file, Model model) {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            model.addAttribute("result", itemImportService.importCsv(reader));
+        } catch (IOException e) {
+            throw new SystemException("ME999", e);
+        }
+        return "BA0601/import";
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.web.ba06;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * item一括登録のエラー（1行1項目ごと）
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemImportError {
+
+    /** 行番号（ヘッダ行を含む、1始まり） */
+    private final long lineNumber;
+
+    /** 項目名（行全体のエラーの場合はnull） */
+    private final String field;
+
+    /** メッセージ */
+    private final String message;
+}
@@ -0,0 +1,49 @@
+package com.example.demo.web.ba06;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * item一括登録の結果
+ */
+@Getter
+@AllArgsConstructor
+public class ItemImportResult {
+
+    /** 読み込んだ行数（ヘッダ行を除く） */
+    private final long rows;
+
+    /** 登録した件数 */
+    private final long imported;
+
+    /** エラーとなった行数 */
+    private final long rejected;
+
+    /** エラー（最大件数まで） */
+    private final List<ItemImportError> errors;
+
+    /** エラーが最大件数を超えたため、一部を省略した場合true */
+    private final boolean errorsTruncated;
+
+    /** 処理済みの回数（一定行数ごとに1回。エラー以外の行は登録（コミット）済み） */
+    private final int committedChunks;
+
+    /** 処理済みの最後の行番号（未処理の場合は0）。この行までのエラー以外の行は登録済み */
+    private final long committedLineNumber;
+
+    /** 登録に失敗して中断した行番号（中断しなかった場合はnull）。この行以降は登録していない */
+    private final Long failedLineNumber;
+
+    /** 処理時間（ミリ秒） */
+    private final long elapsedMillis;
+
+    /**
+     * 1秒あたりの処理行数
+     * @return 処理行数
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000 / elapsedMillis : rows;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.web.ba06;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.Item;
+
+import lombok.Getter;
+
+/**
+ * item一括登録の1行
+ */
+@Getter
+class ItemImportRow {
+
+    /** 行番号 */
+    private final long lineNumber;
+
+    /** 登録するitem */
+    private final Item item;
+
+    /** エラー */
+    private final List<ItemImportError> errors = new ArrayList<>();
+
+    /**
+     * コンストラクタ
+     * @param lineNumber 行番号
+     * @param item 登録するitem（変換できなかった場合はnull）
+     */
+    ItemImportRow(long lineNumber, Item item) {
+        this.lineNumber = lineNumber;
+        this.item = item;
+    }
+
+    /**
+     * エラーを追加する
+     * @param field 項目名
+     * @param message メッセージ
+     */
+    void reject(String field, String message) {
+        errors.add(new ItemImportError(lineNumber, field, message));
+    }
+
+    /**
+     * 登録対象か
+     * @return エラーが無い場合true
+     */
+    boolean isValid() {
+        return errors.isEmpty();
+    }
+}
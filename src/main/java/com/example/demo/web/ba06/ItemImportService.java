@@ -0,0 +1,390 @@
+package com.example.demo.web.ba06;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.core.exception.SystemException;
+import com.example.demo.web.ba01.ItemForm;
+import com.example.demo.web.ba02.ItemExportService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * item一括登録サービス
+ *
+ * CSV（itemエクスポートと同じ形式）を1行ずつ読み込み、一定行数ごとに以下を行う。
+ * 1. 各行をitemフォームに変換し、item登録画面と同じ入力チェックを並列に行う
+ * 2. 入力チェックを通過した行を、1トランザクションでまとめて登録する（ItemImportWriter）
+ * 行は一定行数分だけ保持する。行数に比例して増えるのは、CSV内のIDの重複チェックのために保持するIDだけとなる。
+ * エラーの行は登録せず、行番号と項目ごとのエラーを返す。エラー以外の行は登録される。
+ * 登録中に他の処理が同じIDを登録した場合は、その行をエラーとして残りの行で登録をやり直す。
+ * 登録に失敗した場合はそこで中断し、登録済みの範囲（処理済みの回数と最後の行番号）を返す。
+ *
+ * 以下のメトリクスを記録する。
+ * item.import：一括登録の処理時間
+ * item.import.rows（result=imported/rejected）：登録した行数、エラーとなった行数
+ */
+@Service
+public class ItemImportService {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemImportService.class);
+
+    /** 1回の登録で処理する行数 */
+    static final int CHUNK_SIZE = 1000;
+
+    /** 登録中に同じIDが登録された場合に、登録をやり直す回数の上限 */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    /** 返すエラーの最大件数 */
+    static final int MAX_ERRORS = 1000;
+
+    /** CSVの項目数 */
+    private static final int COLUMNS = 5;
+
+    /** 登録日の書式 */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    /** UTF-8のBOM */
+    private static final char BOM = '\uFEFF';
+
+    /** item一括登録の書き込み */
+    private final ItemImportWriter writer;
+
+    /** 入力チェック */
+    private final Validator validator;
+
+    /** メッセージ */
+    private final MessageSource messages;
+
+    /** 1回の登録で処理する行数 */
+    private final int chunkSize;
+
+    /** 処理時間 */
+    private final Timer timer;
+
+    /** 登録した行数 */
+    private final Counter importedCounter;
+
+    /** エラーとなった行数 */
+    private final Counter rejectedCounter;
+
+    /**
+     * コンストラクタ
+     * @param writer item一括登録の書き込み
+     * @param validator 入力チェック
+     * @param messages メッセージ
+     * @param registry メトリクス登録先
+     */
+    @Autowired
+    public ItemImportService(ItemImportWriter writer, Validator validator, MessageSource messages,
+            MeterRegistry registry) {
+        this(writer, validator, messages, CHUNK_SIZE, registry);
+    }
+
+    /**
+     * コンストラクタ
+     * @param writer item一括登録の書き込み
+     * @param validator 入力チェック
+     * @param messages メッセージ
+     * @param chunkSize 1回の登録で処理する行数
+     * @param registry メトリクス登録先
+     */
+    ItemImportService(ItemImportWriter writer, Validator validator, MessageSource messages, int chunkSize,
+            MeterRegistry registry) {
+        this.writer = writer;
+        this.validator = validator;
+        this.messages = messages;
+        this.chunkSize = chunkSize;
+        this.timer = Timer.builder("item.import").register(registry);
+        this.importedCounter = Counter.builder("item.import.rows").tag("result", "imported").register(registry);
+        this.rejectedCounter = Counter.builder("item.import.rows").tag("result", "rejected").register(registry);
+    }
+
+    /**
+     * CSVからitemを一括登録する
+     * 1行目がヘッダの場合は読み飛ばす。空行は無視する
+     * @param reader CSV
+     * @return 結果
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public ItemImportResult importCsv(Reader reader) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        BufferedReader in = new BufferedReader(reader);
+
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String text;
+        while ((text = in.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1) {
+                text = stripBom(text);
+                if (text.equals(ItemExportService.HEADER)) {
+                    continue;
+                }
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(new Line(lineNumber, text));
+            if (chunk.size() == chunkSize) {
+                if (!process(chunk, progress)) {
+                    break;
+                }
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty() && progress.failedLineNumber == null) {
+            process(chunk, progress);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        importedCounter.increment(progress.imported);
+        rejectedCounter.increment(progress.rejected);
+        return new ItemImportResult(progress.rows, progress.imported, progress.rejected, progress.errors,
+                progress.errorsTruncated, progress.chunks, progress.committedLineNumber, progress.failedLineNumber,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * 一定行数分の変換、入力チェック、登録を行う
+     * @param chunk 行
+     * @param progress 処理状況
+     * @return 登録した（またはエラー以外の行が無い）場合true、登録に失敗した場合false
+     */
+    private boolean process(List<Line> chunk, Progress progress) {
+        // 変換と入力チェックは行ごとに独立しているため並列に行う（結果は行の順）
+        List<ItemImportRow> rows = chunk.parallelStream()
+                .map(this::parse)
+                .toList();
+
+        // CSV内でのIDの重複（先に出現した行を正とする）
+        for (ItemImportRow row : rows) {
+            Integer id = row.getItem() != null ? row.getItem().getId() : null;
+            if (row.isValid() && id != null && !progress.ids.add(id)) {
+                row.reject("id", message("ME004"));
+            }
+        }
+
+        try {
+            write(rows);
+        } catch (SystemException | DataAccessException e) {
+            progress.failedLineNumber = chunk.get(0).number();
+            LOG.error("item一括登録 中断 処理済み={}回 処理済みの最終行={} 中断した行={}",
+                    progress.chunks, progress.committedLineNumber, progress.failedLineNumber, e);
+            return false;
+        }
+        progress.chunks++;
+        progress.committedLineNumber = chunk.get(chunk.size() - 1).number();
+
+        for (ItemImportRow row : rows) {
+            progress.rows++;
+            if (row.isValid()) {
+                progress.imported++;
+                continue;
+            }
+            progress.rejected++;
+            for (ItemImportError error : row.getErrors()) {
+                if (progress.errors.size() < MAX_ERRORS) {
+                    progress.errors.add(error);
+                } else {
+                    progress.errorsTruncated = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * エラー以外の行を登録する
+     * 登録中に他の処理が同じIDを登録した場合はロールバックされるため、登録をやり直す
+     * （やり直しの業務チェックで、登録済みとなったIDの行がエラーとなる）
+     * @param rows 行
+     */
+    private void write(List<ItemImportRow> rows) {
+        for (int attempt = 1;; attempt++) {
+            List<ItemImportRow> valid = rows.stream().filter(ItemImportRow::isValid).toList();
+            if (valid.isEmpty()) {
+                return;
+            }
+            try {
+                writer.write(valid);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw new SystemException("ME999", e);
+                }
+                LOG.warn("item一括登録 登録中に同じIDが登録されたため再実行 行={}～{} 回数={}",
+                        valid.get(0).getLineNumber(), valid.get(valid.size() - 1).getLineNumber(), attempt);
+            }
+        }
+    }
+
+    /**
+     * 1行をitemフォームに変換し、入力チェックを行う
+     * @param line 行
+     * @return 行（エラーの場合はエラーを保持する）
+     */
+    private ItemImportRow parse(Line line) {
+        List<String> values = split(line.text());
+        if (values.size() != COLUMNS) {
+            ItemImportRow row = new ItemImportRow(line.number(), null);
+            row.reject(null, message("ME006"));
+            return row;
+        }
+
+        ItemForm form = new ItemForm();
+        List<String> typeErrors = new ArrayList<>();
+        form.setId(toInteger(values.get(0), "id", typeErrors));
+        form.setItemName(emptyToNull(values.get(1)));
+        form.setPrice(toInteger(values.get(2), "price", typeErrors));
+        form.setGroupid(emptyToNull(values.get(3)));
+        form.setRegistDate(toDate(values.get(4), "registDate", typeErrors));
+
+        ItemImportRow row = new ItemImportRow(line.number(), form.toItem());
+        row.getItem().setVersionNo(0);
+        for (String field : typeErrors) {
+            row.reject(field, message(field.equals("registDate")
+                    ? "typeMismatch.java.time.LocalDate" : "typeMismatch.java.lang.Integer"));
+        }
+        for (ConstraintViolation<ItemForm> violation : validator.validate(form)) {
+            row.reject(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return row;
+    }
+
+    private Integer toInteger(String value, String field, List<String> typeErrors) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            typeErrors.add(field);
+            return null;
+        }
+    }
+
+    private LocalDate toDate(String value, String field, List<String> typeErrors) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            typeErrors.add(field);
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String stripBom(String text) {
+        return !text.isEmpty() && text.charAt(0) == BOM ? text.substring(1) : text;
+    }
+
+    private String message(String code) {
+        return messages.getMessage(code, null, Locale.getDefault());
+    }
+
+    /**
+     * CSVの1行を項目に分割する
+     * ダブルクォートで囲まれた項目は、カンマとダブルクォート（""）を含められる
+     * @param text 行
+     * @return 項目
+     */
+    static List<String> split(String text) {
+        List<String> values = new ArrayList<>(COLUMNS);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * CSVの行
+     * @param number 行番号
+     * @param text 内容
+     */
+    private record Line(long number, String text) {
+    }
+
+    /**
+     * 処理状況
+     */
+    private static class Progress {
+
+        /** 読み込んだ行数 */
+        private long rows;
+
+        /** 登録した行数 */
+        private long imported;
+
+        /** エラーとなった行数 */
+        private long rejected;
+
+        /** エラー */
+        private final List<ItemImportError> errors = new ArrayList<>();
+
+        /** エラーを省略した場合true */
+        private boolean errorsTruncated;
+
+        /** 処理済みの回数 */
+        private int chunks;
+
+        /** 処理済みの最後の行番号（未処理の場合は0） */
+        private long committedLineNumber;
+
+        /** 登録に失敗して中断した一定行数の先頭の行番号（中断しなかった場合はnull） */
+        private Long failedLineNumber;
+
+        /** CSV内で出現したID */
+        private final Set<Integer> ids = new HashSet<>();
+    }
+}
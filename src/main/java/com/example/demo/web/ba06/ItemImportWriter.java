@@ -0,0 +1,219 @@
+package com.example.demo.web.ba06;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.core.exception.SystemException;
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemIdAllocator;
+import com.example.demo.web.ba01.ItemNameTotals;
+import com.example.demo.web.mapper.ItemMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * item一括登録の書き込み
+ *
+ * 入力チェックを通過した行を1トランザクションで登録する。
+ * 業務チェック（IDの重複、同一item名称の合計金額）でエラーとなった行は、行にエラーを追加して登録しない。
+ * チェック後に他のトランザクションが同じIDを登録した場合は、キー重複の例外をそのままスローしてロールバックする
+ * （呼び出し元で再実行すると、登録済みのIDの行がエラーとなる）。
+ * IDが未指定の行は採番し、採番したIDが登録済み（手入力等で指定されたID）、または同じ回の行で指定されたIDの場合は採番し直す。
+ * 登録に失敗した場合は、再実行時にIDを指定した行と区別できるよう、採番したIDを未指定に戻す。
+ * 登録はバッチ実行のSqlSessionで行い、行ごとにデータベースと往復しない。
+ * バッチ実行のSqlSessionは、トランザクションのコネクションを共有するよう個別に開く
+ * （同一トランザクション内で、通常のMapperと実行方式の異なるSqlSessionTemplateは併用できないため）。
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemImportWriter {
+
+    /** SqlSessionファクトリ（バッチ実行用） */
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /** itemのID採番 */
+    private final ItemIdAllocator itemIdAllocator;
+
+    /** item名称ごとの合計金額 */
+    private final ItemNameTotals itemNameTotals;
+
+    /** イベント発行 */
+    private final ApplicationEventPublisher publisher;
+
+    /** メッセージ */
+    private final MessageSource messages;
+
+    /**
+     * 行を登録する
+     * @param rows 入力チェックを通過した行
+     * @return 登録した件数
+     * @throws DuplicateKeyException チェック後に他のトランザクションが同じIDを登録した場合
+     */
+    @Transactional
+    public int write(List<ItemImportRow> rows) {
+        rejectExistingIds(rows);
+        reserveTotals(rows);
+
+        List<Item> items = rows.stream().filter(ItemImportRow::isValid).map(ItemImportRow::getItem).toList();
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Item> unnumbered = items.stream().filter(item -> item.getId() == null).toList();
+
+        try {
+            allocateIds(unnumbered, items);
+            insertAll(items);
+        } catch (RuntimeException e) {
+            // ロールバックされるため、採番したIDを戻す
+            unnumbered.forEach(item -> item.setId(null));
+            throw e;
+        }
+        // 索引、履歴等をitemごとではなくまとめて反映するよう、一括登録イベントを1回だけ発行する
+        publisher.publishEvent(new ItemsInsertedEvent(List.copyOf(items), ItemChangeOrigin.current()));
+        return items.size();
+    }
+
+    /**
+     * バッチ実行で登録する
+     * コミット、ロールバックはSpringのトランザクションで行う
+     * @param items item
+     * @throws DuplicateKeyException チェック後に他のトランザクションが同じIDを登録した場合
+     */
+    private void insertAll(List<Item> items) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ItemMapper batchMapper = session.getMapper(ItemMapper.class);
+            for (Item item : items) {
+                batchMapper.insertItem(item);
+            }
+            session.flushStatements();
+        } catch (PersistenceException e) {
+            if (translate(e) instanceof DuplicateKeyException duplicate) {
+                // 確認後に同じIDが登録された場合
+                throw duplicate;
+            }
+            throw new SystemException("ME999", e);
+        }
+    }
+
+    /**
+     * IDが未指定のitemに採番する
+     * 採番したIDが登録済み、または同じ回で指定されたIDの場合は、そのブロックを破棄して採番し直す
+     * @param unnumbered IDが未指定のitem
+     * @param items 登録する全item
+     */
+    private void allocateIds(List<Item> unnumbered, List<Item> items) {
+        Set<Integer> specified = items.stream()
+                .map(Item::getId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        List<Item> pending = unnumbered;
+        while (!pending.isEmpty()) {
+            pending.forEach(item -> item.setId(itemIdAllocator.next()));
+            Set<Integer> existing = findExistingIds(pending.stream().map(Item::getId).toList());
+            pending = pending.stream()
+                    .filter(item -> existing.contains(item.getId()) || specified.contains(item.getId()))
+                    .toList();
+            if (!pending.isEmpty()) {
+                itemIdAllocator.discard(pending.get(pending.size() - 1).getId());
+            }
+        }
+    }
+
+    /**
+     * 登録済みのIDを指定した行をエラーとする
+     * @param rows 行
+     */
+    private void rejectExistingIds(List<ItemImportRow> rows) {
+        List<Integer> ids = rows.stream()
+                .map(row -> row.getItem().getId())
+                .filter(id -> id != null)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Integer> existing = findExistingIds(ids);
+        for (ItemImportRow row : rows) {
+            if (existing.contains(row.getItem().getId())) {
+                row.reject("id", message("ME004"));
+            }
+        }
+    }
+
+    /**
+     * 登録済みのIDを取得する
+     * @param ids ID（1件以上）
+     * @return 登録済みのID
+     */
+    private Set<Integer> findExistingIds(List<Integer> ids) {
+        return mapper.findAllByIds(ids).stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 同一item名称の合計金額に加算する
+     * item名称ごとに行の金額の合計をまとめて加算し、上限以上となる場合だけ1行ずつ加算して、
+     * 上限以上となる行をエラーとする
+     * @param rows 行
+     */
+    private void reserveTotals(List<ItemImportRow> rows) {
+        Map<String, List<ItemImportRow>> byName = new LinkedHashMap<>();
+        Map<String, Integer> sums = new HashMap<>();
+        for (ItemImportRow row : rows) {
+            if (!row.isValid()) {
+                continue;
+            }
+            String itemName = row.getItem().getItemName();
+            byName.computeIfAbsent(itemName, key -> new ArrayList<>()).add(row);
+            sums.merge(itemName, ItemNameTotals.priceOf(row.getItem()), Integer::sum);
+        }
+
+        byName.forEach((itemName, group) -> {
+            if (itemName != null && group.size() > 1 && itemNameTotals.tryReserve(itemName, sums.get(itemName))) {
+                return;
+            }
+            for (ItemImportRow row : group) {
+                if (!itemNameTotals.tryReserve(itemName, ItemNameTotals.priceOf(row.getItem()))) {
+                    row.reject(null, message("ME001"));
+                }
+            }
+        });
+    }
+
+    /**
+     * バッチ実行のSqlSessionの例外を、Springのデータアクセス例外に変換する
+     * （SqlSessionTemplateを介さないため変換されない）
+     * @param e 例外
+     * @return 変換した例外。変換できない場合はnull
+     */
+    private RuntimeException translate(PersistenceException e) {
+        return new MyBatisExceptionTranslator(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                true).translateExceptionIfPossible(e);
+    }
+
+    private String message(String code) {
+        return messages.getMessage(code, null, Locale.getDefault());
+    }
+}
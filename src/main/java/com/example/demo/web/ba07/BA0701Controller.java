@@ -0,0 +1,68 @@
+package com.example.demo.web.ba07;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import com.example.demo.common.code.ItemGroup;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * item一括価格改定画面コントローラ
+ * 
+ * item分類と改定率を指定し、分類内の全itemの価格を一括で改定する。
+ * 改定結果（改定件数、上限を超えるため改定しなかった件数）を同じ画面に表示する。
+ */
+@Controller
+@RequiredArgsConstructor
+public class BA0701Controller {
+
+    /** item一括価格改定サービス */
+    private final ItemRepriceService itemRepriceService;
+
+    /**
+     * 表示
+     * @param itemRepriceForm ItemRepriceForm
+     * @return item一括価格改定画面
+     */
+    @GetMapping("/WBA0701/index")
+    public String index(ItemRepriceForm itemRepriceForm) {
+        return "BA0701/reprice";
+    }
+
+    /**
+     * 一括価格改定
+     * @param itemRepriceForm ItemRepriceForm
+     * @param result BindingResult
+     * @param model Model
+     * @return item一括価格改定画面
+     */
+    @PostMapping("/WBA0701/reprice")
+    public String reprice(@Validated ItemRepriceForm itemRepriceForm, BindingResult result, Model model) {
+        if (result.hasErrors()) {
+            return "BA0701/reprice";
+        }
+        model.addAttribute("result",
+                itemRepriceService.reprice(itemRepriceForm.getGroupid(), itemRepriceForm.getPercent()));
+        return "BA0701/reprice";
+    }
+
+    /**
+     * 分類コードのプルダウンリスト
+     * @return プルダウンリスト
+     */
+    @ModelAttribute("groups")
+    public List<ItemGroup> getGroupid() {
+        return Arrays.stream(ItemGroup.values())
+        .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.web.ba07;
+
+import com.example.demo.common.code.ItemGroup;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * item一括価格改定の内容
+ * 
+ * 改定後の価格の上限は、item登録・更新画面の入力チェック（ItemForm）と同じとし、SQLの条件で判定する。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemReprice {
+
+    /** 価格の上限（この金額を含む。ItemFormの@Range(max=5000)） */
+    static final int MAX_PRICE = 5000;
+
+    /** 文具の価格の上限（この金額は含まない。ItemFormの相関チェック） */
+    static final int BUNGU_PRICE_LIMIT = 2000;
+
+    /** item分類 */
+    private String groupid;
+
+    /** 改定率（％。値下げの場合は負数） */
+    private int percent;
+
+    public int getMaxPrice() {
+        return MAX_PRICE;
+    }
+
+    public String getBunguGroupid() {
+        return ItemGroup.BUNGU.getCode();
+    }
+
+    public int getBunguPriceLimit() {
+        return BUNGU_PRICE_LIMIT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.web.ba07;
+
+import org.hibernate.validator.constraints.Range;
+
+import com.example.demo.common.code.ItemGroup;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * item一括価格改定フォーム
+ */
+@Data
+public class ItemRepriceForm {
+
+    /**
+     * 分類ID
+     * 必須チェック
+     */
+    @NotNull
+    private String groupid;
+
+    /**
+     * 改定率（％）
+     * 必須チェック、範囲チェック（値下げは99％まで、値上げは100％まで）
+     */
+    @NotNull
+    @Range(min = -99, max = 100)
+    private Integer percent;
+
+    /**
+     * 分類IDがitem分類に存在すること
+     * @return 結果
+     */
+    @AssertTrue(message = "{ME008}")
+    public boolean isKnownGroup() {
+        return groupid == null || ItemGroup.getLabel(groupid) != null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.web.ba07;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * item一括価格改定の1回分の範囲
+ * 対象itemのID上限と件数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRepriceRange {
+    private Integer lastId;
+    private int rowCount;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.web.ba07;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * item一括価格改定の結果
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRepriceResult {
+
+    /** item分類 */
+    private final String groupid;
+
+    /** 改定率（％） */
+    private final int percent;
+
+    /** 改定したitemの件数 */
+    private final long updated;
+
+    /** 改定後の価格が上限を超えるため改定しなかったitemの件数 */
+    private final long skipped;
+
+    /** 処理した範囲の数（コミットした回数） */
+    private final int chunks;
+
+    /** 処理時間（ミリ秒） */
+    private final long elapsedMillis;
+
+    /**
+     * 1秒あたりの処理件数
+     * @return 処理件数
+     */
+    public long getRowsPerSecond() {
+        long rows = updated + skipped;
+        return elapsedMillis > 0 ? rows * 1000 / elapsedMillis : rows;
+    }
+}
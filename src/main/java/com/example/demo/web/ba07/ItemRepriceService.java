@@ -0,0 +1,180 @@
+package com.example.demo.web.ba07;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.web.ba01.ItemNameTotals;
+import com.example.demo.web.ba01.ItemPriceDelta;
+import com.example.demo.web.ba02.ItemSearchIndex;
+import com.example.demo.web.mapper.ItemMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * item一括価格改定サービス
+ *
+ * item分類内のitemの価格を改定率で改定する。
+ * 分類内をID順に一定件数ずつの範囲に分け、範囲ごとに1回の更新（1トランザクション）で改定するため、
+ * 件数によらず行ロックを保持する時間と件数は範囲の分だけとなる。
+ * itemのデータはアプリケーションに取得せず、改定後の価格の上限（ItemFormの入力チェックと同じ）もSQLの条件で判定する。
+ * 上限を超えるitemは改定せず、件数を返す。改定したitemはバージョン番号を加算する（更新画面の楽観ロック）。
+ *
+ * 範囲ごとに、item名称ごとの合計金額を同一トランザクション内で増減し、コミット後に検索結果キャッシュを破棄する。
+ * 検索索引は改定中は使用せず（データベースを検索する）、改定の完了後に構築し直す。
+ *
+ * 範囲ごとに進捗をログに出力し、以下のメトリクスを記録する。
+ * item.reprice.chunk：範囲ごとの処理時間（コミットまで）
+ * item.reprice.rows（result=updated/skipped）：改定した件数、上限を超えるため改定しなかった件数
+ */
+@Service
+public class ItemRepriceService {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemRepriceService.class);
+
+    /** itemMapper */
+    private final ItemMapper mapper;
+
+    /** item名称ごとの合計金額 */
+    private final ItemNameTotals itemNameTotals;
+
+    /** item検索索引 */
+    private final ItemSearchIndex itemSearchIndex;
+
+    /** イベント発行 */
+    private final ApplicationEventPublisher publisher;
+
+    /** 範囲ごとのトランザクション */
+    private final TransactionTemplate transaction;
+
+    /** 1回の更新で改定する最大件数 */
+    private final int chunkSize;
+
+    /** 範囲ごとの処理時間 */
+    private final Timer chunkTimer;
+
+    /** 改定した件数 */
+    private final Counter updatedCounter;
+
+    /** 上限を超えるため改定しなかった件数 */
+    private final Counter skippedCounter;
+
+    /**
+     * コンストラクタ
+     * @param mapper itemMapper
+     * @param itemNameTotals item名称ごとの合計金額
+     * @param itemSearchIndex item検索索引
+     * @param publisher イベント発行
+     * @param transactionManager トランザクションマネージャ
+     * @param chunkSize 1回の更新で改定する最大件数
+     * @param registry メトリクス登録先
+     */
+    @Autowired
+    public ItemRepriceService(ItemMapper mapper, ItemNameTotals itemNameTotals, ItemSearchIndex itemSearchIndex,
+            ApplicationEventPublisher publisher, PlatformTransactionManager transactionManager,
+            @Value("${web.item.reprice.chunk-size:1000}") int chunkSize,
+            MeterRegistry registry) {
+        this.mapper = mapper;
+        this.itemNameTotals = itemNameTotals;
+        this.itemSearchIndex = itemSearchIndex;
+        this.publisher = publisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.chunkTimer = Timer.builder("item.reprice.chunk").register(registry);
+        this.updatedCounter = Counter.builder("item.reprice.rows").tag("result", "updated").register(registry);
+        this.skippedCounter = Counter.builder("item.reprice.rows").tag("result", "skipped").register(registry);
+    }
+
+    /**
+     * item分類内のitemの価格を改定する
+     * 価格が無いitemは対象外とする
+     * @param groupid item分類
+     * @param percent 改定率（％。値下げの場合は負数）
+     * @return 結果
+     */
+    public ItemRepriceResult reprice(String groupid, int percent) {
+        long start = System.nanoTime();
+        ItemReprice reprice = new ItemReprice(groupid, percent);
+        long updated = 0;
+        long skipped = 0;
+        int chunks = 0;
+        Integer afterId = null;
+        try {
+            while (true) {
+                Integer from = afterId;
+                long chunkStart = System.nanoTime();
+                Chunk chunk = transaction.execute(status -> repriceChunk(reprice, from));
+                if (chunk == null) {
+                    break;
+                }
+                chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+                updatedCounter.increment(chunk.updated());
+                skippedCounter.increment(chunk.skipped());
+                chunks++;
+                updated += chunk.updated();
+                skipped += chunk.skipped();
+                afterId = chunk.lastId();
+                LOG.info("item一括価格改定 進捗 分類={} 改定率={} 範囲={} ID={} 改定={} 対象外={}",
+                        groupid, percent, chunks, afterId, updated, skipped);
+            }
+        } finally {
+            // 改定中に破棄した検索索引を、コミット済みの改定を反映して構築し直す
+            if (chunks > 0) {
+                itemSearchIndex.rebuild();
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        LOG.info("item一括価格改定 完了 分類={} 改定率={} 改定={} 対象外={} 処理時間={}ms",
+                groupid, percent, updated, skipped, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return new ItemRepriceResult(groupid, percent, updated, skipped, chunks,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * 1回分の範囲を改定する
+     * トランザクション内で実行する
+     * @param reprice 改定の内容
+     * @param afterId 前回の範囲のID上限（先頭の場合はnull）
+     * @return 処理結果。対象が無い場合はnull
+     */
+    private Chunk repriceChunk(ItemReprice reprice, Integer afterId) {
+        ItemRepriceRange range = mapper.findRepriceRange(reprice.getGroupid(), afterId, chunkSize);
+        if (range.getRowCount() == 0) {
+            return null;
+        }
+
+        List<ItemPriceDelta> deltas = mapper.repriceRange(reprice, afterId, range.getLastId());
+        itemNameTotals.addAll(deltas);
+        publisher.publishEvent(
+                new ItemsRepricedEvent(reprice.getGroupid(), reprice.getPercent(), afterId, range.getLastId(),
+                        ItemChangeOrigin.current()));
+
+        int updated = deltas.stream().mapToInt(ItemPriceDelta::getItemCount).sum();
+        // 範囲の検索後に登録、削除されたitemの分は、改定しなかった件数に含めない
+        int skipped = Math.max(range.getRowCount() - updated, 0);
+        return new Chunk(range.getLastId(), updated, skipped);
+    }
+
+    /**
+     * 1回分の範囲の処理結果
+     * @param lastId 範囲のID上限
+     * @param updated 改定した件数
+     * @param skipped 上限を超えるため改定しなかった件数
+     */
+    private record Chunk(int lastId, int updated, int skipped) {
+    }
+}
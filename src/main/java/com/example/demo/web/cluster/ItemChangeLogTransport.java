@@ -0,0 +1,166 @@
+package com.example.demo.web.cluster;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.web.api.ItemChangeLogWriter;
+import com.example.demo.web.mapper.ItemChangeLogMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 変更履歴テーブルのポーリングによるトランスポート
+ * 
+ * 一定間隔で、取得済みの通番より後の変更履歴（ID、ノードだけ）を取得し、他ノードの変更をリスナーに通知する。
+ * 変更履歴は通番の順にコミットされるため、取りこぼしは無い。キャッシュが古い可能性のある時間は、
+ * 最大でポーリング間隔とポーリングの処理時間の合計となる。
+ * 
+ * データベースに接続できない等でポーリングに失敗し続け、最後に成功してから最大遅延時間を超えた場合は、
+ * リスナーに全キャッシュの破棄を通知する。ポーリングが再開した場合も、全キャッシュの破棄を通知する。
+ * 
+ * 以下のメトリクスを記録する。
+ * item.cluster.staleness：最後にポーリングに成功してからの時間（ミリ秒）
+ */
+@Component
+public class ItemChangeLogTransport implements ItemInvalidationTransport {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemChangeLogTransport.class);
+
+    /** 変更履歴Mapper */
+    private final ItemChangeLogMapper mapper;
+
+    /** 自ノードのID */
+    private final String nodeId;
+
+    /** ポーリング間隔（ミリ秒） */
+    private final long pollIntervalMillis;
+
+    /** 最大遅延時間（ナノ秒） */
+    private final long maxStalenessNanos;
+
+    /** 1回の取得で取得する最大件数 */
+    private final int batchSize;
+
+    /** ポーリングのスレッド（停止中はnull） */
+    private ScheduledExecutorService scheduler;
+
+    /** リスナー */
+    private volatile ItemInvalidationListener listener;
+
+    /** 取得済みの通番 */
+    private volatile long lastSeq;
+
+    /** 最後にポーリングに成功した時刻 */
+    private volatile long lastSuccess = System.nanoTime();
+
+    /** 最大遅延時間を超えて全キャッシュの破棄を通知した場合true */
+    private volatile boolean stale;
+
+    /**
+     * コンストラクタ
+     * @param mapper 変更履歴Mapper
+     * @param writer 変更履歴の追記（自ノードのIDの取得用）
+     * @param pollInterval ポーリング間隔
+     * @param maxStaleness 最大遅延時間
+     * @param batchSize 1回の取得で取得する最大件数
+     * @param registry メトリクス登録先
+     */
+    @Autowired
+    public ItemChangeLogTransport(ItemChangeLogMapper mapper, ItemChangeLogWriter writer,
+            @Value("${web.cache.cluster.poll-interval:1s}") Duration pollInterval,
+            @Value("${web.cache.cluster.max-staleness:10s}") Duration maxStaleness,
+            @Value("${web.cache.cluster.batch-size:1000}") int batchSize,
+            MeterRegistry registry) {
+        this.mapper = mapper;
+        this.nodeId = writer.getNodeId();
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.batchSize = batchSize;
+        Gauge.builder("item.cluster.staleness", this,
+                transport -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - transport.lastSuccess))
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start(ItemInvalidationListener listener) {
+        if (scheduler != null) {
+            return;
+        }
+        this.listener = listener;
+        // 開始前の変更は、開始後に構築、格納されるキャッシュに反映済みのため対象外とする
+        this.lastSeq = mapper.findLastSeq();
+        this.lastSuccess = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-cluster-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        LOG.info("他ノードのitem変更の受信開始 ノード={} 通番={}", nodeId, lastSeq);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 1回分のポーリングを行う
+     * 取得した件数が最大件数の場合は、続けて取得する
+     */
+    void poll() {
+        try {
+            List<ItemInvalidation> rows;
+            do {
+                rows = mapper.findInvalidations(lastSeq, batchSize);
+                if (stale) {
+                    // 受信できなかった期間の変更は、キャッシュを全て破棄して反映する
+                    listener.onInvalidatedAll();
+                    stale = false;
+                    LOG.info("他ノードのitem変更の受信再開 通番={}", lastSeq);
+                } else {
+                    Set<Integer> ids = new LinkedHashSet<>();
+                    for (ItemInvalidation row : rows) {
+                        if (!nodeId.equals(row.getNodeId())) {
+                            ids.add(row.getItemId());
+                        }
+                    }
+                    if (!ids.isEmpty()) {
+                        listener.onInvalidated(ids);
+                    }
+                }
+                // 通知に成功してから取得済みとする（失敗した場合は次回に再度通知する）
+                if (!rows.isEmpty()) {
+                    lastSeq = rows.get(rows.size() - 1).getSeq();
+                }
+            } while (rows.size() == batchSize);
+            lastSuccess = System.nanoTime();
+        } catch (RuntimeException e) {
+            LOG.warn("他ノードのitem変更の受信に失敗 通番={}", lastSeq, e);
+            if (!stale && System.nanoTime() - lastSuccess > maxStalenessNanos) {
+                stale = true;
+                try {
+                    listener.onInvalidatedAll();
+                } catch (RuntimeException ex) {
+                    LOG.warn("キャッシュの破棄に失敗", ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.web.cluster;
+
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.web.ba02.ItemSearchCache;
+import com.example.demo.web.ba02.ItemSearchIndex;
+import com.example.demo.web.ba03.ItemDetailCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 他ノードでのitem変更によるキャッシュの無効化
+ * 
+ * 複数ノードで動作する場合に有効とし、トランスポートから受信した他ノードの変更を、自ノードのキャッシュに反映する。
+ * item詳細キャッシュは変更されたitemを削除し、検索索引は変更されたitemをITEMテーブルから取得し直す。
+ * 検索結果キャッシュは、他ノードでの変更前のitemが分からないため全エントリを削除する。
+ * 自ノードの変更は、各キャッシュがコミット後のイベントで反映済みのため対象外とする（トランスポートで除く）。
+ * 
+ * 以下のメトリクスを記録する。
+ * item.cluster.invalidations（scope=item/all）：無効化したitemの件数、全キャッシュを破棄した回数
+ */
+@Component
+public class ItemClusterInvalidator implements ItemInvalidationListener, InitializingBean, DisposableBean {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemClusterInvalidator.class);
+
+    /** トランスポート */
+    private final ItemInvalidationTransport transport;
+
+    /** item詳細キャッシュ */
+    private final ItemDetailCache itemDetailCache;
+
+    /** item検索結果キャッシュ */
+    private final ItemSearchCache itemSearchCache;
+
+    /** item検索索引 */
+    private final ItemSearchIndex itemSearchIndex;
+
+    /** 有効/無効 */
+    private final boolean enabled;
+
+    /** 無効化したitemの件数 */
+    private final Counter itemCounter;
+
+    /** 全キャッシュを破棄した回数 */
+    private final Counter allCounter;
+
+    /**
+     * コンストラクタ
+     * @param transport トランスポート
+     * @param itemDetailCache item詳細キャッシュ
+     * @param itemSearchCache item検索結果キャッシュ
+     * @param itemSearchIndex item検索索引
+     * @param enabled 有効/無効
+     * @param registry メトリクス登録先
+     */
+    public ItemClusterInvalidator(ItemInvalidationTransport transport, ItemDetailCache itemDetailCache,
+            ItemSearchCache itemSearchCache, ItemSearchIndex itemSearchIndex,
+            @Value("${web.cache.cluster.enabled:false}") boolean enabled,
+            MeterRegistry registry) {
+        this.transport = transport;
+        this.itemDetailCache = itemDetailCache;
+        this.itemSearchCache = itemSearchCache;
+        this.itemSearchIndex = itemSearchIndex;
+        this.enabled = enabled;
+        this.itemCounter = Counter.builder("item.cluster.invalidations").tag("scope", "item").register(registry);
+        this.allCounter = Counter.builder("item.cluster.invalidations").tag("scope", "all").register(registry);
+    }
+
+    /**
+     * 受信を開始する
+     * 検索索引の構築（起動完了時）より前に開始し、構築中の他ノードの変更を取りこぼさないようにする
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            transport.start(this);
+        }
+    }
+
+    @Override
+    public void onInvalidated(Set<Integer> ids) {
+        // 検索索引を更新してから検索結果キャッシュの世代番号を進める
+        itemSearchIndex.refresh(ids);
+        itemSearchCache.invalidateAll();
+        // item詳細は最後に破棄する（更新後のitem詳細が見えた時点で、検索結果も更新後となるようにする）
+        itemDetailCache.invalidate(ids);
+        itemCounter.increment(ids.size());
+    }
+
+    @Override
+    public void onInvalidatedAll() {
+        LOG.info("他ノードのitem変更を反映するため、全キャッシュを破棄");
+        itemDetailCache.invalidateAll();
+        itemSearchIndex.discard();
+        itemSearchCache.invalidateAll();
+        allCounter.increment();
+        itemSearchIndex.rebuild();
+    }
+
+    @Override
+    public void destroy() {
+        transport.stop();
+    }
+}
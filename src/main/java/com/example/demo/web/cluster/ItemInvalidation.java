@@ -0,0 +1,19 @@
+package com.example.demo.web.cluster;
+
+import lombok.Data;
+
+/**
+ * 他ノードのキャッシュ無効化用の変更履歴
+ */
+@Data
+public class ItemInvalidation {
+
+    /** 通番 */
+    private Long seq;
+
+    /** 変更されたitemのID */
+    private Integer itemId;
+
+    /** 変更したノード */
+    private String nodeId;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.web.cluster;
+
+import java.util.Set;
+
+/**
+ * 他ノードでのitem変更の受信
+ */
+public interface ItemInvalidationListener {
+
+    /**
+     * 他ノードで変更されたitemを受信した
+     * 例外を送出した場合、トランスポートは同じ変更を再度通知する
+     * @param ids 変更されたitemのID
+     */
+    void onInvalidated(Set<Integer> ids);
+
+    /**
+     * 変更を受信できない期間が上限を超えた、または受信を再開した
+     * 全てのキャッシュを破棄する
+     */
+    void onInvalidatedAll();
+}
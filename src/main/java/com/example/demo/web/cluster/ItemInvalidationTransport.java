@@ -0,0 +1,22 @@
+package com.example.demo.web.cluster;
+
+/**
+ * 他ノードでのitem変更を受信するトランスポート
+ * 
+ * 標準は変更履歴テーブルのポーリング（ItemChangeLogTransport）。
+ * メッセージブローカー等に置き換える場合は、本インタフェースの実装をBeanとして登録する。
+ */
+public interface ItemInvalidationTransport {
+
+    /**
+     * 受信を開始する
+     * 開始以降にコミットされた他ノードの変更を、リスナーに通知する
+     * @param listener リスナー
+     */
+    void start(ItemInvalidationListener listener);
+
+    /**
+     * 受信を停止する
+     */
+    void stop();
+}
@@ -0,0 +1,22 @@
+package com.example.demo.web.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.example.demo.web.audit.ItemAuditRecord;
+
+/**
+ * itemの監査ログMapper
+ */
+@Mapper
+public interface ItemAuditMapper {
+
+    /**
+     * 監査ログをまとめて追記する（1回の問い合わせで追記する）
+     * @param records 監査ログ
+     * @return 件数
+     */
+    int insertAll(@Param("records") List<ItemAuditRecord> records);
+}
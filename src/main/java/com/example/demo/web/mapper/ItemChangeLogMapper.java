@@ -0,0 +1,102 @@
+package com.example.demo.web.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.api.ItemChange;
+import com.example.demo.web.cluster.ItemInvalidation;
+
+/**
+ * itemの変更履歴Mapper
+ */
+@Mapper
+public interface ItemChangeLogMapper {
+
+    /**
+     * 通番を払い出す
+     * 払い出し用の行をコミットまでロックする。件数が0の場合はロックの取得だけを行う
+     * @param count 払い出す件数
+     * @return 払い出した最後の通番
+     */
+    long nextSeq(int count);
+
+    /**
+     * 払い出し済みの最後の通番を取得する（ロックしない）
+     * @return 最後の通番
+     */
+    long findLastSeq();
+
+    /**
+     * 登録、更新の変更履歴を追記する（追記時点のitemを記録する）
+     * @param seq 通番
+     * @param itemId ID
+     * @param operation 操作
+     * @param nodeId 変更したノード
+     * @return 件数
+     */
+    int insertItemChange(@Param("seq") long seq, @Param("itemId") Integer itemId,
+            @Param("operation") String operation, @Param("nodeId") String nodeId);
+
+    /**
+     * 登録、更新の変更履歴を、ID順に通番を付けてまとめて追記する（追記時点のitemを記録する）
+     * @param lastSeq 払い出し済みの最後の通番
+     * @param itemIds ID（1件以上）
+     * @param operation 操作
+     * @param nodeId 変更したノード
+     * @return 件数
+     */
+    int insertItemChanges(@Param("lastSeq") long lastSeq, @Param("itemIds") List<Integer> itemIds,
+            @Param("operation") String operation, @Param("nodeId") String nodeId);
+
+    /**
+     * 削除の変更履歴を追記する
+     * @param seq 通番
+     * @param itemId ID
+     * @param versionNo 削除時のバージョン番号
+     * @param nodeId 変更したノード
+     * @return 件数
+     */
+    int insertDeleteChange(@Param("seq") long seq, @Param("itemId") Integer itemId,
+            @Param("versionNo") Integer versionNo, @Param("nodeId") String nodeId);
+
+    /**
+     * 削除の変更履歴を、ID順に通番を付けてまとめて追記する
+     * @param lastSeq 払い出し済みの最後の通番
+     * @param items 削除したitem（ID、削除時のバージョン番号。1件以上）
+     * @param nodeId 変更したノード
+     * @return 件数
+     */
+    int insertDeleteChanges(@Param("lastSeq") long lastSeq, @Param("items") List<Item> items,
+            @Param("nodeId") String nodeId);
+
+    /**
+     * 一括価格改定の範囲の変更履歴を、ID順に通番を付けて追記する
+     * @param lastSeq 払い出し済みの最後の通番
+     * @param groupid item分類
+     * @param afterId 範囲のID下限（この値は含まない。先頭の場合はnull）
+     * @param lastId 範囲のID上限
+     * @param nodeId 変更したノード
+     * @return 件数
+     */
+    int insertRepricedChanges(@Param("lastSeq") long lastSeq, @Param("groupid") String groupid,
+            @Param("afterId") Integer afterId, @Param("lastId") int lastId, @Param("nodeId") String nodeId);
+
+    /**
+     * 変更履歴を通番順に取得する
+     * @param since 取得済みの通番（この通番より後を取得する）
+     * @param limit 最大件数
+     * @return 変更履歴
+     */
+    List<ItemChange> findChanges(@Param("since") long since, @Param("limit") int limit);
+
+    /**
+     * 他ノードのキャッシュ無効化用に、変更履歴のID、ノードを通番順に取得する
+     * @param since 取得済みの通番（この通番より後を取得する）
+     * @param limit 最大件数
+     * @return 変更履歴
+     */
+    List<ItemInvalidation> findInvalidations(@Param("since") long since, @Param("limit") int limit);
+}
@@ -0,0 +1,88 @@
+package com.example.demo.web.mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+
+/**
+ * itemの履歴Mapper
+ */
+@Mapper
+public interface ItemHistoryMapper {
+
+    /**
+     * 登録、更新の履歴を追記する（追記時点のitemを記録する）
+     * @param itemId ID
+     * @return 件数
+     */
+    int insertHistory(Integer itemId);
+
+    /**
+     * 登録、更新の履歴をまとめて追記する（追記時点のitemを記録する）
+     * @param itemIds ID（1件以上）
+     * @return 件数
+     */
+    int insertHistories(@Param("itemIds") List<Integer> itemIds);
+
+    /**
+     * 削除の履歴を追記する
+     * @param itemId ID
+     * @param versionNo 削除時のバージョン番号
+     * @return 件数
+     */
+    int insertDeleteHistory(@Param("itemId") Integer itemId, @Param("versionNo") Integer versionNo);
+
+    /**
+     * 削除の履歴をまとめて追記する
+     * @param items 削除したitem（ID、削除時のバージョン番号。1件以上）
+     * @return 件数
+     */
+    int insertDeleteHistories(@Param("items") List<Item> items);
+
+    /**
+     * 一括価格改定の範囲の履歴を追記する
+     * 最新の履歴とバージョン番号が同じitem（改定しなかったitem）は追記しない
+     * @param groupid item分類
+     * @param afterId 範囲のID下限（この値は含まない。先頭の場合はnull）
+     * @param lastId 範囲のID上限
+     * @return 件数
+     */
+    int insertRepricedHistory(@Param("groupid") String groupid, @Param("afterId") Integer afterId,
+            @Param("lastId") int lastId);
+
+    /**
+     * 時点を指定してitemを取得する
+     * @param id ID
+     * @param asOf 時点（この時点より前に有効となった履歴を対象とする）
+     * @return item。時点で存在しない（未登録、削除済み）場合はnull
+     */
+    Item findAsOf(@Param("id") Integer id, @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * 時点を指定して検索する（検索条件の時点を使用する）
+     * @param criteria 検索条件
+     * @return 検索結果リスト
+     */
+    List<Item> findAllAsOf(ItemSearchCriteria criteria);
+
+    /**
+     * 時点を指定して件数を取得する（検索条件の時点を使用し、件数の上限で打ち切る）
+     * @param criteria 検索条件
+     * @return 件数
+     */
+    long countAllAsOf(ItemSearchCriteria criteria);
+
+    /**
+     * エクスポート用の時点指定の全件検索
+     * 検索条件に合致する全itemを、リストに保持せずに1件ずつResultHandlerに渡す
+     * @param criteria 検索条件（ページング、件数上限は使用しない）
+     * @param handler ResultHandler
+     */
+    void exportAllAsOf(ItemSearchCriteria criteria, ResultHandler<Item> handler);
+}
@@ -1,11 +1,20 @@
 package com.example.demo.web.mapper;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemPriceDelta;
+import com.example.demo.web.ba02.ItemFacetRow;
+import com.example.demo.web.ba02.ItemPageRow;
 import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba07.ItemReprice;
+import com.example.demo.web.ba07.ItemRepriceRange;
 
 /**
  * ItemMapper
@@ -20,6 +29,20 @@ public interface ItemMapper {
      */
     int insertItem(Item item);
 
+    /**
+     * IDが未登録の場合だけ登録
+     * 採番したIDが、手入力や一括登録で指定されたIDと衝突した場合に、例外とせずに判定するために使用する
+     * @param item Item
+     * @return 件数（IDが登録済みの場合は0）
+     */
+    int insertItemIfAbsent(Item item);
+
+    /**
+     * ID採番用のブロック番号（hi）の取得
+     * @return ブロック番号
+     */
+    int nextItemIdHi();
+
     /**
      * 全件検索
      * @param criteria 検索条件
@@ -27,6 +50,47 @@ public interface ItemMapper {
      */
     List<Item> findAll(ItemSearchCriteria criteria);
 
+    /**
+     * ID指定検索
+     * @param ids IDリスト（1件以上）
+     * @return itemリスト（ID昇順）
+     */
+    List<Item> findAllByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * エクスポート用全件検索
+     * 検索条件に合致する全itemを、リストに保持せずに1件ずつResultHandlerに渡す
+     * @param criteria 検索条件（ページング、件数上限は使用しない）
+     * @param handler ResultHandler
+     */
+    void exportAll(ItemSearchCriteria criteria, ResultHandler<Item> handler);
+
+    /**
+     * ページ検索（総件数付き）
+     * 検索条件に合致する総件数を各行に付与して返す。
+     * 検索条件の件数上限の指定時は、総件数も件数上限で打ち切られる。
+     * 指定ページに行が無い場合は空リストとなり、総件数は取得できない
+     * @param criteria 検索条件
+     * @return 総件数付きitemリスト
+     */
+    List<ItemPageRow> findPageWithTotal(ItemSearchCriteria criteria);
+
+    /**
+     * 全件検索（キーセットページング）
+     * 検索条件のカーソルを基準に、次ページまたは前ページ分を取得する
+     * @param criteria 検索条件
+     * @return itemリスト（ID昇順）
+     */
+    List<Item> findAllByKeyset(ItemSearchCriteria criteria);
+
+    /**
+     * 絞り込み件数
+     * 検索条件に合致するitemを、item分類と価格帯の組み合わせごとに数える
+     * @param criteria 検索条件
+     * @return 組み合わせごとの件数
+     */
+    List<ItemFacetRow> countFacets(ItemSearchCriteria criteria);
+
     /**
      * 全件カウント
      * @param criteria 検索条件
@@ -35,11 +99,68 @@ public interface ItemMapper {
     long countAll(ItemSearchCriteria criteria);
 
     /**
-     * 全件検索item名称指定
+     * 件数上限付きカウント
+     * 検索条件の件数上限に達した時点で数えるのを打ち切るため、戻り値は件数上限以下となる。
+     * 戻り値が件数上限未満であれば、正確な件数である
+     * @param criteria 検索条件（件数上限の指定必須）
+     * @return 件数
+     */
+    long countAllLimited(ItemSearchCriteria criteria);
+
+    /**
+     * item名称ごとの合計金額の加算
+     * 上限の指定時は、加算後の合計金額が上限未満の場合だけ加算する
      * @param itemName item名称
-     * @return itemリスト
+     * @param price 加算する金額
+     * @param limit 合計金額の上限（nullの場合は上限なし）
+     * @return 件数（行が無い場合、上限以上となる場合は0）
+     */
+    int addNameTotal(String itemName, int price, Integer limit);
+
+    /**
+     * item名称ごとの合計金額の登録（合計金額0）
+     * 既に行がある場合（同時に他のトランザクションが登録した場合を含む）は、合計金額を変更しない
+     * @param itemName item名称
+     * @return 件数
      */
-    List<Item> findAllByItemName(String itemName);
+    int insertNameTotalIfAbsent(String itemName);
+
+    /**
+     * item名称ごとの合計金額の一括加算
+     * 上限チェックは行わない。行が無いitem名称は登録する
+     * @param deltas item名称ごとの金額の増減（1件以上、item名称はnull以外）
+     * @return 件数
+     */
+    int addNameTotals(@Param("deltas") List<ItemPriceDelta> deltas);
+
+    /**
+     * item名称のn-gram登録
+     * @param itemId Id
+     * @param grams n-gram
+     * @return 件数
+     */
+    int insertNameNgrams(Integer itemId, Collection<String> grams);
+
+    /**
+     * item名称のn-gram一括登録
+     * @param grams IDごとのn-gram（1件以上、n-gramは空以外）
+     * @return 件数
+     */
+    int insertAllNameNgrams(@Param("grams") Map<Integer, ? extends Collection<String>> grams);
+
+    /**
+     * item名称のn-gram削除
+     * @param itemId Id
+     * @return 件数
+     */
+    int deleteNameNgrams(Integer itemId);
+
+    /**
+     * item名称のn-gram一括削除
+     * @param itemIds ID（1件以上）
+     * @return 件数
+     */
+    int deleteAllNameNgrams(@Param("itemIds") List<Integer> itemIds);
 
     /**
      * 1件削除
@@ -48,6 +169,22 @@ public interface ItemMapper {
      */
     int delete(Integer id, Integer versionNo);
 
+    /**
+     * 削除対象の検索（行ロック付き）
+     * IDとバージョン番号が一致する行だけを取得し、削除までの間、更新と削除を待たせる
+     * @param keys 削除対象のID、バージョン番号（1件以上）
+     * @return itemリスト（ID昇順）
+     */
+    List<Item> findAllForDelete(@Param("keys") List<Item> keys);
+
+    /**
+     * 一括削除
+     * IDとバージョン番号が一致する行だけを1回の問い合わせで削除する
+     * @param keys 削除対象のID、バージョン番号（1件以上）
+     * @return 件数
+     */
+    int deleteAll(@Param("keys") List<Item> keys);
+
     /**
      * 1件検索
      * @param id Id
@@ -55,10 +192,34 @@ public interface ItemMapper {
      */
     Item findById(Integer id);
 
+
     /**
      * 1件更新
      * @param item Item
      * @return 件数
      */
     int updateById(Item item);
+
+    /**
+     * 一括価格改定の範囲の検索
+     * item分類内で、指定IDより後の価格を持つitemを、ID順に件数上限まで数える
+     * @param groupid item分類
+     * @param afterId 前回の範囲のID上限（先頭の場合はnull）
+     * @param limit 件数上限
+     * @return 範囲（対象が無い場合はID上限がnull、件数が0）
+     */
+    ItemRepriceRange findRepriceRange(@Param("groupid") String groupid, @Param("afterId") Integer afterId,
+            @Param("limit") int limit);
+
+    /**
+     * 一括価格改定
+     * 範囲内のitemの価格を改定率で改定し、バージョン番号を加算する。
+     * 改定後の価格が上限を超えるitemは更新しない
+     * @param reprice 改定の内容
+     * @param afterId 範囲のID下限（この値を含まない。先頭の場合はnull）
+     * @param lastId 範囲のID上限（この値を含む）
+     * @return 更新したitemのitem名称ごとの金額の増減
+     */
+    List<ItemPriceDelta> repriceRange(@Param("reprice") ItemReprice reprice, @Param("afterId") Integer afterId,
+            @Param("lastId") int lastId);
 }
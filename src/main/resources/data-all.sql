@@ -11,5 +11,19 @@ insert into item values(10, '消しゴム', 100, 'CD-A01', '2025-10-30', 0);
 insert into item values(11, 'えんぴつ', 100, 'CD-A01', '2025-10-30', 0);
 insert into item values(12, '筆箱', 1000, 'CD-A01', '2025-10-30', 0);
 
+-- item名称のn-gram索引（1文字と2文字）
+insert into item_name_ngram(gram, item_id)
+select distinct substring(i.item_name, r.x, 1), i.id from item i, system_range(1, 100) r where r.x <= length(i.item_name)
+union
+select distinct substring(i.item_name, r.x, 2), i.id from item i, system_range(1, 99) r where r.x < length(i.item_name);
+
+-- item名称ごとの合計金額
+insert into item_name_total(item_name, total_price)
+select item_name, sum(coalesce(price, 0)) from item where item_name is not null group by item_name;
+
+-- itemの履歴（初期データは登録日から有効とする）
+insert into item_history(id, item_name, price, groupid, regist_date, version_no, valid_from, deleted)
+select id, item_name, price, groupid, regist_date, version_no, coalesce(cast(regist_date as timestamp), localtimestamp), false from item;
+
 insert into user_info values('root', 'USER,DATA_MANAGER', '$2a$12$dOrsbzXOAt5wL7JRNn5bW.mMzRnxQJZuWMYDMUDfy0QS24XFpJeYO', 'root@xxx', '2025-10-30', 0);
 insert into user_info values('user', 'USER', '$2a$12$dOrsbzXOAt5wL7JRNn5bW.mMzRnxQJZuWMYDMUDfy0QS24XFpJeYO', 'data@xxx', '2025-10-30', 0);
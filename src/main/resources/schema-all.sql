@@ -9,6 +9,110 @@ CREATE TABLE ITEM(
  VERSION_NO INT
 );
 
+-- itemのID採番用（hi/lo方式のブロック番号。ID = ブロック番号×ブロックサイズ＋ブロック内の位置）
+DROP SEQUENCE IF EXISTS ITEM_ID_SEQ;
+
+CREATE SEQUENCE ITEM_ID_SEQ START WITH 1 INCREMENT BY 1;
+
+-- item名称の前方一致検索用、item名称順の並べ替え用
+CREATE INDEX IDX_ITEM_ITEM_NAME ON ITEM(ITEM_NAME, ID);
+
+-- 価格順の並べ替え用（価格以上の検索にも使用）
+CREATE INDEX IDX_ITEM_PRICE ON ITEM(PRICE, ID);
+
+-- 登録日順の並べ替え用
+CREATE INDEX IDX_ITEM_REGIST_DATE ON ITEM(REGIST_DATE, ID);
+
+-- item分類ごとの一括価格改定用（分類内をID順に一定件数ずつ処理する）
+CREATE INDEX IDX_ITEM_GROUPID ON ITEM(GROUPID, ID);
+
+-- item名称の完全一致検索時の、価格順、登録日順の並べ替え用
+CREATE INDEX IDX_ITEM_ITEM_NAME_PRICE ON ITEM(ITEM_NAME, PRICE, ID);
+CREATE INDEX IDX_ITEM_ITEM_NAME_REGIST_DATE ON ITEM(ITEM_NAME, REGIST_DATE, ID);
+
+-- item名称の部分一致検索用のn-gram索引（1文字と2文字）
+DROP TABLE IF EXISTS ITEM_NAME_NGRAM CASCADE;
+
+CREATE TABLE ITEM_NAME_NGRAM(
+ GRAM VARCHAR(2) NOT NULL,
+ ITEM_ID INT NOT NULL,
+ PRIMARY KEY(GRAM, ITEM_ID)
+);
+
+CREATE INDEX IDX_ITEM_NAME_NGRAM_ITEM_ID ON ITEM_NAME_NGRAM(ITEM_ID);
+
+-- item名称ごとの合計金額（同一item名称の合計金額の上限チェック用）
+DROP TABLE IF EXISTS ITEM_NAME_TOTAL CASCADE;
+
+CREATE TABLE ITEM_NAME_TOTAL(
+ ITEM_NAME VARCHAR(100) NOT NULL PRIMARY KEY,
+ TOTAL_PRICE INT DEFAULT 0 NOT NULL
+);
+
+-- itemの変更履歴（変更フィード用、他ノードのキャッシュ無効化用。itemの登録、更新、削除と同一トランザクションで追記する）
+-- NODE_IDは変更したアプリケーションのノード（自ノードの変更を無効化の対象外とするため）
+DROP TABLE IF EXISTS ITEM_CHANGE_LOG CASCADE;
+
+CREATE TABLE ITEM_CHANGE_LOG(
+ SEQ BIGINT NOT NULL PRIMARY KEY,
+ ITEM_ID INT NOT NULL,
+ OPERATION VARCHAR(6) NOT NULL,
+ ITEM_NAME VARCHAR(100),
+ PRICE INT,
+ GROUPID VARCHAR(6),
+ REGIST_DATE DATE,
+ VERSION_NO INT,
+ CHANGED_AT TIMESTAMP NOT NULL,
+ NODE_ID VARCHAR(36)
+);
+
+-- 変更履歴の通番の払い出し（1行だけ。行ロックにより、通番の順とコミットの順を一致させる）
+DROP TABLE IF EXISTS ITEM_CHANGE_SEQ CASCADE;
+
+CREATE TABLE ITEM_CHANGE_SEQ(
+ ID INT NOT NULL PRIMARY KEY,
+ LAST_SEQ BIGINT NOT NULL
+);
+
+INSERT INTO ITEM_CHANGE_SEQ VALUES(1, 0);
+
+-- itemの履歴（時点指定の照会用。itemの登録、更新、削除と同一トランザクションで追記する）
+-- VALID_FROMから次の履歴のVALID_FROMまで有効。削除はDELETEDの行（内容はnull）を追記する
+-- IDは削除後に再登録される場合があるため主キーとしない。同一ID、同一VALID_FROMの履歴はHISTORY_NO（追記順）で前後を決める
+DROP TABLE IF EXISTS ITEM_HISTORY CASCADE;
+
+CREATE TABLE ITEM_HISTORY(
+ HISTORY_NO BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+ ID INT NOT NULL,
+ ITEM_NAME VARCHAR(100),
+ PRICE INT,
+ GROUPID VARCHAR(6),
+ REGIST_DATE DATE,
+ VERSION_NO INT NOT NULL,
+ VALID_FROM TIMESTAMP NOT NULL,
+ DELETED BOOLEAN NOT NULL
+);
+
+-- 時点指定の照会用（IDと時点から、その時点で有効な1行を索引の1回の探索で求める）
+CREATE INDEX IDX_ITEM_HISTORY_ID_VALID_FROM ON ITEM_HISTORY(ID, VALID_FROM, HISTORY_NO);
+
+-- itemの監査ログ（登録、更新、削除を行った利用者、画面、変更前後の値。コミット後にまとめて非同期に追記する）
+-- 一括価格改定は改定した範囲を1行とする（OPERATIONはREPRICE、ITEM_IDはnull、AFTER_VALUEは範囲）
+DROP TABLE IF EXISTS ITEM_AUDIT_LOG CASCADE;
+
+CREATE TABLE ITEM_AUDIT_LOG(
+ ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+ ITEM_ID INT,
+ OPERATION VARCHAR(7) NOT NULL,
+ USER_ID VARCHAR(100),
+ SCREEN VARCHAR(20),
+ BEFORE_VALUE VARCHAR(1000),
+ AFTER_VALUE VARCHAR(1000),
+ OCCURRED_AT TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IDX_ITEM_AUDIT_LOG_ITEM_ID ON ITEM_AUDIT_LOG(ITEM_ID, OCCURRED_AT);
+
 DROP TABLE IF EXISTS USER_INFO CASCADE;
 
 CREATE TABLE USER_INFO(
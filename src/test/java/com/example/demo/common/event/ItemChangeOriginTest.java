@@ -0,0 +1,57 @@
+package com.example.demo.common.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.demo.entity.Item;
+
+/**
+ * ItemChangeOrigin テストクラス
+ */
+@DisplayName("ItemChangeOrigin のテスト")
+class ItemChangeOriginTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("リクエストの利用者と、リクエストパスの先頭の画面を取得すること")
+    void shouldCaptureRequest() {
+        // Given（前提条件）
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/WBA0501/update");
+        request.setServletPath("/WBA0501/update");
+        request.setAttribute("userId", "root");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // When（実行）
+        ItemChangedEvent event = ItemChangedEvent.inserted(new Item());
+        RequestContextHolder.resetRequestAttributes();
+
+        // Then（検証）生成後にリクエストが無くなっても変更元は変わらない
+        assertThat(event.getOrigin()).isEqualTo(new ItemChangeOrigin("root", "WBA0501"));
+    }
+
+    @Test
+    @DisplayName("リクエスト外の場合はNONEとなること")
+    void shouldBeNoneWithoutRequest() {
+        assertThat(ItemChangeOrigin.current()).isSameAs(ItemChangeOrigin.NONE);
+        assertThat(ItemChangedEvent.deleted(new Item()).getOrigin().getUserId()).isNull();
+    }
+
+    @Test
+    @DisplayName("リクエストパスの先頭を画面とすること")
+    void shouldResolveScreen() {
+        assertThat(ItemChangeOrigin.screenOf("/WBA0101/regist")).isEqualTo("WBA0101");
+        assertThat(ItemChangeOrigin.screenOf("/WBA0601")).isEqualTo("WBA0601");
+        assertThat(ItemChangeOrigin.screenOf("/")).isNull();
+        assertThat(ItemChangeOrigin.screenOf("")).isNull();
+    }
+}
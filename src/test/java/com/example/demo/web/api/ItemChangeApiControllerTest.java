@@ -0,0 +1,88 @@
+package com.example.demo.web.api;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = ItemChangeApiController.class)
+public class ItemChangeApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemChangeFeedService itemChangeFeedService;
+
+    @Test
+    @WithMockUser
+    void changes() throws Exception {
+        // モックの設定
+        ItemChange change = new ItemChange();
+        change.setSeq(11L);
+        change.setItemId(1);
+        change.setOperation(ItemChange.DELETE);
+        change.setVersionNo(2);
+        when(itemChangeFeedService.findChanges(10L, 1)).thenReturn(new ItemChangePage(List.of(change), 11L, true));
+
+        // テスト実行
+        mockMvc.perform(get("/api/items/changes").param("since", "10").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].seq").value(11))
+                .andExpect(jsonPath("$.changes[0].itemId").value(1))
+                .andExpect(jsonPath("$.changes[0].operation").value("DELETE"))
+                .andExpect(jsonPath("$.nextSince").value(11))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser
+    void changes_初期値() throws Exception {
+        // モックの設定
+        when(itemChangeFeedService.findChanges(0L, 100)).thenReturn(new ItemChangePage(List.of(), 0L, false));
+
+        // テスト実行
+        mockMvc.perform(get("/api/items/changes"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes").isEmpty());
+    }
+
+    @Test
+    @WithMockUser
+    void changes_入力エラー() throws Exception {
+        mockMvc.perform(get("/api/items/changes").param("since", "-1").param("limit", "1001"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(itemChangeFeedService, never()).findChanges(anyLong(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void latest() throws Exception {
+        // モックの設定
+        when(itemChangeFeedService.findLastSeq()).thenReturn(42L);
+
+        // テスト実行
+        mockMvc.perform(get("/api/items/changes/latest"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seq").value(42));
+    }
+}
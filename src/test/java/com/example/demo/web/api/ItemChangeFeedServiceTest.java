@@ -0,0 +1,170 @@
+package com.example.demo.web.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemRegistService;
+import com.example.demo.web.ba04.ItemDeleteService;
+import com.example.demo.web.ba05.ItemUpdateService;
+import com.example.demo.web.ba07.ItemRepriceService;
+
+/**
+ * ItemChangeFeedService テストクラス
+ * 
+ * itemの登録、更新、削除、一括価格改定と同一トランザクションで変更履歴が追記され、通番順に取得できることを確認する。
+ */
+@SpringBootTest
+@DisplayName("ItemChangeFeedService のテスト")
+class ItemChangeFeedServiceTest {
+
+    @Autowired
+    private ItemChangeFeedService target;
+
+    @Autowired
+    private ItemRegistService itemRegistService;
+
+    @Autowired
+    private ItemUpdateService itemUpdateService;
+
+    @Autowired
+    private ItemDeleteService itemDeleteService;
+
+    @Autowired
+    private ItemRepriceService itemRepriceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "変更履歴";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 610_000;
+
+    /** テスト開始前の最後の通番 */
+    private long since;
+
+    @BeforeEach
+    void setUp() {
+        since = target.findLastSeq();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item_name_ngram where item_id >= ? and item_id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item where id >= ? and id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item_name_total where item_name = ?", ITEM_NAME);
+    }
+
+    @Test
+    @DisplayName("登録、更新、削除の変更履歴が通番順に取得でき、失敗した更新は記録されないこと")
+    void shouldFindChangesInOrder() {
+        // Given（前提条件）
+        itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", LocalDate.of(2024, 4, 1), 0));
+        itemUpdateService.update(new Item(ID_BASE, ITEM_NAME, 150, "CD-A01", null, 0));
+        assertThatThrownBy(() -> itemUpdateService.update(new Item(ID_BASE, ITEM_NAME, 200, "CD-A01", null, 0)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        itemDeleteService.deleteOne(ID_BASE, 1);
+
+        // When（実行）
+        ItemChangePage page = target.findChanges(since, 10);
+
+        // Then（検証）
+        assertThat(page.getChanges())
+                .extracting(ItemChange::getItemId, ItemChange::getOperation, ItemChange::getPrice,
+                        ItemChange::getVersionNo)
+                .containsExactly(
+                        tuple(ID_BASE, ItemChange.INSERT, 100, 0),
+                        tuple(ID_BASE, ItemChange.UPDATE, 150, 1),
+                        tuple(ID_BASE, ItemChange.DELETE, null, 1));
+        assertThat(page.getChanges()).extracting(ItemChange::getSeq)
+                .containsExactly(since + 1, since + 2, since + 3);
+        assertThat(page.getChanges().get(1).getRegistDate()).isEqualTo(LocalDate.of(2024, 4, 1));
+        assertThat(page.getNextSince()).isEqualTo(since + 3);
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("最大件数を超える場合は続きがあり、次回の通番から続きが取得できること")
+    void shouldPageChanges() {
+        // Given（前提条件）
+        for (int i = 0; i < 3; i++) {
+            itemRegistService.registItem(new Item(ID_BASE + i, ITEM_NAME, 100, "CD-A01", null, 0));
+        }
+
+        // When（実行）
+        ItemChangePage first = target.findChanges(since, 2);
+        ItemChangePage second = target.findChanges(first.getNextSince(), 2);
+        ItemChangePage empty = target.findChanges(second.getNextSince(), 2);
+
+        // Then（検証）
+        assertThat(first.getChanges()).extracting(ItemChange::getItemId).containsExactly(ID_BASE, ID_BASE + 1);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getChanges()).extracting(ItemChange::getItemId).containsExactly(ID_BASE + 2);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(empty.getChanges()).isEmpty();
+        assertThat(empty.getNextSince()).isEqualTo(second.getNextSince());
+    }
+
+    @Test
+    @DisplayName("一括価格改定の範囲のitemが、ID順に通番を付けて記録されること")
+    void shouldRecordRepricedItems() {
+        // Given（前提条件）CD-T02は本テスト専用の分類
+        jdbcTemplate.update("insert into item values(?, ?, ?, ?, null, 0)", ID_BASE + 1, ITEM_NAME, 100, "CD-T02");
+        jdbcTemplate.update("insert into item values(?, ?, ?, ?, null, 0)", ID_BASE, ITEM_NAME, 200, "CD-T02");
+
+        // When（実行）
+        itemRepriceService.reprice("CD-T02", 10);
+
+        // Then（検証）
+        List<ItemChange> changes = target.findChanges(since, 10).getChanges();
+        assertThat(changes).extracting(ItemChange::getItemId, ItemChange::getPrice, ItemChange::getVersionNo)
+                .containsExactly(
+                        tuple(ID_BASE, 220, 1),
+                        tuple(ID_BASE + 1, 110, 1));
+        assertThat(changes).extracting(ItemChange::getSeq).containsExactly(since + 1, since + 2);
+        assertThat(target.findLastSeq()).isEqualTo(since + 2);
+    }
+
+    @Test
+    @DisplayName("変更履歴はコミット直前に追記され、同一トランザクション内の変更に連続した通番が付くこと")
+    void shouldAppendChangesAtCommit() {
+        // Given（前提条件）
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When（実行）
+        Long lastSeqInTransaction = transaction.execute(status -> {
+            itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", null, 0));
+            itemRegistService.registItem(new Item(ID_BASE + 1, ITEM_NAME, 200, "CD-A01", null, 0));
+            return target.findLastSeq();
+        });
+
+        // Then（検証）
+        assertThat(lastSeqInTransaction).isEqualTo(since);
+        assertThat(target.findChanges(since, 10).getChanges())
+                .extracting(ItemChange::getSeq, ItemChange::getItemId)
+                .containsExactly(
+                        tuple(since + 1, ID_BASE),
+                        tuple(since + 2, ID_BASE + 1));
+        assertThat(target.findLastSeq()).isEqualTo(since + 2);
+    }
+}
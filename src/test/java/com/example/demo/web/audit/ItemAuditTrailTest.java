@@ -0,0 +1,311 @@
+package com.example.demo.web.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemAuditMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemAuditTrail テストクラス
+ */
+@DisplayName("ItemAuditTrail のテスト")
+class ItemAuditTrailTest {
+
+    private ItemAuditMapper mapper;
+
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry registry;
+
+    private ItemAuditTrail target;
+
+    /** 追記された監査ログ */
+    private List<ItemAuditRecord> written;
+
+    /** 最初の追記を止めておくラッチ */
+    private CountDownLatch release;
+
+    /** 最初の追記が始まったことを知らせるラッチ */
+    private CountDownLatch started;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(ItemAuditMapper.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        registry = new SimpleMeterRegistry();
+        written = new ArrayList<>();
+        release = new CountDownLatch(1);
+        started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<ItemAuditRecord> records = invocation.getArgument(0);
+            synchronized (written) {
+                written.addAll(records);
+            }
+            return records.size();
+        }).when(mapper).insertAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        RequestContextHolder.resetRequestAttributes();
+        release.countDown();
+        if (target != null) {
+            target.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("利用者、画面、変更前後の値が、書き込みスレッドで追記されること")
+    void shouldWriteAuditRecord() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/WBA0501/update");
+        request.setServletPath("/WBA0501/update");
+        request.setAttribute("userId", "root");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.updated(item(1, 100, 0), item(1, 150, 1)));
+
+        // Then（検証）
+        target.destroy();
+        ItemAuditRecord record = written.get(0);
+        assertThat(record.getItemId()).isEqualTo(1);
+        assertThat(record.getOperation()).isEqualTo("UPDATE");
+        assertThat(record.getUserId()).isEqualTo("root");
+        assertThat(record.getScreen()).isEqualTo("WBA0501");
+        assertThat(record.getBeforeValue()).contains("\"price\":100", "\"registDate\":\"2024-04-01\"");
+        assertThat(record.getAfterValue()).contains("\"price\":150", "\"versionNo\":1");
+        assertThat(record.getOccurredAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("書き込みスレッド等、受信時にリクエストが無い場合も、イベントの変更元の利用者、画面で追記されること")
+    void shouldWriteOriginOfEvent() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        ItemChangeOrigin origin = new ItemChangeOrigin("root", "WBA0101");
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0), origin));
+        target.onItemsInserted(new ItemsInsertedEvent(List.of(item(2, 100, 0)), origin));
+
+        // Then（検証）
+        target.destroy();
+        assertThat(written).extracting(ItemAuditRecord::getUserId).containsExactly("root", "root");
+        assertThat(written).extracting(ItemAuditRecord::getScreen).containsExactly("WBA0101", "WBA0101");
+    }
+
+    @Test
+    @DisplayName("リクエスト外の変更は利用者、画面がnullで追記され、登録、削除の片側の値はnullとなること")
+    void shouldWriteWithoutRequest() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+        target.onItemChanged(ItemChangedEvent.deleted(item(2, 100, 0)));
+
+        // Then（検証）
+        target.destroy();
+        assertThat(written).extracting(ItemAuditRecord::getOperation).containsExactly("INSERT", "DELETE");
+        assertThat(written.get(0).getBeforeValue()).isNull();
+        assertThat(written.get(1).getAfterValue()).isNull();
+        assertThat(written).extracting(ItemAuditRecord::getUserId).containsOnlyNulls();
+        assertThat(written).extracting(ItemAuditRecord::getScreen).containsOnlyNulls();
+    }
+
+    @Test
+    @DisplayName("一括登録は、itemごとの登録の監査ログとして追記されること")
+    void shouldWriteInsertedItems() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+
+        // When（実行）
+        target.onItemsInserted(
+                new ItemsInsertedEvent(List.of(item(1, 100, 0), item(2, 200, 0)), ItemChangeOrigin.NONE));
+
+        // Then（検証）
+        target.destroy();
+        assertThat(written).extracting(ItemAuditRecord::getItemId).containsExactly(1, 2);
+        assertThat(written).extracting(ItemAuditRecord::getOperation).containsOnly("INSERT");
+    }
+
+    @Test
+    @DisplayName("一括価格改定は、改定した範囲ごとに1件の監査ログとして追記されること")
+    void shouldWriteRepricedRange() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        ItemChangeOrigin origin = new ItemChangeOrigin("root", "WBA0701");
+
+        // When（実行）
+        target.onItemsRepriced(new ItemsRepricedEvent("CD-A01", 10, null, 4, origin));
+        target.onItemsRepriced(new ItemsRepricedEvent("CD-A01", 10, 4, 9, origin));
+
+        // Then（検証）
+        target.destroy();
+        assertThat(written).extracting(ItemAuditRecord::getItemId).containsOnlyNulls();
+        assertThat(written).extracting(ItemAuditRecord::getOperation).containsOnly("REPRICE");
+        assertThat(written).extracting(ItemAuditRecord::getUserId).containsOnly("root");
+        assertThat(written).extracting(ItemAuditRecord::getScreen).containsOnly("WBA0701");
+        assertThat(written).extracting(ItemAuditRecord::getBeforeValue).containsOnlyNulls();
+        assertThat(written).extracting(ItemAuditRecord::getAfterValue).containsExactly(
+                "{\"groupid\":\"CD-A01\",\"percent\":10,\"afterId\":null,\"lastId\":4}",
+                "{\"groupid\":\"CD-A01\",\"percent\":10,\"afterId\":4,\"lastId\":9}");
+    }
+
+    @Test
+    @DisplayName("書き込み中に溜まった監査ログが、まとめて追記されること")
+    void shouldWriteQueuedRecordsInOneBatch() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        blockFirstWrite();
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 5; i++) {
+            target.onItemChanged(ItemChangedEvent.inserted(item(i, 100, 0)));
+        }
+
+        // When（実行）
+        release.countDown();
+        target.destroy();
+
+        // Then（検証）
+        assertThat(written).extracting(ItemAuditRecord::getItemId).containsExactly(1, 2, 3, 4, 5);
+        assertThat(registry.get("item.audit.batch.size").summary().count()).isEqualTo(2);
+        assertThat(registry.get("item.audit.batch.size").summary().max()).isEqualTo(4.0);
+        assertThat(registry.get("item.audit.lag").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("キューが一杯の場合、呼び出し元を待たせずに破棄して件数を記録すること")
+    void shouldDropWhenQueueIsFull() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 1);
+        blockFirstWrite();
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        target.onItemChanged(ItemChangedEvent.inserted(item(2, 100, 0)));
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(3, 100, 0)));
+
+        // Then（検証）
+        assertThat(registry.get("item.audit.dropped").tag("reason", "full").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("item.audit.queue.depth").gauge().value()).isEqualTo(1.0);
+        release.countDown();
+        target.destroy();
+        assertThat(written).extracting(ItemAuditRecord::getItemId).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("追記に失敗した場合、破棄した件数を記録して以降の追記を続けること")
+    void shouldCountErrorsAndContinue() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        doThrow(new RuntimeException("error")).when(mapper)
+                .insertAll(argThat(records -> records != null && records.get(0).getItemId() == 1));
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+        verify(mapper, timeout(5000)).insertAll(anyList());
+        target.onItemChanged(ItemChangedEvent.inserted(item(2, 100, 0)));
+        target.destroy();
+
+        // Then（検証）
+        assertThat(written).extracting(ItemAuditRecord::getItemId).containsExactly(2);
+        assertThat(registry.get("item.audit.dropped").tag("reason", "error").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("停止後の監査ログは破棄し、件数を記録すること")
+    void shouldDropAfterShutdown() throws Exception {
+        // Given（前提条件）
+        target = trail(true, 10);
+        target.destroy();
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+
+        // Then（検証）
+        verify(mapper, never()).insertAll(anyList());
+        assertThat(registry.get("item.audit.dropped").tag("reason", "shutdown").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("無効の場合、監査ログを記録しないこと")
+    void shouldIgnoreWhenDisabled() throws Exception {
+        // Given（前提条件）
+        target = trail(false, 10);
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(item(1, 100, 0)));
+        target.destroy();
+
+        // Then（検証）
+        verify(mapper, never()).insertAll(anyList());
+        assertThat(registry.get("item.audit.queue.depth").gauge().value()).isEqualTo(0.0);
+    }
+
+    private ItemAuditTrail trail(boolean enabled, int capacity) {
+        return new ItemAuditTrail(mapper, transactionManager, Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(), enabled,
+                capacity, 10, registry);
+    }
+
+    /**
+     * ID=1の追記を、releaseまで止めておく
+     */
+    private void blockFirstWrite() {
+        doAnswer(invocation -> {
+            List<ItemAuditRecord> records = invocation.getArgument(0);
+            if (records.get(0).getItemId() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            synchronized (written) {
+                written.addAll(records);
+            }
+            return records.size();
+        }).when(mapper).insertAll(anyList());
+    }
+
+    private static Item item(int id, int price, int versionNo) {
+        return new Item(id, "監査", price, "CD-A01", LocalDate.of(2024, 4, 1), versionNo);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.web.ba01;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -39,7 +40,7 @@ public class BA0101ControllerTest {
     MockMvc mockMvc;
 
     @MockitoBean
-    ItemRegistService itemRegistService;
+    ItemRegistQueue itemRegistQueue;
 
     @Autowired
     ItemRegistViewHelper itemRegistViewHelper;
@@ -48,7 +49,7 @@ public class BA0101ControllerTest {
     @WithMockUser(roles = "DATA_MANAGER")
     void indexPage() throws Exception {
 
-        ItemForm expected = new ItemForm(13, "ペン", 1000, "CD-A01", LocalDate.now());
+        ItemForm expected = new ItemForm(null, "ペン", 1000, "CD-A01", LocalDate.now());
 
         mockMvc.perform(get("/WBA0101/index"))
                 .andDo(print())
@@ -76,13 +77,32 @@ public class BA0101ControllerTest {
                 .andExpect(model().attributeExists("itemForm"));
     }
 
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void confirmPage_validInput_emptyId() throws Exception {
+
+        mockMvc.perform(
+                post("/WBA0101/confirm")
+                        .with(csrf())
+                        .param("id", "") // 未入力の場合は登録時に採番
+                        .param("itemName", "ペン")
+                        .param("price", "1000")
+                        .param("groupid", "CD-A01")
+                        .param("registDate", LocalDate.now().toString()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0101/confirm"))
+                .andExpect(model().attributeHasNoErrors("itemForm"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("（登録時に採番）")));
+    }
+
     @Test
     @WithMockUser(roles = "DATA_MANAGER")
     void confirmPage_invalidInput() throws Exception {
         mockMvc.perform(
                 post("/WBA0101/confirm")
                         .with(csrf())
-                        .param("id", "") // invalid: empty id
+                        .param("id", "abc") // invalid: not a number
                         .param("itemName", "size is over 10 length") // invalid: over 10 length
                         .param("price", "-1") // invalid: negative price
                         .param("groupid", "size is over 6 length") // invalid: over 6 length
@@ -119,7 +139,7 @@ public class BA0101ControllerTest {
     void registPage_validInput() throws Exception {
 
         // サービスの正常処理をモック
-        doNothing().when(itemRegistService).registItem(any());
+        doNothing().when(itemRegistQueue).registItem(any());
 
         mockMvc.perform(
                 post("/WBA0101/regist")
@@ -135,7 +155,7 @@ public class BA0101ControllerTest {
                 .andExpect(redirectedUrl("/WBA0101/complete"));
 
         // サービスメソッドが呼ばれたことを検証
-        verify(itemRegistService, times(1)).registItem(any());
+        verify(itemRegistQueue, times(1)).registItem(any());
     }
 
     @Test
@@ -146,7 +166,7 @@ public class BA0101ControllerTest {
                 post("/WBA0101/regist")
                         .with(csrf())
                         .param("regist", "") // registパラメータを追加
-                        .param("id", "") // invalid: empty id
+                        .param("id", "abc") // invalid: not a number
                         .param("itemName", "size is over 10 length") // invalid: over 10 length
                         .param("price", "-1") // invalid: negative price
                         .param("groupid", "size is over 6 length") // invalid: over 6 length
@@ -158,7 +178,7 @@ public class BA0101ControllerTest {
                         "registDate"));
 
         // サービスメソッドが呼ばれていないことを検証
-        verify(itemRegistService, never()).registItem(any());
+        verify(itemRegistQueue, never()).registItem(any());
     }
 
     @Test
@@ -166,7 +186,7 @@ public class BA0101ControllerTest {
     void registPage_serviceException_ME001() throws Exception {
 
         // サービスでAppExceptionが発生する場合をモック（グローバルエラー）
-        doThrow(new AppException("ME001")).when(itemRegistService).registItem(any());
+        doThrow(new AppException("ME001")).when(itemRegistQueue).registItem(any());
 
         mockMvc.perform(
                 post("/WBA0101/regist")
@@ -194,7 +214,7 @@ public class BA0101ControllerTest {
                 });
 
         // サービスメソッドが呼ばれたことを検証
-        verify(itemRegistService, times(1)).registItem(any());
+        verify(itemRegistQueue, times(1)).registItem(any());
     }
 
     @Test
@@ -202,7 +222,7 @@ public class BA0101ControllerTest {
     void registPage_serviceException_ME004() throws Exception {
 
         // サービスでAppExceptionが発生する場合をモック（グローバルエラー）
-        doThrow(new AppException("ME004", "id", new DuplicateKeyException(""))).when(itemRegistService).registItem(any());
+        doThrow(new AppException("ME004", "id", new DuplicateKeyException(""))).when(itemRegistQueue).registItem(any());
 
         mockMvc.perform(
                 post("/WBA0101/regist")
@@ -221,7 +241,7 @@ public class BA0101ControllerTest {
                 .andExpect(model().attributeHasFieldErrorCode("itemForm", "id", "ME004"));
                 
         // サービスメソッドが呼ばれたことを検証
-        verify(itemRegistService, times(1)).registItem(any());
+        verify(itemRegistQueue, times(1)).registItem(any());
     }
 
     @Test
@@ -243,7 +263,7 @@ public class BA0101ControllerTest {
                 .andExpect(model().attributeExists("itemForm"));
 
         // backの場合はサービスメソッドが呼ばれないことを検証
-        verify(itemRegistService, never()).registItem(any());
+        verify(itemRegistQueue, never()).registItem(any());
     }
 
     @Test
@@ -257,6 +277,6 @@ public class BA0101ControllerTest {
                 .andExpect(view().name("BA0101/complete"));
 
         // completeの場合はサービスメソッドが呼ばれないことを検証
-        verify(itemRegistService, never()).registItem(any());
+        verify(itemRegistQueue, never()).registItem(any());
     }
 }
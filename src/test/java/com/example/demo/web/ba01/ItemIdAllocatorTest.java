@@ -0,0 +1,126 @@
+package com.example.demo.web.ba01;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * ItemIdAllocator テストクラス
+ */
+@DisplayName("ItemIdAllocator のテスト")
+class ItemIdAllocatorTest {
+
+    @Test
+    @DisplayName("ブロック内のIDはシーケンスを使用せずに払い出され、使い切ると次のブロックを取得すること")
+    void shouldAllocateFromBlocks() {
+        // Given（前提条件）
+        ItemMapper mapper = mock(ItemMapper.class);
+        when(mapper.nextItemIdHi()).thenReturn(1, 2);
+        ItemIdAllocator target = new ItemIdAllocator(mapper, 3);
+
+        // When（実行）
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(target.next());
+        }
+
+        // Then（検証）
+        assertThat(ids).containsExactly(3, 4, 5, 6, 7);
+        verify(mapper, times(2)).nextItemIdHi();
+    }
+
+    @Test
+    @DisplayName("衝突したIDのブロックを破棄すると、次のブロックから払い出すこと")
+    void shouldDiscardBlock() {
+        // Given（前提条件）
+        ItemMapper mapper = mock(ItemMapper.class);
+        when(mapper.nextItemIdHi()).thenReturn(1, 2);
+        ItemIdAllocator target = new ItemIdAllocator(mapper, 3);
+        int collided = target.next();
+
+        // When（実行）
+        target.discard(collided);
+        int next = target.next();
+        target.discard(collided);
+
+        // Then（検証）既に次のブロックに移っている場合は破棄しない
+        assertThat(next).isEqualTo(6);
+        assertThat(target.next()).isEqualTo(7);
+        verify(mapper, times(2)).nextItemIdHi();
+    }
+
+    @Test
+    @DisplayName("複数のサーバーが同じシーケンスを使用しても、IDが重複しないこと")
+    void shouldNotCollideBetweenNodes() {
+        // Given（前提条件）
+        AtomicInteger sequence = new AtomicInteger();
+        ItemMapper mapper = mock(ItemMapper.class);
+        when(mapper.nextItemIdHi()).thenAnswer(invocation -> sequence.incrementAndGet());
+        ItemIdAllocator node1 = new ItemIdAllocator(mapper, 10);
+        ItemIdAllocator node2 = new ItemIdAllocator(mapper, 10);
+
+        // When（実行）
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 25; i++) {
+            assertThat(ids.add(node1.next())).isTrue();
+            assertThat(ids.add(node2.next())).isTrue();
+        }
+
+        // Then（検証）
+        assertThat(ids).hasSize(50);
+    }
+
+    @Test
+    @DisplayName("同時に払い出しても、IDが重複せず、ブロックの取得が必要最小限であること")
+    void shouldAllocateUniqueIdsConcurrently() throws Exception {
+        // Given（前提条件）
+        AtomicInteger sequence = new AtomicInteger();
+        ItemMapper mapper = mock(ItemMapper.class);
+        when(mapper.nextItemIdHi()).thenAnswer(invocation -> sequence.incrementAndGet());
+        ItemIdAllocator target = new ItemIdAllocator(mapper, 100);
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < perThread; j++) {
+                    ids.add(target.next());
+                }
+                return null;
+            }));
+        }
+
+        // When（実行）
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then（検証）
+        assertThat(ids).hasSize(threads * perThread);
+        assertThat(sequence.get()).isEqualTo(threads * perThread / 100);
+    }
+}
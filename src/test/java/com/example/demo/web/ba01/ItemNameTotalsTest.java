@@ -0,0 +1,189 @@
+package com.example.demo.web.ba01;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.core.exception.AppException;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * ItemNameTotals テストクラス
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ItemNameTotals のテスト")
+class ItemNameTotalsTest {
+
+    @InjectMocks
+    private ItemNameTotals target;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Nested
+    @DisplayName("登録時の加算")
+    class ReserveTest {
+
+        @Test
+        @DisplayName("上限未満の場合、上限付きで加算されること")
+        void shouldAddWithinLimit() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", 1000, 3000)).thenReturn(1);
+
+            // When（実行）
+            target.reserve(item(1, "ペン", 1000));
+
+            // Then（検証）
+            verify(itemMapper, never()).insertNameTotalIfAbsent(anyString());
+        }
+
+        @Test
+        @DisplayName("合計金額の行が無い場合、合計金額0で登録してから加算されること")
+        void shouldInsertWhenNoTotal() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", 1000, 3000)).thenReturn(0, 1);
+
+            // When（実行）
+            target.reserve(item(1, "ペン", 1000));
+
+            // Then（検証）
+            InOrder inOrder = inOrder(itemMapper);
+            inOrder.verify(itemMapper).addNameTotal("ペン", 1000, 3000);
+            inOrder.verify(itemMapper).insertNameTotalIfAbsent("ペン");
+            inOrder.verify(itemMapper).addNameTotal("ペン", 1000, 3000);
+        }
+
+        @Test
+        @DisplayName("加算後の合計金額が上限以上となる場合、業務エラーとなること")
+        void shouldThrowAppExceptionWhenLimitExceeded() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", 1000, 3000)).thenReturn(0, 0);
+
+            // When（実行） & Then（検証）
+            assertThatThrownBy(() -> target.reserve(item(1, "ペン", 1000)))
+                .isInstanceOf(AppException.class)
+                .hasFieldOrPropertyWithValue("messageId", "ME001");
+        }
+
+        @Test
+        @DisplayName("1件で上限以上の場合、合計金額の行を登録せずに業務エラーとなること")
+        void shouldThrowAppExceptionWhenPriceExceedsLimit() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", 3000, 3000)).thenReturn(0);
+
+            // When（実行） & Then（検証）
+            assertThatThrownBy(() -> target.reserve(item(1, "ペン", 3000)))
+                .isInstanceOf(AppException.class)
+                .hasFieldOrPropertyWithValue("messageId", "ME001");
+            verify(itemMapper, never()).insertNameTotalIfAbsent(anyString());
+        }
+
+        @Test
+        @DisplayName("item名称なしの場合、合計金額を保持しないこと")
+        void shouldNotAddWithoutItemName() {
+            // When（実行）
+            target.reserve(item(1, null, 1000));
+
+            // Then（検証）
+            verifyNoInteractions(itemMapper);
+        }
+    }
+
+    @Nested
+    @DisplayName("更新、削除時の増減")
+    class ChangedTest {
+
+        @Test
+        @DisplayName("金額の更新で、差し引きと加算が上限なしで行われること")
+        void shouldAdjustOnUpdate() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal(anyString(), anyInt(), isNull())).thenReturn(1);
+
+            // When（実行）
+            target.onItemChanged(ItemChangedEvent.updated(item(1, "ペン", 100), item(1, "ペン", 500)));
+
+            // Then（検証）
+            verify(itemMapper).addNameTotal("ペン", -100, null);
+            verify(itemMapper).addNameTotal("ペン", 500, null);
+        }
+
+        @Test
+        @DisplayName("item名称の変更で、変更後の名称の行が無い場合は登録されること")
+        void shouldInsertOnRename() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", -100, null)).thenReturn(1);
+            when(itemMapper.addNameTotal("万年筆", 100, null)).thenReturn(0, 1);
+
+            // When（実行）
+            target.onItemChanged(ItemChangedEvent.updated(item(1, "ペン", 100), item(1, "万年筆", 100)));
+
+            // Then（検証）
+            verify(itemMapper).insertNameTotalIfAbsent("万年筆");
+            verify(itemMapper, times(2)).addNameTotal("万年筆", 100, null);
+        }
+
+        @Test
+        @DisplayName("削除で差し引かれること")
+        void shouldSubtractOnDelete() {
+            // Given（前提条件）
+            when(itemMapper.addNameTotal("ペン", -100, null)).thenReturn(1);
+
+            // When（実行）
+            target.onItemChanged(ItemChangedEvent.deleted(item(1, "ペン", 100)));
+
+            // Then（検証）
+            verify(itemMapper).addNameTotal("ペン", -100, null);
+        }
+
+        @Test
+        @DisplayName("一括削除で、item名称ごとにまとめて1回で差し引かれること")
+        void shouldSubtractAllOnDeleteAll() {
+            // When（実行）
+            target.onItemsDeleted(new ItemsDeletedEvent(List.of(item(1, "ペン", 100), item(2, "ノート", 200),
+                    item(3, "ペン", null), item(4, "ペン", 300), item(5, null, 400)), ItemChangeOrigin.NONE));
+
+            // Then（検証）
+            verify(itemMapper).addNameTotals(List.of(new ItemPriceDelta("ペン", -400, 3),
+                    new ItemPriceDelta("ノート", -200, 1)));
+            verify(itemMapper, never()).addNameTotal(anyString(), anyInt(), isNull());
+        }
+
+        @Test
+        @DisplayName("登録、およびitem名称と金額の変わらない更新では増減しないこと")
+        void shouldIgnoreInsertAndUnchanged() {
+            // When（実行）
+            target.onItemChanged(ItemChangedEvent.inserted(item(1, "ペン", 100)));
+            target.onItemChanged(ItemChangedEvent.updated(item(1, "ペン", 100), item(1, "ペン", 100)));
+
+            // Then（検証）
+            verifyNoInteractions(itemMapper);
+        }
+    }
+
+    private static Item item(int id, String itemName, Integer price) {
+        return new Item(id, itemName, price, "CD-A01", LocalDate.of(2023, 7, 1), 0);
+    }
+}
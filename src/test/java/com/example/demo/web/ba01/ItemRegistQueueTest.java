@@ -0,0 +1,245 @@
+package com.example.demo.web.ba01;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.core.exception.AppException;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemRegistQueue テストクラス
+ */
+@DisplayName("ItemRegistQueue のテスト")
+class ItemRegistQueueTest {
+
+    private ItemRegistService itemRegistService;
+
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry registry;
+
+    private ItemRegistQueue target;
+
+    private ExecutorService callers;
+
+    /** 最初の登録を止めておくラッチ */
+    private CountDownLatch release;
+
+    /** 最初の登録が始まったことを知らせるラッチ */
+    private CountDownLatch started;
+
+    @BeforeEach
+    void setUp() {
+        itemRegistService = mock(ItemRegistService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        registry = new SimpleMeterRegistry();
+        callers = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+        started = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        if (target != null) {
+            target.destroy();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("無効の場合、呼び出し元のスレッドで登録すること")
+    void shouldRegistDirectlyWhenDisabled() {
+        // Given（前提条件）
+        target = queue(false, 10, Duration.ofSeconds(5));
+        Item item = item(1);
+
+        // When（実行）
+        target.registItem(item);
+
+        // Then（検証）
+        verify(itemRegistService).registItem(item);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("受付時のリクエストの利用者、画面が、書き込みスレッドでの登録に引き渡されること")
+    void shouldPassOriginToWriter() throws Exception {
+        // Given（前提条件）
+        target = queue(true, 10, Duration.ofSeconds(5));
+        Item item = item(1);
+
+        // When（実行）
+        callers.submit(() -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/WBA0101/regist");
+            request.setServletPath("/WBA0101/regist");
+            request.setAttribute("userId", "root");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            try {
+                target.registItem(item);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        // Then（検証）
+        verify(itemRegistService).registItem(item, new ItemChangeOrigin("root", "WBA0101"));
+    }
+
+    @Test
+    @DisplayName("書き込み中に溜まった要求が、まとめて1トランザクションで登録されること")
+    void shouldWriteQueuedRequestsInOneBatch() throws Exception {
+        // Given（前提条件）
+        target = queue(true, 10, Duration.ofSeconds(5));
+        blockFirstRegistration();
+        Future<?> first = submit(item(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<?>> queued = new ArrayList<>();
+        for (int i = 2; i <= 5; i++) {
+            queued.add(submit(item(i)));
+        }
+        waitUntilQueued(4);
+
+        // When（実行）
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        for (Future<?> future : queued) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then（検証）
+        assertThat(registry.get("item.regist.batch.size").summary().count()).isEqualTo(2);
+        assertThat(registry.get("item.regist.batch.size").summary().max()).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("業務エラーの要求にはその業務エラーが返り、他の要求は登録されること")
+    void shouldReturnErrorPerRequest() throws Exception {
+        // Given（前提条件）
+        target = queue(true, 10, Duration.ofSeconds(5));
+        blockFirstRegistration();
+        Item ng = item(3);
+        doThrow(new AppException("ME001")).when(itemRegistService).registItem(eq(ng), any());
+        Future<?> first = submit(item(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> ok = submit(item(2));
+        Future<?> error = submit(ng);
+        waitUntilQueued(2);
+
+        // When（実行）
+        release.countDown();
+
+        // Then（検証）
+        first.get(5, TimeUnit.SECONDS);
+        ok.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> error.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AppException.class)
+                .cause().hasFieldOrPropertyWithValue("messageId", "ME001");
+    }
+
+    @Test
+    @DisplayName("キューが一杯の場合、受付待ち時間の後に業務エラーとなること")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given（前提条件）
+        target = new ItemRegistQueue(itemRegistService, transactionManager, true, 1, 10,
+                Duration.ofMillis(10), Duration.ofSeconds(5), registry);
+        blockFirstRegistration();
+        submit(item(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        submit(item(2));
+        waitUntilQueued(1);
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.registItem(item(3)))
+                .isInstanceOf(AppException.class)
+                .hasFieldOrPropertyWithValue("messageId", "ME007");
+        assertThat(registry.get("item.regist.queue.rejected").tag("reason", "full").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("最大待ち時間を過ぎても書き込みが始まらない要求は、登録されずに業務エラーとなること")
+    void shouldCancelWhenWaitExceeded() throws Exception {
+        // Given（前提条件）
+        target = queue(true, 10, Duration.ofMillis(50));
+        blockFirstRegistration();
+        submit(item(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Item late = item(2);
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.registItem(late))
+                .isInstanceOf(AppException.class)
+                .hasFieldOrPropertyWithValue("messageId", "ME007");
+        release.countDown();
+        target.destroy();
+        verify(itemRegistService, never()).registItem(eq(late), any());
+        assertThat(registry.get("item.regist.queue.rejected").tag("reason", "timeout").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private ItemRegistQueue queue(boolean enabled, int capacity, Duration maxWait) {
+        return new ItemRegistQueue(itemRegistService, transactionManager, enabled, capacity, 10,
+                Duration.ofMillis(100), maxWait, registry);
+    }
+
+    /**
+     * ID=1の登録を、releaseまで止めておく
+     */
+    private void blockFirstRegistration() {
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(itemRegistService).registItem(argThat(item -> item.getId() == 1), any());
+    }
+
+    private Future<?> submit(Item item) {
+        return callers.submit(() -> target.registItem(item));
+    }
+
+    private void waitUntilQueued(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("item.regist.queue.depth").gauge().value() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(registry.get("item.regist.queue.depth").gauge().value()).isEqualTo(count);
+    }
+
+    private static Item item(int id) {
+        return new Item(id, "ペン", 100, "CD-A01", LocalDate.of(2023, 7, 1), 0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.web.ba01;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.core.exception.AppException;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemRegistService 同時実行テストクラス
+ * 
+ * 同一item名称のitemを複数スレッドから同時に登録し、合計金額の上限を超えないことを確認する。
+ */
+@SpringBootTest
+@DisplayName("ItemRegistService の同時実行テスト")
+class ItemRegistServiceConcurrencyTest {
+
+    @Autowired
+    private ItemRegistService target;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "同時登録";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 900_000;
+
+    /** 同時に登録するスレッド数 */
+    private static final int THREADS = 16;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item_name_ngram where item_id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from item where id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from item_name_total where item_name = ?", ITEM_NAME);
+    }
+
+    @Test
+    @DisplayName("同時に登録しても、同一item名称の合計金額が上限以上にならないこと")
+    void shouldNotExceedLimitUnderConcurrentRegistration() throws Exception {
+        assertConcurrentRegistration(target::registItem);
+    }
+
+    @Test
+    @DisplayName("受付キューでまとめて登録しても、業務エラーの要求だけが取り消され、合計金額が上限以上にならないこと")
+    void shouldNotExceedLimitUnderQueuedRegistration() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ItemRegistQueue queue = new ItemRegistQueue(target, transactionManager, true, 100, 100,
+                Duration.ofSeconds(1), Duration.ofSeconds(10), registry);
+        try {
+            assertConcurrentRegistration(queue::registItem);
+        } finally {
+            queue.destroy();
+        }
+        assertThat(registry.get("item.regist.batch.size").summary().totalAmount()).isEqualTo(THREADS);
+    }
+
+    /**
+     * 同一item名称のitemを同時に登録し、合計金額が上限以上にならないことを確認する
+     * @param regist 登録処理
+     */
+    private void assertConcurrentRegistration(Consumer<Item> regist) throws Exception {
+        // Given（前提条件）
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Item item = new Item(ID_BASE + i, ITEM_NAME, 700, "CD-A01", LocalDate.now(), 0);
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    regist.accept(item);
+                    return true;
+                } catch (AppException e) {
+                    assertThat(e.getMessageId()).isEqualTo("ME001");
+                    return false;
+                }
+            }));
+        }
+
+        // When（実行）
+        start.countDown();
+        int registered = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                registered++;
+            }
+        }
+        executor.shutdown();
+
+        // Then（検証）
+        Integer itemTotal = jdbcTemplate.queryForObject(
+                "select sum(price) from item where item_name = ?", Integer.class, ITEM_NAME);
+        Integer maintainedTotal = jdbcTemplate.queryForObject(
+                "select total_price from item_name_total where item_name = ?", Integer.class, ITEM_NAME);
+        assertThat(registered).isEqualTo(4);
+        assertThat(itemTotal).isEqualTo(2800);
+        assertThat(maintainedTotal).isEqualTo(2800);
+    }
+}
@@ -3,14 +3,12 @@ package com.example.demo.web.ba01;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +19,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 
 import com.example.demo.core.exception.AppException;
@@ -40,6 +39,15 @@ class ItemRegistServiceTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private ItemNameTotals itemNameTotals;
+
+    @Mock
+    private ItemIdAllocator itemIdAllocator;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
     private Item validItem;
     private LocalDate testDate;
 
@@ -58,13 +66,14 @@ class ItemRegistServiceTest {
         void shouldRegisterItemSuccessfully() {
             // Given（前提条件）
             ArgumentCaptor<Item> itemCaptor = ArgumentCaptor.forClass(Item.class);
-            when(itemMapper.findAllByItemName(anyString())).thenReturn(new ArrayList<>());
             when(itemMapper.insertItem(any(Item.class))).thenReturn(1);
 
             // When（実行）
             target.registItem(validItem);
 
             // Then（検証）
+            verify(itemNameTotals).reserve(validItem);
+            verify(itemIdAllocator, never()).next();
             verify(itemMapper).insertItem(itemCaptor.capture());
             Item capturedItem = itemCaptor.getValue();
             
@@ -76,13 +85,46 @@ class ItemRegistServiceTest {
             assertThat(capturedItem.getVersionNo()).isEqualTo(0);
         }
 
+        @Test
+        @DisplayName("IDが未指定の場合、採番したIDで登録できる")
+        void shouldRegisterItemWithAllocatedId() {
+            // Given（前提条件）
+            Item itemWithoutId = new Item(null, "ペン", 1000, "CD-A01", testDate, 0);
+            when(itemIdAllocator.next()).thenReturn(100);
+            when(itemMapper.insertItemIfAbsent(any(Item.class))).thenReturn(1);
+
+            // When（実行）
+            target.registItem(itemWithoutId);
+
+            // Then（検証）
+            verify(itemMapper).insertItemIfAbsent(itemWithoutId);
+            verify(itemIdAllocator, never()).discard(100);
+            assertThat(itemWithoutId.getId()).isEqualTo(100);
+        }
+
+        @Test
+        @DisplayName("採番したIDが手入力で登録済みの場合、業務エラーとせずに採番し直して登録できる")
+        void shouldReallocateWhenAllocatedIdExists() {
+            // Given（前提条件）ID=100は手入力で登録済み
+            Item itemWithoutId = new Item(null, "ペン", 1000, "CD-A01", testDate, 0);
+            when(itemIdAllocator.next()).thenReturn(100, 200);
+            when(itemMapper.insertItemIfAbsent(any(Item.class))).thenReturn(0, 1);
+
+            // When（実行）
+            target.registItem(itemWithoutId);
+
+            // Then（検証）
+            verify(itemIdAllocator).discard(100);
+            verify(itemMapper, never()).insertItem(any(Item.class));
+            assertThat(itemWithoutId.getId()).isEqualTo(200);
+        }
+
         @Test
         @DisplayName("価格がnullの商品を登録できる")
         void shouldRegisterItemWithNullPrice() {
             // Given（前提条件）
             Item itemWithNullPrice = new Item(2, "ペン", null, "CD-A01", testDate, 0);
             ArgumentCaptor<Item> itemCaptor = ArgumentCaptor.forClass(Item.class);
-            when(itemMapper.findAllByItemName(anyString())).thenReturn(new ArrayList<>());
             when(itemMapper.insertItem(any(Item.class))).thenReturn(1);
 
             // When（実行）
@@ -109,24 +151,20 @@ class ItemRegistServiceTest {
         @DisplayName("同一商品名の合計価格が3000円以上の場合、業務エラーとなる")
         void shouldThrowAppExceptionWhenTotalPriceExceeds3000() {
             // Given（前提条件）
-            List<Item> existingItems = Arrays.asList(
-                new Item(1, "ペン", 1000, "CD-A01", testDate, 0),
-                new Item(2, "ペン", 1500, "CD-A01", testDate, 0)
-            );
             Item newItem = new Item(5, "ペン", 1000, "CD-A01", testDate, 0);
-            when(itemMapper.findAllByItemName("ペン")).thenReturn(existingItems);
+            doThrow(new AppException("ME001")).when(itemNameTotals).reserve(newItem);
 
             // When（実行） & Then（検証）
             assertThatThrownBy(() -> target.registItem(newItem))
                 .isInstanceOf(AppException.class)
                 .hasFieldOrPropertyWithValue("messageId", "ME001");
+            verify(itemMapper, never()).insertItem(any(Item.class));
         }
 
         @Test
         @DisplayName("キー重複エラーが発生した場合、業務エラーとなる")
         void shouldThrowAppExceptionWhenDuplicateKeyOccurs() {
             // Given（前提条件）
-            when(itemMapper.findAllByItemName(anyString())).thenReturn(new ArrayList<>());
             when(itemMapper.insertItem(any(Item.class))).thenThrow(new DuplicateKeyException("Duplicate key"));
 
             // When（実行） & Then（検証）
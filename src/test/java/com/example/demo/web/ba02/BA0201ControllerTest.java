@@ -1,18 +1,26 @@
 package com.example.demo.web.ba02;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
@@ -38,6 +46,9 @@ public class BA0201ControllerTest {
     @MockitoBean
     ItemSearchService itemSearchService;
 
+    @MockitoBean
+    ItemExportService itemExportService;
+
     @Test
     @WithMockUser(roles = "DATA_MANAGER")
     void indexPage_正常系() throws Exception {
@@ -87,8 +98,11 @@ public class BA0201ControllerTest {
         );
         Page<Item> mockPage = new PageImpl<>(itemList, PageRequest.of(0, 5), 1);
 
+        ItemFacets facets = ItemFacets.of(List.of(new ItemFacetRow("CD-A01", "FROM_100", 1L)));
+
         // モックの設定
         when(itemSearchService.findAll(any(ItemSearchCriteria.class))).thenReturn(mockPage);
+        when(itemSearchService.findFacets(any(ItemSearchCriteria.class))).thenReturn(facets);
 
         // テスト実行
         mockMvc.perform(get("/WBA0201/search")
@@ -100,7 +114,8 @@ public class BA0201ControllerTest {
                 .andExpect(model().attributeExists("itemSearchForm"))
                 .andExpect(model().attributeExists("pages"))
                 .andExpect(model().attributeExists("itemList"))
-                .andExpect(model().attribute("itemList", itemList));
+                .andExpect(model().attribute("itemList", itemList))
+                .andExpect(model().attribute("facets", facets));
     }
 
     @Test
@@ -271,4 +286,85 @@ public class BA0201ControllerTest {
                 .andExpect(model().attributeExists("itemList"))
                 .andExpect(model().attribute("itemList", itemList));
     }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void searchPage_キーセットページング() throws Exception {
+        // テストデータの準備（2ページ目、前後のページあり）
+        List<Item> itemList = Arrays.asList(
+            new Item(6, "ペン", 100, "CD-A01", LocalDate.now(), 1),
+            new Item(7, "ペン", 100, "CD-A01", LocalDate.now(), 1)
+        );
+        Page<Item> mockPage = new PageImpl<>(itemList, PageRequest.of(1, 2), 6);
+
+        // モックの設定
+        ArgumentCaptor<ItemSearchCriteria> captor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
+        when(itemSearchService.findAll(captor.capture())).thenReturn(mockPage);
+
+        // テスト実行 - 次へリンクのカーソルを指定
+        mockMvc.perform(get("/WBA0201/search")
+                .param("page", "1")
+                .param("cursor", ItemSearchCursor.next(5).encode()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0201/search"))
+                .andExpect(model().attribute("nextCursor", ItemSearchCursor.next(7).encode()))
+                .andExpect(model().attribute("prevCursor", ItemSearchCursor.prev(6).encode()));
+
+        // カーソルが検索条件に変換されていること
+        assertEquals(ItemSearchCursor.next(5), captor.getValue().getKeyset());
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void exportCsv_正常系() throws Exception {
+        // モックの設定
+        when(itemExportService.export(any(ItemSearchCriteria.class), any(Writer.class))).thenAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("ID,ITEM NAME,PRICE,GROUP,REGIST DATE\r\n1,ペン,100,CD-A01,2025-10-30\r\n");
+            writer.flush();
+            return 1L;
+        });
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0201/export")
+                .param("itemName", "ペン"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"items.csv\""))
+                .andExpect(content().string(containsString("1,ペン,100")));
+
+        // 検証 - ページングに関わらず全件を出力するため、カーソルは使用しない
+        ArgumentCaptor<ItemSearchCriteria> captor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
+        verify(itemExportService).export(captor.capture(), any(Writer.class));
+        assertEquals("ペン", captor.getValue().getItemName());
+        assertNull(captor.getValue().getKeyset());
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void searchPage_並び順指定() throws Exception {
+        // テストデータの準備
+        List<Item> itemList = Arrays.asList(
+            new Item(6, "筆箱", 1000, "CD-A01", LocalDate.now(), 1)
+        );
+        Page<Item> mockPage = new PageImpl<>(itemList, PageRequest.of(0, 5, ItemSortOrder.PRICE_DESC.getSort()), 12);
+
+        // モックの設定
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class))).thenReturn(mockPage);
+
+        // テスト実行 - ID順以外は次へ・前へもページ番号で指定するため、カーソルを設定しない
+        mockMvc.perform(get("/WBA0201/search")
+                .param("sort", "PRICE_DESC"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0201/search"))
+                .andExpect(model().attributeDoesNotExist("nextCursor"));
+
+        // 検証
+        ArgumentCaptor<ItemSearchCriteria> captor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
+        verify(itemSearchService).findAll(captor.capture());
+        assertEquals("price desc, id desc", captor.getValue().getOrderBy());
+    }
 }
@@ -0,0 +1,127 @@
+package com.example.demo.web.ba02;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * itemエクスポートサービステスト
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ItemExportService のテスト")
+class ItemExportServiceTest {
+
+    @InjectMocks
+    private ItemExportService target;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Test
+    @DisplayName("検索結果がヘッダ付きのCSVで出力され、値がエスケープされること")
+    void shouldWriteCsv() throws IOException {
+        // Given（前提条件）
+        mockExportAll(List.of(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.of(2024, 4, 1), 0),
+                new Item(2, "ノート,\"A4\"", null, "CD-A02", null, 0)), new boolean[1]);
+        StringWriter writer = new StringWriter();
+
+        // When（実行）
+        long count = target.export(new ItemSearchCriteria(null, null, PageRequest.of(0, 5)), writer);
+
+        // Then（検証）
+        assertThat(count).isEqualTo(2);
+        assertThat(writer.toString()).isEqualTo(
+                "ID,ITEM NAME,PRICE,GROUP,REGIST DATE\r\n"
+                + "1,ペン,100,CD-A01,2024-04-01\r\n"
+                + "2,\"ノート,\"\"A4\"\"\",,CD-A02,\r\n");
+    }
+
+    @Test
+    @DisplayName("書き出しに失敗した場合、結果セットの読み込みを中止して例外となること")
+    void shouldStopOnWriteFailure() {
+        // Given（前提条件）ヘッダと1行目の書き出し後に切断される
+        boolean[] stopped = new boolean[1];
+        mockExportAll(List.of(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0),
+                new Item(3, "コンパス", 300, "CD-A01", LocalDate.now(), 0)), stopped);
+        Writer writer = new DisconnectingWriter(2);
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.export(new ItemSearchCriteria(null, null, PageRequest.of(0, 5)), writer))
+                .isInstanceOf(IOException.class);
+        assertThat(stopped[0]).isTrue();
+    }
+
+    /**
+     * ResultHandlerに1件ずつ渡すexportAllのモックを設定する
+     * @param items 検索結果
+     * @param stopped 読み込みが中止された場合にtrueを設定する
+     */
+    private void mockExportAll(List<Item> items, boolean[] stopped) {
+        doAnswer(invocation -> {
+            ResultHandler<Item> handler = invocation.getArgument(1);
+            DefaultResultContext<Item> context = new DefaultResultContext<>();
+            for (Item item : items) {
+                context.nextResultObject(item);
+                handler.handleResult(context);
+                if (context.isStopped()) {
+                    stopped[0] = true;
+                    break;
+                }
+            }
+            return null;
+        }).when(itemMapper).exportAll(any(), any());
+    }
+
+    /**
+     * 指定行数の書き出し後に切断されるWriter
+     */
+    private static class DisconnectingWriter extends Writer {
+
+        private int lines;
+
+        DisconnectingWriter(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (lines <= 0) {
+                throw new IOException("Broken pipe");
+            }
+            if (new String(cbuf, off, len).endsWith("\n")) {
+                lines--;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.web.ba02;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * item検索のレイテンシ計測
+ * 
+ * 件数取得＋データ取得（2回の問い合わせ）と、総件数付きページ検索（1回の問い合わせ）を比較する。
+ * また、条件に合致する行が多い検索で、全件カウントと件数上限付きカウントを比較する。
+ * さらに、総件数付きページ検索と、メモリ内の索引でIDを求めてページ分だけ取得する検索を比較する。
+ * 通常のテストでは実行しない。以下のように指定して実行する。
+ * mvnw test -Dtest=ItemSearchBenchmarkTest -Dbenchmark=true -Dbenchmark.rows=1000000
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("item検索のレイテンシ計測")
+class ItemSearchBenchmarkTest {
+
+    /** ロガー */
+    private static final Logger LOG = LoggerFactory.getLogger(ItemSearchBenchmarkTest.class);
+
+    @Autowired
+    private ItemMapper mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemSearchIndex index;
+
+    /** 投入件数 */
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    /** 計測用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 1_000_000;
+
+    /** 計測回数 */
+    private static final int ITERATIONS = 50;
+
+    @BeforeEach
+    void setUp() {
+        // 1,000件に1件だけ"計測用"という名称にして、SEARCH_MAX以内の検索条件を作る
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String name = i % 1000 == 0 ? "計測用" : "item" + (i % 5000);
+            batch.add(new Object[] { ID_BASE + i, name, i % 5000, i % 2 == 0 ? "CD-A01" : "CD-A02" });
+            if (batch.size() == 10_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item where id >= ?", ID_BASE);
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("件数取得とデータ取得を分けた場合と1回にまとめた場合のレイテンシを比較する")
+    void compareLatency() {
+        measure("item名称指定", new ItemSearchCriteria("計測用", null, PageRequest.of(3, 5)));
+        measure("価格指定", new ItemSearchCriteria(null, 4990, PageRequest.of(3, 5)));
+    }
+
+    @Test
+    @DisplayName("全件カウントと件数上限付きカウントのレイテンシを比較する")
+    void compareCountLatency() {
+        // 全件が合致する検索条件
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, 0, PageRequest.of(0, 5));
+        criteria.setCountLimit(1001);
+
+        double before = average(() -> mapper.countAll(criteria));
+        double after = average(() -> mapper.countAllLimited(criteria));
+
+        LOG.info("[benchmark] rows={} 全件合致 countAll={}ms countAllLimited={}ms",
+                ROWS, millis(before), millis(after));
+    }
+
+    @Test
+    @DisplayName("総件数付きページ検索と索引による検索のレイテンシを比較する")
+    void compareIndexLatency() {
+        index.rebuild();
+        measureIndex("item名称指定", new ItemSearchCriteria("計測用", null, PageRequest.of(3, 5)));
+        measureIndex("価格指定", new ItemSearchCriteria(null, 4990, PageRequest.of(3, 5)));
+        ItemSearchCriteria prefix = new ItemSearchCriteria("計測", null, PageRequest.of(3, 5));
+        prefix.setNameMatch(ItemNameMatch.PREFIX);
+        measureIndex("item名称前方一致", prefix);
+    }
+
+    private void measureIndex(String label, ItemSearchCriteria criteria) {
+        Supplier<?> byIndex = () -> {
+            ItemIdSet ids = index.find(criteria);
+            List<Integer> pageIds = ids.stream().skip(criteria.getPageable().getOffset())
+                    .limit(criteria.getPageable().getPageSize()).boxed().toList();
+            return pageIds.isEmpty() ? List.of() : mapper.findAllByIds(pageIds);
+        };
+        // ウォームアップ
+        for (int i = 0; i < 5; i++) {
+            mapper.findPageWithTotal(criteria);
+            byIndex.get();
+        }
+
+        double before = average(() -> mapper.findPageWithTotal(criteria));
+        double after = average(byIndex);
+
+        LOG.info("[benchmark] rows={} {} findPageWithTotal={}ms index+findAllByIds={}ms",
+                ROWS, label, millis(before), millis(after));
+    }
+
+    private void measure(String label, ItemSearchCriteria criteria) {
+        // ウォームアップ
+        for (int i = 0; i < 5; i++) {
+            mapper.countAll(criteria);
+            mapper.findAll(criteria);
+            mapper.findPageWithTotal(criteria);
+        }
+
+        double before = average(() -> {
+            mapper.countAll(criteria);
+            return mapper.findAll(criteria);
+        });
+        double after = average(() -> mapper.findPageWithTotal(criteria));
+
+        LOG.info("[benchmark] rows={} {} countAll+findAll={}ms findPageWithTotal={}ms",
+                ROWS, label, millis(before), millis(after));
+    }
+
+    private double average(Supplier<?> search) {
+        long elapsed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            // H2はテーブルが更新されていなければ前回の結果を再利用するため、計測の都度1行更新する
+            jdbcTemplate.update("update item set version_no = version_no + 1 where id = ?", ID_BASE);
+            long start = System.nanoTime();
+            search.get();
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed / 1_000_000.0 / ITERATIONS;
+    }
+
+    private static String millis(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "insert into item(id, item_name, price, groupid, regist_date, version_no) values(?, ?, ?, ?, current_date, 0)",
+                batch);
+    }
+}
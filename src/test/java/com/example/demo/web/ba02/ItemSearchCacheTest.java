@@ -0,0 +1,147 @@
+package com.example.demo.web.ba02;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemSearchCache テストクラス
+ */
+@DisplayName("ItemSearchCache のテスト")
+class ItemSearchCacheTest {
+
+    private ItemSearchCache target;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = new ItemSearchCache(true, 3, 100, registry);
+    }
+
+    @Test
+    @DisplayName("格納した検索結果を取得でき、ヒット数とミス数が記録されること")
+    void shouldGetPutPage() {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = criteria("ペン", null);
+        Page<Item> page = page(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+
+        // When（実行）
+        Page<Item> miss = target.get(criteria);
+        target.put(criteria, page, target.generation());
+        Page<Item> hit = target.get(criteria("ペン", null));
+
+        // Then（検証）
+        assertThat(miss).isNull();
+        assertThat(hit).isSameAs(page);
+        assertThat(registry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "itemSearch").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("変更前または変更後のitemが合致する検索結果だけ削除されること")
+    void shouldInvalidateMatchingEntries() {
+        // Given（前提条件）
+        target.put(criteria("ペン", null), page(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0)), 0);
+        target.put(criteria("ノート", null), page(new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0)), 0);
+        target.put(criteria(null, 500), page(new Item(6, "筆箱", 1000, "CD-A01", LocalDate.now(), 0)), 0);
+
+        // When（実行） ペンを100円から600円に更新
+        target.onItemChanged(ItemChangedEvent.updated(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(1, "ペン", 600, "CD-A01", LocalDate.now(), 1)));
+
+        // Then（検証）
+        assertThat(target.get(criteria("ペン", null))).isNull();
+        assertThat(target.get(criteria("ノート", null))).isNotNull();
+        assertThat(target.get(criteria(null, 500))).isNull();
+    }
+
+    @Test
+    @DisplayName("部分一致の検索結果は、名称に検索文字列を含むitemの変更で削除されること")
+    void shouldInvalidatePartialMatchEntries() {
+        // Given（前提条件）
+        ItemSearchCriteria partial = criteria("ペ", null);
+        partial.setNameMatch(ItemNameMatch.PARTIAL);
+        target.put(partial, page(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0)), 0);
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(13, "ボールペン", 150, "CD-A01", LocalDate.now(), 0)));
+
+        // Then（検証）
+        assertThat(target.get(partial)).isNull();
+    }
+
+    @Test
+    @DisplayName("検索中に変更がコミットされた場合、検索結果を格納しないこと")
+    void shouldNotPutStalePage() {
+        // Given（前提条件）
+        long generation = target.generation();
+        target.onItemChanged(ItemChangedEvent.deleted(new Item(9, "コンパス", 300, "CD-A01", LocalDate.now(), 0)));
+
+        // When（実行）
+        target.put(criteria("ペン", null), page(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0)), generation);
+
+        // Then（検証）
+        assertThat(target.get(criteria("ペン", null))).isNull();
+    }
+
+    @Test
+    @DisplayName("最大件数を超えた場合、参照が古いエントリから追い出されること")
+    void shouldEvictEldestEntry() {
+        // Given（前提条件）
+        for (int i = 1; i <= 3; i++) {
+            target.put(criteria("item" + i, null), page(new Item(i, "item" + i, 100, "CD-A01", LocalDate.now(), 0)), 0);
+        }
+        target.get(criteria("item1", null));
+
+        // When（実行）
+        target.put(criteria("item4", null), page(new Item(4, "item4", 100, "CD-A01", LocalDate.now(), 0)), 0);
+
+        // Then（検証）
+        assertThat(target.get(criteria("item1", null))).isNotNull();
+        assertThat(target.get(criteria("item2", null))).isNull();
+        assertThat(registry.get("cache.evictions").tag("cache", "itemSearch").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("絞り込み件数はページによらず共有され、合致するitemの変更で削除されること")
+    void shouldShareFacetsAcrossPages() {
+        // Given（前提条件）
+        ItemFacets facets = ItemFacets.of(List.of());
+        target.putFacets(criteria("ペン", null), facets, target.generation());
+        ItemSearchCriteria nextPage = new ItemSearchCriteria("ペン", null, PageRequest.of(1, 5));
+
+        // When（実行）
+        ItemFacets hit = target.getFacets(nextPage);
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(13, "ペン", 150, "CD-A01", LocalDate.now(), 0)));
+
+        // Then（検証）
+        assertThat(hit).isSameAs(facets);
+        assertThat(target.getFacets(nextPage)).isNull();
+    }
+
+    private ItemSearchCriteria criteria(String itemName, Integer price) {
+        ItemSearchCriteria criteria = new ItemSearchCriteria(itemName, price, PageRequest.of(0, 5));
+        criteria.setCountLimit(1001);
+        return criteria;
+    }
+
+    private Page<Item> page(Item... items) {
+        return new PageImpl<>(List.of(items), PageRequest.of(0, 5), items.length);
+    }
+}
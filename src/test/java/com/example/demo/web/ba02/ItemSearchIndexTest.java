@@ -0,0 +1,228 @@
+package com.example.demo.web.ba02;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * ItemSearchIndex テストクラス
+ */
+@DisplayName("ItemSearchIndex のテスト")
+class ItemSearchIndexTest {
+
+    private ItemSearchIndex target;
+
+    private ItemMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(ItemMapper.class);
+        target = new ItemSearchIndex(mapper, true);
+        mockExportAll(List.of(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0),
+                new Item(3, "コンパス", 300, "CD-A01", LocalDate.now(), 0),
+                new Item(6, "筆箱", 1000, "CD-A01", LocalDate.now(), 0),
+                new Item(7, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(8, "ボールペン", null, "CD-A01", LocalDate.now(), 0)));
+    }
+
+    @Test
+    @DisplayName("構築前はnullを返すこと")
+    void shouldReturnNullBeforeRebuild() {
+        assertThat(target.find(criteria("ペン", null, null))).isNull();
+    }
+
+    @Test
+    @DisplayName("item名称の一致条件と価格で、データベースと同じIDが求められること")
+    void shouldFindIds() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行） & Then（検証）
+        assertThat(ids(target.find(criteria(null, null, null)))).containsExactly(1, 2, 3, 6, 7, 8);
+        assertThat(ids(target.find(criteria("ペン", null, null)))).containsExactly(1, 7);
+        assertThat(ids(target.find(criteria("ボ", null, ItemNameMatch.PREFIX)))).containsExactly(8);
+        assertThat(ids(target.find(criteria("ペ", null, ItemNameMatch.PREFIX)))).containsExactly(1, 7);
+        assertThat(ids(target.find(criteria(null, 200, null)))).containsExactly(2, 3, 6);
+        assertThat(ids(target.find(criteria("ペン", 100, null)))).containsExactly(1, 7);
+        assertThat(ids(target.find(criteria("ペン", 200, null)))).isEmpty();
+        assertThat(ids(target.find(criteria(null, 1001, null)))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("部分一致はn-gram索引でデータベースを検索するため、nullを返すこと")
+    void shouldNotFindPartialMatch() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行） & Then（検証）
+        assertThat(target.find(criteria("ペン", null, ItemNameMatch.PARTIAL))).isNull();
+    }
+
+    @Test
+    @DisplayName("件数上限を指定した場合、ID順に上限の件数で打ち切ること")
+    void shouldStopAtCountLimit() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行） & Then（検証）
+        assertThat(ids(target.find(limited(criteria(null, null, null), 3)))).containsExactly(1, 2, 3);
+        assertThat(ids(target.find(limited(criteria(null, 100, null), 4)))).containsExactly(1, 2, 3, 6);
+        assertThat(ids(target.find(limited(criteria("ペン", 100, null), 1)))).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("一括登録のitemがまとめて反映され、同じIDの既存の内容は置き換えられること")
+    void shouldApplyInsertedItems() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行）ID順ではないitemを一括登録する
+        target.onItemsInserted(new ItemsInsertedEvent(List.of(
+                new Item(30, "ペン", 500, "CD-A01", LocalDate.now(), 0),
+                new Item(4, "定規", 150, "CD-A01", LocalDate.now(), 0),
+                new Item(7, "万年筆", 900, "CD-A01", LocalDate.now(), 0),
+                new Item(-1, "ペン", null, "CD-A01", LocalDate.now(), 0)), ItemChangeOrigin.NONE));
+
+        // Then（検証）
+        assertThat(ids(target.find(criteria(null, null, null)))).containsExactly(-1, 1, 2, 3, 4, 6, 7, 8, 30);
+        assertThat(ids(target.find(criteria("ペン", null, null)))).containsExactly(-1, 1, 30);
+        assertThat(ids(target.find(criteria(null, 500, null)))).containsExactly(6, 7, 30);
+        assertThat(ids(target.find(criteria("定", null, ItemNameMatch.PREFIX)))).containsExactly(4);
+    }
+
+    @Test
+    @DisplayName("他ノードの変更の取得中に自ノードの変更が適用された場合、取得し直してから反映すること")
+    void shouldRefreshAgainWhenChangedDuringFetch() {
+        // Given（前提条件）1回目の取得中に、自ノードでID=2が削除される
+        target.rebuild();
+        AtomicInteger calls = new AtomicInteger();
+        when(mapper.findAllByIds(List.of(1, 2))).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                target.onItemChanged(
+                        ItemChangedEvent.deleted(new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0)));
+                return List.of(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                        new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0));
+            }
+            return List.of(new Item(1, "万年筆", 800, "CD-A01", LocalDate.now(), 1));
+        });
+
+        // When（実行）
+        target.refresh(List.of(1, 2));
+
+        // Then（検証）1回目の古い内容でID=2を戻さない
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(ids(target.find(criteria(null, null, null)))).containsExactly(1, 3, 6, 7, 8);
+        assertThat(ids(target.find(criteria("万年筆", null, null)))).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("登録、更新、削除のコミット後に索引が更新されること")
+    void shouldApplyChanges() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(20, "ペン", 500, "CD-A01", LocalDate.now(), 0)));
+        target.onItemChanged(ItemChangedEvent.updated(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(1, "万年筆", 800, "CD-A01", LocalDate.now(), 1)));
+        target.onItemChanged(ItemChangedEvent.deleted(new Item(6, "筆箱", 1000, "CD-A01", LocalDate.now(), 0)));
+
+        // Then（検証）
+        assertThat(ids(target.find(criteria("ペン", null, null)))).containsExactly(7, 20);
+        assertThat(ids(target.find(criteria("万年筆", null, null)))).containsExactly(1);
+        assertThat(ids(target.find(criteria(null, 500, null)))).containsExactly(1, 20);
+    }
+
+    @Test
+    @DisplayName("採番ブロックで飛び飛びのIDや負数のIDも、並び順を保って求められること")
+    void shouldFindSparseIds() {
+        // Given（前提条件）
+        target.rebuild();
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(2_000_000_000, "ペン", 500, "CD-A01", LocalDate.now(), 0)));
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(-5, "ペン", 500, "CD-A01", LocalDate.now(), 0)));
+        target.onItemChanged(ItemChangedEvent.inserted(new Item(1_000_000, "ペン", 50, "CD-A01", LocalDate.now(), 0)));
+
+        // Then（検証）
+        assertThat(ids(target.find(criteria("ペン", null, null)))).containsExactly(-5, 1, 7, 1_000_000, 2_000_000_000);
+        assertThat(ids(target.find(criteria("ペン", 500, null)))).containsExactly(-5, 2_000_000_000);
+        assertThat(ids(target.find(criteria(null, 100, null))))
+                .containsExactly(-5, 1, 2, 3, 6, 7, 2_000_000_000);
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.deleted(new Item(-5, "ペン", 500, "CD-A01", LocalDate.now(), 0)));
+
+        // Then（検証）
+        assertThat(ids(target.find(criteria("ペン", 500, null)))).containsExactly(2_000_000_000);
+    }
+
+    @Test
+    @DisplayName("構築中にコミットされた変更が、構築後の索引に反映されること")
+    void shouldApplyChangesDuringRebuild() {
+        // Given（前提条件）読み込み中に削除がコミットされる
+        doAnswer(invocation -> {
+            ResultHandler<Item> handler = invocation.getArgument(1);
+            DefaultResultContext<Item> context = new DefaultResultContext<>();
+            context.nextResultObject(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+            handler.handleResult(context);
+            target.onItemChanged(ItemChangedEvent.deleted(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0)));
+            return null;
+        }).when(mapper).exportAll(any(), any());
+
+        // When（実行）
+        target.rebuild();
+
+        // Then（検証）
+        assertThat(ids(target.find(criteria(null, null, null)))).isEmpty();
+    }
+
+    private ItemSearchCriteria criteria(String itemName, Integer price, ItemNameMatch nameMatch) {
+        ItemSearchCriteria criteria = new ItemSearchCriteria(itemName, price, PageRequest.of(0, 5));
+        criteria.setNameMatch(nameMatch);
+        return criteria;
+    }
+
+    private ItemSearchCriteria limited(ItemSearchCriteria criteria, int countLimit) {
+        criteria.setCountLimit(countLimit);
+        return criteria;
+    }
+
+    private List<Integer> ids(ItemIdSet ids) {
+        return ids.stream().boxed().toList();
+    }
+
+    private void mockExportAll(List<Item> items) {
+        doAnswer(invocation -> {
+            ResultHandler<Item> handler = invocation.getArgument(1);
+            DefaultResultContext<Item> context = new DefaultResultContext<>();
+            for (Item item : items) {
+                context.nextResultObject(item);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).exportAll(any(), any());
+    }
+}
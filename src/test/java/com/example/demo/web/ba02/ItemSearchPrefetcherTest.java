@@ -0,0 +1,167 @@
+package com.example.demo.web.ba02;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.entity.Item;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemSearchPrefetcher テストクラス
+ */
+@DisplayName("ItemSearchPrefetcher のテスト")
+class ItemSearchPrefetcherTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ItemSearchCache cache;
+
+    /** 先読みで検索した条件 */
+    private List<ItemSearchCriteria> loaded;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        registry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(true, 10, 100, registry);
+        loaded = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("次へリンクと同じキーセットで次ページを先読みし、次の検索で返すこと")
+    void shouldPrefetchNextPage() {
+        // Given（前提条件）
+        ItemSearchPrefetcher target = prefetcher(Runnable::run, null);
+        ItemSearchCriteria criteria = criteria(0);
+
+        // When（実行）
+        target.prefetchNext(criteria, page(0, 1, 2), this::load);
+        Page<Item> next = target.take(criteria(1));
+
+        // Then（検証）
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0).getKeyset()).isEqualTo(ItemSearchCursor.next(2));
+        assertThat(next.getContent()).extracting(Item::getId).containsExactly(3, 4);
+        assertThat(registry.get("item.search.prefetch.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("先読み後にitemが変更された場合、先読み結果を使用しないこと")
+    void shouldDiscardStalePage() {
+        // Given（前提条件）
+        ItemSearchPrefetcher target = prefetcher(Runnable::run, null);
+        target.prefetchNext(criteria(0), page(0, 1, 2), this::load);
+
+        // When（実行）
+        cache.onItemChanged(ItemChangedEvent.deleted(item(4)));
+        Page<Item> next = target.take(criteria(1));
+
+        // Then（検証）
+        assertThat(next).isNull();
+        assertThat(registry.get("item.search.prefetch.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("同時実行数の上限を超える場合、先読みしないこと")
+    void shouldSkipWhenBusy() {
+        // Given（前提条件）
+        ItemSearchPrefetcher target = prefetcher(task -> {
+            throw new RejectedExecutionException();
+        }, null);
+
+        // When（実行）
+        target.prefetchNext(criteria(0), page(0, 1, 2), this::load);
+
+        // Then（検証）
+        assertThat(target.take(criteria(1))).isNull();
+        assertThat(registry.get("item.search.prefetch.skipped").tag("reason", "busy").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("コネクションプールに接続待ちがある場合、先読みしないこと")
+    void shouldSkipUnderLoad() {
+        // Given（前提条件）
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+        when(mxBean.getThreadsAwaitingConnection()).thenReturn(1);
+        ItemSearchPrefetcher target = prefetcher(Runnable::run, pool);
+
+        // When（実行）
+        target.prefetchNext(criteria(0), page(0, 1, 2), this::load);
+
+        // Then（検証）
+        assertThat(loaded).isEmpty();
+        assertThat(registry.get("item.search.prefetch.skipped").tag("reason", "load").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("最終ページの場合、先読みしないこと")
+    void shouldNotPrefetchLastPage() {
+        // Given（前提条件）
+        ItemSearchPrefetcher target = prefetcher(Runnable::run, null);
+
+        // When（実行）
+        target.prefetchNext(criteria(2), new PageImpl<>(List.of(item(5)), PageRequest.of(2, 2), 5), this::load);
+
+        // Then（検証）
+        assertThat(loaded).isEmpty();
+    }
+
+    private ItemSearchPrefetcher prefetcher(Executor executor, HikariDataSource pool) {
+        return new ItemSearchPrefetcher(new ItemPrefetchBuffer(), cache, pool, executor, true,
+                Duration.ofSeconds(30), 0.5, registry);
+    }
+
+    private Page<Item> load(ItemSearchCriteria criteria) {
+        loaded.add(criteria);
+        int first = criteria.getKeyset().getId() + 1;
+        return page(criteria.getPageable().getPageNumber(), first, first + 1);
+    }
+
+    private ItemSearchCriteria criteria(int page) {
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(page, 2));
+        criteria.setCountLimit(1001);
+        return criteria;
+    }
+
+    private Page<Item> page(int page, int... ids) {
+        List<Item> items = new ArrayList<>();
+        for (int id : ids) {
+            items.add(item(id));
+        }
+        return new PageImpl<>(items, PageRequest.of(page, 2), 12);
+    }
+
+    private Item item(int id) {
+        return new Item(id, "item" + id, 100, "CD-A01", LocalDate.now(), 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.web.ba02;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import com.example.demo.core.exception.AppException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemSearchQueryRunner テストクラス
+ */
+@DisplayName("ItemSearchQueryRunner のテスト")
+class ItemSearchQueryRunnerTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("並行実行が無効の場合、件数取得、チェック、データ取得の順に実行すること")
+    void shouldRunSequentially() {
+        // Given（前提条件）
+        ItemSearchQueryRunner target = new ItemSearchQueryRunner(null, registry);
+
+        // When（実行）
+        ItemSearchQueryRunner.Result<List<Integer>> result = target.run(() -> 2L, total -> {}, () -> List.of(1, 7));
+
+        // Then（検証）
+        assertThat(result.total()).isEqualTo(2L);
+        assertThat(result.rows()).containsExactly(1, 7);
+        assertThat(registry.get("item.search.count-and-fetch").tag("mode", "sequential").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("並行実行が有効の場合、件数取得とデータ取得が同時に実行されること")
+    void shouldRunConcurrently() {
+        // Given（前提条件）件数取得とデータ取得が互いの開始を待つ（逐次実行では完了しない）
+        ItemSearchQueryRunner target = new ItemSearchQueryRunner(new SimpleAsyncTaskExecutor(), registry);
+        CountDownLatch started = new CountDownLatch(2);
+
+        // When（実行）
+        ItemSearchQueryRunner.Result<List<Integer>> result = target.run(
+                () -> awaitBoth(started, 2L), total -> {}, () -> awaitBoth(started, List.of(1, 7)));
+
+        // Then（検証）
+        assertThat(result.total()).isEqualTo(2L);
+        assertThat(result.rows()).containsExactly(1, 7);
+        assertThat(registry.get("item.search.count-and-fetch").tag("mode", "concurrent").timer().count()).isEqualTo(1);
+        assertThat(registry.get("item.search.concurrent.saved").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("件数が範囲外の場合、データ取得を取り消して例外となること")
+    void shouldCancelFetchWhenCountIsOutOfRange() throws InterruptedException {
+        // Given（前提条件）データ取得の開始後に件数取得が完了する
+        ItemSearchQueryRunner target = new ItemSearchQueryRunner(new SimpleAsyncTaskExecutor(), registry);
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.run(() -> {
+            await(fetchStarted);
+            return 0L;
+        }, total -> {
+            throw new AppException("ME003");
+        }, () -> {
+            fetchStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        })).isInstanceOf(AppException.class);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("item.search.concurrent.cancelled").counter().count()).isEqualTo(1.0);
+    }
+
+    private <T> T awaitBoth(CountDownLatch started, T value) {
+        started.countDown();
+        await(started);
+        return value;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("not concurrent");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo.web.ba02;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -12,6 +14,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,14 +22,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import com.example.demo.core.exception.AppException;
 import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
 import com.example.demo.web.mapper.ItemMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Item検索サービステスト
  */
@@ -40,6 +48,21 @@ public class ItemSearchServiceTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private ItemHistoryMapper historyMapper;
+
+    @Mock
+    private ItemSearchCache cache;
+
+    @Mock
+    private ItemSearchIndex index;
+
+    @Mock
+    private ItemSearchPrefetcher prefetcher;
+
+    @Spy
+    private ItemSearchQueryRunner queryRunner = new ItemSearchQueryRunner(null, new SimpleMeterRegistry());
+
     @Nested
     @DisplayName("正常系テスト")
     class SuccessTest {
@@ -48,23 +71,19 @@ public class ItemSearchServiceTest {
         @DisplayName("検索結果が1件であること")
         public void shouldReturnOneItem() {
             // Given（前提条件）
-            when(itemMapper.countAll(any())).thenReturn(1L);
-
-            List<Item> list = new ArrayList<>();
-            list.add(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
-            when(itemMapper.findAll(any())).thenReturn(list);
+            List<ItemPageRow> list = new ArrayList<>();
+            list.add(new ItemPageRow(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0), 1L));
+            when(itemMapper.findPageWithTotal(any())).thenReturn(list);
             ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
 
             // When（実行）
             Page<Item> result = target.findAll(criteria);
 
             // Then（検証）
-            ArgumentCaptor<ItemSearchCriteria> criteriaCaptor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
-            verify(itemMapper, times(1)).countAll(criteriaCaptor.capture());
-            verify(itemMapper, times(1)).findAll(criteriaCaptor.capture());
-            assertThat(criteriaCaptor.getAllValues()).hasSize(2);
-            assertThat(criteriaCaptor.getAllValues().get(0)).isEqualTo(criteria);
-            assertThat(criteriaCaptor.getAllValues().get(1)).isEqualTo(criteria);
+            // 件数取得とデータ取得が1回の問い合わせで行われること
+            verify(itemMapper, times(1)).findPageWithTotal(criteria);
+            verify(itemMapper, never()).countAllLimited(any());
+            verify(itemMapper, never()).findAll(any());
 
             assertThat(result.getNumberOfElements()).isEqualTo(1); // 1ページ目は1件
             assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
@@ -82,15 +101,13 @@ public class ItemSearchServiceTest {
         @DisplayName("検索条件に合致する商品を5件取得できる（ページング1ページ目）")
         void testFindItemsByCriteria() {
             // Given（前提条件）
-            List<Item> items = new ArrayList<>();
-            items.add(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(2, "ペン", 200, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(3, "ペン", 300, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(4, "ペン", 400, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(5, "ペン", 500, "CD-A01", LocalDate.now(), 0));
-            when(itemMapper.findAll(any())).thenReturn(items); // 1ページ目の5件
-
-            when(itemMapper.countAll(any())).thenReturn(10L); // 合計10件
+            List<ItemPageRow> items = new ArrayList<>();
+            items.add(new ItemPageRow(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0), 10L));
+            items.add(new ItemPageRow(new Item(2, "ペン", 200, "CD-A01", LocalDate.now(), 0), 10L));
+            items.add(new ItemPageRow(new Item(3, "ペン", 300, "CD-A01", LocalDate.now(), 0), 10L));
+            items.add(new ItemPageRow(new Item(4, "ペン", 400, "CD-A01", LocalDate.now(), 0), 10L));
+            items.add(new ItemPageRow(new Item(5, "ペン", 500, "CD-A01", LocalDate.now(), 0), 10L));
+            when(itemMapper.findPageWithTotal(any())).thenReturn(items); // 1ページ目の5件、合計10件
 
             ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5));
 
@@ -98,8 +115,8 @@ public class ItemSearchServiceTest {
             Page<Item> result = target.findAll(criteria);
 
             // Then（検証）
-            verify(itemMapper, times(1)).countAll(any());
-            verify(itemMapper, times(1)).findAll(any());
+            verify(itemMapper, times(1)).findPageWithTotal(any());
+            verify(itemMapper, never()).countAllLimited(any());
 
             assertThat(result.getNumberOfElements()).isEqualTo(5); // 1ページ目は5件
             assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
@@ -112,15 +129,13 @@ public class ItemSearchServiceTest {
         @DisplayName("トータル件数が1000件の場合、正常に処理されること")
         void testTotal1000Items() {
             // Given（前提条件）
-            List<Item> items = new ArrayList<>();
-            items.add(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(2, "ペン", 200, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(3, "ペン", 300, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(4, "ペン", 400, "CD-A01", LocalDate.now(), 0));
-            items.add(new Item(5, "ペン", 500, "CD-A01", LocalDate.now(), 0));
-            when(itemMapper.findAll(any())).thenReturn(items); // 1ページ目の5件
-
-            when(itemMapper.countAll(any())).thenReturn(1000L); // 合計1000件
+            List<ItemPageRow> items = new ArrayList<>();
+            items.add(new ItemPageRow(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0), 1000L));
+            items.add(new ItemPageRow(new Item(2, "ペン", 200, "CD-A01", LocalDate.now(), 0), 1000L));
+            items.add(new ItemPageRow(new Item(3, "ペン", 300, "CD-A01", LocalDate.now(), 0), 1000L));
+            items.add(new ItemPageRow(new Item(4, "ペン", 400, "CD-A01", LocalDate.now(), 0), 1000L));
+            items.add(new ItemPageRow(new Item(5, "ペン", 500, "CD-A01", LocalDate.now(), 0), 1000L));
+            when(itemMapper.findPageWithTotal(any())).thenReturn(items); // 1ページ目の5件、合計1000件
 
             ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
 
@@ -128,8 +143,8 @@ public class ItemSearchServiceTest {
             Page<Item> result = target.findAll(criteria);
 
             // Then（検証）
-            verify(itemMapper, times(1)).countAll(any());
-            verify(itemMapper, times(1)).findAll(any());
+            verify(itemMapper, times(1)).findPageWithTotal(any());
+            verify(itemMapper, never()).countAllLimited(any());
 
             assertThat(result.getNumberOfElements()).isEqualTo(5); // 1ページ目は5件
             assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
@@ -139,6 +154,433 @@ public class ItemSearchServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("キャッシュのテスト")
+    class CacheTest {
+
+        @Test
+        @DisplayName("キャッシュにある場合、データベースを検索しないこと")
+        void shouldReturnCachedPage() {
+            // Given（前提条件）
+            Page<Item> cached = new PageImpl<>(List.of(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0)), PageRequest.of(0, 5), 1);
+            when(cache.get(any())).thenReturn(cached);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            assertThat(result).isSameAs(cached);
+            verify(itemMapper, never()).findPageWithTotal(any());
+            verify(cache, never()).put(any(), any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("キャッシュに無い場合、検索開始前の世代番号で検索結果を格納すること")
+        void shouldPutPageWithGeneration() {
+            // Given（前提条件）
+            List<ItemPageRow> rows = new ArrayList<>();
+            rows.add(new ItemPageRow(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0), 1L));
+            when(itemMapper.findPageWithTotal(any())).thenReturn(rows);
+            when(cache.generation()).thenReturn(7L);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            verify(cache, times(1)).put(criteria, result, 7L);
+        }
+
+        @Test
+        @DisplayName("絞り込み件数がキャッシュにある場合、集計しないこと")
+        void shouldReturnCachedFacets() {
+            // Given（前提条件）
+            ItemFacets cached = ItemFacets.of(List.of());
+            when(cache.getFacets(any())).thenReturn(cached);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(1, 5));
+
+            // When（実行）
+            ItemFacets result = target.findFacets(criteria);
+
+            // Then（検証）
+            assertThat(result).isSameAs(cached);
+            verify(itemMapper, never()).countFacets(any());
+        }
+
+        @Test
+        @DisplayName("絞り込み件数がキャッシュに無い場合、集計開始前の世代番号で格納すること")
+        void shouldPutFacetsWithGeneration() {
+            // Given（前提条件）
+            when(itemMapper.countFacets(any())).thenReturn(List.of());
+            when(cache.generation()).thenReturn(7L);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5));
+
+            // When（実行）
+            ItemFacets result = target.findFacets(criteria);
+
+            // Then（検証）
+            verify(cache, times(1)).putFacets(criteria, result, 7L);
+        }
+    }
+
+    @Nested
+    @DisplayName("時点指定のテスト")
+    class AsOfTest {
+
+        @Test
+        @DisplayName("時点を指定した場合、キャッシュ、索引、先読みを使用せずに履歴を検索すること")
+        void shouldSearchHistory() {
+            // Given（前提条件）
+            List<Item> itemList = List.of(new Item(1, "ペン", 80, "CD-A01", LocalDate.of(2024, 4, 1), 0));
+            when(historyMapper.countAllAsOf(any())).thenReturn(1L);
+            when(historyMapper.findAllAsOf(any())).thenReturn(itemList);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5));
+            criteria.setAsOf(LocalDate.of(2024, 4, 1));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            assertThat(result.getContent()).isEqualTo(itemList);
+            assertThat(result.getTotalElements()).isEqualTo(1);
+            assertThat(criteria.getAsOfTime()).isEqualTo(LocalDate.of(2024, 4, 2).atStartOfDay());
+            verify(cache, never()).get(any());
+            verify(cache, never()).put(any(), any(), anyLong());
+            verify(index, never()).find(any());
+            verify(prefetcher, never()).take(any());
+            verify(prefetcher, never()).prefetchNext(any(), any(), any());
+            verify(itemMapper, never()).findPageWithTotal(any());
+        }
+
+        @Test
+        @DisplayName("時点で該当するitemが無い場合、0件エラーとなること")
+        void shouldThrowWhenNoHistory() {
+            // Given（前提条件）
+            when(historyMapper.countAllAsOf(any())).thenReturn(0L);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+            criteria.setAsOf(LocalDate.of(2000, 1, 1));
+
+            // When（実行）
+            // Then（検証）
+            assertThatThrownBy(() -> target.findAll(criteria))
+                    .isInstanceOf(AppException.class)
+                    .hasFieldOrPropertyWithValue("messageId", "ME003");
+        }
+    }
+
+    @Nested
+    @DisplayName("先読みのテスト")
+    class PrefetchTest {
+
+        @Test
+        @DisplayName("先読み済みの場合、キャッシュもデータベースも検索せず、さらに次ページを先読みすること")
+        void shouldReturnPrefetchedPage() {
+            // Given（前提条件）
+            Page<Item> prefetched = new PageImpl<>(List.of(new Item(6, "筆箱", 1000, "CD-A01", LocalDate.now(), 0)), PageRequest.of(1, 5), 12);
+            when(prefetcher.take(any())).thenReturn(prefetched);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(1, 5));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            assertThat(result).isSameAs(prefetched);
+            verify(cache, never()).get(any());
+            verify(itemMapper, never()).findPageWithTotal(any());
+            verify(prefetcher, times(1)).prefetchNext(eq(criteria), eq(prefetched), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("ページ範囲外のテスト")
+    class OutOfRangeTest {
+
+        @Test
+        @DisplayName("指定ページに行が無い場合、件数のみ取得して空ページを返すこと")
+        void shouldCountWhenPageIsOutOfRange() {
+            // Given（前提条件）
+            when(itemMapper.findPageWithTotal(any())).thenReturn(new ArrayList<>());
+            when(itemMapper.countAllLimited(any())).thenReturn(5L);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(3, 5));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            verify(itemMapper, times(1)).countAllLimited(criteria);
+            assertThat(result.getNumberOfElements()).isEqualTo(0);
+            assertThat(result.getTotalElements()).isEqualTo(5L);
+        }
+    }
+
+    @Nested
+    @DisplayName("キーセットページングのテスト")
+    class KeysetTest {
+
+        @Test
+        @DisplayName("カーソル指定時はキーセットで取得し、オフセット検索は行わないこと")
+        void shouldFindByKeysetWhenCursorSpecified() {
+            // Given（前提条件）
+            List<Item> items = new ArrayList<>();
+            items.add(new Item(6, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+            when(itemMapper.countAllLimited(any())).thenReturn(6L);
+            when(itemMapper.findAllByKeyset(any())).thenReturn(items);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(1, 5));
+            criteria.setKeyset(ItemSearchCursor.next(5));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            verify(itemMapper, times(1)).findAllByKeyset(criteria);
+            verify(itemMapper, never()).findAll(any());
+            assertThat(result.getContent()).extracting(Item::getId).containsExactly(6);
+            assertThat(result.getPageable().getPageNumber()).isEqualTo(1);
+            assertThat(result.getTotalElements()).isEqualTo(6L);
+        }
+
+        @Test
+        @DisplayName("キーセットで取得できなかった場合、オフセットで取得し直すこと")
+        void shouldFallbackToOffsetWhenKeysetIsEmpty() {
+            // Given（前提条件）
+            List<Item> items = new ArrayList<>();
+            items.add(new Item(7, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+            when(itemMapper.countAllLimited(any())).thenReturn(6L);
+            when(itemMapper.findAllByKeyset(any())).thenReturn(new ArrayList<>());
+            when(itemMapper.findAll(any())).thenReturn(items);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(1, 5));
+            criteria.setKeyset(ItemSearchCursor.next(99));
+
+            // When（実行）
+            Page<Item> result = target.findAll(criteria);
+
+            // Then（検証）
+            verify(itemMapper, times(1)).findAllByKeyset(criteria);
+            verify(itemMapper, times(1)).findAll(criteria);
+            assertThat(result.getContent()).extracting(Item::getId).containsExactly(7);
+        }
+    }
+
+    @Nested
+    @DisplayName("索引のテスト")
+    class IndexTest {
+
+        @Test
+        @DisplayName("索引が使用できる場合、件数を数えずにページ分のIDだけ取得すること")
+        public void shouldFindPageByIndex() {
+            // Given（前提条件）ID 1,3,5,7,9,11 が合致
+            when(index.find(any())).thenReturn(ItemIdSet.of(1, 3, 5, 7, 9, 11));
+            List<Item> items = List.of(
+                    new Item(7, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                    new Item(9, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                    new Item(11, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+            when(itemMapper.findAllByIds(List.of(7, 9, 11))).thenReturn(items);
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(1, 3));
+
+            // When（実行）
+            Page<Item> page = target.findAll(criteria);
+
+            // Then（検証）
+            assertThat(page.getTotalElements()).isEqualTo(6);
+            assertThat(page.getContent()).isEqualTo(items);
+            verify(itemMapper, never()).findPageWithTotal(any());
+            verify(itemMapper, never()).countAllLimited(any());
+        }
+
+        @Test
+        @DisplayName("カーソル指定時は、カーソルの前のIDを取得すること")
+        public void shouldFindPrevPageByIndex() {
+            // Given（前提条件）
+            when(index.find(any())).thenReturn(ItemIdSet.of(1, 3, 5, 7, 9, 11));
+            when(itemMapper.findAllByIds(any())).thenReturn(List.of());
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 2));
+            criteria.setKeyset(ItemSearchCursor.prev(7));
+
+            // When（実行）
+            target.findAll(criteria);
+
+            // Then（検証）
+            verify(itemMapper).findAllByIds(List.of(3, 5));
+            verify(itemMapper, never()).findAllByKeyset(any());
+        }
+
+        @Test
+        @DisplayName("索引で合致するIDが無い場合、ゼロ件エラーが発生すること")
+        public void shouldThrowWhenIndexFindsNothing() {
+            // Given（前提条件）
+            when(index.find(any())).thenReturn(ItemIdSet.EMPTY);
+            ItemSearchCriteria criteria = new ItemSearchCriteria("aaa", null, PageRequest.of(0, 5));
+
+            // When（実行） & Then（検証）
+            assertThatThrownBy(() -> target.findAll(criteria))
+                    .isInstanceOf(AppException.class)
+                    .hasFieldOrPropertyWithValue("messageId", "ME003");
+            verify(itemMapper, never()).findAllByIds(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("削除後のページのテスト")
+    class RemoveFromPageTest {
+
+        @BeforeEach
+        void setUp() {
+            // 表示中のページの検索前は0、削除のコミットで1となる
+            when(cache.generation()).thenReturn(1L);
+        }
+
+        @Test
+        @DisplayName("削除した行を除き、次ページの先頭だった1件だけを検索して補充し、総件数を1件減らすこと")
+        public void shouldRemoveAndBackfill() {
+            // Given（前提条件）2ページ目（6～10件目）、総件数12件
+            Page<Item> page = new PageImpl<>(items(6, 10), PageRequest.of(1, 5, ItemSortOrder.PRICE_DESC.getSort()), 12);
+            List<Item> backfill = items(11, 11);
+            when(itemMapper.findAll(any())).thenReturn(backfill);
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, page.getPageable());
+            criteria.setKeyset(ItemSearchCursor.next(5));
+
+            // When（実行）
+            Page<Item> result = target.removeFromPage(criteria, page, 8, 0L);
+
+            // Then（検証）削除後の9件目（10番目の位置）を、キーセットを使用せずに1件だけ取得すること
+            assertThat(result.getContent()).extracting(Item::getId).containsExactly(6, 7, 9, 10, 11);
+            assertThat(result.getTotalElements()).isEqualTo(11);
+            assertThat(result.getPageable()).isEqualTo(page.getPageable());
+            ArgumentCaptor<ItemSearchCriteria> captor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
+            verify(itemMapper).findAll(captor.capture());
+            assertThat(captor.getValue().getItemName()).isEqualTo("ペン");
+            assertThat(captor.getValue().getPageable().getOffset()).isEqualTo(9);
+            assertThat(captor.getValue().getPageable().getPageSize()).isEqualTo(1);
+            assertThat(captor.getValue().getPageable().getSort()).isEqualTo(ItemSortOrder.PRICE_DESC.getSort());
+            assertThat(captor.getValue().getKeyset()).isNull();
+            verify(itemMapper, never()).countAllLimited(any());
+            verify(itemMapper, never()).findPageWithTotal(any());
+        }
+
+        @Test
+        @DisplayName("最終ページの場合、補充せずに削除した行を除くだけであること")
+        public void shouldRemoveFromLastPage() {
+            // Given（前提条件）3ページ目（11～12件目）、総件数12件
+            Page<Item> page = new PageImpl<>(items(11, 12), PageRequest.of(2, 5), 12);
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, page.getPageable());
+
+            // When（実行）
+            Page<Item> result = target.removeFromPage(criteria, page, 12, 0L);
+
+            // Then（検証）
+            assertThat(result.getContent()).extracting(Item::getId).containsExactly(11);
+            assertThat(result.getTotalElements()).isEqualTo(11);
+            verify(itemMapper, never()).findAll(any());
+        }
+
+        @Test
+        @DisplayName("ページが空になる場合、削除した行がページに無い場合、補充する行が無い場合は、nullを返すこと")
+        public void shouldReturnNullWhenPageBoundaryMoves() {
+            // Given（前提条件）
+            Page<Item> lastPage = new PageImpl<>(items(11, 11), PageRequest.of(2, 5), 11);
+            Page<Item> fullPage = new PageImpl<>(items(1, 5), PageRequest.of(0, 5), 12);
+            when(itemMapper.findAll(any())).thenReturn(List.of());
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+
+            // When（実行）、Then（検証）
+            assertThat(target.removeFromPage(criteria, lastPage, 11, 0L)).isNull();
+            assertThat(target.removeFromPage(criteria, fullPage, 99, 0L)).isNull();
+            assertThat(target.removeFromPage(criteria, fullPage, 3, 0L)).isNull();
+        }
+
+        @Test
+        @DisplayName("表示中のページの検索後に他の変更がコミットされた場合、補充せずにnullを返すこと")
+        public void shouldReturnNullWhenChangedAfterDisplay() {
+            // Given（前提条件）削除以外に1件の変更がコミットされた
+            when(cache.generation()).thenReturn(2L);
+            Page<Item> page = new PageImpl<>(items(1, 5), PageRequest.of(0, 5), 12);
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, page.getPageable());
+
+            // When（実行）、Then（検証）
+            assertThat(target.removeFromPage(criteria, page, 3, 0L)).isNull();
+            verify(itemMapper, never()).findAll(any());
+        }
+
+        @Test
+        @DisplayName("補充の検索中に変更がコミットされた場合、補充する1件が既にページにある場合は、nullを返すこと")
+        public void shouldReturnNullWhenBackfillIsStale() {
+            // Given（前提条件）
+            Page<Item> page = new PageImpl<>(items(1, 5), PageRequest.of(0, 5), 12);
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, page.getPageable());
+
+            // When（実行）、Then（検証）補充の検索後に世代番号が進んでいる
+            when(cache.generation()).thenReturn(1L, 2L);
+            when(itemMapper.findAll(any())).thenReturn(items(6, 6));
+            assertThat(target.removeFromPage(criteria, page, 3, 0L)).isNull();
+
+            // When（実行）、Then（検証）補充する1件がページにある
+            when(cache.generation()).thenReturn(1L);
+            when(itemMapper.findAll(any())).thenReturn(items(5, 5));
+            assertThat(target.removeFromPage(criteria, page, 3, 0L)).isNull();
+        }
+
+        private List<Item> items(int from, int to) {
+            List<Item> items = new ArrayList<>();
+            for (int id = from; id <= to; id++) {
+                items.add(new Item(id, "ペン", id * 100, "CD-A01", LocalDate.now(), 0));
+            }
+            return items;
+        }
+    }
+
+    @Nested
+    @DisplayName("並べ替えのテスト")
+    class SortTest {
+
+        @Test
+        @DisplayName("ID順以外の場合、件数を索引から求め、並べ替えたページをデータベースから取得すること")
+        public void shouldFindSortedPage() {
+            // Given（前提条件）
+            when(index.find(any())).thenReturn(ItemIdSet.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12));
+            List<Item> items = List.of(new Item(12, "筆箱", 1000, "CD-A01", LocalDate.now(), 0));
+            when(itemMapper.findAll(any())).thenReturn(items);
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5, ItemSortOrder.PRICE_DESC.getSort()));
+            criteria.setKeyset(ItemSearchCursor.next(5));
+
+            // When（実行）
+            Page<Item> page = target.findAll(criteria);
+
+            // Then（検証）キーセットは使用しない
+            assertThat(page.getTotalElements()).isEqualTo(12);
+            assertThat(page.getContent()).isEqualTo(items);
+            verify(itemMapper, never()).findAllByIds(any());
+            verify(itemMapper, never()).findAllByKeyset(any());
+            verify(itemMapper, never()).countAllLimited(any());
+        }
+
+        @Test
+        @DisplayName("索引が使用できない場合、件数はデータベースで数えること")
+        public void shouldCountSortedPageWithoutIndex() {
+            // Given（前提条件）
+            when(itemMapper.countAllLimited(any())).thenReturn(2L);
+            when(itemMapper.findAll(any())).thenReturn(List.of());
+            ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5, ItemSortOrder.REGIST_DATE_DESC.getSort()));
+
+            // When（実行）
+            Page<Item> page = target.findAll(criteria);
+
+            // Then（検証）
+            assertThat(page.getTotalElements()).isEqualTo(2);
+            verify(itemMapper, never()).findPageWithTotal(any());
+        }
+    }
+
     @Nested
     @DisplayName("異常系テスト")
     class ErrorTest {
@@ -147,7 +589,9 @@ public class ItemSearchServiceTest {
         @DisplayName("検索結果が無い場合、ゼロ件エラーが発生すること")
         public void testCountZero() {
             // Given（前提条件）
-            when(itemMapper.countAll(any())).thenReturn(0L);
+            // 0件の場合はページに行が無いため、件数のみ取得し直す
+            when(itemMapper.findPageWithTotal(any())).thenReturn(new ArrayList<>());
+            when(itemMapper.countAllLimited(any())).thenReturn(0L);
 
             ItemSearchCriteria criteria = new ItemSearchCriteria("aaa", null, PageRequest.of(0, 3));
 
@@ -156,15 +600,17 @@ public class ItemSearchServiceTest {
                     .isInstanceOf(AppException.class)
                     .hasFieldOrPropertyWithValue("messageId", "ME003");
 
-            verify(itemMapper, times(1)).countAll(any());
-            verify(itemMapper, never()).findAll(any());
+            verify(itemMapper, times(1)).findPageWithTotal(any());
+            verify(itemMapper, times(1)).countAllLimited(any());
         }
 
         @Test
         @DisplayName("検索結果が1001件以上の場合、1000件超過エラーが発生すること")
         public void testCountThousand() {
             // Given（前提条件）
-            when(itemMapper.countAll(any())).thenReturn(1001L);
+            List<ItemPageRow> items = new ArrayList<>();
+            items.add(new ItemPageRow(new Item(1, "aaa", 100, "CD-A01", LocalDate.now(), 0), 1001L));
+            when(itemMapper.findPageWithTotal(any())).thenReturn(items);
 
             ItemSearchCriteria criteria = new ItemSearchCriteria("aaa", null, PageRequest.of(0, 3));
 
@@ -173,8 +619,26 @@ public class ItemSearchServiceTest {
                     .isInstanceOf(AppException.class)
                     .hasFieldOrPropertyWithValue("messageId", "ME002");
 
-            verify(itemMapper, times(1)).countAll(any());
-            verify(itemMapper, never()).findAll(any());
+            verify(itemMapper, times(1)).findPageWithTotal(any());
+            verify(itemMapper, never()).countAllLimited(any());
+        }
+
+        @Test
+        @DisplayName("件数は最大検索結果件数+1件で打ち切って数えること")
+        public void testCountLimit() {
+            // Given（前提条件）
+            when(itemMapper.countAllLimited(any())).thenReturn(1001L);
+
+            ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+            criteria.setKeyset(ItemSearchCursor.next(5));
+
+            // When（実行） & Then（検証）
+            assertThatThrownBy(() -> target.findAll(criteria))
+                    .isInstanceOf(AppException.class)
+                    .hasFieldOrPropertyWithValue("messageId", "ME002");
+
+            assertThat(criteria.getCountLimit()).isEqualTo(1001);
+            verify(itemMapper, never()).findAllByKeyset(any());
         }
     }
 }
\ No newline at end of file
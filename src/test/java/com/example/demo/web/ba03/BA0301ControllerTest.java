@@ -0,0 +1,212 @@
+package com.example.demo.web.ba03;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemRegistViewHelper;
+
+@WebMvcTest(controllers = BA0301Controller.class, includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ItemRegistViewHelper.class))
+@TestPropertySource(properties = {
+        "spring.thymeleaf.cache=false"
+})
+public class BA0301ControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemDetailService itemDetailService;
+
+    @Test
+    @WithMockUser
+    void indexPage() throws Exception {
+        // モックの設定
+        Item item = new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 2);
+        when(itemDetailService.find(1)).thenReturn(item);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0301/index"))
+                .andExpect(model().attribute("item", item))
+                .andExpect(header().string(HttpHeaders.ETAG,
+                        "\"item-1-2-" + Integer.toHexString("user".hashCode()) + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    @WithMockUser
+    void indexPage_変更なし() throws Exception {
+        // モックの設定（キャッシュにあるitem）
+        when(itemDetailService.find(1)).thenReturn(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 2));
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-2-" + Integer.toHexString("user".hashCode()) + "\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    void indexPage_更新あり() throws Exception {
+        // モックの設定（前回表示時のバージョン番号は1）
+        Item item = new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 2);
+        when(itemDetailService.find(1)).thenReturn(item);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-1-" + Integer.toHexString("user".hashCode()) + "\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("item", item));
+    }
+
+    @Test
+    @WithMockUser(username = "other")
+    void indexPage_別ユーザ() throws Exception {
+        // モックの設定（ETagは別ユーザに返したもの）
+        Item item = new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 2);
+        when(itemDetailService.find(1)).thenReturn(item);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-2-" + Integer.toHexString("user".hashCode()) + "\""))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void itemJson() throws Exception {
+        // モックの設定
+        when(itemDetailService.find(1)).thenReturn(new Item(1, "ペン", 100, "CD-A01", LocalDate.of(2024, 4, 1), 2));
+
+        // テスト実行
+        MvcResult result = mockMvc.perform(get("/WBA0301/index").param("id", "1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemName").value("ペン"))
+                .andExpect(jsonPath("$.versionNo").value(2))
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"item-1-2\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+
+        // テスト実行（返されたETagで再取得）
+        mockMvc.perform(get("/WBA0301/index").param("id", "1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+
+        // 検証（itemは詳細キャッシュ経由で取得するだけで、バージョン番号を別に確認しない）
+        verify(itemDetailService, times(2)).find(1);
+    }
+
+    @Test
+    @WithMockUser
+    void itemJson_存在しない() throws Exception {
+        // モックの設定
+        when(itemDetailService.find(9)).thenReturn(null);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "9")
+                .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void indexPage_時点指定() throws Exception {
+        // モックの設定
+        Item item = new Item(1, "ペン", 80, "CD-A01", LocalDate.of(2024, 4, 1), 0);
+        when(itemDetailService.findAsOf(1, LocalDate.of(2024, 4, 1))).thenReturn(item);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1").param("asOf", "2024-04-01"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0301/index"))
+                .andExpect(model().attribute("item", item))
+                .andExpect(model().attribute("asOf", LocalDate.of(2024, 4, 1)))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        // 検証（現在のitemは取得しない）
+        verify(itemDetailService, never()).find(any());
+    }
+
+    @Test
+    @WithMockUser
+    void indexPage_時点で存在しない() throws Exception {
+        // モックの設定（時点より後に登録されたitem）
+        when(itemDetailService.findAsOf(1, LocalDate.of(2000, 1, 1))).thenReturn(null);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1").param("asOf", "2000-01-01"))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(view().name("BA0301/index"))
+                .andExpect(model().attribute("message", "ME009:対象データが存在しません。検索からやり直してください。"))
+                .andExpect(content().string(containsString("ME009")));
+    }
+
+    @Test
+    @WithMockUser
+    void indexPage_存在しない() throws Exception {
+        // モックの設定（削除済みのitem）
+        when(itemDetailService.find(1)).thenReturn(null);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1"))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(view().name("BA0301/index"))
+                .andExpect(content().string(containsString("ME009")));
+    }
+
+    @Test
+    @WithMockUser
+    void itemJson_時点で存在しない() throws Exception {
+        // モックの設定
+        when(itemDetailService.findAsOf(1, LocalDate.of(2000, 1, 1))).thenReturn(null);
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0301/index").param("id", "1").param("asOf", "2000-01-01")
+                .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.web.ba03;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.common.event.ItemChangeOrigin;
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.common.event.ItemsInsertedEvent;
+import com.example.demo.common.event.ItemsRepricedEvent;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemDetailCache テストクラス
+ */
+@DisplayName("ItemDetailCache のテスト")
+class ItemDetailCacheTest {
+
+    private ItemDetailCache target;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = new ItemDetailCache(true, 3, registry);
+    }
+
+    @Test
+    @DisplayName("格納したitemの複製を取得でき、ヒット数とミス数が記録されること")
+    void shouldGetPutCopy() {
+        // Given（前提条件）
+        Item item = item(1, "CD-A01", 0);
+
+        // When（実行）
+        Item miss = target.get(1);
+        target.put(item, target.generation());
+        item.setPrice(999);
+        Item hit = target.get(1);
+        hit.setPrice(888);
+
+        // Then（検証）格納後、取得後の変更はキャッシュに影響しない
+        assertThat(miss).isNull();
+        assertThat(target.get(1)).isEqualTo(new Item(1, "ペン", 100, "CD-A01", LocalDate.of(2024, 4, 1), 0));
+        assertThat(registry.get("cache.gets").tag("cache", "itemDetail").tag("result", "hit").counter().count())
+                .isEqualTo(2.0);
+        assertThat(registry.get("cache.gets").tag("cache", "itemDetail").tag("result", "miss").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("取得中に変更がコミットされた場合は、格納しないこと")
+    void shouldNotPutStaleItem() {
+        // Given（前提条件）
+        long generation = target.generation();
+        target.onItemChanged(ItemChangedEvent.updated(item(1, "CD-A01", 0), item(1, "CD-A01", 1)));
+
+        // When（実行）
+        target.put(item(1, "CD-A01", 0), generation);
+
+        // Then（検証）
+        assertThat(target.get(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("変更前または変更後のIDのitemだけ削除されること")
+    void shouldInvalidateChangedIds() {
+        // Given（前提条件）
+        target.put(item(1, "CD-A01", 0), 0);
+        target.put(item(2, "CD-A01", 0), 0);
+        target.put(item(3, "CD-A01", 0), 0);
+
+        // When（実行）
+        target.onItemChanged(ItemChangedEvent.updated(item(1, "CD-A01", 0), item(1, "CD-A02", 1)));
+        target.onItemChanged(ItemChangedEvent.deleted(item(3, "CD-A01", 0)));
+
+        // Then（検証）
+        assertThat(target.get(1)).isNull();
+        assertThat(target.get(2)).isNotNull();
+        assertThat(target.get(3)).isNull();
+        assertThat(registry.get("cache.evictions").tag("cache", "itemDetail").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("他ノードで変更されたID、一括登録、一括削除したIDのitemだけ削除されること")
+    void shouldRemoveByIds() {
+        // Given（前提条件）
+        for (int id = 1; id <= 5; id++) {
+            target.put(item(id, "CD-A01", 0), 0);
+        }
+
+        // When（実行）
+        target.invalidate(List.of(1, 99));
+        target.onItemsInserted(new ItemsInsertedEvent(List.of(item(2, "CD-A01", 0)), ItemChangeOrigin.NONE));
+        target.onItemsDeleted(new ItemsDeletedEvent(List.of(item(3, "CD-A01", 0)), ItemChangeOrigin.NONE));
+
+        // Then（検証）
+        assertThat(target.get(1)).isNull();
+        assertThat(target.get(2)).isNull();
+        assertThat(target.get(3)).isNull();
+        assertThat(target.get(4)).isNotNull();
+        assertThat(target.get(5)).isNotNull();
+        assertThat(registry.get("cache.evictions").tag("cache", "itemDetail").counter().count()).isEqualTo(3.0);
+        assertThat(registry.get("cache.weight").tag("cache", "itemDetail").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("一括価格改定で、改定した分類とIDの範囲のitemだけ削除されること")
+    void shouldInvalidateRepricedRange() {
+        // Given（前提条件）
+        target.put(item(1, "CD-A01", 0), 0);
+        target.put(item(2, "CD-A02", 0), 0);
+        target.put(item(5, "CD-A01", 0), 0);
+
+        // When（実行）ID=1より後、ID=4までのCD-A01を改定
+        target.onItemsRepriced(new ItemsRepricedEvent("CD-A01", 10, 1, 4, ItemChangeOrigin.NONE));
+        target.onItemsRepriced(new ItemsRepricedEvent("CD-A02", 10, null, 1, ItemChangeOrigin.NONE));
+
+        // Then（検証）
+        assertThat(target.get(1)).isNotNull();
+        assertThat(target.get(2)).isNotNull();
+        assertThat(target.get(5)).isNotNull();
+
+        // When（実行）先頭からID=5までのCD-A01を改定
+        target.onItemsRepriced(new ItemsRepricedEvent("CD-A01", 10, null, 5, ItemChangeOrigin.NONE));
+
+        // Then（検証）
+        assertThat(target.get(1)).isNull();
+        assertThat(target.get(2)).isNotNull();
+        assertThat(target.get(5)).isNull();
+    }
+
+    @Test
+    @DisplayName("最大件数を超えた場合、最も長く参照されていないitemが追い出されること")
+    void shouldEvictEldest() {
+        // Given（前提条件）
+        target.put(item(1, "CD-A01", 0), 0);
+        target.put(item(2, "CD-A01", 0), 0);
+        target.put(item(3, "CD-A01", 0), 0);
+        target.get(1);
+
+        // When（実行）
+        target.put(item(4, "CD-A01", 0), 0);
+
+        // Then（検証）
+        assertThat(target.get(2)).isNull();
+        assertThat(target.get(1)).isNotNull();
+        assertThat(target.get(4)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("無効の場合は格納しないこと")
+    void shouldNotCacheWhenDisabled() {
+        // Given（前提条件）
+        target = new ItemDetailCache(false, 3, new SimpleMeterRegistry());
+
+        // When（実行）
+        target.put(item(1, "CD-A01", 0), 0);
+
+        // Then（検証）
+        assertThat(target.get(1)).isNull();
+    }
+
+    private static Item item(int id, String groupid, int versionNo) {
+        return new Item(id, "ペン", 100, groupid, LocalDate.of(2024, 4, 1), versionNo);
+    }
+}
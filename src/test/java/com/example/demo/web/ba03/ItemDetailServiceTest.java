@@ -0,0 +1,111 @@
+package com.example.demo.web.ba03;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemHistoryMapper;
+import com.example.demo.web.mapper.ItemMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * item詳細サービステスト
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ItemDetailService のテスト")
+class ItemDetailServiceTest {
+
+    @InjectMocks
+    private ItemDetailService target;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private ItemHistoryMapper itemHistoryMapper;
+
+    @Spy
+    private ItemDetailCache itemDetailCache = new ItemDetailCache(true, 10, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("2回目以降はデータベースから取得しないこと")
+    void shouldReadThrough() {
+        // Given（前提条件）
+        when(itemMapper.findById(1)).thenReturn(item(0));
+
+        // When（実行）
+        Item first = target.find(1);
+        Item second = target.find(1);
+
+        // Then（検証）
+        assertThat(first).isEqualTo(item(0));
+        assertThat(second).isEqualTo(item(0));
+        verify(itemMapper, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("更新のコミット後は、データベースから取得し直すこと")
+    void shouldReloadAfterUpdate() {
+        // Given（前提条件）
+        when(itemMapper.findById(1)).thenReturn(item(0), item(1));
+        target.find(1);
+
+        // When（実行）
+        itemDetailCache.onItemChanged(ItemChangedEvent.updated(item(0), item(1)));
+        Item item = target.find(1);
+
+        // Then（検証）
+        assertThat(item.getVersionNo()).isEqualTo(1);
+        assertThat(target.find(1).getVersionNo()).isEqualTo(1);
+        verify(itemMapper, times(2)).findById(1);
+    }
+
+    @Test
+    @DisplayName("存在しないitemは格納しないこと")
+    void shouldNotCacheMissingItem() {
+        // When（実行）
+        Item first = target.find(9);
+        Item second = target.find(9);
+
+        // Then（検証）
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(itemMapper, times(2)).findById(9);
+    }
+
+    @Test
+    @DisplayName("時点を指定した場合は、キャッシュを使用せずに翌日の開始時刻より前の履歴から取得すること")
+    void shouldFindAsOf() {
+        // Given（前提条件）
+        when(itemHistoryMapper.findAsOf(1, LocalDate.of(2024, 4, 2).atStartOfDay())).thenReturn(item(0));
+
+        // When（実行）
+        Item item = target.findAsOf(1, LocalDate.of(2024, 4, 1));
+
+        // Then（検証）
+        assertThat(item).isEqualTo(item(0));
+        verify(itemDetailCache, never()).get(any());
+        verify(itemDetailCache, never()).put(any(), anyLong());
+    }
+
+    private static Item item(int versionNo) {
+        return new Item(1, "ペン", 100, "CD-A01", LocalDate.of(2024, 4, 1), versionNo);
+    }
+}
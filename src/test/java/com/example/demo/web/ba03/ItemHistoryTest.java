@@ -0,0 +1,203 @@
+package com.example.demo.web.ba03;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.core.exception.AppException;
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemRegistService;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchService;
+import com.example.demo.web.ba04.ItemDeleteService;
+import com.example.demo.web.ba05.ItemUpdateService;
+import com.example.demo.web.ba07.ItemRepriceService;
+
+/**
+ * itemの履歴 テストクラス
+ *
+ * itemの登録、更新、削除、一括価格改定で履歴が追記され、時点を指定して照会、検索できることを確認する。
+ */
+@SpringBootTest
+@DisplayName("itemの履歴のテスト")
+class ItemHistoryTest {
+
+    @Autowired
+    private ItemDetailService itemDetailService;
+
+    @Autowired
+    private ItemSearchService itemSearchService;
+
+    @Autowired
+    private ItemRegistService itemRegistService;
+
+    @Autowired
+    private ItemUpdateService itemUpdateService;
+
+    @Autowired
+    private ItemDeleteService itemDeleteService;
+
+    @Autowired
+    private ItemRepriceService itemRepriceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "履歴";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 620_000;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item_history where id >= ? and id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item_name_ngram where item_id >= ? and item_id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item where id >= ? and id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item_name_total where item_name = ?", ITEM_NAME);
+    }
+
+    @Test
+    @DisplayName("登録、更新、削除の履歴から、時点のitemが照会、検索できること")
+    void shouldFindAsOf() {
+        // Given（前提条件）4/1に登録、4/3に更新、4/5に削除したものとする
+        itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", LocalDate.of(2024, 4, 1), 0));
+        itemUpdateService.update(new Item(ID_BASE, ITEM_NAME, 150, "CD-A01", null, 0));
+        itemDeleteService.deleteOne(ID_BASE, 1);
+        setValidFrom(0, false, LocalDateTime.of(2024, 4, 1, 10, 0));
+        setValidFrom(1, false, LocalDateTime.of(2024, 4, 3, 10, 0));
+        setValidFrom(1, true, LocalDateTime.of(2024, 4, 5, 10, 0));
+
+        // When（実行）
+        // Then（検証）
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.of(2024, 3, 31))).isNull();
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.of(2024, 4, 1)))
+                .isEqualTo(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", LocalDate.of(2024, 4, 1), 0));
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.of(2024, 4, 4)))
+                .isEqualTo(new Item(ID_BASE, ITEM_NAME, 150, "CD-A01", LocalDate.of(2024, 4, 1), 1));
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.of(2024, 4, 5))).isNull();
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.now())).isNull();
+
+        Page<Item> pages = itemSearchService.findAll(criteria(LocalDate.of(2024, 4, 4)));
+        assertThat(pages.getContent()).extracting(Item::getId, Item::getPrice).containsExactly(
+                tuple(ID_BASE, 150));
+        assertThatThrownBy(() -> itemSearchService.findAll(criteria(LocalDate.of(2024, 4, 5))))
+                .isInstanceOf(AppException.class)
+                .hasFieldOrPropertyWithValue("messageId", "ME003");
+    }
+
+    @Test
+    @DisplayName("一括価格改定で改定したitemだけ履歴が追記されること")
+    void shouldRecordRepricedItems() {
+        // Given（前提条件）CD-T03は本テスト専用の分類。5,000円のitemは改定後に上限を超えるため改定されない
+        // （同一item名称の合計金額の上限を超えるため、5,000円のitemは初期データと同様に直接登録する）
+        itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-T03", null, 0));
+        jdbcTemplate.update("insert into item values(?, ?, ?, ?, null, 0)", ID_BASE + 1, ITEM_NAME, 5000, "CD-T03");
+        jdbcTemplate.update("insert into item_history(id, item_name, price, groupid, regist_date, version_no,"
+                + " valid_from, deleted) select id, item_name, price, groupid, regist_date, version_no,"
+                + " localtimestamp, false from item where id = ?", ID_BASE + 1);
+
+        // When（実行）
+        itemRepriceService.reprice("CD-T03", 10);
+
+        // Then（検証）
+        assertThat(countHistory(ID_BASE)).isEqualTo(2);
+        assertThat(countHistory(ID_BASE + 1)).isEqualTo(1);
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.now()).getPrice()).isEqualTo(110);
+        assertThat(itemDetailService.findAsOf(ID_BASE + 1, LocalDate.now()).getPrice()).isEqualTo(5000);
+    }
+
+    @Test
+    @DisplayName("有効開始日時が同一IDの最新の履歴より前にならず、後から追記した履歴が照会されること")
+    void shouldKeepValidFromInOrder() {
+        // Given（前提条件）更新前の履歴の有効開始日時が、更新のトランザクション開始より後の場合
+        LocalDateTime later = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", null, 0));
+        setValidFrom(0, false, later);
+
+        // When（実行）
+        itemUpdateService.update(new Item(ID_BASE, ITEM_NAME, 150, "CD-A01", null, 0));
+
+        // Then（検証）
+        assertThat(jdbcTemplate.queryForObject(
+                "select valid_from from item_history where id = ? and version_no = 1", LocalDateTime.class, ID_BASE))
+                .isEqualTo(later);
+        assertThat(itemDetailService.findAsOf(ID_BASE, later.toLocalDate()).getPrice()).isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("同一トランザクション内で削除後に再登録した場合、再登録したitemが照会、検索できること")
+    void shouldFindReregisteredItem() {
+        // Given（前提条件）登録、削除、再登録の履歴は有効開始日時、バージョン番号が同じになる
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", null, 0));
+            itemDeleteService.deleteOne(ID_BASE, 0);
+            itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 200, "CD-A01", null, 0));
+        });
+
+        // When（実行）
+        // Then（検証）
+        assertThat(countHistory(ID_BASE)).isEqualTo(3);
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.now()).getPrice()).isEqualTo(200);
+        assertThat(itemSearchService.findAll(criteria(LocalDate.now())).getContent())
+                .extracting(Item::getId, Item::getPrice).containsExactly(tuple(ID_BASE, 200));
+    }
+
+    @Test
+    @DisplayName("一括削除で削除の履歴が追記され、合計金額とn-gram索引もまとめて反映されること")
+    void shouldRecordDeletedItems() {
+        // Given（前提条件）
+        itemRegistService.registItem(new Item(ID_BASE, ITEM_NAME, 100, "CD-A01", null, 0));
+        itemRegistService.registItem(new Item(ID_BASE + 1, ITEM_NAME, 200, "CD-A01", null, 0));
+        itemRegistService.registItem(new Item(ID_BASE + 2, ITEM_NAME, 300, "CD-A01", null, 0));
+
+        // When（実行）
+        itemDeleteService.deleteAll(List.of(new Item(ID_BASE, null, null, null, null, 0),
+                new Item(ID_BASE + 1, null, null, null, null, 0)));
+
+        // Then（検証）
+        assertThat(countHistory(ID_BASE)).isEqualTo(2);
+        assertThat(countHistory(ID_BASE + 1)).isEqualTo(2);
+        assertThat(itemDetailService.findAsOf(ID_BASE, LocalDate.now())).isNull();
+        assertThat(itemDetailService.findAsOf(ID_BASE + 1, LocalDate.now())).isNull();
+        assertThat(itemDetailService.findAsOf(ID_BASE + 2, LocalDate.now()).getPrice()).isEqualTo(300);
+        assertThat(jdbcTemplate.queryForObject("select total_price from item_name_total where item_name = ?",
+                Integer.class, ITEM_NAME)).isEqualTo(300);
+        assertThat(jdbcTemplate.queryForObject("select count(distinct item_id) from item_name_ngram"
+                + " where item_id >= ? and item_id < ?", Integer.class, ID_BASE, ID_BASE + 100)).isEqualTo(1);
+    }
+
+    private void setValidFrom(int versionNo, boolean deleted, LocalDateTime validFrom) {
+        jdbcTemplate.update("update item_history set valid_from = ? where id = ? and version_no = ? and deleted = ?",
+                validFrom, ID_BASE, versionNo, deleted);
+    }
+
+    private int countHistory(int id) {
+        return jdbcTemplate.queryForObject("select count(*) from item_history where id = ?", Integer.class, id);
+    }
+
+    private static ItemSearchCriteria criteria(LocalDate asOf) {
+        ItemSearchCriteria criteria = new ItemSearchCriteria(ITEM_NAME, null, PageRequest.of(0, 5));
+        criteria.setAsOf(asOf);
+        return criteria;
+    }
+}
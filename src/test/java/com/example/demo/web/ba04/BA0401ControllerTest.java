@@ -0,0 +1,159 @@
+package com.example.demo.web.ba04;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchService;
+
+@WebMvcTest(controllers = BA0401Controller.class)
+@Import(ItemDeletePage.class)
+@TestPropertySource(properties = {
+        "spring.thymeleaf.cache=false"
+})
+public class BA0401ControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemDeleteService itemDeleteService;
+
+    @MockitoBean
+    ItemSearchService itemSearchService;
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void deletePage_表示中のページを更新() throws Exception {
+        // モックの設定
+        List<Item> itemList = List.of(
+                new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0),
+                new Item(2, "ノート", 200, "CD-A01", LocalDate.now(), 0));
+        Page<Item> displayed = new PageImpl<>(itemList, PageRequest.of(0, 5), 2);
+        Page<Item> refreshed = new PageImpl<>(itemList.subList(1, 2), PageRequest.of(0, 5), 1);
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class))).thenReturn(displayed);
+        when(itemSearchService.generation()).thenReturn(3L);
+        when(itemSearchService.removeFromPage(any(ItemSearchCriteria.class), eq(displayed), eq(1), eq(3L)))
+                .thenReturn(refreshed);
+        MockHttpSession session = new MockHttpSession();
+
+        // テスト実行（検索して表示したページから削除）
+        mockMvc.perform(get("/WBA0401/search").session(session))
+                .andExpect(model().attribute("pages", displayed));
+        mockMvc.perform(post("/WBA0401/delete")
+                .session(session)
+                .with(csrf())
+                .param("id", "1")
+                .param("versionNo", "0"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0401/delete"))
+                .andExpect(model().attribute("pages", refreshed))
+                .andExpect(model().attribute("itemList", refreshed.getContent()));
+
+        // 検証（削除後に検索し直さないこと）
+        verify(itemDeleteService).deleteOne(1, 0);
+        verify(itemSearchService, times(1)).findAll(any(ItemSearchCriteria.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void deletePage_ページ境界の移動時は再検索() throws Exception {
+        // モックの設定
+        List<Item> itemList = List.of(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+        Page<Item> displayed = new PageImpl<>(itemList, PageRequest.of(0, 5), 1);
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class))).thenReturn(displayed);
+        MockHttpSession session = new MockHttpSession();
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0401/search").session(session));
+        mockMvc.perform(post("/WBA0401/delete")
+                .session(session)
+                .with(csrf())
+                .param("id", "1")
+                .param("versionNo", "0"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0401/delete"));
+
+        // 検証（表示中のページから更新できないため、検索し直すこと）
+        verify(itemSearchService).removeFromPage(any(ItemSearchCriteria.class), eq(displayed), eq(1), eq(0L));
+        verify(itemSearchService, times(2)).findAll(any(ItemSearchCriteria.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    @SuppressWarnings("unchecked")
+    void deleteAllPage_一部競合() throws Exception {
+        // モックの設定
+        when(itemDeleteService.deleteAll(anyList())).thenReturn(List.of(2));
+        List<Item> itemList = List.of(new Item(4, "消しゴム", 100, "CD-A01", LocalDate.now(), 0));
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class)))
+                .thenReturn(new PageImpl<>(itemList, PageRequest.of(0, 5), 1));
+
+        // テスト実行
+        mockMvc.perform(post("/WBA0401/deleteAll")
+                .with(csrf())
+                .param("targets", "1:0", "2:0", "3:1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0401/delete"))
+                .andExpect(model().attribute("deletedCount", 2))
+                .andExpect(model().attribute("lostIds", List.of(2)))
+                .andExpect(model().attribute("itemList", itemList))
+                .andExpect(content().string(containsString("ME901")));
+
+        ArgumentCaptor<List<Item>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemDeleteService).deleteAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(Item::getId, Item::getVersionNo)
+                .containsExactly(tuple(1, 0),
+                        tuple(2, 0),
+                        tuple(3, 1));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void deleteAllPage_形式不正() throws Exception {
+        mockMvc.perform(post("/WBA0401/deleteAll")
+                .with(csrf())
+                .param("targets", "1"))
+                .andDo(print())
+                .andExpect(view().name("error"));
+
+        verify(itemDeleteService, never()).deleteAll(anyList());
+    }
+}
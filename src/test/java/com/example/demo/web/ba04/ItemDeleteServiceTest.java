@@ -0,0 +1,137 @@
+package com.example.demo.web.ba04;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.example.demo.common.event.ItemChangedEvent;
+import com.example.demo.common.event.ItemsDeletedEvent;
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * ItemDeleteService テストクラス
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ItemDeleteService のテスト")
+class ItemDeleteServiceTest {
+
+    @InjectMocks
+    private ItemDeleteService target;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @Nested
+    @DisplayName("1件削除")
+    class DeleteOneTest {
+
+        @Test
+        @DisplayName("削除し、削除イベントを発行すること")
+        void shouldDeleteOne() {
+            // Given（前提条件）
+            Item before = item(1, 0);
+            when(itemMapper.findById(1)).thenReturn(before);
+            when(itemMapper.delete(1, 0)).thenReturn(1);
+
+            // When（実行）
+            target.deleteOne(1, 0);
+
+            // Then（検証）
+            ArgumentCaptor<ItemChangedEvent> captor = ArgumentCaptor.forClass(ItemChangedEvent.class);
+            verify(publisher).publishEvent(captor.capture());
+            assertThat(captor.getValue().getBefore()).isSameAs(before);
+        }
+
+        @Test
+        @DisplayName("画面表示後に更新、削除された場合、楽観ロックエラーとなること")
+        void shouldThrowWhenVersionMismatch() {
+            // Given（前提条件）
+            when(itemMapper.delete(1, 0)).thenReturn(0);
+
+            // When（実行） & Then（検証）
+            assertThatThrownBy(() -> target.deleteOne(1, 0))
+                .isInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessage("ME901");
+            verify(publisher, never()).publishEvent(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("一括削除")
+    class DeleteAllTest {
+
+        @Test
+        @DisplayName("バージョン番号が一致する行を削除し、一致しない行のIDを返すこと")
+        void shouldReturnLostIds() {
+            // Given（前提条件）
+            List<Item> keys = List.of(item(1, 0), item(2, 0), item(3, 0));
+            List<Item> befores = List.of(item(1, 0), item(3, 0));
+            when(itemMapper.findAllForDelete(keys)).thenReturn(befores);
+            when(itemMapper.deleteAll(befores)).thenReturn(2);
+
+            // When（実行）
+            List<Integer> lostIds = target.deleteAll(keys);
+
+            // Then（検証）
+            assertThat(lostIds).containsExactly(2);
+            ArgumentCaptor<ItemsDeletedEvent> captor = ArgumentCaptor.forClass(ItemsDeletedEvent.class);
+            verify(publisher).publishEvent(captor.capture());
+            assertThat(captor.getValue().getItems()).isEqualTo(befores);
+        }
+
+        @Test
+        @DisplayName("全行が画面表示後に更新、削除された場合、削除せずに全IDを返すこと")
+        void shouldNotDeleteWhenAllLost() {
+            // Given（前提条件）
+            List<Item> keys = List.of(item(1, 0), item(2, 0));
+            when(itemMapper.findAllForDelete(keys)).thenReturn(List.of());
+
+            // When（実行）
+            List<Integer> lostIds = target.deleteAll(keys);
+
+            // Then（検証）
+            assertThat(lostIds).containsExactly(1, 2);
+            verify(itemMapper, never()).deleteAll(anyList());
+            verify(publisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("削除対象が無い場合、データベースにアクセスしないこと")
+        void shouldDoNothingWhenEmpty() {
+            // When（実行）
+            List<Integer> lostIds = target.deleteAll(List.of());
+
+            // Then（検証）
+            assertThat(lostIds).isEmpty();
+            verifyNoInteractions(itemMapper, publisher);
+        }
+    }
+
+    private static Item item(int id, int versionNo) {
+        return new Item(id, "ペン", 100, "CD-A01", LocalDate.of(2023, 7, 1), versionNo);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.web.ba05;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchService;
+import com.example.demo.web.ba03.ItemDetailService;
+
+@WebMvcTest(controllers = BA0501Controller.class)
+@TestPropertySource(properties = {
+        "spring.thymeleaf.cache=false"
+})
+public class BA0501ControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemDetailService itemDetailService;
+
+    @MockitoBean
+    ItemUpdateService itemUpdateService;
+
+    @MockitoBean
+    ItemSearchService itemSearchService;
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void gridPage() throws Exception {
+        // モックの設定
+        List<Item> itemList = List.of(new Item(1, "ペン", 100, "CD-A01", LocalDate.now(), 0));
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class)))
+                .thenReturn(new PageImpl<>(itemList, PageRequest.of(1, 20), 21));
+
+        // テスト実行
+        mockMvc.perform(get("/WBA0501/grid").param("gridPage", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0501/grid"))
+                .andExpect(model().attribute("itemGridForm", ItemGridForm.of(itemList)));
+
+        // 検証（一括編集のページ番号と件数で検索すること）
+        ArgumentCaptor<ItemSearchCriteria> captor = ArgumentCaptor.forClass(ItemSearchCriteria.class);
+        verify(itemSearchService).findAll(captor.capture());
+        assertThat(captor.getValue().getPageable().getPageNumber()).isEqualTo(1);
+        assertThat(captor.getValue().getPageable().getPageSize()).isEqualTo(20);
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    @SuppressWarnings("unchecked")
+    void gridUpdatePage_変更した行だけ更新() throws Exception {
+        // モックの設定
+        when(itemUpdateService.updateAll(anyList())).thenReturn(List.of(3));
+        List<Item> itemList = List.of(new Item(1, "ペン", 150, "CD-A01", LocalDate.now(), 1));
+        when(itemSearchService.findAll(any(ItemSearchCriteria.class)))
+                .thenReturn(new PageImpl<>(itemList, PageRequest.of(0, 20), 1));
+
+        // テスト実行（ID=2は変更なし）
+        mockMvc.perform(post("/WBA0501/gridUpdate")
+                .with(csrf())
+                .param("gridPage", "0")
+                .param("rows[0].id", "1").param("rows[0].versionNo", "0")
+                .param("rows[0].itemName", "ペン").param("rows[0].originalItemName", "ペン")
+                .param("rows[0].price", "150").param("rows[0].originalPrice", "100")
+                .param("rows[0].groupid", "CD-A01").param("rows[0].originalGroupid", "CD-A01")
+                .param("rows[1].id", "2").param("rows[1].versionNo", "0")
+                .param("rows[1].itemName", "ノート").param("rows[1].originalItemName", "ノート")
+                .param("rows[1].price", "200").param("rows[1].originalPrice", "200")
+                .param("rows[1].groupid", "CD-A01").param("rows[1].originalGroupid", "CD-A01")
+                .param("rows[2].id", "3").param("rows[2].versionNo", "0")
+                .param("rows[2].itemName", "コンパス").param("rows[2].originalItemName", "コンパス")
+                .param("rows[2].price", "350").param("rows[2].originalPrice", "300")
+                .param("rows[2].groupid", "CD-A01").param("rows[2].originalGroupid", "CD-A01"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0501/grid"))
+                .andExpect(model().attribute("updatedIds", List.of(1)))
+                .andExpect(model().attribute("lostIds", List.of(3)))
+                .andExpect(model().attribute("itemGridForm", ItemGridForm.of(itemList)))
+                .andExpect(content().string(containsString("ME901")));
+
+        // 検証
+        ArgumentCaptor<List<Item>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemUpdateService).updateAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(Item::getId, Item::getPrice, Item::getVersionNo)
+                .containsExactly(tuple(1, 150, 0), tuple(3, 350, 0));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void gridUpdatePage_入力エラー() throws Exception {
+        mockMvc.perform(post("/WBA0501/gridUpdate")
+                .with(csrf())
+                .param("rows[0].id", "1").param("rows[0].versionNo", "0")
+                .param("rows[0].itemName", "ペン").param("rows[0].originalItemName", "ペン")
+                .param("rows[0].price", "2000").param("rows[0].originalPrice", "100")
+                .param("rows[0].groupid", "CD-A01").param("rows[0].originalGroupid", "CD-A01"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0501/grid"))
+                .andExpect(model().attributeHasFieldErrors("itemGridForm", "rows[0].bunguPrice"));
+
+        verify(itemUpdateService, never()).updateAll(anyList());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.web.ba05;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.mapper.ItemMapper;
+
+/**
+ * ItemUpdateService テストクラス
+ * 
+ * バッチ実行の一括更新で、バージョン番号が一致する行だけが更新され、関連テーブルが更新されることを確認する。
+ */
+@SpringBootTest
+@DisplayName("ItemUpdateService のテスト")
+class ItemUpdateServiceTest {
+
+    @Autowired
+    private ItemUpdateService target;
+
+    @Autowired
+    private ItemMapper mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "一括編集";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 600_000;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item_name_ngram where item_id >= ? and item_id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item where id >= ? and id < ?", ID_BASE, ID_BASE + 100);
+        jdbcTemplate.update("delete from item_name_total where item_name in (?, ?)", ITEM_NAME, ITEM_NAME + "2");
+    }
+
+    @Test
+    @DisplayName("バージョン番号が一致する行だけが更新され、一致しない行と削除された行のIDが返ること")
+    void shouldUpdateAllMatchingVersions() {
+        // Given（前提条件）ID_BASE+1は画面表示後に他の利用者が更新した
+        insert(ID_BASE, 100);
+        insert(ID_BASE + 1, 200);
+        insert(ID_BASE + 2, 300);
+        jdbcTemplate.update("insert into item_name_total(item_name, total_price) values(?, ?)", ITEM_NAME, 600);
+        jdbcTemplate.update("update item set version_no = 1 where id = ?", ID_BASE + 1);
+        List<Item> items = List.of(
+                new Item(ID_BASE + 99, ITEM_NAME, 500, "CD-A01", null, 0),
+                new Item(ID_BASE + 1, ITEM_NAME, 250, "CD-A01", null, 0),
+                new Item(ID_BASE, ITEM_NAME, 150, "CD-A01", null, 0),
+                new Item(ID_BASE + 2, ITEM_NAME + "2", 300, "CD-A02", null, 0));
+
+        // When（実行）
+        List<Integer> lostIds = target.updateAll(items);
+
+        // Then（検証）
+        assertThat(lostIds).containsExactly(ID_BASE + 99, ID_BASE + 1);
+        assertThat(mapper.findById(ID_BASE)).extracting(Item::getPrice, Item::getVersionNo).containsExactly(150, 1);
+        assertThat(mapper.findById(ID_BASE + 1)).extracting(Item::getPrice, Item::getVersionNo).containsExactly(200, 1);
+        assertThat(mapper.findById(ID_BASE + 2)).extracting(Item::getItemName, Item::getGroupid, Item::getVersionNo)
+                .containsExactly(ITEM_NAME + "2", "CD-A02", 1);
+        // item名称ごとの合計金額（更新した行の分だけ増減する）
+        assertThat(total(ITEM_NAME)).isEqualTo(350);
+        assertThat(total(ITEM_NAME + "2")).isEqualTo(300);
+        // item名称のn-gram索引（item名称を変更した行だけ登録し直す）
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_name_ngram where item_id = ?",
+                Integer.class, ID_BASE + 2)).isPositive();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_name_ngram where item_id = ?",
+                Integer.class, ID_BASE)).isZero();
+    }
+
+    @Test
+    @DisplayName("更新内容が無い場合は、何も更新しないこと")
+    void shouldDoNothingForEmptyList() {
+        // When（実行）、Then（検証）
+        assertThat(target.updateAll(List.of())).isEmpty();
+    }
+
+    private void insert(int id, int price) {
+        mapper.insertItem(new Item(id, ITEM_NAME, price, "CD-A01", null, 0));
+    }
+
+    private Integer total(String itemName) {
+        return jdbcTemplate.queryForObject("select total_price from item_name_total where item_name = ?",
+                Integer.class, itemName);
+    }
+}
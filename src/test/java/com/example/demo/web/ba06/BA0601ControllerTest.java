@@ -0,0 +1,78 @@
+package com.example.demo.web.ba06;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = BA0601Controller.class)
+@TestPropertySource(properties = {
+        "spring.thymeleaf.cache=false"
+})
+public class BA0601ControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemImportService itemImportService;
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void indexPage() throws Exception {
+        mockMvc.perform(get("/WBA0601/index"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0601/import"));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void importPage() throws Exception {
+        ItemImportResult result = new ItemImportResult(2, 1, 1,
+                List.of(new ItemImportError(3, "price", "0 から 5000 の範囲にしてください")), false, 1, 3, null, 10);
+        when(itemImportService.importCsv(any(Reader.class))).thenReturn(result);
+        MockMultipartFile file = new MockMultipartFile("file", "items.csv", "text/csv",
+                "101,ペン,100,CD-A01,2025-10-30\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/WBA0601/import").file(file).with(csrf()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0601/import"))
+                .andExpect(model().attribute("result", result))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("0 から 5000 の範囲にしてください")));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void importPage_中断() throws Exception {
+        ItemImportResult result = new ItemImportResult(1000, 1000, 0, List.of(), false, 1, 1000, 1001L, 10);
+        when(itemImportService.importCsv(any(Reader.class))).thenReturn(result);
+        MockMultipartFile file = new MockMultipartFile("file", "items.csv", "text/csv",
+                "101,ペン,100,CD-A01,2025-10-30\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/WBA0601/import").file(file).with(csrf()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("行目以降は、予期せぬエラーのため登録していません")));
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.demo.web.ba06;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.example.demo.core.exception.SystemException;
+import com.example.demo.entity.Item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+/**
+ * ItemImportService テストクラス
+ */
+@DisplayName("ItemImportService のテスト")
+class ItemImportServiceTest {
+
+    private ItemImportService target;
+
+    private ItemImportWriter writer;
+
+    private SimpleMeterRegistry registry;
+
+    /** 書き込みに渡された行 */
+    private List<List<ItemImportRow>> written;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(ItemImportWriter.class);
+        written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<ItemImportRow> rows = invocation.getArgument(0);
+            written.add(rows);
+            return rows.size();
+        }).when(writer).write(anyList());
+
+        StaticMessageSource messages = new StaticMessageSource();
+        messages.addMessage("ME004", Locale.getDefault(), "ME004");
+        messages.addMessage("ME006", Locale.getDefault(), "ME006");
+        messages.addMessage("typeMismatch.java.lang.Integer", Locale.getDefault(), "数値を入力してください");
+        messages.addMessage("typeMismatch.java.time.LocalDate", Locale.getDefault(), "日付を入力してください");
+        registry = new SimpleMeterRegistry();
+        target = new ItemImportService(writer, Validation.buildDefaultValidatorFactory().getValidator(), messages,
+                2, registry);
+    }
+
+    @Nested
+    @DisplayName("正常系テスト")
+    class SuccessTest {
+
+        @Test
+        @DisplayName("ヘッダ行を読み飛ばし、各行をitemに変換して登録すること")
+        void shouldImportRows() throws IOException {
+            // Given（前提条件）
+            String csv = """
+                    ID,ITEM NAME,PRICE,GROUP,REGIST DATE
+                    101,ペン,100,CD-A01,2025-10-30
+                    ,"ノート,A4",,CD-A02,
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）
+            assertThat(result.getRows()).isEqualTo(2);
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getRejected()).isZero();
+            assertThat(result.getErrors()).isEmpty();
+            assertThat(written).hasSize(1);
+            assertThat(written.get(0)).extracting(ItemImportRow::getItem).containsExactly(
+                    new Item(101, "ペン", 100, "CD-A01", LocalDate.of(2025, 10, 30), 0),
+                    new Item(null, "ノート,A4", null, "CD-A02", null, 0));
+        }
+
+        @Test
+        @DisplayName("一定行数ごとに登録し、件数と処理時間が記録されること")
+        void shouldWriteInChunks() throws IOException {
+            // Given（前提条件）
+            String csv = """
+                    \uFEFFID,ITEM NAME,PRICE,GROUP,REGIST DATE
+                    101,ペン,100,CD-A01,2025-10-30
+                    102,ペン,100,CD-A01,2025-10-30
+
+                    103,ペン,100,CD-A01,2025-10-30
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）
+            verify(writer, times(2)).write(anyList());
+            assertThat(written).extracting(List::size).containsExactly(2, 1);
+            assertThat(result.getImported()).isEqualTo(3);
+            assertThat(registry.get("item.import").timer().count()).isEqualTo(1);
+            assertThat(registry.get("item.import.rows").tag("result", "imported").counter().count()).isEqualTo(3.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("異常系テスト")
+    class ErrorTest {
+
+        @Test
+        @DisplayName("item登録画面と同じ入力チェックでエラーとなった行は、行番号と項目を返して登録しないこと")
+        void shouldRejectInvalidRows() throws IOException {
+            // Given（前提条件）
+            String csv = """
+                    ID,ITEM NAME,PRICE,GROUP,REGIST DATE
+                    abc,ペン,100,CD-A01,2025-10-30
+                    102,size is over 10 length,-1,CD-A01,2025/10/30
+                    103,ペン,2000,CD-A01,2025-10-30
+                    104,ペン,100,CD-A01
+                    105,ペン,100,CD-A01,2025-10-30
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）
+            assertThat(result.getRows()).isEqualTo(5);
+            assertThat(result.getImported()).isEqualTo(1);
+            assertThat(result.getRejected()).isEqualTo(4);
+            assertThat(result.getErrors()).extracting(ItemImportError::getLineNumber, ItemImportError::getField)
+                    .containsExactlyInAnyOrder(
+                            tuple(2L, "id"),
+                            tuple(3L, "registDate"),
+                            tuple(3L, "itemName"),
+                            tuple(3L, "price"),
+                            tuple(4L, "bunguPrice"),
+                            tuple(5L, null));
+            assertThat(written).flatExtracting(rows -> rows).extracting(row -> row.getItem().getId())
+                    .containsExactly(105);
+            assertThat(registry.get("item.import.rows").tag("result", "rejected").counter().count()).isEqualTo(4.0);
+        }
+
+        @Test
+        @DisplayName("CSV内でIDが重複する場合、後の行がエラーとなること")
+        void shouldRejectDuplicateIdsInFile() throws IOException {
+            // Given（前提条件）
+            String csv = """
+                    101,ペン,100,CD-A01,2025-10-30
+                    102,ペン,100,CD-A01,2025-10-30
+                    101,ノート,100,CD-A01,2025-10-30
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）
+            assertThat(result.getErrors()).extracting(ItemImportError::getLineNumber, ItemImportError::getField,
+                    ItemImportError::getMessage).containsExactly(tuple(3L, "id", "ME004"));
+            assertThat(result.getImported()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("全行がエラーの場合、登録しないこと")
+        void shouldNotWriteWhenAllRowsRejected() throws IOException {
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader("abc\n"));
+
+            // Then（検証）
+            verify(writer, never()).write(anyList());
+            assertThat(result.getRejected()).isEqualTo(1);
+            assertThat(result.getErrors()).extracting(ItemImportError::getMessage).containsExactly("ME006");
+        }
+
+        @Test
+        @DisplayName("登録中に同じIDが登録された場合、その行をエラーとして残りの行で登録をやり直すこと")
+        void shouldRetryWithoutConcurrentlyInsertedIds() throws IOException {
+            // Given（前提条件）1回目はキー重複でロールバックされ、2回目の業務チェックで102がエラーとなる
+            doThrow(new DuplicateKeyException("duplicate"))
+                    .doAnswer(invocation -> {
+                        List<ItemImportRow> rows = invocation.getArgument(0);
+                        rows.get(1).reject("id", "ME004");
+                        written.add(rows);
+                        return 1;
+                    })
+                    .when(writer).write(anyList());
+            String csv = """
+                    101,ペン,100,CD-A01,2025-10-30
+                    102,ペン,100,CD-A01,2025-10-30
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）
+            verify(writer, times(2)).write(anyList());
+            assertThat(result.getImported()).isEqualTo(1);
+            assertThat(result.getErrors()).extracting(ItemImportError::getLineNumber, ItemImportError::getField)
+                    .containsExactly(tuple(2L, "id"));
+            assertThat(result.getCommittedChunks()).isEqualTo(1);
+            assertThat(result.getFailedLineNumber()).isNull();
+        }
+
+        @Test
+        @DisplayName("登録に失敗した場合は中断し、処理済みの範囲と中断した行番号を返すこと")
+        void shouldStopAndReportCommittedChunks() throws IOException {
+            // Given（前提条件）2回目の登録で失敗する
+            doAnswer(invocation -> {
+                written.add(invocation.getArgument(0));
+                return 2;
+            }).doThrow(new SystemException("ME999")).when(writer).write(anyList());
+            String csv = """
+                    101,ペン,100,CD-A01,2025-10-30
+                    102,ペン,100,CD-A01,2025-10-30
+                    103,ペン,100,CD-A01,2025-10-30
+                    104,ペン,100,CD-A01,2025-10-30
+                    105,ペン,100,CD-A01,2025-10-30
+                    """;
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader(csv));
+
+            // Then（検証）3回目は登録しない
+            verify(writer, times(2)).write(anyList());
+            assertThat(result.getRows()).isEqualTo(2);
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getCommittedChunks()).isEqualTo(1);
+            assertThat(result.getCommittedLineNumber()).isEqualTo(2);
+            assertThat(result.getFailedLineNumber()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("登録でデータベースのエラーとなった場合も中断し、中断した行番号を返すこと")
+        void shouldStopOnDataAccessException() throws IOException {
+            // Given（前提条件）
+            doThrow(new DataAccessResourceFailureException("connection lost")).when(writer).write(anyList());
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader("101,ペン,100,CD-A01,2025-10-30\n"));
+
+            // Then（検証）
+            verify(writer, times(1)).write(anyList());
+            assertThat(result.getCommittedChunks()).isZero();
+            assertThat(result.getCommittedLineNumber()).isZero();
+            assertThat(result.getFailedLineNumber()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("キー重複が続く場合は、やり直しの上限で中断すること")
+        void shouldStopAfterMaxWriteAttempts() throws IOException {
+            // Given（前提条件）
+            doThrow(new DuplicateKeyException("duplicate")).when(writer).write(anyList());
+
+            // When（実行）
+            ItemImportResult result = target.importCsv(new StringReader("101,ペン,100,CD-A01,2025-10-30\n"));
+
+            // Then（検証）
+            verify(writer, times(ItemImportService.MAX_WRITE_ATTEMPTS)).write(anyList());
+            assertThat(result.getCommittedChunks()).isZero();
+            assertThat(result.getFailedLineNumber()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("CSVの項目がダブルクォートで囲まれている場合、カンマとダブルクォートを含められること")
+    void shouldSplitQuotedValues() {
+        assertThat(ItemImportService.split("1,\"a,\"\"b\"\"\",,x"))
+                .containsExactly("1", "a,\"b\"", "", "x");
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.web.ba06;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemIdAllocator;
+
+/**
+ * ItemImportWriter テストクラス
+ * 
+ * バッチ実行で登録し、業務チェックと関連テーブルの更新がトランザクション内で行われることを確認する。
+ */
+@SpringBootTest
+@DisplayName("ItemImportWriter のテスト")
+class ItemImportWriterTest {
+
+    @Autowired
+    private ItemImportWriter target;
+
+    @Autowired
+    private ItemIdAllocator itemIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "一括登録";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 800_000;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item_name_ngram where item_id in (select id from item where item_name = ?)",
+                ITEM_NAME);
+        jdbcTemplate.update("delete from item_history where item_name = ?", ITEM_NAME);
+        jdbcTemplate.update("delete from item_change_log where item_name = ?", ITEM_NAME);
+        jdbcTemplate.update("delete from item where item_name = ?", ITEM_NAME);
+        jdbcTemplate.update("delete from item_name_total where item_name = ?", ITEM_NAME);
+    }
+
+    @Test
+    @DisplayName("業務チェックを通過した行が登録され、IDの採番、合計金額、n-gram索引、履歴、変更履歴が更新されること")
+    void shouldWriteRows() {
+        // Given（前提条件）
+        List<ItemImportRow> rows = List.of(
+                row(2, ID_BASE, 1000),
+                row(3, null, 1000),
+                row(4, 1, 100),
+                row(5, ID_BASE + 1, 900),
+                row(6, ID_BASE + 2, 100));
+
+        // When（実行）
+        int count = target.write(rows);
+
+        // Then（検証）
+        assertThat(count).isEqualTo(3);
+        assertThat(rows.get(2).getErrors()).extracting(ItemImportError::getField).containsExactly("id");
+        // まとめて加算すると上限となるため1行ずつ加算し、上限となる行だけエラーとなる
+        assertThat(rows.get(3).getErrors()).isEmpty();
+        assertThat(rows.get(4).getErrors()).extracting(ItemImportError::getField).containsExactly((String) null);
+        assertThat(rows.get(1).getItem().getId()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item where item_name = ?", Integer.class,
+                ITEM_NAME)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select total_price from item_name_total where item_name = ?",
+                Integer.class, ITEM_NAME)).isEqualTo(2900);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_name_ngram where item_id = ?",
+                Integer.class, ID_BASE)).isPositive();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_name_ngram where item_id = ?",
+                Integer.class, rows.get(1).getItem().getId())).isPositive();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_history where item_name = ?",
+                Integer.class, ITEM_NAME)).isEqualTo(3);
+        // 変更履歴の通番は、まとめて払い出した範囲にID順で連続して付く
+        List<Long> seqs = jdbcTemplate.queryForList(
+                "select seq from item_change_log where item_name = ? order by item_id", Long.class, ITEM_NAME);
+        assertThat(seqs).hasSize(3);
+        assertThat(seqs.get(2) - seqs.get(0)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("登録時にキーが重複した場合、キー重複の例外となりロールバックされること")
+    void shouldThrowDuplicateKeyAndRollback() {
+        // Given（前提条件）業務チェック後に同じIDが登録された場合と同じく、登録時にキーが重複する
+        List<ItemImportRow> rows = List.of(row(2, ID_BASE + 10, 100), row(3, ID_BASE + 10, 100));
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.write(rows)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item where item_name = ?", Integer.class,
+                ITEM_NAME)).isZero();
+        assertThat(jdbcTemplate.queryForList("select total_price from item_name_total where item_name = ?",
+                Integer.class, ITEM_NAME)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("採番したIDが手入力で登録済みの場合、採番し直して登録されること")
+    void shouldReallocateExistingId() {
+        // Given（前提条件）払い出し中のブロックの残りのIDが、手入力で登録済み
+        int allocated = itemIdAllocator.next();
+        for (int id = allocated + 1; id <= allocated + 100; id++) {
+            jdbcTemplate.update("insert into item values(?, ?, 100, 'CD-A02', null, 0)", id, ITEM_NAME);
+        }
+        List<ItemImportRow> rows = List.of(row(2, null, 100));
+
+        // When（実行）
+        int count = target.write(rows);
+
+        // Then（検証）
+        assertThat(count).isEqualTo(1);
+        assertThat(rows.get(0).getErrors()).isEmpty();
+        assertThat(rows.get(0).getItem().getId()).matches(id -> id < allocated || id > allocated + 100);
+    }
+
+    @Test
+    @DisplayName("ロールバックされた場合、採番したIDが未指定に戻ること")
+    void shouldClearAllocatedIdsOnRollback() {
+        // Given（前提条件）
+        List<ItemImportRow> rows = List.of(row(2, null, 100), row(3, ID_BASE + 10, 100), row(4, ID_BASE + 10, 100));
+
+        // When（実行） & Then（検証）
+        assertThatThrownBy(() -> target.write(rows)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(rows.get(0).getItem().getId()).isNull();
+        assertThat(rows.get(1).getItem().getId()).isEqualTo(ID_BASE + 10);
+    }
+
+    private static ItemImportRow row(long lineNumber, Integer id, int price) {
+        return new ItemImportRow(lineNumber, new Item(id, ITEM_NAME, price, "CD-A02", LocalDate.now(), 0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.web.ba07;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = BA0701Controller.class)
+@TestPropertySource(properties = {
+        "spring.thymeleaf.cache=false"
+})
+public class BA0701ControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ItemRepriceService itemRepriceService;
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void indexPage() throws Exception {
+        mockMvc.perform(get("/WBA0701/index"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0701/reprice"));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void repricePage() throws Exception {
+        ItemRepriceResult result = new ItemRepriceResult("CD-A01", 10, 10, 2, 1, 5);
+        when(itemRepriceService.reprice("CD-A01", 10)).thenReturn(result);
+
+        mockMvc.perform(post("/WBA0701/reprice").with(csrf())
+                .param("groupid", "CD-A01")
+                .param("percent", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0701/reprice"))
+                .andExpect(model().attribute("result", result));
+    }
+
+    @Test
+    @WithMockUser(roles = "DATA_MANAGER")
+    void repriceValidationError() throws Exception {
+        mockMvc.perform(post("/WBA0701/reprice").with(csrf())
+                .param("groupid", "CD-X99")
+                .param("percent", "101"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(view().name("BA0701/reprice"))
+                .andExpect(model().attributeHasFieldErrors("itemRepriceForm", "percent", "knownGroup"));
+
+        verify(itemRepriceService, never()).reprice(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.web.ba07;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemNameTotals;
+import com.example.demo.web.ba02.ItemIdSet;
+import com.example.demo.web.ba02.ItemSearchCache;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchIndex;
+import com.example.demo.web.mapper.ItemMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemRepriceService テストクラス
+ * 
+ * 初期データと別のitem分類のitemを、範囲ごとのトランザクションで改定し、関連テーブルとキャッシュへの反映を確認する。
+ */
+@SpringBootTest
+@DisplayName("ItemRepriceService のテスト")
+class ItemRepriceServiceTest {
+
+    @Autowired
+    private ItemMapper mapper;
+
+    @Autowired
+    private ItemNameTotals itemNameTotals;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemSearchCache itemSearchCache;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** テスト用のitem名称 */
+    private static final String ITEM_NAME = "価格改定";
+
+    /** テスト用のitem分類（初期データに無い分類） */
+    private static final String GROUPID = "CD-T01";
+
+    /** テスト用データのID開始値（初期データと重複しないようにする） */
+    private static final int ID_BASE = 700_000;
+
+    private SimpleMeterRegistry registry;
+
+    private ItemRepriceService target;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // 範囲が複数になるよう、1回の更新で改定する件数を2件とする
+        target = new ItemRepriceService(mapper, itemNameTotals, itemSearchIndex, publisher, transactionManager, 2,
+                registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item where groupid = ?", GROUPID);
+        jdbcTemplate.update("delete from item_name_total where item_name = ?", ITEM_NAME);
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("分類内のitemが範囲ごとに改定され、上限を超えるitemと価格なしのitemは改定されないこと")
+    void shouldRepriceGroupInChunks() {
+        // Given（前提条件）
+        insert(ID_BASE, 100);
+        insert(ID_BASE + 1, 200);
+        insert(ID_BASE + 2, null);
+        insert(ID_BASE + 3, 4900);
+        insert(ID_BASE + 4, 300);
+        jdbcTemplate.update("insert into item_name_total(item_name, total_price) values(?, ?)", ITEM_NAME, 5500);
+
+        // When（実行）
+        ItemRepriceResult result = target.reprice(GROUPID, 10);
+
+        // Then（検証）4,900円の+10％は5,000円を超えるため改定しない
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(prices()).containsExactly(110, 220, null, 4900, 330);
+        assertThat(jdbcTemplate.queryForList("select version_no from item where groupid = ? order by id",
+                Integer.class, GROUPID)).containsExactly(1, 1, 0, 0, 1);
+        assertThat(jdbcTemplate.queryForObject("select total_price from item_name_total where item_name = ?",
+                Integer.class, ITEM_NAME)).isEqualTo(5560);
+        assertThat(registry.get("item.reprice.rows").tag("result", "updated").counter().count()).isEqualTo(3);
+        assertThat(registry.get("item.reprice.rows").tag("result", "skipped").counter().count()).isEqualTo(1);
+        assertThat(registry.get("item.reprice.chunk").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("改定後に、検索結果キャッシュが破棄され、検索索引が改定後の価格で構築し直されること")
+    void shouldRefreshSearchCacheAndIndex() {
+        // Given（前提条件）
+        insert(ID_BASE, 300);
+        ItemSearchCriteria criteria = new ItemSearchCriteria(ITEM_NAME, 320, PageRequest.of(0, 5));
+        itemSearchIndex.rebuild();
+        itemSearchCache.put(criteria, new PageImpl<>(List.of()), itemSearchCache.generation());
+
+        // When（実行）
+        target.reprice(GROUPID, 10);
+
+        // Then（検証）
+        assertThat(itemSearchCache.get(criteria)).isNull();
+        ItemIdSet ids = itemSearchIndex.find(criteria);
+        assertThat(ids).isNotNull();
+        assertThat(ids.stream().boxed().toList()).containsExactly(ID_BASE);
+    }
+
+    @Test
+    @DisplayName("分類内にitemが無い場合は、何も改定されないこと")
+    void shouldDoNothingForEmptyGroup() {
+        // When（実行）
+        ItemRepriceResult result = target.reprice(GROUPID, 10);
+
+        // Then（検証）
+        assertThat(result.getUpdated()).isZero();
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getChunks()).isZero();
+    }
+
+    private void insert(int id, Integer price) {
+        mapper.insertItem(new Item(id, ITEM_NAME, price, GROUPID, null, 0));
+    }
+
+    private List<Integer> prices() {
+        return jdbcTemplate.queryForList("select price from item where groupid = ? order by id", Integer.class,
+                GROUPID);
+    }
+}
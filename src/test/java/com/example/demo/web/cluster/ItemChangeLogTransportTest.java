@@ -0,0 +1,136 @@
+package com.example.demo.web.cluster;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.example.demo.web.api.ItemChangeLogWriter;
+import com.example.demo.web.mapper.ItemChangeLogMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ItemChangeLogTransport テストクラス
+ * 
+ * ポーリングは一定間隔では実行させず、poll()を直接呼び出して確認する。
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ItemChangeLogTransport のテスト")
+class ItemChangeLogTransportTest {
+
+    @Mock
+    private ItemChangeLogMapper mapper;
+
+    @Mock
+    private ItemChangeLogWriter writer;
+
+    @Mock
+    private ItemInvalidationListener listener;
+
+    private ItemChangeLogTransport target;
+
+    @BeforeEach
+    void setUp() {
+        when(writer.getNodeId()).thenReturn("node-a");
+        when(mapper.findLastSeq()).thenReturn(10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.stop();
+    }
+
+    @Test
+    @DisplayName("他ノードの変更だけが通知され、最大件数の場合は続けて取得すること")
+    void shouldNotifyOtherNodeChanges() {
+        // Given（前提条件）
+        start(Duration.ofSeconds(10));
+        when(mapper.findInvalidations(10L, 2)).thenReturn(List.of(row(11, 1, "node-a"), row(12, 2, "node-b")));
+        when(mapper.findInvalidations(12L, 2)).thenReturn(List.of(row(13, 3, "node-b")));
+        when(mapper.findInvalidations(13L, 2)).thenReturn(List.of());
+
+        // When（実行）
+        target.poll();
+        target.poll();
+
+        // Then（検証）
+        InOrder order = inOrder(listener);
+        order.verify(listener).onInvalidated(Set.of(2));
+        order.verify(listener).onInvalidated(Set.of(3));
+        verify(listener, times(2)).onInvalidated(any());
+        verify(listener, never()).onInvalidatedAll();
+    }
+
+    @Test
+    @DisplayName("通知に失敗した変更は、次回に再度通知されること")
+    void shouldRetryFailedNotification() {
+        // Given（前提条件）
+        start(Duration.ofSeconds(10));
+        when(mapper.findInvalidations(10L, 2)).thenReturn(List.of(row(11, 1, "node-b")));
+        doThrow(new DataAccessResourceFailureException("refresh")).doNothing()
+                .when(listener).onInvalidated(Set.of(1));
+
+        // When（実行）
+        target.poll();
+        target.poll();
+
+        // Then（検証）
+        verify(listener, times(2)).onInvalidated(Set.of(1));
+        verify(mapper, times(2)).findInvalidations(10L, 2);
+    }
+
+    @Test
+    @DisplayName("最大遅延時間を超えて失敗し続けた場合と、再開した場合に全キャッシュの破棄が通知されること")
+    void shouldInvalidateAllWhenStale() {
+        // Given（前提条件）
+        start(Duration.ZERO);
+        when(mapper.findInvalidations(anyLong(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+
+        // When（実行）
+        target.poll();
+        target.poll();
+        verify(listener, times(1)).onInvalidatedAll();
+        target.poll();
+
+        // Then（検証）
+        verify(listener, times(2)).onInvalidatedAll();
+        verify(listener, never()).onInvalidated(any());
+    }
+
+    private void start(Duration maxStaleness) {
+        target = new ItemChangeLogTransport(mapper, writer, Duration.ofHours(1), maxStaleness, 2,
+                new SimpleMeterRegistry());
+        target.start(listener);
+    }
+
+    private static ItemInvalidation row(long seq, int itemId, String nodeId) {
+        ItemInvalidation row = new ItemInvalidation();
+        row.setSeq(seq);
+        row.setItemId(itemId);
+        row.setNodeId(nodeId);
+        return row;
+    }
+}
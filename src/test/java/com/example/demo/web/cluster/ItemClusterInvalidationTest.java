@@ -0,0 +1,107 @@
+package com.example.demo.web.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ServerSocket;
+import java.util.function.Supplier;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSearchService;
+import com.example.demo.web.ba03.ItemDetailService;
+import com.example.demo.web.ba05.ItemUpdateService;
+
+/**
+ * ItemClusterInvalidator テストクラス
+ * 
+ * 1つのH2サーバ（TCP）を共有する2つのアプリケーション（ノードA、ノードB）を起動し、
+ * ノードAでの変更により、ノードBのキャッシュが無効化されることを確認する。
+ */
+@DisplayName("ItemClusterInvalidator のテスト（2ノード）")
+class ItemClusterInvalidationTest {
+
+    /** 共有するH2サーバ */
+    private static Server server;
+
+    /** ノードA */
+    private static ConfigurableApplicationContext nodeA;
+
+    /** ノードB */
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + port + "/mem:cluster;DB_CLOSE_DELAY=-1";
+
+        // テーブルの作成と初期データの登録は、ノードAの起動時だけ行う
+        nodeA = start("node-a", url, "always");
+        nodeB = start("node-b", url, "never");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("ノードAでの更新後、ノードBのitem詳細と検索結果がポーリング間隔内に更新後の内容となること")
+    void shouldInvalidateOtherNode() throws Exception {
+        // Given（前提条件）ノードBのキャッシュに格納する
+        ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5));
+        assertThat(nodeB.getBean(ItemDetailService.class).find(1).getPrice()).isEqualTo(100);
+        assertThat(nodeB.getBean(ItemSearchService.class).findAll(criteria).getContent())
+                .extracting(Item::getPrice).containsExactly(100, 100);
+
+        // When（実行）
+        nodeA.getBean(ItemUpdateService.class).update(new Item(1, null, 150, null, null, 0));
+
+        // Then（検証）
+        assertThat(nodeA.getBean(ItemDetailService.class).find(1).getPrice()).isEqualTo(150);
+        awaitTrue(() -> nodeB.getBean(ItemDetailService.class).find(1).getPrice() == 150);
+        assertThat(nodeB.getBean(ItemSearchService.class).findAll(criteria).getContent())
+                .extracting(Item::getPrice).containsExactly(150, 100);
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId, String url, String initMode) {
+        // application.propertiesより優先するよう、コマンドライン引数で指定する
+        return new SpringApplicationBuilder(DemoApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.sql.init.mode=" + initMode,
+                "--spring.h2.console.enabled=false",
+                "--web.cache.cluster.enabled=true",
+                "--web.cache.cluster.node-id=" + nodeId,
+                "--web.cache.cluster.poll-interval=100ms");
+    }
+
+    private static void awaitTrue(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.get()) {
+            assertThat(System.currentTimeMillis()).as("ポーリング間隔内に反映されること").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.web.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.web.audit.ItemAuditRecord;
+
+/**
+ * ItemAuditMapper テストクラス
+ */
+@MybatisTest
+@DisplayName("ItemAuditMapper のテスト")
+class ItemAuditMapperTest {
+
+    @Autowired
+    private ItemAuditMapper target;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("複数の監査ログが1回で追記されること")
+    void shouldInsertAll() {
+        // Given（前提条件）
+        LocalDateTime now = LocalDateTime.of(2024, 4, 1, 10, 0);
+        List<ItemAuditRecord> records = List.of(
+                new ItemAuditRecord(1, "INSERT", "root", "WBA0101", null, "{\"id\":1}", now),
+                new ItemAuditRecord(1, "DELETE", null, null, "{\"id\":1}", null, now));
+
+        // When（実行）
+        int count = target.insertAll(records);
+
+        // Then（検証）
+        assertThat(count).isEqualTo(2);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select operation, user_id, screen from item_audit_log where item_id = 1 order by id");
+        assertThat(rows).extracting(row -> row.get("OPERATION")).containsExactly("INSERT", "DELETE");
+        assertThat(rows).extracting(row -> row.get("USER_ID")).containsExactly("root", null);
+        assertThat(rows).extracting(row -> row.get("SCREEN")).containsExactly("WBA0101", null);
+    }
+
+    @Test
+    @DisplayName("一括価格改定の監査ログが、IDなしで追記されること")
+    void shouldInsertReprice() {
+        // Given（前提条件）
+        String range = "{\"groupid\":\"CD-A01\",\"percent\":10,\"afterId\":null,\"lastId\":4}";
+        List<ItemAuditRecord> records = List.of(new ItemAuditRecord(null, "REPRICE", "root", "WBA0701", null, range,
+                LocalDateTime.of(2024, 4, 1, 10, 0)));
+
+        // When（実行）
+        int count = target.insertAll(records);
+
+        // Then（検証）
+        assertThat(count).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "select after_value from item_audit_log where item_id is null and operation = 'REPRICE'",
+                String.class)).isEqualTo(range);
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.demo.web.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.common.code.ItemGroup;
+import com.example.demo.entity.Item;
+import com.example.demo.web.ba01.ItemPriceDelta;
+import com.example.demo.web.ba02.ItemFacets;
+import com.example.demo.web.ba02.ItemNameMatch;
+import com.example.demo.web.ba02.ItemNameNgram;
+import com.example.demo.web.ba02.ItemPageRow;
+import com.example.demo.web.ba02.ItemPriceRange;
+import com.example.demo.web.ba02.ItemSearchCriteria;
+import com.example.demo.web.ba02.ItemSortOrder;
+import com.example.demo.web.ba07.ItemReprice;
+import com.example.demo.web.ba07.ItemRepriceRange;
+
+/**
+ * ItemMapper テストクラス
+ * data-all.sqlの初期データ（12件）に対してSQLを実行する
+ */
+@MybatisTest
+@DisplayName("ItemMapper のテスト")
+class ItemMapperTest {
+
+    @Autowired
+    private ItemMapper target;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("ページ検索で、総件数が同じ複数行がまとめられずに取得できること")
+    void shouldFindPageWithTotal() {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria("ペン", null, PageRequest.of(0, 5));
+
+        // When（実行）
+        List<ItemPageRow> rows = target.findPageWithTotal(criteria);
+
+        // Then（検証）
+        assertThat(rows).extracting(row -> row.getItem().getId()).containsExactly(1, 7);
+        assertThat(rows).extracting(ItemPageRow::getTotalCount).containsExactly(2L, 2L);
+    }
+
+    @Test
+    @DisplayName("件数上限付きカウントが上限で打ち切られること")
+    void shouldCountAllLimited() {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+        criteria.setCountLimit(5);
+
+        // When（実行） & Then（検証）
+        assertThat(target.countAllLimited(criteria)).isEqualTo(5L);
+        assertThat(target.countAll(criteria)).isEqualTo(12L);
+    }
+
+    @ParameterizedTest
+    @DisplayName("item名称の部分一致・前方一致で検索できること")
+    @CsvSource({
+        "ペ, PARTIAL, '1,7'",
+        "しゴ, PARTIAL, '4,10'",
+        "ンパス, PARTIAL, '3,9'",
+        "ン, PREFIX, ''",
+        "ノー, PREFIX, '2,8'",
+        "%, PARTIAL, ''",
+        "ペン, EXACT, '1,7'"
+    })
+    void shouldFindByNameMatch(String itemName, ItemNameMatch nameMatch, String expectedIds) {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria(itemName, null, PageRequest.of(0, 5));
+        criteria.setNameMatch(nameMatch);
+
+        // When（実行）
+        List<ItemPageRow> rows = target.findPageWithTotal(criteria);
+
+        // Then（検証）
+        assertThat(rows).extracting(row -> String.valueOf(row.getItem().getId()))
+                .containsExactly(expectedIds.isEmpty() ? new String[0] : expectedIds.split(","));
+    }
+
+    @Test
+    @DisplayName("n-gram索引を登録・削除すると部分一致検索の結果に反映されること")
+    void shouldMaintainNameNgrams() {
+        // Given（前提条件）
+        target.insertItem(new Item(100, "ボールペン", 100, "CD-A01", LocalDate.now(), 0));
+        target.insertNameNgrams(100, ItemNameNgram.indexGrams("ボールペン"));
+        ItemSearchCriteria criteria = new ItemSearchCriteria("ルペ", null, PageRequest.of(0, 5));
+        criteria.setNameMatch(ItemNameMatch.PARTIAL);
+
+        // When（実行） & Then（検証）
+        assertThat(target.findPageWithTotal(criteria)).extracting(row -> row.getItem().getId()).containsExactly(100);
+        target.deleteNameNgrams(100);
+        assertThat(target.findPageWithTotal(criteria)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("エクスポート用全件検索で、合致する全itemがID順に1件ずつ渡されること")
+    void shouldExportAll() {
+        // Given（前提条件）ページサイズ、件数上限は無視される
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, 500, PageRequest.of(0, 1));
+        criteria.setCountLimit(1);
+        List<Integer> ids = new ArrayList<>();
+
+        // When（実行）
+        target.exportAll(criteria, context -> ids.add(context.getResultObject().getId()));
+
+        // Then（検証）
+        assertThat(ids).containsExactly(6, 12);
+    }
+
+    @Test
+    @DisplayName("並び順を指定した場合、指定した順にページ分が取得されること")
+    void shouldFindAllSorted() {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, 200, PageRequest.of(0, 5, ItemSortOrder.PRICE_DESC.getSort()));
+
+        // When（実行）
+        List<Item> items = target.findAll(criteria);
+
+        // Then（検証）価格の高い順、同価格はID降順
+        assertThat(items).extracting(Item::getId).containsExactly(12, 6, 9, 3, 8);
+    }
+
+    @ParameterizedTest
+    @DisplayName("並び順ごとの複合索引で並べ替えが不要となること（EXPLAIN）")
+    @CsvSource({
+        ",, PRICE_ASC",
+        ",, PRICE_DESC",
+        ",, REGIST_DATE_DESC",
+        ",, REGIST_DATE_ASC",
+        ",, ITEM_NAME_ASC",
+        ",, ITEM_NAME_DESC",
+        ", 100, PRICE_ASC",
+        ", 100, PRICE_DESC",
+        "ペン,, PRICE_DESC",
+        "ペン,, REGIST_DATE_DESC",
+        "ペン, 100, PRICE_ASC"
+    })
+    void shouldUseIndexForSort(String itemName, Integer price, ItemSortOrder sort) {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria(itemName, price, PageRequest.of(1, 5, sort.getSort()));
+        BoundSql boundSql = sqlSessionFactory.getConfiguration()
+                .getMappedStatement(ItemMapper.class.getName() + ".findAll").getBoundSql(criteria);
+        MetaObject parameters = sqlSessionFactory.getConfiguration().newMetaObject(criteria);
+        Object[] args = boundSql.getParameterMappings().stream()
+                .map(mapping -> parameters.getValue(mapping.getProperty())).toArray();
+
+        // When（実行）
+        String plan = new JdbcTemplate(dataSource).queryForObject("explain " + boundSql.getSql(), String.class, args);
+
+        // Then（検証）H2は索引の順に読むことで並べ替えを省略した場合に"index sorted"を出力する
+        assertThat(plan).contains("/* index sorted */");
+    }
+
+    @Test
+    @DisplayName("絞り込み件数が、item分類と価格帯の組み合わせごとに1回の問い合わせで数えられること")
+    void shouldCountFacets() {
+        // Given（前提条件）
+        target.insertItem(new Item(100, "ボールペン", 50, "CD-A02", LocalDate.now(), 0));
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, null, PageRequest.of(0, 5));
+
+        // When（実行）
+        ItemFacets facets = ItemFacets.of(target.countFacets(criteria));
+
+        // Then（検証）
+        assertThat(facets.getGroups()).containsExactly(
+                entry(ItemGroup.BUNGU, 12L), entry(ItemGroup.OTHER, 1L));
+        assertThat(facets.getPriceRanges()).containsExactly(
+                entry(ItemPriceRange.UNDER_100, 1L), entry(ItemPriceRange.FROM_100, 10L),
+                entry(ItemPriceRange.FROM_500, 0L), entry(ItemPriceRange.FROM_1000, 2L));
+    }
+
+    @Test
+    @DisplayName("絞り込み件数が、検索条件に合致するitemだけで数えられること")
+    void shouldCountFacetsByCriteria() {
+        // Given（前提条件）
+        ItemSearchCriteria criteria = new ItemSearchCriteria(null, 300, PageRequest.of(0, 5));
+
+        // When（実行）
+        ItemFacets facets = ItemFacets.of(target.countFacets(criteria));
+
+        // Then（検証）
+        assertThat(facets.getGroups()).containsEntry(ItemGroup.BUNGU, 4L);
+        assertThat(facets.getPriceRanges()).containsEntry(ItemPriceRange.FROM_100, 2L)
+                .containsEntry(ItemPriceRange.FROM_1000, 2L);
+    }
+
+    @Test
+    @DisplayName("ID採番用のブロック番号が、取得のたびに増えること")
+    void shouldGetNextItemIdHi() {
+        // When（実行）
+        int first = target.nextItemIdHi();
+        int second = target.nextItemIdHi();
+
+        // Then（検証）
+        assertThat(second).isGreaterThan(first);
+        assertThat(first).isPositive();
+    }
+
+    @Test
+    @DisplayName("一括削除で、IDとバージョン番号が一致する行だけが検索、削除されること")
+    void shouldDeleteAllByIdAndVersion() {
+        // Given（前提条件）ID=2はバージョン番号が一致しない
+        target.updateById(new Item(2, "ノート", 200, "CD-A01", null, 0));
+        List<Item> keys = List.of(key(1, 0), key(2, 0), key(3, 0), key(99, 0));
+
+        // When（実行）
+        List<Item> locked = target.findAllForDelete(keys);
+        int count = target.deleteAll(keys);
+
+        // Then（検証）
+        assertThat(locked).extracting(Item::getId).containsExactly(1, 3);
+        assertThat(locked.get(0).getItemName()).isEqualTo("ペン");
+        assertThat(count).isEqualTo(2);
+        assertThat(target.findById(1)).isNull();
+        assertThat(target.findById(2)).isNotNull();
+        assertThat(target.findById(3)).isNull();
+    }
+
+    @Test
+    @DisplayName("一括価格改定の範囲が、item分類内のID順に件数上限まで求められること")
+    void shouldFindRepriceRange() {
+        // Given（前提条件）ID=3は価格なし、ID=4は別分類
+        target.updateById(new Item(3, "コンパス", null, "CD-A01", null, 0));
+        target.updateById(new Item(4, "消しゴム", 100, "CD-A02", null, 0));
+
+        // When（実行）
+        ItemRepriceRange first = target.findRepriceRange("CD-A01", null, 3);
+        ItemRepriceRange last = target.findRepriceRange("CD-A01", 10, 3);
+        ItemRepriceRange none = target.findRepriceRange("CD-A01", 12, 3);
+
+        // Then（検証）
+        assertThat(first).isEqualTo(new ItemRepriceRange(5, 3));
+        assertThat(last).isEqualTo(new ItemRepriceRange(12, 2));
+        assertThat(none).isEqualTo(new ItemRepriceRange(null, 0));
+    }
+
+    @Test
+    @DisplayName("一括価格改定で、範囲内の上限を超えないitemだけが改定され、item名称ごとの増減が返ること")
+    void shouldRepriceRange() {
+        // Given（前提条件）文具は2,000円未満、その他は5,000円以下が上限
+        target.insertItem(new Item(900001, "ペン", 2500, "CD-A02", null, 0));
+        target.insertItem(new Item(900002, "ペン", 2501, "CD-A02", null, 0));
+
+        // When（実行）ID=6、12（筆箱1,000円）は2,000円となるため改定しない
+        List<ItemPriceDelta> bungu = target.repriceRange(new ItemReprice("CD-A01", 100), 5, 12);
+        List<ItemPriceDelta> other = target.repriceRange(new ItemReprice("CD-A02", 100), null, 900002);
+
+        // Then（検証）
+        assertThat(bungu).containsExactlyInAnyOrder(
+                new ItemPriceDelta("ペン", 100, 1),
+                new ItemPriceDelta("ノート", 200, 1),
+                new ItemPriceDelta("コンパス", 300, 1),
+                new ItemPriceDelta("消しゴム", 100, 1),
+                new ItemPriceDelta("えんぴつ", 100, 1));
+        assertThat(other).containsExactly(new ItemPriceDelta("ペン", 2500, 1));
+        assertThat(target.findById(7)).extracting(Item::getPrice, Item::getVersionNo).containsExactly(200, 1);
+        assertThat(target.findById(6)).extracting(Item::getPrice, Item::getVersionNo).containsExactly(1000, 0);
+        assertThat(target.findById(5)).extracting(Item::getPrice, Item::getVersionNo).containsExactly(100, 0);
+        assertThat(target.findById(900001).getPrice()).isEqualTo(5000);
+        assertThat(target.findById(900002).getPrice()).isEqualTo(2501);
+    }
+
+    @Test
+    @DisplayName("一括価格改定で、改定後の価格の円未満が四捨五入されること")
+    void shouldRoundRepricedPrice() {
+        // Given（前提条件）15円の+10％は16.5円、14円の+10％は15.4円
+        target.insertItem(new Item(900001, null, 15, "CD-A02", null, 0));
+        target.insertItem(new Item(900002, null, 14, "CD-A02", null, 0));
+
+        // When（実行）
+        List<ItemPriceDelta> deltas = target.repriceRange(new ItemReprice("CD-A02", 10), null, 900002);
+
+        // Then（検証）
+        assertThat(deltas).containsExactly(new ItemPriceDelta(null, 3, 2));
+        assertThat(target.findById(900001).getPrice()).isEqualTo(17);
+        assertThat(target.findById(900002).getPrice()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("item名称ごとの合計金額に、増減がまとめて加算されること")
+    void shouldAddNameTotals() {
+        // Given（前提条件）初期データの合計金額 ペン=200、ノート=400
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // When（実行）
+        int count = target.addNameTotals(List.of(
+                new ItemPriceDelta("ペン", 100, 1),
+                new ItemPriceDelta("ノート", -50, 1)));
+
+        // Then（検証）
+        assertThat(count).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "select total_price from item_name_total where item_name = 'ペン'", Integer.class)).isEqualTo(300);
+        assertThat(jdbcTemplate.queryForObject(
+                "select total_price from item_name_total where item_name = 'ノート'", Integer.class)).isEqualTo(350);
+    }
+
+    private static Item key(int id, int versionNo) {
+        Item item = new Item();
+        item.setId(id);
+        item.setVersionNo(versionNo);
+        return item;
+    }
+}